@@ -18,6 +18,10 @@ def main(argv):
       help='The path to the output JavaScript template.')
   parser.add_option('-i', '--infile',
       help='The path to the standalone JavaScript to inject into the template.')
+  parser.add_option('-p', '--pagenumbersfile',
+      help='The path to the page numbers JavaScript, which the template '
+      'evaluates on demand. If not given, the page number algorithms are not '
+      'available.')
   parser.add_option('-o', '--outfile',
       help='The path to the output JavaScript.')
   options, _ = parser.parse_args(argv)
@@ -45,7 +49,12 @@ def main(argv):
 
   standalone_js = infile.read()
   template_js = templatefile.read()
+  page_numbers_js = ''
+  if options.pagenumbersfile:
+    with open(options.pagenumbersfile, 'r') as pagenumbersfile:
+      page_numbers_js = pagenumbersfile.read()
   output_js = template_js.replace('$$DISTILLER_JAVASCRIPT', standalone_js)
+  output_js = output_js.replace('$$PAGE_NUMBERS_JAVASCRIPT', page_numbers_js)
   outfile.write(output_js)
   return 0
 
@@ -0,0 +1,167 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.AnchorElement;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.dom.client.Style;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table of the anchors of a document, with everything the pagination algorithms need to know
+ * about each of them: the resolved href, the visible text, the size, the visibility, the class
+ * name and ID, and the position in the document.
+ *
+ * All values are read in one pass that makes no writes to the document, so that style and layout
+ * are computed at most once, and the same snapshot can be shared by PagingLinksFinder (for both
+ * next and previous links) and PageParameterParser.
+ */
+public class AnchorSnapshot {
+    /**
+     * The values read for a single anchor.
+     */
+    public static class Entry {
+        private final AnchorElement mAnchor;
+        private final int mIndex;
+        private final String mHref;
+        private final String mResolvedHref;
+        private final String mText;
+        private final int mWidth;
+        private final int mHeight;
+        private final boolean mVisible;
+        private final String mCursor;
+        private final String mClassName;
+        private final String mId;
+
+        private Entry(AnchorElement anchor, int index, UrlResolver resolver) {
+            mAnchor = anchor;
+            mIndex = index;
+            mHref = anchor.getAttribute("href");
+            mResolvedHref = resolver.resolve(mHref);
+            Style style = DomUtil.getComputedStyle(anchor);
+            mVisible = DomUtil.isVisible(style);
+            mCursor = style.getCursor();
+            mWidth = DomUtil.getOffsetWidth(anchor);
+            mHeight = DomUtil.getOffsetHeight(anchor);
+            // Use javascript innerText (instead of javascript textContent) to only get visible
+            // text.
+            mText = DomUtil.getInnerText(anchor);
+            mClassName = anchor.getAttribute("class");
+            mId = anchor.getId();
+        }
+
+        public AnchorElement getAnchor() {
+            return mAnchor;
+        }
+
+        /**
+         * @return The position of the anchor among all anchors, in document order.
+         */
+        public int getIndex() {
+            return mIndex;
+        }
+
+        /**
+         * @return The value of the href attribute, empty if there is none.
+         */
+        public String getHref() {
+            return mHref;
+        }
+
+        /**
+         * @return The href resolved against the base URL of the document. Note that an empty
+         * href resolves to the base URL.
+         */
+        public String getResolvedHref() {
+            return mResolvedHref;
+        }
+
+        public String getText() {
+            return mText;
+        }
+
+        public int getWidth() {
+            return mWidth;
+        }
+
+        public int getHeight() {
+            return mHeight;
+        }
+
+        public boolean isVisible() {
+            return mVisible;
+        }
+
+        /**
+         * @return The computed value of the cursor style.
+         */
+        public String getCursor() {
+            return mCursor;
+        }
+
+        public String getClassName() {
+            return mClassName;
+        }
+
+        public String getId() {
+            return mId;
+        }
+    }
+
+    private final List<Entry> mEntries;
+    private final Map<Element, Entry> mEntriesByAnchor;
+
+    /**
+     * Reads all the anchors under |root|.
+     * @param root The root of the document.
+     * @param originalUrl The original URL of the document, used to resolve relative hrefs.
+     */
+    public static AnchorSnapshot create(Element root, String originalUrl) {
+        UrlResolver resolver =
+                UrlResolver.get(PagingLinksFinder.getBaseUrlForRelative(root, originalUrl));
+        NodeList<Element> allLinks = root.getElementsByTagName("A");
+        List<Entry> entries = new ArrayList<>(allLinks.getLength());
+        for (int i = 0; i < allLinks.getLength(); i++) {
+            entries.add(new Entry(AnchorElement.as(allLinks.getItem(i)), i, resolver));
+        }
+        return new AnchorSnapshot(entries);
+    }
+
+    private AnchorSnapshot(List<Entry> entries) {
+        mEntries = entries;
+        mEntriesByAnchor = new HashMap<>();
+        for (Entry entry : entries) {
+            mEntriesByAnchor.put(entry.getAnchor(), entry);
+        }
+    }
+
+    /**
+     * @return The entries of all anchors, in document order.
+     */
+    public List<Entry> getEntries() {
+        return mEntries;
+    }
+
+    public int size() {
+        return mEntries.size();
+    }
+
+    public Entry get(int index) {
+        return mEntries.get(index);
+    }
+
+    /**
+     * @return The entry for |anchor|, or null if it was not in the document when the snapshot was
+     * taken.
+     */
+    public Entry getEntry(Element anchor) {
+        return mEntriesByAnchor.get(anchor);
+    }
+}
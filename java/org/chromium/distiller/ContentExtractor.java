@@ -7,16 +7,19 @@ package org.chromium.distiller;
 import org.chromium.distiller.document.TextDocument;
 import org.chromium.distiller.document.TextDocumentStatistics;
 import org.chromium.distiller.extractors.ArticleExtractor;
+import org.chromium.distiller.extractors.StructuredContentExtractor;
 import org.chromium.distiller.proto.DomDistillerProtos.StatisticsInfo;
 import org.chromium.distiller.proto.DomDistillerProtos.TimingEntry;
 import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
 import org.chromium.distiller.webdocument.DomConverter;
 import org.chromium.distiller.webdocument.WebDocument;
 import org.chromium.distiller.webdocument.WebDocumentBuilder;
+import org.chromium.distiller.webdocument.WebEmbed;
 import org.chromium.distiller.webdocument.WebImage;
 import org.chromium.distiller.webdocument.filters.RelevantElements;
 import org.chromium.distiller.webdocument.filters.LeadImageFinder;
 import org.chromium.distiller.webdocument.filters.NestedElementRetainer;
+import org.chromium.distiller.webdocument.filters.OutputCompactor;
 
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
@@ -35,7 +38,10 @@ public class ContentExtractor {
     private final StatisticsInfo mStatisticsInfo;
     private final MarkupParser parser;
     private List<String> imageUrls;
+    private List<WebEmbed> embeds;
     private String textDirection;
+    private boolean structuredDataFastPath;
+    private String extractionPath;
 
     private class WebDocumentInfo {
         WebDocument document;
@@ -49,9 +55,21 @@ public class ContentExtractor {
         mStatisticsInfo = StatisticsInfo.create();
 
         double startTime = DomUtil.getTime();
+        TraceRecorder.begin("MarkupParser");
         parser = new MarkupParser(root, mTimingInfo);
+        TraceRecorder.end("MarkupParser");
         mTimingInfo.setMarkupParsingTime(DomUtil.getTime() - startTime);
         textDirection = "";
+        structuredDataFastPath = false;
+        extractionPath = StructuredContentFinder.PATH_BOILERPIPE;
+    }
+
+    /**
+     * Sets whether to take the content of the article container found by
+     * StructuredContentFinder as is, instead of running the full ArticleExtractor.
+     */
+    public void setStructuredDataFastPath(boolean enabled) {
+        structuredDataFastPath = enabled;
     }
 
     // Grabs a list of candidate titles in descending priority order:
@@ -65,10 +83,11 @@ public class ContentExtractor {
         if (!title.isEmpty()) {
             candidateTitles.add(title);
         }
+        Document doc = DistillationContext.getDocument();
         candidateTitles.add(DocumentTitleGetter.getDocumentTitle(
-                    Document.get().getTitle(), Document.get().getDocumentElement()));
-        if (Document.get().getTitle().getClass() == String.class) {
-            candidateTitles.add(Document.get().getTitle());
+                    doc.getTitle(), doc.getDocumentElement()));
+        if (doc.getTitle().getClass() == String.class) {
+            candidateTitles.add(doc.getTitle());
         }
     }
 
@@ -85,20 +104,64 @@ public class ContentExtractor {
     }
 
     public String extractContent(boolean textOnly) {
+        return extractContent(textOnly, false);
+    }
+
+    /**
+     * Extracts the content of the page.
+     * @param textOnly Whether to output text only.
+     * @param embedFacades Whether to output embeds as click-to-load facades.
+     * @return The distilled HTML or text.
+     */
+    public String extractContent(boolean textOnly, boolean embedFacades) {
+        return extractContent(textOnly, embedFacades, false);
+    }
+
+    /**
+     * Extracts the content of the page.
+     * @param textOnly Whether to output text only.
+     * @param embedFacades Whether to output embeds as click-to-load facades.
+     * @param compactOutput Whether to strip insignificant whitespace and empty or redundant
+     *        inline wrappers from the output.
+     * @return The distilled HTML or text.
+     */
+    public String extractContent(boolean textOnly, boolean embedFacades, boolean compactOutput) {
         double now = DomUtil.getTime();
+        TraceRecorder.begin("DocumentConstruction");
         WebDocumentInfo documentInfo = createWebDocumentInfoFromPage();
+        TraceRecorder.end("DocumentConstruction");
         mTimingInfo.setDocumentConstructionTime(DomUtil.getTime() - now);
 
         now = DomUtil.getTime();
+        TraceRecorder.begin("ArticleProcessing");
         processDocument(documentInfo.document);
+        TraceRecorder.begin("RelevantElements");
         RelevantElements.process(documentInfo.document);
+        TraceRecorder.end("RelevantElements");
+        TraceRecorder.begin("LeadImageFinder");
         LeadImageFinder.process(documentInfo.document);
+        TraceRecorder.end("LeadImageFinder");
+        TraceRecorder.begin("NestedElementRetainer");
         NestedElementRetainer.process(documentInfo.document);
+        TraceRecorder.end("NestedElementRetainer");
+        if (compactOutput && !textOnly) {
+            TraceRecorder.begin("OutputCompactor");
+            OutputCompactor.process(documentInfo.document);
+            TraceRecorder.end("OutputCompactor");
+        }
+        TraceRecorder.end("ArticleProcessing");
 
         mTimingInfo.setArticleProcessingTime(DomUtil.getTime() - now);
 
+        embeds = documentInfo.document.getEmbeds();
+        for (WebEmbed embed : embeds) {
+            embed.setUseFacade(embedFacades);
+        }
+
         now = DomUtil.getTime();
+        TraceRecorder.begin("Formatting");
         String html = documentInfo.document.generateOutput(textOnly);
+        TraceRecorder.end("Formatting", "outputLength", html.length());
         mTimingInfo.setFormattingTime(DomUtil.getTime() - now);
 
         imageUrls = documentInfo.document.getImageUrls();
@@ -139,6 +202,14 @@ public class ContentExtractor {
         return mStatisticsInfo;
     }
 
+    /**
+     * Returns how the content was extracted in the most recent extraction run, see
+     * StructuredContentFinder.
+     */
+    public String getExtractionPath() {
+        return extractionPath;
+    }
+
     /**
      * Get the page's text directionality ("ltr", "rtl", or "auto").
      * @return The page's text direction (default is "auto").
@@ -158,32 +229,70 @@ public class ContentExtractor {
         return imageUrls;
     }
 
+    /**
+     * Get the embeds in the content, e.g. to render click-to-load facades for them.
+     * @return A list of embeds.
+     */
+    public List<WebEmbed> getEmbeds() {
+        return embeds;
+    }
+
     /**
      * Converts the original HTML page into a WebDocument for analysis.
      */
     private WebDocumentInfo createWebDocumentInfoFromPage() {
         WebDocumentInfo info = new WebDocumentInfo();
-        WebDocumentBuilder documentBuilder = new WebDocumentBuilder();
+        // The directions are recorded by the walk and used by the output of the built elements, so
+        // that it doesn't read the computed style of every cloned element.
+        NodeDirections directions = new NodeDirections();
+        WebDocumentBuilder documentBuilder = new WebDocumentBuilder(directions);
 
         NodeList<Element> mobileViewport = DomUtil.querySelectorAll(documentElement,
                 "meta[name=\"viewport\"][content*=\"width=device-width\"]");
-        DomConverter converter = new DomConverter(documentBuilder);
+        DomConverter converter = new DomConverter(documentBuilder, directions);
         converter.setIsMobileFriendly(mobileViewport.getLength() > 0);
 
-        Element walkerRoot = DomUtil.getArticleElement(documentElement);
+        extractionPath = StructuredContentFinder.PATH_BOILERPIPE;
+        Element walkerRoot = null;
+        if (structuredDataFastPath) {
+            double startTime = DomUtil.getTime();
+            StructuredContentFinder.Result structured = StructuredContentFinder.find(
+                    documentElement, parser.getJsonLdArticleBody());
+            LogUtil.addTimingInfo(startTime, mTimingInfo, "StructuredContentFinder");
+            if (structured != null) {
+                walkerRoot = structured.container;
+                extractionPath = structured.path;
+            }
+        }
+        if (walkerRoot == null) {
+            walkerRoot = DomUtil.getArticleElement(documentElement);
+        }
         converter.setHasArticleElement(walkerRoot != null);
 
         if (walkerRoot != null) {
             if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_BOILER_PIPE_PHASES)) {
-                LogUtil.logToConsole("Extracted article element: " + walkerRoot);
+                LogUtil.logToConsole("Extracted article element (" + extractionPath + "): " +
+                        walkerRoot);
             }
         } else {
             walkerRoot = documentElement;
         }
+        converter.setIsInsideEditableArea(TableClassifier.isInsideEditableArea(walkerRoot));
+        TraceRecorder.begin("DomWalker");
         new DomWalker(converter).walk(walkerRoot);
         info.document = documentBuilder.toWebDocument();
+        TraceRecorder.end("DomWalker", "nodes", converter.getNumVisitedNodes(),
+                "webElements", info.document.getElements().size());
+        mStatisticsInfo.setElementsVisited(converter.getNumVisitedElements());
+        mStatisticsInfo.setTextNodesVisited(converter.getNumVisitedTextNodes());
+        mStatisticsInfo.setHiddenSubtreesSkipped(converter.getHiddenElements().size());
+        mStatisticsInfo.setTablesClassified(converter.getNumClassifiedTables());
+        mStatisticsInfo.setWebTexts(info.document.getNumTexts());
+        mStatisticsInfo.setEmbedsExtracted(info.document.getNumEmbeds());
         ensureTitleInitialized();
         info.hiddenElements = converter.getHiddenElements();
+        // The page's direction is the direction of the walk root.
+        textDirection = directions.getRecordedDirection(walkerRoot);
 
         return info;
     }
@@ -196,7 +305,19 @@ public class ContentExtractor {
      */
     private void processDocument(WebDocument document) {
         TextDocument textDocument = document.createTextDocumentView();
-        ArticleExtractor.INSTANCE.process(textDocument, candidateTitles);
+        mStatisticsInfo.setTextBlocksBeforeFusion(textDocument.getTextBlocks().size());
+        if (extractionPath.equals(StructuredContentFinder.PATH_BOILERPIPE)) {
+            TraceRecorder.begin("ArticleExtractor");
+            ArticleExtractor.INSTANCE.process(textDocument, candidateTitles);
+            TraceRecorder.end("ArticleExtractor", "blocks", textDocument.getTextBlocks().size());
+        } else {
+            // The whole document is the article container, so only the cleanup is needed.
+            TraceRecorder.begin("StructuredContentExtractor");
+            StructuredContentExtractor.INSTANCE.process(textDocument);
+            TraceRecorder.end("StructuredContentExtractor", "blocks",
+                    textDocument.getTextBlocks().size());
+        }
+        mStatisticsInfo.setTextBlocksAfterFusion(textDocument.getTextBlocks().size());
         mStatisticsInfo.setWordCount(TextDocumentStatistics.countWordsInContent(textDocument));
         textDocument.applyToModel();
     }
@@ -0,0 +1,328 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.resources.client.ClientBundle;
+import com.google.gwt.resources.client.TextResource;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class predicts whether distilling a page is worthwhile, from cheap features of the page,
+ * without distilling it.
+ *
+ * The features are the ones of the heuristics/distillable pipeline: the raw features are
+ * extracted as in extract_features.js, and the derived ones calculated as in
+ * calculate_derived_features.py, in the same order (without the "id" and "sin" columns).  The
+ * model is a list of AdaBoost decision stumps; a stump adds its weight to the score if its
+ * feature is greater than its split, and the page is distillable if the score is greater than
+ * the threshold of the model.
+ *
+ * The default model is bundled in distillable_model.json, which has this format:
+ *   {"threshold": 1.5,
+ *    "stumps": [{"feature": "mozScore", "split": 20, "weight": 3}, ...]}
+ * The bundled stumps are a placeholder set by hand, until a model trained with
+ * heuristics/distillable replaces them.
+ */
+public class DistillabilityClassifier {
+    static final String[] FEATURE_NAMES = {
+        "openGraph",
+        "forum",
+        "index",
+        "search",
+        "view",
+        "archive",
+        "asp",
+        "phpbb",
+        "php",
+        "pathLength",
+        "domain",
+        "pathComponents",
+        "slugDetector",
+        "pathNumbers",
+        "lastSegmentLength",
+        "visibleRatio",
+        "visiblePPRERatio",
+        "PPRERatio",
+        "anchorPPRERatio",
+        "innerTextLength",
+        "textContentLength",
+        "innerHtmlLength",
+        "innerTextLengthRatio",
+        "textContentLengthRatio",
+        "innerTexttextContentLengthRatio",
+        "innerTextWordCount",
+        "textContentWordCount",
+        "innerhtmlWordCount",
+        "innerTextWordCountRatio",
+        "textContentWordCountRatio",
+        "innerTexttextContentWordCountRatio",
+        "textCount",
+        "passwordCount",
+        "formCount",
+        "anchorCount",
+        "elementCount",
+        "anchorRatio",
+        "mozScore",
+        "mozScoreAllLinear",
+        "mozScoreAllSqrt",
+        "numAnchors",
+        "numElements",
+        "numForms",
+        "numPPRE",
+        "numPasswordInput",
+        "numTextInput",
+    };
+
+    interface Resources extends ClientBundle {
+        @Source("distillable_model.json")
+        TextResource distillableModel();
+    }
+
+    // Both case-insensitive.
+    private static final String UNLIKELY_CANDIDATES =
+            "banner|combx|comment|community|disqus|extra|foot|header|menu|related|remark|rss|" +
+            "share|shoutbox|sidebar|skyscraper|sponsor|ad-break|agegate|pagination|pager|popup";
+    private static final String OK_MAYBE_ITS_A_CANDIDATE = "and|article|body|column|main|shadow";
+
+    private static DistillabilityClassifier sDefault;
+
+    private final int[] mFeatures;
+    private final double[] mSplits;
+    private final double[] mWeights;
+    private final double mThreshold;
+
+    /**
+     * @return The classifier with the bundled model.
+     */
+    public static DistillabilityClassifier getDefault() {
+        if (sDefault == null) {
+            Resources resources = GWT.create(Resources.class);
+            sDefault = fromJson(resources.distillableModel().getText());
+        }
+        return sDefault;
+    }
+
+    /**
+     * @return The classifier with the model in |json|, see the class description for the format.
+     * Throws IllegalArgumentException if a stump refers to an unknown feature.
+     */
+    public static DistillabilityClassifier fromJson(String json) {
+        JavaScriptObject model = parseJson(json);
+        int numStumps = getStumpCount(model);
+        int[] features = new int[numStumps];
+        double[] splits = new double[numStumps];
+        double[] weights = new double[numStumps];
+        List<String> names = Arrays.asList(FEATURE_NAMES);
+        for (int i = 0; i < numStumps; i++) {
+            String name = getStumpFeature(model, i);
+            features[i] = names.indexOf(name);
+            if (features[i] < 0) {
+                throw new IllegalArgumentException("Unknown distillability feature: " + name);
+            }
+            splits[i] = getStumpNumber(model, i, "split");
+            weights[i] = getStumpNumber(model, i, "weight");
+        }
+        return new DistillabilityClassifier(features, splits, weights, getThreshold(model));
+    }
+
+    private DistillabilityClassifier(int[] features, double[] splits, double[] weights,
+            double threshold) {
+        mFeatures = features;
+        mSplits = splits;
+        mWeights = weights;
+        mThreshold = threshold;
+    }
+
+    /**
+     * @return Whether the page loaded in |doc| from |url| is worth distilling.
+     */
+    public boolean isDistillable(Document doc, String url) {
+        return isDistillable(calculateFeatures(doc, url));
+    }
+
+    boolean isDistillable(double[] features) {
+        return score(features) > mThreshold;
+    }
+
+    double score(double[] features) {
+        double score = 0;
+        for (int i = 0; i < mFeatures.length; i++) {
+            if (features[mFeatures[i]] > mSplits[i]) score += mWeights[i];
+        }
+        return score;
+    }
+
+    /**
+     * @return The derived features of the page, in the order of FEATURE_NAMES.
+     */
+    static double[] calculateFeatures(Document doc, String url) {
+        Element body = doc.getBody();
+        NodeList<Element> allElements = DomUtil.querySelectorAll(body, "*");
+        NodeList<Element> pPre = DomUtil.querySelectorAll(body, "p,pre");
+        int numElements = allElements.getLength();
+        int numAnchors = DomUtil.querySelectorAll(body, "a").getLength();
+        int numForms = DomUtil.querySelectorAll(body, "form").getLength();
+        int numTextInput = DomUtil.querySelectorAll(body, "input[type=\"text\"]").getLength();
+        int numPasswordInput =
+                DomUtil.querySelectorAll(body, "input[type=\"password\"]").getLength();
+        int numPPRE = pPre.getLength();
+        int visibleElements = countVisible(allElements);
+        int visiblePPRE = countVisible(pPre);
+
+        String innerText = DomUtil.getInnerText(body);
+        String textContent = DomUtil.javascriptTextContent(body);
+        String innerHTML = body.getInnerHTML();
+        int innerTextWords = countMatches(innerText, "\\w+");
+        int textContentWords = countMatches(textContent, "\\w+");
+        int innerHTMLWords = countMatches(innerHTML, "\\w+");
+
+        ParsedUrl parsedUrl = ParsedUrl.create(url);
+        String path = parsedUrl == null ? "" : parsedUrl.getPath();
+        int lastSlash = path.endsWith("/") ?
+                path.lastIndexOf('/', path.length() - 2) : path.lastIndexOf('/');
+        String lastSegment = path.substring(lastSlash + 1);
+
+        return new double[] {
+            toDouble(hasOpenGraphArticle(doc)),
+            toDouble(path.contains("forum")),
+            toDouble(path.contains("index")),
+            toDouble(path.contains("search")),
+            toDouble(path.contains("view")),
+            toDouble(path.contains("archive")),
+            toDouble(path.contains(".asp")),
+            toDouble(path.contains("phpbb")),
+            toDouble(path.endsWith(".php")),
+            path.length(),
+            toDouble(path.length() < 2),
+            countMatches(path, "\\/."),
+            countMatches(path, "[^\\w/]"),
+            countMatches(path, "\\d+"),
+            lastSegment.length(),
+            ratio(visibleElements, numElements),
+            ratio(visiblePPRE, numPPRE),
+            ratio(numPPRE, numElements),
+            ratio(numAnchors, numPPRE),
+            innerText.length(),
+            textContent.length(),
+            innerHTML.length(),
+            ratio(innerText.length(), innerHTML.length()),
+            ratio(textContent.length(), innerHTML.length()),
+            ratio(innerText.length(), textContent.length()),
+            innerTextWords,
+            textContentWords,
+            innerHTMLWords,
+            ratio(innerTextWords, innerHTMLWords),
+            ratio(textContentWords, innerHTMLWords),
+            ratio(innerTextWords, textContentWords),
+            numTextInput,
+            numPasswordInput,
+            numForms,
+            numAnchors,
+            numElements,
+            ratio(numAnchors, numElements),
+            Math.min(6 * Math.sqrt(1000 - 140), mozScore(pPre, 0.5, 140, 1000)),
+            Math.min(6 * 1000, mozScore(pPre, 1, 0, 1000)),
+            Math.min(6 * Math.sqrt(1000), mozScore(pPre, 0.5, 0, 1000)),
+            numAnchors,
+            numElements,
+            numForms,
+            numPPRE,
+            numPasswordInput,
+            numTextInput,
+        };
+    }
+
+    private static boolean hasOpenGraphArticle(Document doc) {
+        NodeList<Element> types = DomUtil.querySelectorAll(doc.getHead(),
+                "meta[property=\"og:type\"],meta[name=\"og:type\"]");
+        for (int i = 0; i < types.getLength(); i++) {
+            if (types.getItem(i).getAttribute("content").equalsIgnoreCase("article")) return true;
+        }
+        return false;
+    }
+
+    private static boolean isVisible(Element e) {
+        return (DomUtil.getOffsetWidth(e) != 0 || DomUtil.getOffsetHeight(e) != 0) &&
+                DomUtil.isVisible(e);
+    }
+
+    private static int countVisible(NodeList<Element> elements) {
+        int count = 0;
+        for (int i = 0; i < elements.getLength(); i++) {
+            if (isVisible(elements.getItem(i))) count++;
+        }
+        return count;
+    }
+
+    // The readability score of Mozilla: the sum of the saturated text lengths of the visible
+    // paragraphs above |cut|, raised to |power|.  Paragraphs in lists or in likely boilerplate
+    // are ignored.
+    private static double mozScore(NodeList<Element> pPre, double power, int cut, int saturate) {
+        double score = 0;
+        for (int i = 0; i < pPre.getLength(); i++) {
+            Element e = pPre.getItem(i);
+            if (!isVisible(e)) continue;
+            String matchString = e.getClassName() + " " + e.getId();
+            if (RegExpRegistry.get(UNLIKELY_CANDIDATES, "i").test(matchString) &&
+                    !RegExpRegistry.get(OK_MAYBE_ITS_A_CANDIDATE, "i").test(matchString)) {
+                continue;
+            }
+            if (isParagraphInList(e)) continue;
+            int length = Math.min(saturate, DomUtil.javascriptTextContent(e).length());
+            if (length < cut) continue;
+            score += Math.pow(length - cut, power);
+        }
+        return score;
+    }
+
+    private static boolean isParagraphInList(Element e) {
+        if (!e.getTagName().equals("P")) return false;
+        for (Element parent = e.getParentElement(); parent != null;
+                parent = parent.getParentElement()) {
+            if (parent.getTagName().equals("LI")) return true;
+        }
+        return false;
+    }
+
+    private static double ratio(double numerator, double denominator) {
+        return numerator / Math.max(1, denominator);
+    }
+
+    private static double toDouble(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    private static native int countMatches(String s, String regex) /*-{
+        var matches = s.match(new RegExp(regex, "g"));
+        return matches ? matches.length : 0;
+    }-*/;
+
+    private static native JavaScriptObject parseJson(String json) /*-{
+        return JSON.parse(json);
+    }-*/;
+
+    private static native int getStumpCount(JavaScriptObject model) /*-{
+        return model.stumps.length;
+    }-*/;
+
+    private static native String getStumpFeature(JavaScriptObject model, int i) /*-{
+        return model.stumps[i].feature;
+    }-*/;
+
+    private static native double getStumpNumber(JavaScriptObject model, int i, String key) /*-{
+        return model.stumps[i][key];
+    }-*/;
+
+    private static native double getThreshold(JavaScriptObject model) /*-{
+        return model.threshold;
+    }-*/;
+}
@@ -0,0 +1,72 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Document;
+
+/**
+ * The document that the current run of DomDistiller distills, and the lifetime of the state of
+ * the run.
+ *
+ * Code that needs the document of the run gets it from getDocument() instead of Document.get(), so
+ * that one loaded distiller can distill other documents too, e.g. those of same-origin iframes or
+ * from DOMParser, without evaluating the script again for each one. Outside of a run, e.g. in
+ * tests, that's the document of the window.
+ *
+ * The state of a run that is kept in static fields, e.g. by LogUtil, StringUtil and
+ * TableClassifier, is reset when a run begins, so that it doesn't see anything the previous run
+ * left, whichever document that was on. Caches that don't depend on the document, e.g. of compiled
+ * RegExps, are kept.
+ */
+public class DistillationContext {
+    private static DistillationContext sCurrent;
+
+    private final Document mDocument;
+
+    private DistillationContext(Document document) {
+        mDocument = document;
+    }
+
+    /**
+     * Begins a run on |document|, which resets the state of the previous run.
+     */
+    static void begin(Document document) {
+        resetRunState();
+        sCurrent = new DistillationContext(document);
+    }
+
+    /**
+     * Ends the current run, if any. The state of the run is kept until the next one begins, e.g.
+     * for debugging.
+     */
+    static void end() {
+        sCurrent = null;
+    }
+
+    /**
+     * @return Whether a run has begun and not ended.
+     */
+    static boolean isActive() {
+        return sCurrent != null;
+    }
+
+    /**
+     * @return The document of the current run, or that of the window outside of a run.
+     */
+    public static Document getDocument() {
+        return sCurrent != null ? sCurrent.mDocument : Document.get();
+    }
+
+    private static void resetRunState() {
+        LogUtil.reset();
+        StringUtil.resetWordCounter();
+        TableClassifier.sReason = null;
+        UrlResolver.clearCache();
+        DomUtil.resetReadCounters();
+        // A run that threw may have left these on.
+        TraceRecorder.stop();
+        LayoutAudit.stop();
+    }
+}
@@ -9,6 +9,7 @@ import org.chromium.distiller.proto.DomDistillerProtos.DebugInfo;
 import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
 import org.chromium.distiller.DomUtil;
 import org.chromium.distiller.StringUtil;
+import org.chromium.distiller.webdocument.WebEmbed;
 
 import com.google.gwt.core.client.js.JsExport;
 import com.google.gwt.dom.client.Document;
@@ -20,16 +21,66 @@ public class DomDistiller {
         return applyWithOptions(DomDistillerProtos.DomDistillerOptions.create());
     }
 
+    /**
+     * Predicts whether the current page is worth distilling, without distilling it.  Only
+     * original_url of |options| is used. The bundled model is a placeholder for now, see
+     * DistillabilityClassifier.
+     */
+    @JsExport
+    public static boolean isDistillable(DomDistillerProtos.DomDistillerOptions options) {
+        return isDistillable(DistillationContext.getDocument(), options);
+    }
+
+    /**
+     * Predicts whether |doc| is worth distilling, like isDistillable(options) does for the current
+     * page. Exported as isDocumentDistillable, next to applyToDocument, since exported methods
+     * can't be overloaded.
+     */
+    @JsExport("isDocumentDistillable")
+    public static boolean isDistillable(Document doc,
+            DomDistillerProtos.DomDistillerOptions options) {
+        // iOS doesn't support reading window.location.href, so we use document.URL instead.
+        String url = options.hasOriginalUrl() ? options.getOriginalUrl() : doc.getURL();
+        return DistillabilityClassifier.getDefault().isDistillable(doc, url);
+    }
+
     @JsExport
     public static DomDistillerProtos.DomDistillerResult applyWithOptions(
             DomDistillerProtos.DomDistillerOptions options) {
+        return applyToDocument(Document.get(), options);
+    }
+
+    /**
+     * Distills |doc|, which can be another document than that of the window, e.g. that of a
+     * same-origin iframe or one from DOMParser, so that a loaded distiller can distill many
+     * documents in a loop. A document without a browsing context, like one from DOMParser, has no
+     * layout, so the heuristics that use the size of elements don't apply to it.
+     */
+    @JsExport
+    public static DomDistillerProtos.DomDistillerResult applyToDocument(Document doc,
+            DomDistillerProtos.DomDistillerOptions options) {
+        DistillationContext.begin(doc);
+        try {
+            return distill(doc, options);
+        } finally {
+            DistillationContext.end();
+        }
+    }
+
+    private static DomDistillerProtos.DomDistillerResult distill(Document doc,
+            DomDistillerProtos.DomDistillerOptions options) {
         double startTime = DomUtil.getTime();
-        StringUtil.setWordCounter(
-                DomUtil.javascriptTextContent(Document.get().getDocumentElement()));
+        if (options.hasRecordTrace() && options.getRecordTrace()) {
+            TraceRecorder.start();
+        }
+        if (options.hasAuditLayout() && options.getAuditLayout()) {
+            LayoutAudit.start(doc);
+        }
+        TraceRecorder.begin("DomDistiller.applyWithOptions");
+        StringUtil.setWordCounter(DomUtil.javascriptTextContent(doc.getDocumentElement()));
         DomDistillerProtos.DomDistillerResult result =
                 DomDistillerProtos.DomDistillerResult.create();
-        ContentExtractor contentExtractor =
-                new ContentExtractor(Document.get().getDocumentElement());
+        ContentExtractor contentExtractor = new ContentExtractor(doc.getDocumentElement());
         result.setTitle(contentExtractor.extractTitle());
 
         LogUtil.setDebugLevel(
@@ -38,7 +89,11 @@ public class DomDistiller {
 
         DomDistillerProtos.DistilledContent content = DomDistillerProtos.DistilledContent.create();
         boolean textOnly = options.hasExtractTextOnly() && options.getExtractTextOnly();
-        content.setHtml(contentExtractor.extractContent(textOnly));
+        boolean embedFacades = options.hasEmbedFacades() && options.getEmbedFacades();
+        boolean compactOutput = options.hasCompactOutput() && options.getCompactOutput();
+        contentExtractor.setStructuredDataFastPath(
+                options.hasStructuredDataFastPath() && options.getStructuredDataFastPath());
+        content.setHtml(contentExtractor.extractContent(textOnly, embedFacades, compactOutput));
         result.setDistilledContent(content);
         result.setTextDirection(contentExtractor.getTextDirection());
 
@@ -46,37 +101,88 @@ public class DomDistiller {
             result.addContentImages().setUrl(url);
         }
 
+        for (WebEmbed embed : contentExtractor.getEmbeds()) {
+            DomDistillerProtos.DomDistillerResult.ContentEmbed contentEmbed =
+                    result.addContentEmbeds();
+            contentEmbed.setType(embed.getType());
+            contentEmbed.setId(embed.getId());
+            if (!embed.getPosterUrl().isEmpty()) contentEmbed.setPosterUrl(embed.getPosterUrl());
+            if (!embed.getTitle().isEmpty()) contentEmbed.setTitle(embed.getTitle());
+            if (embed.getWidth() > 0 && embed.getHeight() > 0) {
+                contentEmbed.setWidth(embed.getWidth());
+                contentEmbed.setHeight(embed.getHeight());
+            }
+        }
+
         // iOS doesn't support reading window.location.href, so we use document.URL instead.
-        String originalUrl =
-                options.hasOriginalUrl() ? options.getOriginalUrl() : Document.get().getURL();
+        String originalUrl = options.hasOriginalUrl() ? options.getOriginalUrl() : doc.getURL();
         TimingInfo timingInfo = contentExtractor.getTimingInfo();
         double stPaging = DomUtil.getTime();
         String paginationAlgo = options.hasPaginationAlgo() ? options.getPaginationAlgo() : "next";
-        if (paginationAlgo.equals("pagenum")) {
-            PageParamInfo paramInfo = PageParameterParser.parse(originalUrl, timingInfo);
-            DomDistillerProtos.PaginationInfo info = DomDistillerProtos.PaginationInfo.create();
-            String next = paramInfo.mNextPagingUrl;
-            if (!next.isEmpty()) {
-                info.setNextPage(next);
-            }
-            result.setPaginationInfo(info);
+        boolean pageNumbers = paginationAlgo.equals("pagenum") || paginationAlgo.equals("all");
+        if (pageNumbers && !PageNumberModule.load()) {
             if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_PAGING_INFO)) {
-                LogUtil.logToConsole("paging by pagenum: " + paramInfo.toString());
+                LogUtil.logToConsole(
+                        "paging by " + paginationAlgo + " isn't available, falling back to next");
             }
+            pageNumbers = false;
+        }
+        int anchorsScanned;
+        if (pageNumbers) {
+            TraceRecorder.begin("PageNumberPagination");
+            DomDistillerProtos.DomDistillerResult pagination = PageNumberModule.paginate(
+                    doc, options, originalUrl, timingInfo);
+            TraceRecorder.end("PageNumberPagination");
+            LogUtil.appendToLog(pagination.getDebugInfo().getLog());
+            result.setPaginationInfo(pagination.getPaginationInfo());
+            if (pagination.hasPaginationPatterns()) {
+                result.setPaginationPatterns(pagination.getPaginationPatterns());
+            }
+            anchorsScanned = pagination.getStatisticsInfo().getAnchorsScanned();
         } else {
+            TraceRecorder.begin("AnchorSnapshot");
+            AnchorSnapshot anchors = AnchorSnapshot.create(doc.getDocumentElement(), originalUrl);
+            TraceRecorder.end("AnchorSnapshot", "anchors", anchors.size());
+            anchorsScanned = anchors.size();
+            // The remembered patterns come only from the snapshot in |options|, so that nothing
+            // is carried over from the runs on other documents.
+            LruPaginationPatternStore patternStore = null;
+            if (options.hasPaginationPatterns()) {
+                patternStore = new LruPaginationPatternStore();
+                patternStore.loadSnapshot(options.getPaginationPatterns());
+            }
             if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_PAGING_INFO)) {
                 LogUtil.logToConsole("paging by next");
             }
-            result.setPaginationInfo(PagingLinksFinder.getPaginationInfo(originalUrl));
+            TraceRecorder.begin("PagingLinksFinder");
+            result.setPaginationInfo(
+                    PagingLinksFinder.getPaginationInfo(anchors, originalUrl, patternStore));
+            TraceRecorder.end("PagingLinksFinder");
+            if (patternStore != null) {
+                result.setPaginationPatterns(patternStore.saveSnapshot());
+            }
         }
         LogUtil.addTimingInfo(stPaging, timingInfo, "Pagination");
 
         result.setMarkupInfo(contentExtractor.getMarkupParser().getMarkupInfo());
         timingInfo.setTotalTime(DomUtil.getTime() - startTime);
         result.setTimingInfo(timingInfo);
-        result.setStatisticsInfo(contentExtractor.getStatisticsInfo());
+        DomDistillerProtos.StatisticsInfo statisticsInfo = contentExtractor.getStatisticsInfo();
+        statisticsInfo.setAnchorsScanned(anchorsScanned);
+        statisticsInfo.setComputedStyleReads(DomUtil.getNumComputedStyleReads());
+        statisticsInfo.setLayoutReads(DomUtil.getNumLayoutReads());
+        statisticsInfo.setOutputLength(content.getHtml().length());
+        result.setStatisticsInfo(statisticsInfo);
         DebugInfo debugInfo = DebugInfo.create();
         debugInfo.setLog(LogUtil.getAndClearLog());
+        debugInfo.setExtractionPath(contentExtractor.getExtractionPath());
+        TraceRecorder.end("DomDistiller.applyWithOptions");
+        if (TraceRecorder.isEnabled()) {
+            debugInfo.setTrace(TraceRecorder.stop());
+        }
+        if (LayoutAudit.isEnabled()) {
+            debugInfo.setLayoutAudit(LayoutAudit.stop());
+        }
         result.setDebugInfo(debugInfo);
         return result;
     }
@@ -22,6 +22,24 @@ import java.util.List;
 import java.util.Map;
 
 public class DomUtil {
+    // The reads of computed styles and of layout information since resetReadCounters(), see
+    // StatisticsInfo.
+    private static int sNumComputedStyleReads = 0;
+    private static int sNumLayoutReads = 0;
+
+    public static void resetReadCounters() {
+        sNumComputedStyleReads = 0;
+        sNumLayoutReads = 0;
+    }
+
+    public static int getNumComputedStyleReads() {
+        return sNumComputedStyleReads;
+    }
+
+    public static int getNumLayoutReads() {
+        return sNumLayoutReads;
+    }
+
     /**
      * GWT does not provide a way to get a list of all attributes that have been explicitly set on a
      * DOM element (only a way to query the value of a particular attribute). In javascript, this
@@ -77,9 +95,9 @@ public class DomUtil {
         if (url == null || root == null) {
             return false;
         }
-        AnchorElement anchor = Document.get().createAnchorElement();
-        anchor.setHref(url);
-        String host = anchor.getPropertyString("host");
+        String baseUri = getBaseUri(DistillationContext.getDocument());
+        ParsedUrl parsedUrl = UrlResolver.get(baseUri).resolveToParsedUrl(url);
+        String host = parsedUrl == null ? "" : parsedUrl.getHost();
         return ("." + host).endsWith("." + root);
     }
 
@@ -109,12 +127,90 @@ public class DomUtil {
       * basic computation the style's value(s) may contain.
       * @param el - DOM element
     */
-    public static native Style getComputedStyle(Element el) /*-{
+    public static Style getComputedStyle(Element el) {
+        sNumComputedStyleReads++;
+        if (!LayoutAudit.isEnabled()) return getComputedStyleImpl(el);
+        LayoutAudit.beginRead();
+        Style style = getComputedStyleImpl(el);
+        // The style is only resolved when one of its properties is read, so read one to include
+        // the recalc in the audited time.
+        style.getDisplay();
+        LayoutAudit.endRead("computedStyle");
+        return style;
+    }
+
+    private static native Style getComputedStyleImpl(Element el) /*-{
       return getComputedStyle(el, null);
     }-*/;
 
+    /**
+     * Same as e.getOffsetWidth(), counted as a layout read.
+     */
+    public static int getOffsetWidth(Element e) {
+        sNumLayoutReads++;
+        if (!LayoutAudit.isEnabled()) return e.getOffsetWidth();
+        LayoutAudit.beginRead();
+        int width = e.getOffsetWidth();
+        LayoutAudit.endRead("offsetWidth");
+        return width;
+    }
+
+    /**
+     * Same as e.getOffsetHeight(), counted as a layout read.
+     */
+    public static int getOffsetHeight(Element e) {
+        sNumLayoutReads++;
+        if (!LayoutAudit.isEnabled()) return e.getOffsetHeight();
+        LayoutAudit.beginRead();
+        int height = e.getOffsetHeight();
+        LayoutAudit.endRead("offsetHeight");
+        return height;
+    }
+
+    /**
+     * Same as e.getClientHeight(), counted as a layout read.
+     */
+    public static int getClientHeight(Element e) {
+        sNumLayoutReads++;
+        if (!LayoutAudit.isEnabled()) return e.getClientHeight();
+        LayoutAudit.beginRead();
+        int height = e.getClientHeight();
+        LayoutAudit.endRead("clientHeight");
+        return height;
+    }
+
+    /**
+     * Same as image.getWidth(), i.e. the rendered width, counted as a layout read.
+     */
+    public static int getImageWidth(ImageElement image) {
+        sNumLayoutReads++;
+        if (!LayoutAudit.isEnabled()) return image.getWidth();
+        LayoutAudit.beginRead();
+        int width = image.getWidth();
+        LayoutAudit.endRead("width");
+        return width;
+    }
+
+    /**
+     * Same as image.getHeight(), i.e. the rendered height, counted as a layout read.
+     */
+    public static int getImageHeight(ImageElement image) {
+        sNumLayoutReads++;
+        if (!LayoutAudit.isEnabled()) return image.getHeight();
+        LayoutAudit.beginRead();
+        int height = image.getHeight();
+        LayoutAudit.endRead("height");
+        return height;
+    }
+
     public static boolean isVisible(Element e) {
-        Style style = getComputedStyle(e);
+        return isVisible(getComputedStyle(e));
+    }
+
+    /**
+     * Same as {@link #isVisible(Element)}, for callers that have already read the computed style.
+     */
+    public static boolean isVisible(Style style) {
         double opacity = JavaScript.parseFloat(style.getOpacity());
         return !(style.getDisplay().equals("none") ||
                 style.getVisibility().equals("hidden") ||
@@ -129,7 +225,16 @@ public class DomUtil {
         // Using offsetParent alone wouldn't work because it's also null when position is fixed.
         // Using offsetHeight/Width alone makes sense in production, but we have too many
         // zero-sized elements in our tests.
-        return e.getOffsetParent() != null || e.getOffsetHeight() != 0 || e.getOffsetWidth() != 0;
+        return hasOffsetParent(e) || getOffsetHeight(e) != 0 || getOffsetWidth(e) != 0;
+    }
+
+    private static boolean hasOffsetParent(Element e) {
+        sNumLayoutReads++;
+        if (!LayoutAudit.isEnabled()) return e.getOffsetParent() != null;
+        LayoutAudit.beginRead();
+        boolean hasOffsetParent = e.getOffsetParent() != null;
+        LayoutAudit.endRead("offsetParent");
+        return hasOffsetParent;
     }
 
     /**
@@ -177,10 +282,27 @@ public class DomUtil {
      * implementation of Element::getInnerText(), which is intentionally different to mimic an old
      * IE behaviour, which returns text within <script> tags.
      */
-    public static native String getInnerText(Node node) /*-{
+    public static String getInnerText(Node node) {
+        // innerText depends on the rendering, so it is counted as a layout read.
+        sNumLayoutReads++;
+        if (!LayoutAudit.isEnabled()) return getInnerTextImpl(node);
+        LayoutAudit.beginRead();
+        String text = getInnerTextImpl(node);
+        LayoutAudit.endRead("innerText");
+        return text;
+    }
+
+    private static native String getInnerTextImpl(Node node) /*-{
         return node.innerText;
     }-*/;
 
+    /**
+     * @Return The base URL used to resolve relative URLs in the document of |node|.
+     */
+    public static native String getBaseUri(Node node) /*-{
+        return node.baseURI;
+    }-*/;
+
     public static native double getTime() /*-{
         // window.performance is unavailable in Gwt's dev environment and even referencing it on iOS
         // causes a crash.
@@ -272,15 +394,16 @@ public class DomUtil {
     /**
      * Clone and process a list of relevant nodes for output.
      * @param outputNodes The list of nodes in a subtree that are considered relevant.
+     * @param directions The text directions of the nodes.
      * @return Element for displayable HTML content.
      */
-    public static Element cloneAndProcessList(List<Node> outputNodes) {
+    public static Element cloneAndProcessList(List<Node> outputNodes, NodeDirections directions) {
         if (outputNodes.size() == 0) {
             return null;
         }
 
         NodeTree expanded = NodeListExpander.expand(outputNodes);
-        Node clonedSubtree = expanded.cloneSubtreeRetainDirection();
+        Node clonedSubtree = expanded.cloneSubtreeRetainDirection(directions);
 
         if (clonedSubtree.getNodeType() != Node.ELEMENT_NODE) return null;
 
@@ -354,14 +477,13 @@ public class DomUtil {
             return;
         }
 
-        ImageElement holder = Document.get().createImageElement();
+        UrlResolver resolver = UrlResolver.get(getBaseUri(ie));
         String[] sizes = StringUtil.jsSplit(srcset, ",");
         for(int i = 0; i < sizes.length; i++) {
             String size = StringUtil.jsTrim(sizes[i]);
             if (size.isEmpty()) continue;
             String[] comp = size.split(" ");
-            holder.setSrc(comp[0]);
-            comp[0] = holder.getSrc();
+            comp[0] = resolver.resolve(comp[0]);
             sizes[i] = StringUtil.join(comp, " ");
         }
         ie.setAttribute("srcset", StringUtil.join(sizes, ", "));
@@ -572,7 +694,7 @@ public class DomUtil {
 
     public static int getArea(Element e) {
         if (e != null) {
-            return e.getOffsetHeight() * e.getOffsetWidth();
+            return getOffsetHeight(e) * getOffsetWidth(e);
         }
         return 0;
     }
@@ -584,7 +706,14 @@ public class DomUtil {
      * @return The output for the provided subtree.
      */
     public static Element cloneAndProcessTree(Node subtree) {
-        return cloneAndProcessList(getOutputNodes(subtree));
+        return cloneAndProcessTree(subtree, new NodeDirections());
+    }
+
+    /**
+     * Same as {@link #cloneAndProcessTree(Node)}, with the text directions recorded for the nodes.
+     */
+    public static Element cloneAndProcessTree(Node subtree, NodeDirections directions) {
+        return cloneAndProcessList(getOutputNodes(subtree), directions);
     }
 
     // Returns whether querySelectorAll is available
@@ -202,8 +202,8 @@ public class IEReadingViewParser implements MarkupParser.Accessor {
                 MarkupParser.Image image = new MarkupParser.Image();
                 image.url = imgElem.getSrc();
                 image.caption = caption;
-                image.width = imgElem.getWidth();
-                image.height = imgElem.getHeight();
+                image.width = DomUtil.getImageWidth(imgElem);
+                image.height = DomUtil.getImageHeight(imgElem);
                 mImages.add(image);
             }
         }
@@ -225,9 +225,9 @@ public class IEReadingViewParser implements MarkupParser.Accessor {
 
     private static boolean isImageRelevantBySize(ImageElement image) {
         // Relevant image size: width >= 400 and aspect ratio between 1.3 and 3.0 inclusively.
-        int width = image.getWidth();
+        int width = DomUtil.getImageWidth(image);
         if (width < 400) return false;
-        double aspectRatio = (double) width / (double) image.getHeight();
+        double aspectRatio = (double) width / (double) DomUtil.getImageHeight(image);
         return aspectRatio >= 1.3 && aspectRatio <= 3.0;
     }
 
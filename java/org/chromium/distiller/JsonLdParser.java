@@ -0,0 +1,192 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.NodeList;
+
+/**
+ * This class recognizes and parses JSON-LD structured data, i.e. the JSON in
+ * <script type="application/ld+json"> tags, and returns the properties of the first schema.org
+ * Article (or one of its subtypes, e.g. NewsArticle) that it contains.
+ * See http://www.w3.org/TR/json-ld/ and https://schema.org/Article.
+ *
+ * The JSON is parsed with the native JSON.parse(), and the properties are read straight from the
+ * resulting objects.  A property value can be a string, an object (e.g. a Person for "author" or an
+ * ImageObject for "image"), or an array of them, so the getters flatten them as the schema.org
+ * microdata parser does.
+ */
+public class JsonLdParser {
+    static final String HEADLINE_PROP = "headline";
+    static final String NAME_PROP = "name";
+    static final String URL_PROP = "url";
+    static final String MAIN_ENTITY_PROP = "mainEntityOfPage";
+    static final String DESCRIPTION_PROP = "description";
+    static final String IMAGE_PROP = "image";
+    static final String THUMBNAIL_URL_PROP = "thumbnailUrl";
+    static final String PUBLISHER_PROP = "publisher";
+    static final String COPYRIGHT_HOLDER_PROP = "copyrightHolder";
+    static final String COPYRIGHT_YEAR_PROP = "copyrightYear";
+    static final String AUTHOR_PROP = "author";
+    static final String CREATOR_PROP = "creator";
+    static final String DATE_PUBLISHED_PROP = "datePublished";
+    static final String DATE_MODIFIED_PROP = "dateModified";
+    static final String EXPIRES_PROP = "expires";
+    static final String SECTION_PROP = "articleSection";
+    static final String ARTICLE_BODY_PROP = "articleBody";
+
+    private final JavaScriptObject mArticle;
+
+    /**
+     * Parses the JSON-LD scripts under |root|.
+     *
+     * @return The parser, or null if no script has an article.
+     */
+    public static JsonLdParser parse(Element root, TimingInfo timingInfo) {
+        double startTime = DomUtil.getTime();
+        JsonLdParser parser = null;
+        NodeList<Element> scripts =
+                DomUtil.querySelectorAll(root, "script[type=\"application/ld+json\"]");
+        for (int i = 0; i < scripts.getLength() && parser == null; i++) {
+            JavaScriptObject article =
+                    findArticle(parseJson(DomUtil.javascriptTextContent(scripts.getItem(i))));
+            if (article != null) parser = new JsonLdParser(article);
+        }
+        LogUtil.addTimingInfo(startTime, timingInfo, "JsonLdParser.parse");
+        return parser;
+    }
+
+    private JsonLdParser(JavaScriptObject article) {
+        mArticle = article;
+    }
+
+    /**
+     * Returns the text value of property |name| of the article, empty string if none.  For an
+     * array, the first value is used; for an object, its name.
+     */
+    String getStringProperty(String name) {
+        return getText(mArticle, name);
+    }
+
+    /**
+     * Returns the names of the people or organizations in property |name| of the article, e.g.
+     * "author", empty array if none.
+     */
+    String[] getNames(String name) {
+        JsArrayString names = getNames(mArticle, name);
+        String[] result = new String[names.length()];
+        for (int i = 0; i < names.length(); i++) {
+            result[i] = names.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the images in property |name| of the article, which can be URLs or ImageObject's,
+     * empty array if none.
+     */
+    MarkupParser.Image[] getImages(String name) {
+        JsArray<JavaScriptObject> images = getImages(mArticle, name);
+        MarkupParser.Image[] result = new MarkupParser.Image[images.length()];
+        for (int i = 0; i < images.length(); i++) {
+            MarkupParser.Image image = new MarkupParser.Image();
+            image.url = getText(images.get(i), "url");
+            image.caption = getText(images.get(i), "caption");
+            image.width = JavaScript.parseInt(getText(images.get(i), "width"), 10);
+            image.height = JavaScript.parseInt(getText(images.get(i), "height"), 10);
+            result[i] = image;
+        }
+        return result;
+    }
+
+    private static native JavaScriptObject parseJson(String text) /*-{
+        try {
+            return JSON.parse(text);
+        } catch (e) {
+            return null;
+        }
+    }-*/;
+
+    // Returns the first object, in breadth-first order, whose "@type" is Article or one of its
+    // subtypes, looking into arrays and "@graph" containers.
+    private static native JavaScriptObject findArticle(JavaScriptObject json) /*-{
+        var articleType = new RegExp("^(https?://schema\\.org/)?(Article|NewsArticle|" +
+                "AnalysisNewsArticle|BackgroundNewsArticle|OpinionNewsArticle|" +
+                "ReportageNewsArticle|ReviewNewsArticle|BlogPosting|LiveBlogPosting|Report|" +
+                "ScholarlyArticle|TechArticle|SocialMediaPosting)$");
+        var queue = [json];
+        while (queue.length > 0) {
+            var item = queue.shift();
+            if (!item || typeof item !== 'object') continue;
+            if (Array.isArray(item)) {
+                Array.prototype.push.apply(queue, item);
+                continue;
+            }
+            var types = Array.isArray(item['@type']) ? item['@type'] : [item['@type']];
+            for (var i = 0; i < types.length; i++) {
+                if (typeof types[i] === 'string' && articleType.test(types[i])) return item;
+            }
+            if (item['@graph']) queue.push(item['@graph']);
+        }
+        return null;
+    }-*/;
+
+    private static native String getText(JavaScriptObject obj, String name) /*-{
+        var value = obj[name];
+        if (Array.isArray(value)) value = value[0];
+        if (value && typeof value === 'object') {
+            value = value['name'] !== undefined ? value['name'] : value['@id'];
+        }
+        if (typeof value === 'string') return value.trim();
+        if (typeof value === 'number') return String(value);
+        return "";
+    }-*/;
+
+    private static native JsArrayString getNames(JavaScriptObject obj, String name) /*-{
+        var values = obj[name];
+        if (values === undefined || values === null) return [];
+        if (!Array.isArray(values)) values = [values];
+        var names = [];
+        for (var i = 0; i < values.length; i++) {
+            var value = values[i];
+            if (value && typeof value === 'object') {
+                value = value['name'] ||
+                        [value['givenName'], value['familyName']].join(' ').trim() ||
+                        value['legalName'];
+            }
+            if (typeof value === 'string' && value.trim()) names.push(value.trim());
+        }
+        return names;
+    }-*/;
+
+    private static native JsArray<JavaScriptObject> getImages(JavaScriptObject obj,
+            String name) /*-{
+        var values = obj[name];
+        if (values === undefined || values === null) return [];
+        if (!Array.isArray(values)) values = [values];
+        var images = [];
+        for (var i = 0; i < values.length; i++) {
+            var value = values[i];
+            if (typeof value === 'string') {
+                images.push({'url': value});
+            } else if (value && typeof value === 'object') {
+                var url = value['url'] || value['contentUrl'];
+                if (typeof url !== 'string') continue;
+                images.push({
+                    'url': url,
+                    'caption': value['caption'],
+                    'width': value['width'],
+                    'height': value['height']
+                });
+            }
+        }
+        return images;
+    }-*/;
+}
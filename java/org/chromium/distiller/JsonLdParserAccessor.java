@@ -0,0 +1,156 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * This class instantiates JsonLdParser and implements MarkupParser.Accessor interface to provide
+ * access to the properties of the JSON-LD article of the document.
+ */
+public class JsonLdParserAccessor implements MarkupParser.Accessor {
+
+    private final Element mRoot;
+    private final TimingInfo mTimingInfo;
+
+    private JsonLdParser mParser;
+    private boolean mInitialized;
+
+    public JsonLdParserAccessor(Element root) {
+        this(root, null);
+    }
+
+    public JsonLdParserAccessor(Element root, TimingInfo timingInfo) {
+        mRoot = root;
+        mTimingInfo = timingInfo;
+        mInitialized = false;
+    }
+
+    /**
+     * Calls JsonLdParser.parse only once.
+     *
+     * @return true if the document has a JSON-LD article, false otherwise.
+     */
+    private boolean init() {
+        if (!mInitialized) {
+            mParser = JsonLdParser.parse(mRoot, mTimingInfo);
+            mInitialized = true;
+        }
+        return mParser != null;
+    }
+
+    /**
+     * Returns the "headline" of the article, or its "name" if none.
+     */
+    @Override
+    public String getTitle() {
+        if (!init()) return "";
+        String title = mParser.getStringProperty(JsonLdParser.HEADLINE_PROP);
+        return title.isEmpty() ? mParser.getStringProperty(JsonLdParser.NAME_PROP) : title;
+    }
+
+    /**
+     * Returns MarkupParser.ARTICLE_TYPE if the document has a JSON-LD article, empty string
+     * otherwise.
+     */
+    @Override
+    public String getType() {
+        return init() ? MarkupParser.ARTICLE_TYPE : "";
+    }
+
+    /**
+     * Returns the "url" of the article, or its "mainEntityOfPage" if none.
+     */
+    @Override
+    public String getUrl() {
+        if (!init()) return "";
+        String url = mParser.getStringProperty(JsonLdParser.URL_PROP);
+        return url.isEmpty() ? mParser.getStringProperty(JsonLdParser.MAIN_ENTITY_PROP) : url;
+    }
+
+    /**
+     * Returns the "image"s of the article, or its "thumbnailUrl" if none.
+     */
+    @Override
+    public MarkupParser.Image[] getImages() {
+        if (!init()) return new MarkupParser.Image[0];
+        MarkupParser.Image[] images = mParser.getImages(JsonLdParser.IMAGE_PROP);
+        return images.length > 0 ? images : mParser.getImages(JsonLdParser.THUMBNAIL_URL_PROP);
+    }
+
+    @Override
+    public String getDescription() {
+        return init() ? mParser.getStringProperty(JsonLdParser.DESCRIPTION_PROP) : "";
+    }
+
+    /**
+     * Returns the name of the "publisher" of the article.
+     */
+    @Override
+    public String getPublisher() {
+        return init() ? mParser.getStringProperty(JsonLdParser.PUBLISHER_PROP) : "";
+    }
+
+    /**
+     * Returns the concatenated "copyrightYear" and "copyrightHolder" of the article, as
+     * SchemaOrgParser does for microdata.
+     */
+    @Override
+    public String getCopyright() {
+        if (!init()) return "";
+        String copyright = (mParser.getStringProperty(JsonLdParser.COPYRIGHT_YEAR_PROP) + " " +
+                mParser.getStringProperty(JsonLdParser.COPYRIGHT_HOLDER_PROP)).trim();
+        return copyright.isEmpty() ? copyright : "Copyright " + copyright;
+    }
+
+    /**
+     * Returns the names of the "author"s of the article, or of its "creator"s if none, delimited
+     * by commas.
+     */
+    @Override
+    public String getAuthor() {
+        if (!init()) return "";
+        return StringUtil.join(getAuthors(), ", ");
+    }
+
+    @Override
+    public MarkupParser.Article getArticle() {
+        if (!init()) return null;
+        MarkupParser.Article article = new MarkupParser.Article();
+        article.publishedTime = mParser.getStringProperty(JsonLdParser.DATE_PUBLISHED_PROP);
+        article.modifiedTime = mParser.getStringProperty(JsonLdParser.DATE_MODIFIED_PROP);
+        article.expirationTime = mParser.getStringProperty(JsonLdParser.EXPIRES_PROP);
+        article.section = mParser.getStringProperty(JsonLdParser.SECTION_PROP);
+        article.authors = getAuthors();
+
+        if (article.section.isEmpty() &&
+                article.publishedTime.isEmpty() &&
+                article.modifiedTime.isEmpty() &&
+                article.expirationTime.isEmpty() &&
+                article.authors.length == 0) {
+            return null;
+        }
+        return article;
+    }
+
+    /**
+     * Returns the plain text "articleBody" of the article, empty string if none.
+     */
+    public String getArticleBody() {
+        return init() ? mParser.getStringProperty(JsonLdParser.ARTICLE_BODY_PROP) : "";
+    }
+
+    @Override
+    public boolean optOut() {
+        return false;
+    }
+
+    private String[] getAuthors() {
+        String[] authors = mParser.getNames(JsonLdParser.AUTHOR_PROP);
+        return authors.length > 0 ? authors : mParser.getNames(JsonLdParser.CREATOR_PROP);
+    }
+}
@@ -0,0 +1,166 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times the style and layout reads of a distillation, by the stage and the property read, to
+ * find the ones that force style recalcs and reflows. The reads go through the accessors of
+ * DomUtil, which report to this class with {@link #beginRead} and {@link #endRead}. A read is
+ * attributed to the innermost stage of the run, as marked for {@link TraceRecorder}, which
+ * reports its stages to this class whether it records them or not.
+ *
+ * A MutationObserver on the distilled document detects the DOM writes between two reads; a read
+ * after a write is counted as forced, as it likely had to recalc the style or the layout first.
+ * Writes that don't mutate the DOM, e.g. to stylesheets, aren't detected.
+ *
+ * Auditing is off unless {@link #start} is called, and all other calls are no-ops then.
+ */
+public class LayoutAudit {
+    // All statically initialized fields in this class should be primitives or Strings, like in
+    // LogUtil, as the accessors of DomUtil check isEnabled() on every read.
+    private static boolean sEnabled = false;
+
+    // The state of the read in progress, between beginRead() and endRead().
+    private static double sReadStartTime = 0;
+    private static boolean sReadForced = false;
+
+    // The reads so far, as a JS object from "stage/property" to its entry, and the observer of the
+    // DOM writes between them.
+    private static JavaScriptObject sEntries;
+    private static JavaScriptObject sObserver;
+    // The stages entered and not exited yet, innermost last.
+    private static List<String> sStages;
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Starts auditing the reads of the distillation of |doc|, discarding any reads audited before.
+     */
+    public static void start(Document doc) {
+        if (sEnabled) stopObserver(sObserver);
+        sEnabled = true;
+        sEntries = JavaScriptObject.createObject();
+        sObserver = startObserver(doc);
+        sStages = new ArrayList<>();
+    }
+
+    /**
+     * Stops auditing.
+     *
+     * @return The audited reads as a JSON array, most expensive first, see DebugInfo.layout_audit,
+     * or an empty string if auditing wasn't started.
+     */
+    public static String stop() {
+        if (!sEnabled) return "";
+        sEnabled = false;
+        stopObserver(sObserver);
+        String report = toJson(sEntries);
+        sEntries = null;
+        sObserver = null;
+        sStages = null;
+        return report;
+    }
+
+    /**
+     * Called when the stage |name| begins, see {@link TraceRecorder#begin}.
+     */
+    public static void enterStage(String name) {
+        if (!sEnabled) return;
+        sStages.add(name);
+    }
+
+    /**
+     * Called when the innermost stage ends.
+     */
+    public static void exitStage() {
+        if (!sEnabled || sStages.isEmpty()) return;
+        sStages.remove(sStages.size() - 1);
+    }
+
+    /**
+     * Called right before a read, to check whether the DOM was written since the previous one.
+     */
+    public static void beginRead() {
+        if (!sEnabled) return;
+        sReadForced = takeRecords(sObserver);
+        sReadStartTime = DomUtil.getTime();
+    }
+
+    /**
+     * Called right after a read that began with {@link #beginRead}.
+     *
+     * @param property The value read, e.g. "offsetWidth".
+     */
+    public static void endRead(String property) {
+        if (!sEnabled) return;
+        String stage = sStages.isEmpty() ? "(none)" : sStages.get(sStages.size() - 1);
+        addRead(sEntries, stage, property, DomUtil.getTime() - sReadStartTime, sReadForced);
+    }
+
+    // The observer, or null where MutationObserver is unavailable, e.g. in Gwt's dev environment.
+    private static native JavaScriptObject startObserver(Document doc) /*-{
+        if (typeof MutationObserver === 'undefined') return null;
+        var observer = new MutationObserver(function() {});
+        observer.observe(doc, {
+            attributes: true,
+            characterData: true,
+            childList: true,
+            subtree: true
+        });
+        return observer;
+    }-*/;
+
+    private static native void stopObserver(JavaScriptObject observer) /*-{
+        if (observer) observer.disconnect();
+    }-*/;
+
+    // Returns whether the DOM was written since the last call, and clears the pending records.
+    private static native boolean takeRecords(JavaScriptObject observer) /*-{
+        return observer != null && observer.takeRecords().length > 0;
+    }-*/;
+
+    private static native void addRead(JavaScriptObject entries, String stage, String property,
+            double time, boolean forced) /*-{
+        var key = stage + "/" + property;
+        var entry = entries[key];
+        if (!entry) {
+            entry = entries[key] = {
+                stage: stage,
+                property: property,
+                count: 0,
+                totalMs: 0,
+                maxMs: 0,
+                forced: 0,
+                forcedMs: 0
+            };
+        }
+        entry.count++;
+        entry.totalMs += time;
+        entry.maxMs = Math.max(entry.maxMs, time);
+        if (forced) {
+            entry.forced++;
+            entry.forcedMs += time;
+        }
+    }-*/;
+
+    private static native String toJson(JavaScriptObject entries) /*-{
+        var list = [];
+        for (var key in entries) {
+            if (entries.hasOwnProperty(key)) list.push(entries[key]);
+        }
+        list.sort(function(a, b) {
+            return b.totalMs - a.totalMs || b.count - a.count;
+        });
+        return JSON.stringify(list);
+    }-*/;
+}
@@ -104,6 +104,23 @@ public class LogUtil {
         return log;
     }
 
+    /**
+     * Adds |log|, which another copy of this class returned from getAndClearLog(), e.g. that of
+     * domdistillerpagenum.js (see PageNumberModule), to the log, without logging it to the console
+     * again.
+     */
+    static void appendToLog(String log) {
+        sLogBuilder += log;
+    }
+
+    /**
+     * Clears the log and the debug level left by a previous run.
+     */
+    static void reset() {
+        sLogBuilder = "";
+        sDebugLevel = DEBUG_LEVEL_NONE;
+    }
+
     /**
      * Log a string to the javascript console, if it exists, i.e. if it's defined correctly.
      */
@@ -115,7 +132,12 @@ public class LogUtil {
         $wnd.console.log(str);
     }-*/;
 
+    /**
+     * Adds the time since |startTime| to |timinginfo| as |name|, and to the trace if it's being
+     * recorded.
+     */
     public static void addTimingInfo(double startTime, TimingInfo timinginfo, String name) {
+        TraceRecorder.complete(name, startTime);
         if (timinginfo != null) {
             TimingEntry entry =  timinginfo.addOtherTimes();
             entry.setName(name);
@@ -0,0 +1,113 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory PaginationPatternStore that keeps the most recently used hosts, up to a maximum
+ * number.
+ *
+ * The store can be saved to and loaded from a snapshot, so that it can outlive the page it was
+ * filled in.  A snapshot is a string with a line per host, from the least to the most recently
+ * used, each with the host and the signatures of its entry separated by tabs.  Backslashes, tabs
+ * and newlines in the values are escaped with a backslash.
+ */
+public class LruPaginationPatternStore implements PaginationPatternStore {
+    public static final int DEFAULT_MAX_HOSTS = 1000;
+
+    private final LinkedHashMap<String, Entry> mEntries;
+
+    public LruPaginationPatternStore() {
+        this(DEFAULT_MAX_HOSTS);
+    }
+
+    public LruPaginationPatternStore(final int maxHosts) {
+        // Iterate in access order, so that the eldest entry is the least recently used.
+        mEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxHosts;
+            }
+        };
+    }
+
+    @Override
+    public Entry get(String host) {
+        return mEntries.get(host);
+    }
+
+    @Override
+    public void put(String host, Entry entry) {
+        // Remove first, so that a replaced entry becomes the most recently used.
+        mEntries.remove(host);
+        mEntries.put(host, entry);
+    }
+
+    public int size() {
+        return mEntries.size();
+    }
+
+    public void clear() {
+        mEntries.clear();
+    }
+
+    /**
+     * @return The snapshot of the store, see the class description for the format.
+     */
+    public String saveSnapshot() {
+        StringBuilder snapshot = new StringBuilder();
+        for (Map.Entry<String, Entry> e : mEntries.entrySet()) {
+            snapshot.append(escape(e.getKey())).append('\t')
+                    .append(escape(e.getValue().getPagePatternSignature())).append('\t')
+                    .append(escape(e.getValue().getNextLinkSignature())).append('\n');
+        }
+        return snapshot.toString();
+    }
+
+    /**
+     * Adds the entries of |snapshot| to the store, as if they were put in the order they were
+     * saved.  Malformed lines are ignored.
+     */
+    public void loadSnapshot(String snapshot) {
+        for (String line : snapshot.split("\n")) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 3 || fields[0].isEmpty()) continue;
+            put(unescape(fields[0]), new Entry(unescape(fields[1]), unescape(fields[2])));
+        }
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                escaped.append("\\\\");
+            } else if (c == '\t') {
+                escaped.append("\\t");
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        StringBuilder unescaped = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                unescaped.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+}
@@ -9,19 +9,17 @@ import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
 
 import com.google.gwt.dom.client.Element;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * This class loads the different parsers that are based on different markup specifications, and
  * allows retrieval of different distillation-related markup properties from a document.
  * It retrieves the requested properties from one or more parsers.  If necessary, it may merge the
  * information from multiple parsers.
- * Currently, three parsers are supported: OpenGraphProtocolParser, IEReadingViewParser and
- * SchemaOrgParser.  For now, OpenGraphProtocolParser takes precedence, because it uses specific
- * meta tags and hence extracts information the fastest; it also demands conformance to rules.  If
- * the rules are broken or the properties retrieved are null or empty, we try with SchemaOrgParser,
- * then IEReadingViewParser.
+ * Currently, four parsers are supported: JsonLdParser, OpenGraphProtocolParser, IEReadingViewParser
+ * and SchemaOrgParser.  For now, JsonLdParser takes precedence, because parsing the JSON-LD scripts
+ * with the native JSON parser is cheap and most publishers ship their article metadata that way.
+ * Next comes OpenGraphProtocolParser, because it uses specific meta tags and hence extracts
+ * information the fastest; it also demands conformance to rules.  If the rules are broken or the
+ * properties retrieved are null or empty, we try with SchemaOrgParser, then IEReadingViewParser.
  * The properties that matter to distilled content are:
  * - individual properties: title, page type, page url, description, publisher, author, copyright
  * - dominant and inline images and their properties: url, secure_url, type, caption, width, height
@@ -115,7 +113,15 @@ public class MarkupParser {
         public String[] authors = null;
     }
 
-    private final List<Accessor> mAccessors;
+    // The accessors in priority order, see getAccessor().
+    private static final int JSON_LD = 0;
+    private static final int OPEN_GRAPH_PROTOCOL = 1;
+    private static final int SCHEMA_ORG = 2;
+    private static final int IE_READING_VIEW = 3;
+    private static final int NUM_ACCESSORS = 4;
+
+    private final Element mRoot;
+    private final Accessor[] mAccessors;
 
     private final TimingInfo mTimingInfo;
 
@@ -127,51 +133,83 @@ public class MarkupParser {
         this(root, (TimingInfo) null);
     }
 
+    /**
+     * The parsers are only loaded when needed, i.e. when a property is requested that the parsers
+     * before them in priority order don't have.  Each parser that is loaded adds an entry with its
+     * name to |timingInfo|.
+     */
     public MarkupParser(Element root, TimingInfo timingInfo) {
+        mRoot = root;
         mTimingInfo = timingInfo;
-        mAccessors = new ArrayList<Accessor>();
-        double startTime = DomUtil.getTime();
-        mAccessors.add(new OpenGraphProtocolParserAccessor(root, mTimingInfo));
-        LogUtil.addTimingInfo(startTime, mTimingInfo, "OpenGraphProtocolParser");
+        mAccessors = new Accessor[NUM_ACCESSORS];
+    }
+
+    /**
+     * Returns the accessor at |index| in priority order, creating it on first use.
+     */
+    private Accessor getAccessor(int index) {
+        if (mAccessors[index] != null) return mAccessors[index];
 
-        startTime = DomUtil.getTime();
-        mAccessors.add(new SchemaOrgParserAccessor(root, mTimingInfo));
-        LogUtil.addTimingInfo(startTime, mTimingInfo, "SchemaOrgParserAccessor");
+        double startTime = DomUtil.getTime();
+        switch (index) {
+            case JSON_LD:
+                mAccessors[index] = new JsonLdParserAccessor(mRoot, mTimingInfo);
+                LogUtil.addTimingInfo(startTime, mTimingInfo, "JsonLdParserAccessor");
+                break;
+            case OPEN_GRAPH_PROTOCOL:
+                mAccessors[index] = new OpenGraphProtocolParserAccessor(mRoot, mTimingInfo);
+                LogUtil.addTimingInfo(startTime, mTimingInfo, "OpenGraphProtocolParser");
+                break;
+            case SCHEMA_ORG:
+                mAccessors[index] = new SchemaOrgParserAccessor(mRoot, mTimingInfo);
+                LogUtil.addTimingInfo(startTime, mTimingInfo, "SchemaOrgParserAccessor");
+                break;
+            default:
+                // TODO(wychen): Use eager evaluation in IEReadingViewParser, but only for
+                // profiling.
+                mAccessors[index] = new IEReadingViewParser(mRoot);
+                LogUtil.addTimingInfo(startTime, mTimingInfo, "IEReadingViewParser");
+                break;
+        }
+        return mAccessors[index];
+    }
 
-        startTime = DomUtil.getTime();
-        // TODO(wychen): Use eager evaluation in IEReadingViewParser, but only for profiling.
-        mAccessors.add(new IEReadingViewParser(root));
-        LogUtil.addTimingInfo(startTime, mTimingInfo, "IEReadingViewParser");
+    /**
+     * Returns true if the accessor at |index| in priority order has been created.  For testing
+     * only.
+     */
+    boolean isAccessorLoaded(int index) {
+        return mAccessors[index] != null;
     }
 
     public String getTitle() {
         String title = "";
-        for (int i = 0; i < mAccessors.size() && title.isEmpty(); i++) {
-            title = mAccessors.get(i).getTitle();
+        for (int i = 0; i < NUM_ACCESSORS && title.isEmpty(); i++) {
+            title = getAccessor(i).getTitle();
         }
         return title;
     }
 
     public String getType() {
         String type = "";
-        for (int i = 0; i < mAccessors.size() && type.isEmpty(); i++) {
-            type = mAccessors.get(i).getType();
+        for (int i = 0; i < NUM_ACCESSORS && type.isEmpty(); i++) {
+            type = getAccessor(i).getType();
         }
         return type;
     }
 
     public String getUrl() {
         String url = "";
-        for (int i = 0; i < mAccessors.size() && url.isEmpty(); i++) {
-            url = mAccessors.get(i).getUrl();
+        for (int i = 0; i < NUM_ACCESSORS && url.isEmpty(); i++) {
+            url = getAccessor(i).getUrl();
         }
         return url;
     }
 
     public Image[] getImages() {
         Image[] images = null;
-        for (int i = 0; i < mAccessors.size(); i++) {
-            images = mAccessors.get(i).getImages();
+        for (int i = 0; i < NUM_ACCESSORS; i++) {
+            images = getAccessor(i).getImages();
             if (images.length > 0) break;
         }
         return images;
@@ -179,48 +217,56 @@ public class MarkupParser {
 
     public String getDescription() {
         String description = "";
-        for (int i = 0; i < mAccessors.size() && description.isEmpty(); i++) {
-            description = mAccessors.get(i).getDescription();
+        for (int i = 0; i < NUM_ACCESSORS && description.isEmpty(); i++) {
+            description = getAccessor(i).getDescription();
         }
         return description;
     }
 
     public String getPublisher() {
         String publisher = "";
-        for (int i = 0; i < mAccessors.size() && publisher.isEmpty(); i++) {
-            publisher = mAccessors.get(i).getPublisher();
+        for (int i = 0; i < NUM_ACCESSORS && publisher.isEmpty(); i++) {
+            publisher = getAccessor(i).getPublisher();
         }
         return publisher;
     }
 
     public String getCopyright() {
         String copyright = "";
-        for (int i = 0; i < mAccessors.size() && copyright.isEmpty(); i++) {
-            copyright = mAccessors.get(i).getCopyright();
+        for (int i = 0; i < NUM_ACCESSORS && copyright.isEmpty(); i++) {
+            copyright = getAccessor(i).getCopyright();
         }
         return copyright;
     }
 
     public String getAuthor() {
         String author = "";
-        for (int i = 0; i < mAccessors.size() && author.isEmpty(); i++) {
-            author = mAccessors.get(i).getAuthor();
+        for (int i = 0; i < NUM_ACCESSORS && author.isEmpty(); i++) {
+            author = getAccessor(i).getAuthor();
         }
         return author;
     }
 
     public Article getArticle() {
         Article article = null;
-        for (int i = 0; i < mAccessors.size() && article == null; i++) {
-            article = mAccessors.get(i).getArticle();
+        for (int i = 0; i < NUM_ACCESSORS && article == null; i++) {
+            article = getAccessor(i).getArticle();
         }
         return article;
     }
 
+    /**
+     * Returns the plain text "articleBody" of the JSON-LD article, empty string if none.  The other
+     * parsers don't extract the article body.
+     */
+    public String getJsonLdArticleBody() {
+        return ((JsonLdParserAccessor) getAccessor(JSON_LD)).getArticleBody();
+    }
+
     public boolean optOut() {
         boolean optOut = false;
-        for (int i = 0; i < mAccessors.size() && !optOut; i++) {
-            optOut = mAccessors.get(i).optOut();
+        for (int i = 0; i < NUM_ACCESSORS && !optOut; i++) {
+            optOut = getAccessor(i).optOut();
         }
         return optOut;
     }
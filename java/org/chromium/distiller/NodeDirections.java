@@ -0,0 +1,133 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the text direction ("ltr" or "rtl") of the elements of a page, so that the output can carry
+ * "dir" attributes without a computed style read per cloned element. The directions are recorded
+ * during the DomConverter walk, which reads the computed style of each element anyway. Only the
+ * root of the walk and the elements whose direction differs from their parent's are stored; every
+ * other element has the direction of its nearest recorded ancestor. The walk doesn't enter some
+ * elements that are output whole, e.g. data tables and figures; their descendants use the computed
+ * style, which is only read for the ones that are output.
+ *
+ * An instance with nothing recorded uses the computed style for every node.
+ */
+public class NodeDirections {
+    // Marks the nodes that have no recorded direction in |resolved|. Recorded directions are never
+    // empty.
+    private static final String UNRECORDED = "";
+
+    // Element -> its direction, for the walk root and the elements where the direction changes.
+    private final Map<Node, String> directionChanges;
+    // Elements whose descendants the walk didn't reach.
+    private final Set<Node> unwalkedRoots;
+    // Node -> its recorded direction or UNRECORDED, filled as the output looks nodes up so that
+    // each ancestor is visited once. Lookups are only made once the walk is recorded.
+    private final Map<Node, String> resolved;
+
+    public NodeDirections() {
+        directionChanges = new HashMap<>();
+        unwalkedRoots = new HashSet<>();
+        resolved = new HashMap<>();
+    }
+
+    /**
+     * Record the direction of an element reached by the walk.
+     * @param e The element.
+     * @param parentDirection The direction of the parent of |e|, or null if |e| is the walk root.
+     * @param direction The direction of |e|.
+     */
+    public void record(Element e, String parentDirection, String direction) {
+        if (!direction.equals(parentDirection)) {
+            directionChanges.put(e, direction);
+        }
+    }
+
+    /**
+     * Record that the walk didn't reach the descendants of |e|, which was itself recorded.
+     */
+    public void recordUnwalked(Element e) {
+        unwalkedRoots.add(e);
+    }
+
+    /**
+     * Get the direction of a node from the recorded directions.
+     * @return The direction of the nearest recorded ancestor-or-self of |n|, or null if there is
+     * none or |n| is inside an element whose descendants weren't walked.
+     */
+    public String getRecordedDirection(Node n) {
+        String direction = resolve(n);
+        return direction.isEmpty() ? null : direction;
+    }
+
+    /**
+     * Get the text direction of a node, or of the parent element of a text node.
+     * @return "ltr", "rtl", or "auto" if it isn't known.
+     */
+    public String getDirection(Node n) {
+        String direction = resolve(n);
+        return direction.isEmpty() ? getComputedDirection(n) : direction;
+    }
+
+    /**
+     * Whether the direction of the element |n| differs from the direction of its parent, i.e. it
+     * needs its own "dir" attribute in the output.
+     */
+    public boolean isDirectionChange(Node n) {
+        if (n.getNodeType() != Node.ELEMENT_NODE) return false;
+        if (!resolve(n).isEmpty()) return directionChanges.containsKey(n);
+        Element parent = n.getParentElement();
+        return parent == null || !getComputedDirection(parent).equals(getComputedDirection(n));
+    }
+
+    /**
+     * Get the text direction of a node from its computed style.
+     */
+    static String getComputedDirection(Node n) {
+        Element e = n.getNodeType() == Node.ELEMENT_NODE ? Element.as(n) : n.getParentElement();
+        if (e == null) return "auto";
+        String direction = DomUtil.getComputedStyle(e).getProperty("direction");
+        return direction.isEmpty() ? "auto" : direction;
+    }
+
+    /**
+     * Resolve the recorded direction of |n|. A node has the direction of its parent unless it is
+     * recorded itself, so the ancestors are walked up to the first resolved or recorded one, and
+     * the result is kept for all of them.
+     */
+    private String resolve(Node n) {
+        List<Node> path = new ArrayList<>();
+        String direction = UNRECORDED;
+        for (Node e = n; e != null; e = e.getParentNode()) {
+            String known = resolved.get(e);
+            if (known != null) {
+                direction = known;
+                break;
+            }
+            path.add(e);
+            known = directionChanges.get(e);
+            if (known != null) {
+                direction = known;
+                break;
+            }
+            if (unwalkedRoots.contains(e.getParentNode())) break;
+        }
+        for (Node e : path) {
+            resolved.put(e, direction);
+        }
+        return direction;
+    }
+}
@@ -80,13 +80,18 @@ public class NodeListExpander {
         /**
          * Creates a NodeTree for each null entry in subtreePath and appends it to the NodeTree (in
          * subtreePath) one level higher.
+         *
+         * The non-null entries are always a prefix of subtreePath (the root is never null, and
+         * a NodeTree is only created along with all of its ancestors'), so only the null entries
+         * at the end are looked at. Otherwise, matching many nodes deep in the tree would be
+         * quadratic.
          */
         private void convertNullSubtreeAncestors() {
-            for (int i = 0; i < currentPath.size(); i++) {
-                if (subtreePath.get(i) == null) {
-                    subtreePath.set(i, new NodeTree(currentPath.get(i)));
-                    subtreePath.get(i - 1).addChildTree(subtreePath.get(i));
-                }
+            int i = subtreePath.size() - 1;
+            while (subtreePath.get(i) == null) i--;
+            for (i++; i < currentPath.size(); i++) {
+                subtreePath.set(i, new NodeTree(currentPath.get(i)));
+                subtreePath.get(i - 1).addChildTree(subtreePath.get(i));
             }
         }
     }
@@ -47,22 +47,27 @@ public class NodeTree {
     }
 
     /**
-     * Clone this subtree while retaining text directionality from its computed style. The
-     * "dir" attribute for each node will be set for each node.
+     * Clone this subtree while retaining text directionality. The "dir" attribute will be set on
+     * the root, and on each node whose direction differs from its parent's.
      *
+     * @param directions The text directions of the nodes.
      * @return The root node of the cloned tree
      */
-    public Node cloneSubtreeRetainDirection() {
-        Node clone = node.cloneNode(false);
+    public Node cloneSubtreeRetainDirection(NodeDirections directions) {
+        Node clone = cloneSubtreeRetainDirectionChanges(directions);
         if (node.getNodeType() == Node.ELEMENT_NODE) {
-            String direction = DomUtil.getComputedStyle(Element.as(node)).getProperty("direction");
-            if (direction.isEmpty()) {
-                direction = "auto";
-            }
-            Element.as(clone).setAttribute("dir", direction);
+            Element.as(clone).setAttribute("dir", directions.getDirection(node));
+        }
+        return clone;
+    }
+
+    private Node cloneSubtreeRetainDirectionChanges(NodeDirections directions) {
+        Node clone = node.cloneNode(false);
+        if (directions.isDirectionChange(node)) {
+            Element.as(clone).setAttribute("dir", directions.getDirection(node));
         }
         for (NodeTree child : children) {
-            clone.appendChild(child.cloneSubtreeRetainDirection());
+            clone.appendChild(child.cloneSubtreeRetainDirectionChanges(directions));
         }
         return clone;
     }
@@ -169,13 +169,9 @@ public class OpenGraphProtocolParser {
 
     private static final String sOgpNsPrefixRegex =
             "((\\w+):\\s+(http:\\/\\/ogp.me\\/ns(\\/\\w+)*#))\\s*";
-    private static final RegExp sOgpNsPrefixRegExp = RegExp.compile(sOgpNsPrefixRegex, "gi");
-
-    private static final RegExp sOgpNsNonPrefixNameRegExp = RegExp.compile("^xmlns:(\\w+)", "i");
+    private static final String sOgpNsNonPrefixNameRegex = "^xmlns:(\\w+)";
     private static final String sOgpNsNonPrefixValueRegex =
             "^http:\\/\\/ogp.me\\/ns(\\/\\w+)*#";
-    private static final RegExp sOgpNsNonPrefixValueRegExp =
-            RegExp.compile(sOgpNsNonPrefixValueRegex, "i");
 
     // The compile-time option(s) for parseMetaTags can be tuned according to the target data sets.
     // According to current benchmark, doing prefix filtering is faster than not.
@@ -200,9 +196,10 @@ public class OpenGraphProtocolParser {
         // "og: http://ogp.me/ns# profile: http://og.me/ns/profile# article:
         // http://ogp.me/ns/article#".
         if (!prefixes.isEmpty()) {
-            sOgpNsPrefixRegExp.setLastIndex(0);
+            RegExp prefixRegExp = RegExpRegistry.get(sOgpNsPrefixRegex, "gi");
+            prefixRegExp.setLastIndex(0);
             while (true) {
-                MatchResult match = sOgpNsPrefixRegExp.exec(prefixes);
+                MatchResult match = prefixRegExp.exec(prefixes);
                 if (match == null) break;
                 setPrefixForObjectType(match.getGroup(2), match.getGroup(4));
             }
@@ -211,17 +208,19 @@ public class OpenGraphProtocolParser {
             // - "xmlns:og="http://ogp.me/ns#"
             // - "xmlns:profile="http://ogp.me/ns/profile#"
             // - "xmlns:article="http://ogp.me/ns/article#".
+            final RegExp nameRegExp = RegExpRegistry.get(sOgpNsNonPrefixNameRegex, "i");
+            final RegExp valueRegExp = RegExpRegistry.get(sOgpNsNonPrefixValueRegex, "i");
             final JsArray<Node> attributes = DomUtil.getAttributes(root);
             for (int i = 0; i < attributes.length(); i++) {
                 final Node node = attributes.get(i);
                 // Look for attribute name that starts with "xmlns:".
                 String attributeName = node.getNodeName().toLowerCase();
-                MatchResult nameMatch = sOgpNsNonPrefixNameRegExp.exec(attributeName);
+                MatchResult nameMatch = nameRegExp.exec(attributeName);
                 if (nameMatch == null) continue;
 
                 // Extract OGP namespace URI from attribute value, if available.
                 String attributeValue = node.getNodeValue();
-                MatchResult valueMatch = sOgpNsNonPrefixValueRegExp.exec(attributeValue);
+                MatchResult valueMatch = valueRegExp.exec(attributeValue);
                 if (valueMatch != null) {
                     setPrefixForObjectType(nameMatch.getGroup(1), valueMatch.getGroup(1));
                 }
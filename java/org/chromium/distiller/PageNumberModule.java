@@ -0,0 +1,47 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos;
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import com.google.gwt.dom.client.Document;
+
+/**
+ * Calls PageNumberPagination, which is compiled into its own script, domdistillerpagenum.js, from
+ * the core script.
+ *
+ * That script is evaluated on demand: if PageNumberPagination isn't exported yet, load() calls
+ * the __loadDomDistillerPageNumbers function of the window, which wrapped_domdistiller_template.js
+ * defines to evaluate the script into the same context. In the jstests, both are compiled into
+ * one script, so PageNumberPagination is always there.
+ */
+class PageNumberModule {
+    /**
+     * Evaluates domdistillerpagenum.js if it hasn't been yet.
+     *
+     * @return Whether PageNumberPagination is available.
+     */
+    static native boolean load() /*-{
+        function isLoaded() {
+            return !!($wnd.org && $wnd.org.chromium && $wnd.org.chromium.distiller &&
+                    $wnd.org.chromium.distiller.PageNumberPagination);
+        }
+        if (!isLoaded() && typeof($wnd.__loadDomDistillerPageNumbers) == 'function') {
+            $wnd.__loadDomDistillerPageNumbers();
+        }
+        return isLoaded();
+    }-*/;
+
+    /**
+     * Calls PageNumberPagination.paginate(), which must have been loaded.
+     */
+    static native DomDistillerProtos.DomDistillerResult paginate(Document doc,
+            DomDistillerProtos.DomDistillerOptions options, String originalUrl,
+            TimingInfo timingInfo) /*-{
+        return $wnd.org.chromium.distiller.PageNumberPagination.paginate(
+                doc, options, originalUrl, timingInfo);
+    }-*/;
+}
@@ -0,0 +1,125 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos;
+import org.chromium.distiller.proto.DomDistillerProtos.DebugInfo;
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import com.google.gwt.core.client.js.JsExport;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+
+/**
+ * The "pagenum" and "all" algorithms of DomDistillerOptions.pagination_algo, i.e. those that use
+ * the page number pattern of PageParameterParser.
+ *
+ * Few runs ask for them, so they are compiled into a script of their own,
+ * domdistillerpagenum.js (see DomDistillerPageNumbers.gwt.xml), which is only evaluated when a run
+ * does, and the core script leaves out PageParameterParser and its page patterns. The core script
+ * calls paginate() through PageNumberModule. The two scripts are separate programs, so only
+ * JavaScript objects, i.e. the DOM and the protos, are passed between them.
+ */
+@JsExport("PageNumberPagination")
+public class PageNumberPagination {
+    /**
+     * Finds the pagination of |doc| with the algorithm of |options|, which is "pagenum" or "all".
+     *
+     * @param originalUrl The original url of the page being processed.
+     * @param timingInfo The timing info of the run, which the timings of PageParameterParser are
+     * added to.
+     * @return A result with only the pagination info, the pagination patterns if |options| has
+     * any, the number of anchors scanned and the log.
+     */
+    @JsExport
+    public static DomDistillerProtos.DomDistillerResult paginate(Document doc,
+            DomDistillerProtos.DomDistillerOptions options, String originalUrl,
+            TimingInfo timingInfo) {
+        // In domdistillerpagenum.js, the run of the core script isn't visible, so it has a run of
+        // its own on |doc|. When both are compiled into one script, as for the jstests, it's
+        // already in the run of DomDistiller.
+        if (DistillationContext.isActive()) {
+            return paginateDocument(doc, options, originalUrl, timingInfo);
+        }
+        DistillationContext.begin(doc);
+        try {
+            return paginateDocument(doc, options, originalUrl, timingInfo);
+        } finally {
+            DistillationContext.end();
+        }
+    }
+
+    private static DomDistillerProtos.DomDistillerResult paginateDocument(Document doc,
+            DomDistillerProtos.DomDistillerOptions options, String originalUrl,
+            TimingInfo timingInfo) {
+        LogUtil.setDebugLevel(
+                options.hasDebugLevel() ? options.getDebugLevel() : LogUtil.DEBUG_LEVEL_NONE);
+        Element root = doc.getDocumentElement();
+        AnchorSnapshot anchors = AnchorSnapshot.create(root, originalUrl);
+        LruPaginationPatternStore patternStore = null;
+        if (options.hasPaginationPatterns()) {
+            patternStore = new LruPaginationPatternStore();
+            patternStore.loadSnapshot(options.getPaginationPatterns());
+        }
+
+        DomDistillerProtos.DomDistillerResult result =
+                DomDistillerProtos.DomDistillerResult.create();
+        if (options.getPaginationAlgo().equals("all")) {
+            result.setPaginationInfo(getCombinedPaginationInfo(
+                    root, anchors, originalUrl, timingInfo, patternStore));
+        } else {
+            PageParamInfo paramInfo =
+                    PageParameterParser.parse(anchors, originalUrl, timingInfo, patternStore);
+            DomDistillerProtos.PaginationInfo info = DomDistillerProtos.PaginationInfo.create();
+            String next = paramInfo.mNextPagingUrl;
+            if (!next.isEmpty()) {
+                info.setNextPage(next);
+            }
+            result.setPaginationInfo(info);
+            if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_PAGING_INFO)) {
+                LogUtil.logToConsole("paging by pagenum: " + paramInfo.toString());
+            }
+        }
+        if (patternStore != null) {
+            result.setPaginationPatterns(patternStore.saveSnapshot());
+        }
+        DomDistillerProtos.StatisticsInfo statisticsInfo =
+                DomDistillerProtos.StatisticsInfo.create();
+        statisticsInfo.setAnchorsScanned(anchors.size());
+        result.setStatisticsInfo(statisticsInfo);
+        DebugInfo debugInfo = DebugInfo.create();
+        debugInfo.setLog(LogUtil.getAndClearLog());
+        result.setDebugInfo(debugInfo);
+        return result;
+    }
+
+    /**
+     * Finds the next and previous page links with both the text heuristics of PagingLinksFinder
+     * and the page number pattern of PageParameterParser, over the same anchors, see
+     * PagingLinksFinder.getCombinedPaginationInfo().
+     *
+     * @param root The root of the document.
+     * @param anchors The anchors of the document.
+     * @param original_url The original url of the page being processed.
+     * @param timingInfo For tracking performance, can be null.
+     * @param store The paging links and page patterns remembered per host, can be null.
+     * @return The pagination info with next, previous and canonical pages.
+     */
+    public static DomDistillerProtos.PaginationInfo getCombinedPaginationInfo(Element root,
+            AnchorSnapshot anchors, String original_url, TimingInfo timingInfo,
+            PaginationPatternStore store) {
+        PageParamInfo paramInfo =
+                PageParameterParser.parse(anchors, original_url, timingInfo, store);
+        DomDistillerProtos.PaginationInfo info = PagingLinksFinder.getCombinedPaginationInfo(
+                root, anchors, original_url, paramInfo.mNextPagingUrl, paramInfo.mPrevPagingUrl,
+                store);
+        if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_PAGING_INFO)) {
+            LogUtil.logToConsole("paging by all: next=" + info.getNextPage() + ", prev=" +
+                    info.getPrevPage() + ", canonical=" + info.getCanonicalPage() + "\n" +
+                    paramInfo.toString());
+        }
+        return info;
+    }
+}
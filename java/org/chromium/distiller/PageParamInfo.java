@@ -19,6 +19,7 @@ import java.util.Set;
  * - coefficient and delta values of the linear formula formed by the pagination URLs:
  *     pageParamValue = coefficient * pageNum + delta
  * - next paging URL.
+ * - previous paging URL.
  */
 class PageParamInfo {
     private static final int MIN_LINKS_TO_JUSTIFY_LINEAR_MAP = 2;
@@ -80,6 +81,7 @@ class PageParamInfo {
         boolean mIsAdjacent = false;
         boolean mIsConsecutive = false;
         String mNextPagingUrl = "";
+        String mPrevPagingUrl = "";
     }
 
     Type mType = Type.UNSET;
@@ -87,6 +89,7 @@ class PageParamInfo {
     List<PageInfo> mAllPageInfo;
     LinearFormula mFormula = null;
     String mNextPagingUrl = "";
+    String mPrevPagingUrl = "";
 
     PageParamInfo() {
         mAllPageInfo = new ArrayList<PageInfo>();
@@ -144,8 +147,10 @@ class PageParamInfo {
                 allPageInfo.add(new PageInfo(link.mPageNum,
                         ascendingNumbers.get(link.mPosInAscendingList).mUrl));
             }
-            return new PageParamInfo(Type.PAGE_NUMBER, pagePattern.toString(), allPageInfo,
-                    linearFormula, state.mNextPagingUrl);
+            PageParamInfo info = new PageParamInfo(Type.PAGE_NUMBER, pagePattern.toString(),
+                    allPageInfo, linearFormula, state.mNextPagingUrl);
+            info.mPrevPagingUrl = state.mPrevPagingUrl;
+            return info;
         }
 
         // Most of news article have no more than 3 pages and the first page probably doesn't have
@@ -177,10 +182,13 @@ class PageParamInfo {
                 allPageInfo.add(new PageInfo(1, firstPageUrl));
                 allPageInfo.add(new PageInfo(onlyLink.mPageNum,
                         ascendingNumbers.get(onlyLink.mPosInAscendingList).mUrl));
-                return new PageParamInfo(Type.PAGE_NUMBER, pagePattern.toString(), allPageInfo,
-                        new LinearFormula(coefficient, delta),
+                PageParamInfo info = new PageParamInfo(Type.PAGE_NUMBER, pagePattern.toString(),
+                        allPageInfo, new LinearFormula(coefficient, delta),
                         // If third page is outlink, the next page would be that 3rd page.
                         thirdPageIsOutlink ? allPageInfo.get(1).mUrl : "");
+                // And the current page is the 2nd one, so the previous page is the first page.
+                if (thirdPageIsOutlink) info.mPrevPagingUrl = firstPageUrl;
+                return info;
             }
         }
 
@@ -281,6 +289,23 @@ class PageParamInfo {
         }
     }
 
+    /**
+     * Determines the previous paging URL for the given document URL.
+     *
+     * @param docUrl the current document URL that was parsed.
+     */
+    void determinePrevPagingUrl(String docUrl) {
+        if (!mPrevPagingUrl.isEmpty() || mAllPageInfo.isEmpty()) return;
+
+        // If document URL is among mAllPageInfo, the previous page is the one before.
+        for (int i = 1; i < mAllPageInfo.size(); i++) {
+            if (mAllPageInfo.get(i).mUrl.equals(docUrl)) {
+                mPrevPagingUrl = mAllPageInfo.get(i - 1).mUrl;
+                return;
+            }
+        }
+    }
+
     @Override
     public String toString() {  // For debugging.
        String str = new String("Type: " + mType + "\nPageInfo: " + mAllPageInfo.size());
@@ -289,7 +314,8 @@ class PageParamInfo {
            str += "\n  " + page.toString();
        }
        str += "\nformula: " + (mFormula == null ? "null" : mFormula.toString()) +
-              "\nnextPagingUrl: " + mNextPagingUrl;
+              "\nnextPagingUrl: " + mNextPagingUrl +
+              "\nprevPagingUrl: " + mPrevPagingUrl;
        return str;
     }
 
@@ -350,6 +376,7 @@ class PageParamInfo {
                    ascendingNumbers.get(gapPos + 1).mPageNum == currPageNum + 1) {
                state.mIsConsecutive = true;
                state.mNextPagingUrl = ascendingNumbers.get(gapPos + 1).mUrl;
+               state.mPrevPagingUrl = ascendingNumbers.get(gapPos - 1).mUrl;
            }
            return state;
         }
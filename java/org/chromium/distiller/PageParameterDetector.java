@@ -91,35 +91,71 @@ public class PageParameterDetector {
 
     /**
      * Stores a map of URL pattern to its associated list of PageLinkInfo's.
+     *
+     * The patterns are also indexed by the part of the URL before the page param, then by the part
+     * after it.  Links that share both parts share a pattern, so a pattern is only created, which
+     * parses the pattern URL, the first time its parts are seen; subsequent links are added to it
+     * directly.  Patterns that can't be created are indexed too, so they are not retried.
      */
     private static class PageCandidatesMap {
         private static class Info {
             private final PagePattern mPattern;
             private final List<PageLinkInfo> mLinks;
 
-            Info(PagePattern pattern, PageLinkInfo link) {
+            Info(PagePattern pattern) {
                 mPattern = pattern;
                 mLinks = new ArrayList<PageLinkInfo>();
-                mLinks.add(link);
             }
         }
 
         private final Map<String, Info> map = new HashMap<String, Info>();
+        private final Map<String, Map<String, Info>> mPrefixIndex =
+                new HashMap<String, Map<String, Info>>();
+
+        /**
+         * Adds a link whose page param value is pageParamValue to the pattern formed by prefix,
+         * PAGE_PARAM_PLACEHOLDER and suffix.  If the pattern hasn't been seen yet, it is created by
+         * patternCreator; if it can't be created, the link is dropped.
+         */
+        private void add(String prefix, String suffix, PagePatternCreator patternCreator,
+                int pageNum, int pageParamValue, int posInAscendingNumbers) {
+            Map<String, Info> suffixes = mPrefixIndex.get(prefix);
+            if (suffixes == null) {
+                suffixes = new HashMap<String, Info>();
+                mPrefixIndex.put(prefix, suffixes);
+            }
+            Info info = suffixes.get(suffix);
+            if (info == null) {
+                PagePattern pattern = patternCreator.create();
+                info = new Info(pattern);
+                suffixes.put(suffix, info);
+                if (pattern != null) map.put(pattern.toString(), info);
+            }
+            if (info.mPattern == null) return;
+            info.mLinks.add(new PageLinkInfo(pageNum, pageParamValue, posInAscendingNumbers));
+        }
 
         /**
-         * Adds urlPattern with its PageLinkInfo into the map.  If the urlPattern already exists,
-         * adds the link to the list of LinkInfo's.  Otherwise, creates a new map entry.
+         * Adds a link to a pattern that can't be indexed by its parts.
          */
         private void add(PagePattern pattern, PageLinkInfo link) {
             final String patternStr = pattern.toString();
-            if (map.containsKey(patternStr)) {
-                map.get(patternStr).mLinks.add(link);
-            } else {
-                map.put(patternStr, new Info(pattern, link));
+            Info info = map.get(patternStr);
+            if (info == null) {
+                info = new Info(pattern);
+                map.put(patternStr, info);
             }
+            info.mLinks.add(link);
         }
     }
 
+    /**
+     * Creates the page pattern for a link the first time its pattern is seen.
+     */
+    private interface PagePatternCreator {
+        PagePattern create();
+    }
+
     /**
      * Keeps track of the detection state:
      * - best PageParamInfo detected so far
@@ -128,6 +164,8 @@ public class PageParameterDetector {
     private static class DetectionState {
         PageParamInfo mBestPageParamInfo = null;
         boolean mMultiPagePatterns = false;
+        // Whether mBestPageParamInfo was verified against a remembered page pattern.
+        boolean mIsRemembered = false;
 
         DetectionState() {
         }
@@ -181,6 +219,20 @@ public class PageParameterDetector {
      */
     public static PageParamInfo detect(MonotonicPageInfosGroups adjacentNumbersGroups,
             String docUrl) {
+        return detect(adjacentNumbersGroups, docUrl, "");
+    }
+
+    /**
+     * Same as {@link #detect(MonotonicPageInfosGroups, String)}, verifying a remembered page
+     * pattern first.  The page patterns whose signature (see getPatternSignature()) is
+     * rememberedSignature are evaluated before the others, and the first one that yields a
+     * PageParamInfo is returned without evaluating the rest.
+     *
+     * @param rememberedSignature the signature of the page pattern detected for other documents
+     * of the same host, or empty if there is none.
+     */
+    public static PageParamInfo detect(MonotonicPageInfosGroups adjacentNumbersGroups,
+            String docUrl, String rememberedSignature) {
         ParsedUrl parsedDocUrl = ParsedUrl.create(docUrl);
         if (parsedDocUrl == null) return new PageParamInfo();  // Invalid document URL.
         parsedDocUrl.setUsername("");
@@ -192,8 +244,14 @@ public class PageParameterDetector {
 
             DetectionState state = detectPageParamForMonotonicNumbers(group.mList,
                     group.mDeltaSign < 0, parsedDocUrl,
-                    detectionState.isEmpty() ? "" : detectionState.mBestPageParamInfo.mPagePattern);
-            if (state != null) detectionState.compareAndUpdate(state);
+                    detectionState.isEmpty() ? "" : detectionState.mBestPageParamInfo.mPagePattern,
+                    rememberedSignature);
+            if (state == null) continue;
+            if (state.mIsRemembered) {
+                detectionState = state;
+                break;
+            }
+            detectionState.compareAndUpdate(state);
         }  // for all adjacentNumbersGroups.
 
         if (detectionState.isEmpty()) return new PageParamInfo();
@@ -207,6 +265,7 @@ public class PageParameterDetector {
 
         final PageParamInfo bestPageParamInfo = detectionState.mBestPageParamInfo;
         bestPageParamInfo.determineNextPagingUrl(docUrl);
+        bestPageParamInfo.determinePrevPagingUrl(docUrl);
         return bestPageParamInfo;
     }
 
@@ -222,10 +281,11 @@ public class PageParameterDetector {
      * @param parsedDocUrl ParsedUrl of the current document URL that was parsed
      * @param acceptedPagePattern the best accepted URL pattern if available so far, which contains
      * a PAGE_PARAM_PLACEHOLDER to replace the page parameter, and yields the best PageParamInfo.
+     * @param rememberedSignature the signature of the remembered page pattern, or empty
      */
     private static DetectionState detectPageParamForMonotonicNumbers(
             List<PageParamInfo.PageInfo> monotonicNumbers, boolean isDescending,
-            ParsedUrl parsedDocUrl, String acceptedPagePattern) {
+            ParsedUrl parsedDocUrl, String acceptedPagePattern, String rememberedSignature) {
         // Count number of outlinks.
         int outlinks = 0;
         for (PageParamInfo.PageInfo pageInfo : monotonicNumbers) {
@@ -251,7 +311,8 @@ public class PageParameterDetector {
 
         // Now, extract the the page parameter.
         if (outlinks >= 2) {
-            return extractPageParam(monotonicNumbers, parsedDocUrl, acceptedPagePattern);
+            return extractPageParam(monotonicNumbers, parsedDocUrl, acceptedPagePattern,
+                    rememberedSignature);
         }
 
         return null;
@@ -270,9 +331,10 @@ public class PageParameterDetector {
      * @param ascendingNumbers list of PageParamInfo.PageInfo's with ascending mPageNum's.
      * @param parsedDocUrl ParsedUrl of the current document URL that was parsed
      * @param acceptedPagePattern the best accepted URL pattern if available so far
+     * @param rememberedSignature the signature of the remembered page pattern, or empty
     */
     private static DetectionState extractPageParam(List<PageParamInfo.PageInfo> ascendingNumbers,
-            ParsedUrl parsedDocUrl, String acceptedPagePattern) {
+            ParsedUrl parsedDocUrl, String acceptedPagePattern, String rememberedSignature) {
         // Eliminate calendar date links.
         if (areCalendarDates(ascendingNumbers)) return null;
 
@@ -306,38 +368,100 @@ public class PageParameterDetector {
             }
         }
 
+        // Verify the remembered page pattern first, if any.
+        if (!rememberedSignature.isEmpty()) {
+            for (Map.Entry<String, PageCandidatesMap.Info> entry :
+                    pageCandidates.map.entrySet()) {
+                if (!getPatternSignature(entry.getKey()).equals(rememberedSignature)) continue;
+                PageParamInfo pageParamInfo = evaluatePageCandidate(entry.getKey(),
+                        entry.getValue(), ascendingNumbers, parsedDocUrl, acceptedPagePattern,
+                        firstPageUrl);
+                if (pageParamInfo != null) {
+                    DetectionState state = new DetectionState(pageParamInfo);
+                    state.mIsRemembered = true;
+                    return state;
+                }
+            }
+        }
+
         // Determine which URL page pattern is valid with a valid, and the best, PageParamInfo.
         DetectionState state = new DetectionState();
         for (Map.Entry<String, PageCandidatesMap.Info> entry : pageCandidates.map.entrySet()) {
-            final String patternStr = entry.getKey();
-            final PageCandidatesMap.Info info = entry.getValue();
-            if (patternStr.equals(acceptedPagePattern) || info.mLinks.size() > MAX_PAGING_DOCS ||
-                    !info.mPattern.isValidFor(parsedDocUrl)) {
-                continue;
-            }
+            PageParamInfo pageParamInfo = evaluatePageCandidate(entry.getKey(), entry.getValue(),
+                    ascendingNumbers, parsedDocUrl, acceptedPagePattern, firstPageUrl);
+            if (pageParamInfo != null) state.compareAndUpdate(new DetectionState(pageParamInfo));
+        }  // for each URL pattern in pageCandidates.
+
+        return state.isEmpty() ? null : state;
+    }
 
-            PageParamInfo pageParamInfo = PageParamInfo.evaluate(info.mPattern, info.mLinks,
-                    ascendingNumbers, firstPageUrl);
-            if (pageParamInfo == null) continue;
+    /**
+     * Validates a page pattern and evaluates its links, see extractPageParam().
+     *
+     * @return the PageParamInfo of the page pattern, null if it's not valid.
+     */
+    private static PageParamInfo evaluatePageCandidate(String patternStr,
+            PageCandidatesMap.Info info, List<PageParamInfo.PageInfo> ascendingNumbers,
+            ParsedUrl parsedDocUrl, String acceptedPagePattern, String firstPageUrl) {
+        if (patternStr.equals(acceptedPagePattern) || info.mLinks.size() > MAX_PAGING_DOCS ||
+                !info.mPattern.isValidFor(parsedDocUrl)) {
+            return null;
+        }
 
-            // If feasible, insert current document URL as first page.
-            // Otherwise, we enhance the heuristic: if current document URL fits the paging pattern
-            // of the potential pagination URLs, consider it as first page too.
-            final String docUrl = parsedDocUrl.getCleanHref();
-            if (pageParamInfo.canInsertFirstPage(docUrl, ascendingNumbers)) {
+        PageParamInfo pageParamInfo = PageParamInfo.evaluate(info.mPattern, info.mLinks,
+                ascendingNumbers, firstPageUrl);
+        if (pageParamInfo == null) return null;
+
+        // If feasible, insert current document URL as first page.
+        // Otherwise, we enhance the heuristic: if current document URL fits the paging pattern
+        // of the potential pagination URLs, consider it as first page too.
+        final String docUrl = parsedDocUrl.getCleanHref();
+        if (pageParamInfo.canInsertFirstPage(docUrl, ascendingNumbers)) {
+            pageParamInfo.insertFirstPage(docUrl);
+        } else if (info.mPattern.isPagingUrl(docUrl)) {
+            final PageParamInfo.PageInfo firstPage = pageParamInfo.mAllPageInfo.get(0);
+            if (firstPage.mPageNum == 2 && !firstPage.mUrl.equals(docUrl) &&
+                    docUrl.length() < firstPage.mUrl.length()) {
                 pageParamInfo.insertFirstPage(docUrl);
-            } else if (info.mPattern.isPagingUrl(docUrl)) {
-                final PageParamInfo.PageInfo firstPage = pageParamInfo.mAllPageInfo.get(0);
-                if (firstPage.mPageNum == 2 && !firstPage.mUrl.equals(docUrl) &&
-                        docUrl.length() < firstPage.mUrl.length()) {
-                    pageParamInfo.insertFirstPage(docUrl);
-                }
             }
+        }
+        return pageParamInfo;
+    }
 
-            state.compareAndUpdate(new DetectionState(pageParamInfo));
-        }  // for each URL pattern in pageCandidates.
+    /**
+     * Returns the part of a page pattern that identifies how a site numbers its pages, regardless
+     * of the document, so that it can be remembered for other documents of the same host:
+     * - for a query param, its name, e.g. "page=[*!]" for "http://foo.com/a/b?page=[*!]&c=d"
+     * - for an entire path component, the previous path component, e.g. "/page/[*!]" for
+     *   "http://foo.com/a/page/[*!]/"
+     * - for part of a path component, the letters and separators just before the placeholder,
+     *   and the rest of the component, e.g. "-[*!].html" for "http://foo.com/a/b-123-[*!].html".
+     */
+    static String getPatternSignature(String pagePattern) {
+        final int placeholderStart = pagePattern.indexOf(PAGE_PARAM_PLACEHOLDER);
+        if (placeholderStart <= 0) return pagePattern;
+
+        int start;
+        final char prev = pagePattern.charAt(placeholderStart - 1);
+        if (prev == '=') {
+            start = Math.max(pagePattern.lastIndexOf('?', placeholderStart),
+                    pagePattern.lastIndexOf('&', placeholderStart)) + 1;
+        } else if (prev == '/') {
+            start = Math.max(0, pagePattern.lastIndexOf('/', placeholderStart - 2));
+        } else {
+            start = placeholderStart;
+            while (start > 0 && !Character.isLetterOrDigit(pagePattern.charAt(start - 1)) &&
+                    pagePattern.charAt(start - 1) != '/') {
+                start--;
+            }
+            while (start > 0 && Character.isLetter(pagePattern.charAt(start - 1))) start--;
+        }
 
-        return state.isEmpty() ? null : state;
+        int end = placeholderStart + PAGE_PARAM_PLACEHOLDER_LEN;
+        while (end < pagePattern.length() && "/?&#".indexOf(pagePattern.charAt(end)) == -1) {
+            end++;
+        }
+        return pagePattern.substring(start, end);
     }
 
     /**
@@ -366,23 +490,47 @@ public class PageParameterDetector {
      * @param posInAscendingNumbers position of this page number in the list of ascending numbers
      * @param pageCandidates the map of URL pattern to its associated list of PageLinkInfo's
      */
-    private static void extractPageParamCandidatesFromQuery(ParsedUrl url, int pageNum,
+    private static void extractPageParamCandidatesFromQuery(final ParsedUrl url, int pageNum,
             int posInAscendingNumbers, PageCandidatesMap pageCandidates) {
         String[][] queryParams = url.getQueryParams();
         if (queryParams.length == 0) return;  // No query.
 
+        final String urlStr = url.toString();
         for (int i = 0; i < queryParams.length; i++) {
-            String[] nameValue = queryParams[i];
-            PagePattern pattern = QueryParamPagePattern.create(url, i == 0, nameValue[0],
-                    nameValue[1]);
-            if (pattern != null) {
-                pageCandidates.add(pattern,
-                        new PageLinkInfo(pageNum, pattern.getPageNumber(), posInAscendingNumbers));
+            final String[] nameValue = queryParams[i];
+            final boolean isFirstQueryParam = i == 0;
+            // The value is checked here, so that a pattern that can't be created is always
+            // rejected because of the parts indexing it.
+            int value = StringUtil.toNumber(nameValue[1]);
+            if (value < 0) continue;
+
+            // Same as the pattern formed by ParsedUrl.replaceQueryValue().
+            String nameWithSeps = (isFirstQueryParam ? "?" : "&") + nameValue[0] + "=";
+            int start = urlStr.indexOf(nameWithSeps + nameValue[1]);
+            if (start < 0) {
+                PagePattern pattern = QueryParamPagePattern.create(url, isFirstQueryParam,
+                        nameValue[0], nameValue[1]);
+                if (pattern != null) {
+                    pageCandidates.add(pattern, new PageLinkInfo(pageNum, pattern.getPageNumber(),
+                            posInAscendingNumbers));
+                }
+                continue;
             }
+            int valueStart = start + nameWithSeps.length();
+            pageCandidates.add(urlStr.substring(0, valueStart),
+                    urlStr.substring(valueStart + nameValue[1].length()),
+                    new PagePatternCreator() {
+                        @Override
+                        public PagePattern create() {
+                            return QueryParamPagePattern.create(url, isFirstQueryParam,
+                                    nameValue[0], nameValue[1]);
+                        }
+                    },
+                    pageNum, value, posInAscendingNumbers);
         }
     }
 
-    private static RegExp sDigitsRegExp = null;  // Match at least 1 digit.
+    private static final String REG_DIGITS = "(\\d+)";  // Match at least 1 digit.
 
     /**
      * Extracts page parameter candidates from the path part of given URL (without query components)
@@ -399,7 +547,7 @@ public class PageParameterDetector {
      * @param pageCandidates the map of URL pattern to its associated list of PageLinkInfo's
      */
 
-    private static void extractPageParamCandidatesFromPath(ParsedUrl url, int pageNum,
+    private static void extractPageParamCandidatesFromPath(final ParsedUrl url, int pageNum,
             int posInAscendingNumbers, PageCandidatesMap pageCandidates) {
         String path = url.getTrimmedPath();
         if (path.isEmpty() || !StringUtil.containsDigit(path)) return;
@@ -408,20 +556,25 @@ public class PageParameterDetector {
         // PAGE_PARAM_PLACEHOLDER to formulate the page pattern, add it as page candidate.
         final String urlStr = url.toString();
         final int pathStart = url.getOrigin().length();
-        if (sDigitsRegExp == null) sDigitsRegExp = RegExp.compile("(\\d+)", "gi");
-        sDigitsRegExp.setLastIndex(pathStart);
+        RegExp digitsRegExp = RegExpRegistry.get(REG_DIGITS, "gi");
+        digitsRegExp.setLastIndex(pathStart);
         while (true) {
-            MatchResult match = sDigitsRegExp.exec(urlStr);
+            MatchResult match = digitsRegExp.exec(urlStr);
             if (match == null) break;
 
-            final int matchEnd = sDigitsRegExp.getLastIndex();
+            final int matchEnd = digitsRegExp.getLastIndex();
             final int matchStart = matchEnd - match.getGroup(1).length();
-            PagePattern pattern = PathComponentPagePattern.create(url, pathStart, matchStart,
-                    matchEnd);
-            if (pattern != null) {
-                pageCandidates.add(pattern,
-                        new PageLinkInfo(pageNum, pattern.getPageNumber(), posInAscendingNumbers));
-            }
+            int value = StringUtil.toNumber(match.getGroup(1));
+            if (value < 0) continue;
+            pageCandidates.add(urlStr.substring(0, matchStart), urlStr.substring(matchEnd),
+                    new PagePatternCreator() {
+                        @Override
+                        public PagePattern create() {
+                            return PathComponentPagePattern.create(url, pathStart, matchStart,
+                                    matchEnd);
+                        }
+                    },
+                    pageNum, value, posInAscendingNumbers);
         }  // while there're matches
     }
 
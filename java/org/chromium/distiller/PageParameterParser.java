@@ -7,10 +7,8 @@ package org.chromium.distiller;
 import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
 
 import com.google.gwt.dom.client.AnchorElement;
-import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Node;
-import com.google.gwt.dom.client.NodeList;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.regexp.shared.MatchResult;
 import com.google.gwt.regexp.shared.RegExp;
@@ -56,41 +54,73 @@ public class PageParameterParser {
      * @param timingInfo for tracking performance.
      */
     public static PageParamInfo parse(String originalUrl, TimingInfo timingInfo) {
-        PageParameterParser parser = new PageParameterParser(timingInfo);
-        return parser.parseDocument(Document.get().getDocumentElement(), originalUrl);
+        return parse(AnchorSnapshot.create(
+                DistillationContext.getDocument().getDocumentElement(), originalUrl),
+                originalUrl, timingInfo);
     }
 
+    /**
+     * Same as {@link #parse(String, TimingInfo)}, reading the anchors from a snapshot that can be
+     * shared with other pagination algorithms.
+     *
+     * @param anchors the anchors of the document to be parsed.
+     * @param originalUrl the original URL of the document to be parsed.
+     * @param timingInfo for tracking performance.
+     */
+    public static PageParamInfo parse(AnchorSnapshot anchors, String originalUrl,
+            TimingInfo timingInfo) {
+        return parse(anchors, originalUrl, timingInfo, null);
+    }
+
+    /**
+     * Same as {@link #parse(AnchorSnapshot, String, TimingInfo)}, verifying the page pattern
+     * remembered for the host of the document first, and remembering the page pattern detected
+     * otherwise.
+     *
+     * @param anchors the anchors of the document to be parsed.
+     * @param originalUrl the original URL of the document to be parsed.
+     * @param timingInfo for tracking performance.
+     * @param store the page patterns remembered per host, can be null.
+     */
+    public static PageParamInfo parse(AnchorSnapshot anchors, String originalUrl,
+            TimingInfo timingInfo, PaginationPatternStore store) {
+        PageParameterParser parser = new PageParameterParser(anchors, timingInfo, store);
+        return parser.parseDocument(originalUrl);
+    }
+
+    private final AnchorSnapshot mAnchors;
     private final TimingInfo mTimingInfo;
+    private final PaginationPatternStore mStore;
     private String mDocUrl = "";
     private ParsedUrl mParsedUrl = null;
     private final MonotonicPageInfosGroups mAdjacentNumbersGroups = new MonotonicPageInfosGroups();
     private int mNumForwardLinksProcessed = 0;
 
-    private static RegExp sHrefCleaner = RegExp.compile("\\/$");
-    private static RegExp sInvalidParentWrapper = null;
+    private static final String REG_HREF_CLEANER = "\\/$";
+    private static final String REG_INVALID_PARENT_WRAPPER = "(BODY)|(HTML)";
 
-    private PageParameterParser(TimingInfo timingInfo) {
+    private PageParameterParser(AnchorSnapshot anchors, TimingInfo timingInfo,
+            PaginationPatternStore store) {
+        mAnchors = anchors;
         mTimingInfo = timingInfo;
+        mStore = store;
     }
 
     /**
      * Actually implements PageParameterParser.parse(), see above description for parse().
      */
-    private PageParamInfo parseDocument(Element root, String originalUrl) {
+    private PageParamInfo parseDocument(String originalUrl) {
         double startTime = DomUtil.getTime();
 
-        mDocUrl = sHrefCleaner.replace(originalUrl, "");
+        mDocUrl = RegExpRegistry.get(REG_HREF_CLEANER).replace(originalUrl, "");
         mParsedUrl = ParsedUrl.create(mDocUrl);
         if (mParsedUrl == null) return new PageParamInfo();  // Invalid document URL.
 
-        AnchorElement baseAnchor = PagingLinksFinder.createAnchorWithBase(
-                PagingLinksFinder.getBaseUrlForRelative(root, originalUrl));
-
-        NodeList<Element> allLinks = root.getElementsByTagName("A");
         int idx = 0;
-        while (idx < allLinks.getLength()) {
-            final AnchorElement link = AnchorElement.as(allLinks.getItem(idx));
-            PageInfoAndText pageInfoAndText = getPageInfoAndText(link, baseAnchor);
+        while (idx < mAnchors.size()) {
+            AnchorSnapshot.Entry entry = mAnchors.get(idx);
+            final AnchorElement link = entry.getAnchor();
+            PageInfoAndText pageInfoAndText = getPageInfoAndText(entry);
             if (pageInfoAndText == null) {
                 idx++;
                 continue;
@@ -103,14 +133,14 @@ public class PageParameterParser {
 
             // Before we append the link to the new group of adjacent numbers, check if it's
             // preceded by a text node with numeric text; if so, add it before the link.
-            findAndAddClosestValidLeafNodes(link, false, true, null);
+            findAndAddClosestValidLeafNodes(link, false, true);
 
             // Add the link to the current group of adjacent numbers.
             mAdjacentNumbersGroups.addPageInfo(pageInfoAndText.mPageInfo);
 
             // Add all following text nodes and links with numeric text.
             mNumForwardLinksProcessed = 0;
-            findAndAddClosestValidLeafNodes(link, false, false, baseAnchor);
+            findAndAddClosestValidLeafNodes(link, false, false);
 
             // Skip the current link and links already processed in the forward
             // findandAddClosestValidLeafNodes().
@@ -122,7 +152,17 @@ public class PageParameterParser {
         LogUtil.addTimingInfo(startTime, mTimingInfo, "PageParameterParser");
 
         startTime = DomUtil.getTime();
-        PageParamInfo info = PageParameterDetector.detect(mAdjacentNumbersGroups, mDocUrl);
+        final String host = mParsedUrl.getHost();
+        PaginationPatternStore.Entry remembered = mStore == null ? null : mStore.get(host);
+        PageParamInfo info = PageParameterDetector.detect(mAdjacentNumbersGroups, mDocUrl,
+                remembered == null ? "" : remembered.getPagePatternSignature());
+        if (mStore != null && !info.mPagePattern.isEmpty()) {
+            String signature = PageParameterDetector.getPatternSignature(info.mPagePattern);
+            if (remembered == null || !signature.equals(remembered.getPagePatternSignature())) {
+                mStore.put(host, PaginationPatternStore.Entry.withPagePatternSignature(
+                        remembered, signature));
+            }
+        }
         LogUtil.addTimingInfo(startTime, mTimingInfo, "PageParameterDetector");
         return info;
     }
@@ -132,19 +172,18 @@ public class PageParameterParser {
      * Otherwise, returns null if link is to be ignored.
      * "javascript:" links with numeric text are considered valid links to be added.
      *
-     * @param link to process.
-     * @param baseAnchor created for the current document.
+     * @param entry of the link to process.
      */
-    private PageInfoAndText getPageInfoAndText(AnchorElement link, AnchorElement baseAnchor) {
+    private PageInfoAndText getPageInfoAndText(AnchorSnapshot.Entry entry) {
         // Ignore invisible links.
-        if (!DomUtil.isVisible(link)) return null;
+        if (!entry.isVisible()) return null;
 
-        // Use javascript innerText (instead of javascript textContent) to only get visible text.
-        String linkText = StringUtil.jsTrim(DomUtil.getInnerText(link));
+        String linkText = StringUtil.jsTrim(entry.getText());
         int number = linkTextToNumber(linkText);
         if (!isPlainPageNumber(number)) return null;
 
-        String linkHref = resolveLinkHref(link, baseAnchor);
+        // Anchors without "href" attribute are not considered potential pagination links.
+        String linkHref = entry.getHref().isEmpty() ? "" : entry.getResolvedHref();
         final boolean isEmptyHref = linkHref.isEmpty();
         boolean isJavascriptLink = false;
         ParsedUrl url = null;
@@ -158,11 +197,12 @@ public class PageParameterParser {
             url.setHash("");
         }
 
-        if (isEmptyHref || isJavascriptLink || isDisabledLink(link)) {
+        if (isEmptyHref || isJavascriptLink || isDisabledLink(entry)) {
             return new PageInfoAndText(number, "", linkText);
         }
 
-        return new PageInfoAndText(number, sHrefCleaner.replace(url.toString(), ""), linkText);
+        return new PageInfoAndText(number,
+                RegExpRegistry.get(REG_HREF_CLEANER).replace(url.toString(), ""), linkText);
     }
 
     /**
@@ -186,19 +226,17 @@ public class PageParameterParser {
      * start node is checked.
      * @param backward true to search backward (i.e. nodes before start node), false to search
      * forward (i.e. nodes after start node).
-     * @param baseAnchor created for the current document, only needed for forward search.
      */
     private boolean findAndAddClosestValidLeafNodes(Node start, boolean checkStart,
-            boolean backward, AnchorElement baseAnchor) {
+            boolean backward) {
         Node node = checkStart ? start :
                 (backward ? start.getPreviousSibling() : start.getNextSibling());
         if (node == null) {  // No sibling, try parent.
             node = start.getParentNode();
-            if (sInvalidParentWrapper == null) {
-                sInvalidParentWrapper = RegExp.compile("(BODY)|(HTML)");
+            if (RegExpRegistry.get(REG_INVALID_PARENT_WRAPPER).test(node.getNodeName())) {
+                return false;
             }
-            if (sInvalidParentWrapper.test(node.getNodeName())) return false;
-            return findAndAddClosestValidLeafNodes(node, false, backward, baseAnchor);
+            return findAndAddClosestValidLeafNodes(node, false, backward);
         }
 
         checkStart = false;
@@ -220,7 +258,7 @@ public class PageParameterParser {
                     if (backward) return false;
                     // For forward search, we're done only if link was invalid, otherwise continue.
                     mNumForwardLinksProcessed++;
-                    if (!addLinkIfValid(AnchorElement.as(e), baseAnchor)) return false;
+                    if (!addLinkIfValid(e)) return false;
                     break;
                 }
                 // Intentionally fall through.
@@ -241,11 +279,13 @@ public class PageParameterParser {
                 break;
         }
 
-        return findAndAddClosestValidLeafNodes(node, checkStart, backward, baseAnchor);
+        return findAndAddClosestValidLeafNodes(node, checkStart, backward);
     }
 
-    private static RegExp sTermsRegExp = null;  // Match terms i.e. words.
-    private static RegExp sSurroundingDigitsRegExp = null;  // Match term with only digits.
+    // Match terms i.e. words.
+    private static final String REG_TERMS = "(\\S*[\\w\u00C0-\u1FFF\u2C00-\uD7FF]\\S*)";
+    // Match term with only digits.
+    private static final String REG_SURROUNDING_DIGITS = "^[\\W_]*(\\d+)[\\W_]*$";
 
     /**
      * Handle the text for a non-link node.  Each numeric term in the text that is a valid plain
@@ -263,25 +303,20 @@ public class PageParameterParser {
             return false;
         }
 
-        if (sTermsRegExp == null) {
-            sTermsRegExp = RegExp.compile("(\\S*[\\w\u00C0-\u1FFF\u2C00-\uD7FF]\\S*)", "gi");
-        } else {
-            sTermsRegExp.setLastIndex(0);
-        }
-        if (sSurroundingDigitsRegExp == null) {
-            sSurroundingDigitsRegExp = RegExp.compile("^[\\W_]*(\\d+)[\\W_]*$", "i");
-        }
+        RegExp termsRegExp = RegExpRegistry.get(REG_TERMS, "gi");
+        termsRegExp.setLastIndex(0);
+        RegExp surroundingDigitsRegExp = RegExpRegistry.get(REG_SURROUNDING_DIGITS, "i");
 
         // Extract terms from the text, differentiating between those that contain only digits and
         // those that contain non-digits.
         boolean added = false;
         while (true) {
-            MatchResult match = sTermsRegExp.exec(text);
+            MatchResult match = termsRegExp.exec(text);
             if (match == null) break;
             if (match.getGroupCount() <= 1) continue;
 
             String term = match.getGroup(1);
-            MatchResult termWithDigits = sSurroundingDigitsRegExp.exec(term);
+            MatchResult termWithDigits = surroundingDigitsRegExp.exec(term);
             int number = -1;
             if (termWithDigits != null && termWithDigits.getGroupCount() > 1) {
                 number = StringUtil.toNumber(termWithDigits.getGroup(1));
@@ -307,8 +342,9 @@ public class PageParameterParser {
      *
      * @Return true if link was added, false otherwise.
      */
-    private boolean addLinkIfValid(AnchorElement link, AnchorElement baseAnchor) {
-        PageInfoAndText pageInfoAndText = getPageInfoAndText(link, baseAnchor);
+    private boolean addLinkIfValid(Element link) {
+        AnchorSnapshot.Entry entry = mAnchors.getEntry(link);
+        PageInfoAndText pageInfoAndText = entry == null ? null : getPageInfoAndText(entry);
         if (pageInfoAndText != null) {
             mAdjacentNumbersGroups.addPageInfo(pageInfoAndText.mPageInfo);
             return true;
@@ -320,9 +356,8 @@ public class PageParameterParser {
     /**
      * @return true if link is disabled i.e. not clickable because it has a text cursor.
      */
-    private static boolean isDisabledLink(AnchorElement link) {
-        Style style = DomUtil.getComputedStyle(link);
-        return Style.Cursor.valueOf(style.getCursor().toUpperCase()) == Style.Cursor.TEXT;
+    private static boolean isDisabledLink(AnchorSnapshot.Entry entry) {
+        return Style.Cursor.valueOf(entry.getCursor().toUpperCase()) == Style.Cursor.TEXT;
     }
 
     /**
@@ -332,14 +367,6 @@ public class PageParameterParser {
         return href.startsWith("javascript:");
     }
 
-    private static String resolveLinkHref(AnchorElement link, AnchorElement baseAnchor) {
-        // Anchors without "href" attribute are not considered potential pagination links.
-        String linkHref = link.getAttribute("href");
-        if (linkHref.isEmpty()) return "";
-        baseAnchor.setAttribute("href", linkHref);
-        return baseAnchor.getHref();
-    }
-
     private static int linkTextToNumber(String linkText) {
         linkText = linkText.replaceAll("[()\\[\\]{}]", "");
         linkText = linkText.trim();  // Remove leading and trailing white spaces.
@@ -0,0 +1,67 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+/**
+ * Remembers, per host, how the pages of a site are paginated, so that the pagination of the next
+ * page distilled from the same host can be verified against what was found before instead of
+ * being detected from scratch.  Sites tend to reuse the same pagination scheme across all of their
+ * articles.
+ *
+ * Two things are remembered:
+ * - the signature of the winning page pattern of PageParameterDetector, see
+ *   PageParameterDetector.getPatternSignature()
+ * - the signature of the winning next page link of PagingLinksFinder, see
+ *   PagingLinksFinder.getLinkSignature().
+ */
+public interface PaginationPatternStore {
+    /**
+     * What is remembered about the pagination of a host.  An empty signature means nothing is
+     * known.
+     */
+    class Entry {
+        private final String mPagePatternSignature;
+        private final String mNextLinkSignature;
+
+        public Entry(String pagePatternSignature, String nextLinkSignature) {
+            mPagePatternSignature = pagePatternSignature;
+            mNextLinkSignature = nextLinkSignature;
+        }
+
+        public String getPagePatternSignature() {
+            return mPagePatternSignature;
+        }
+
+        public String getNextLinkSignature() {
+            return mNextLinkSignature;
+        }
+
+        /**
+         * @return A copy of |entry| with its page pattern signature replaced, or a new entry if
+         * |entry| is null.
+         */
+        public static Entry withPagePatternSignature(Entry entry, String signature) {
+            return new Entry(signature, entry == null ? "" : entry.mNextLinkSignature);
+        }
+
+        /**
+         * @return A copy of |entry| with its next link signature replaced, or a new entry if
+         * |entry| is null.
+         */
+        public static Entry withNextLinkSignature(Entry entry, String signature) {
+            return new Entry(entry == null ? "" : entry.mPagePatternSignature, signature);
+        }
+    }
+
+    /**
+     * @return The entry remembered for |host|, or null if there is none.
+     */
+    Entry get(String host);
+
+    /**
+     * Remembers |entry| for |host|, replacing any previous entry.
+     */
+    void put(String host, Entry entry);
+}
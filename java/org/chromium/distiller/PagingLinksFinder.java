@@ -38,32 +38,64 @@ import java.util.Set;
  */
 public class PagingLinksFinder {
     // Match for next page: next, continue, >, >>, » but not >|, »| as those usually mean last.
-    private static final RegExp REG_NEXT_LINK =
-            RegExp.compile("(next|weiter|continue|>([^\\|]|$)|»([^\\|]|$))", "i");
-    private static final RegExp REG_PREV_LINK = RegExp.compile("(prev|early|old|new|<|«)", "i");
-    private static final RegExp REG_POSITIVE = RegExp.compile(
-            "article|body|content|entry|hentry|main|page|pagination|post|text|blog|story", "i");
-    private static final RegExp REG_NEGATIVE = RegExp.compile(
+    // These regexes are case-insensitive, see regExp().
+    private static final String REG_NEXT_LINK = "(next|weiter|continue|>([^\\|]|$)|»([^\\|]|$))";
+    private static final String REG_PREV_LINK = "(prev|early|old|new|<|«)";
+    private static final String REG_POSITIVE =
+            "article|body|content|entry|hentry|main|page|pagination|post|text|blog|story";
+    private static final String REG_NEGATIVE =
             "combx|comment|com-|contact|foot|footer|footnote|masthead|media|meta"
                     + "|outbrain|promo|related|shoutbox|sidebar|sponsor|shopping|tags"
-                    + "|tool|widget",
-            "i");
-    private static final RegExp REG_EXTRANEOUS = RegExp.compile(
+                    + "|tool|widget";
+    private static final String REG_EXTRANEOUS =
             "print|archive|comment|discuss|e[\\-]?mail|share|reply|all|login|sign|single"
-                    + "|as one|article|post|篇",
-            "i");
-    private static final RegExp REG_PAGINATION = RegExp.compile("pag(e|ing|inat)", "i");
-    private static final RegExp REG_LINK_PAGINATION =
-            RegExp.compile("p(a|g|ag)?(e|ing|ination)?(=|\\/)[0-9]{1,2}$", "i");
-    private static final RegExp REG_FIRST_LAST = RegExp.compile("(first|last)", "i");
-    private static final RegExp REG_HREF_CLEANER = RegExp.compile("/?(#.*)?$");
-    private static final RegExp REG_NUMBER = RegExp.compile("\\d");
+                    + "|as one|article|post|篇";
+    private static final String REG_PAGINATION = "pag(e|ing|inat)";
+    private static final String REG_LINK_PAGINATION =
+            "p(a|g|ag)?(e|ing|ination)?(=|\\/)[0-9]{1,2}$";
+    private static final String REG_FIRST_LAST = "(first|last)";
+    private static final String REG_HREF_CLEANER = "/?(#.*)?$";
+    private static final String REG_NUMBER = "\\d";
+
+    // The score above which a text-based paging link wins over a disagreeing page number pattern,
+    // e.g. a "next" link in a pagination container whose URL has paging info.
+    private static final int STRONG_LINK_SCORE = 100;
+
+    // The allowed prefix of the last getPrefixNumRegExp() call, and its RegExp.
+    private static String sPrefixNumPrefix;
+    private static RegExp sPrefixNumRegExp;
 
     public static DomDistillerProtos.PaginationInfo getPaginationInfo(String original_url) {
+        return getPaginationInfo(
+                AnchorSnapshot.create(
+                        DistillationContext.getDocument().getDocumentElement(), original_url),
+                original_url);
+    }
+
+    /**
+     * @param anchors The anchors of the document, which can be shared with other pagination
+     *        algorithms.
+     * @param original_url The original url of the page being processed.
+     * @return The pagination info for the document.
+     */
+    public static DomDistillerProtos.PaginationInfo getPaginationInfo(
+            AnchorSnapshot anchors, String original_url) {
+        return getPaginationInfo(anchors, original_url, null);
+    }
+
+    /**
+     * Same as {@link #getPaginationInfo(AnchorSnapshot, String)}, verifying the next page link
+     * remembered for the host of the page first, and remembering the next page link found
+     * otherwise.
+     *
+     * @param store The paging links remembered per host, can be null.
+     */
+    public static DomDistillerProtos.PaginationInfo getPaginationInfo(
+            AnchorSnapshot anchors, String original_url, PaginationPatternStore store) {
         DomDistillerProtos.PaginationInfo info = DomDistillerProtos.PaginationInfo.create();
-        String next = findNext(Document.get().getDocumentElement(), original_url);
+        PagingLinkObj next = findNextPagingLink(anchors, original_url, store);
         if (next != null) {
-            info.setNextPage(next);
+            info.setNextPage(next.mLinkHref);
         }
         return info;
     }
@@ -73,7 +105,16 @@ public class PagingLinksFinder {
      * @return The next page link for the document.
      */
     public static String findNext(Element root, String original_url) {
-        return findPagingLink(root, original_url, PageLink.NEXT);
+        return findNext(AnchorSnapshot.create(root, original_url), original_url);
+    }
+
+    /**
+     * @param anchors The anchors of the document.
+     * @param original_url The original url of the page being processed.
+     * @return The next page link for the document.
+     */
+    public static String findNext(AnchorSnapshot anchors, String original_url) {
+        return findPagingLink(anchors, original_url, PageLink.NEXT);
     }
 
     /**
@@ -81,13 +122,107 @@ public class PagingLinksFinder {
      * @return The previous page link for the document.
      */
     public static String findPrevious(Element root, String original_url) {
-        return findPagingLink(root, original_url, PageLink.PREV);
+        return findPrevious(AnchorSnapshot.create(root, original_url), original_url);
     }
 
-    private static String findPagingLink(Element root, String original_url, PageLink pageLink) {
+    /**
+     * @param anchors The anchors of the document.
+     * @param original_url The original url of the page being processed.
+     * @return The previous page link for the document.
+     */
+    public static String findPrevious(AnchorSnapshot anchors, String original_url) {
+        return findPagingLink(anchors, original_url, PageLink.PREV);
+    }
+
+    private static String findPagingLink(AnchorSnapshot anchors, String original_url,
+            PageLink pageLink) {
+        PagingLinkObj topPage = findTopPagingLink(anchors, original_url, pageLink);
+        return topPage == null ? null : topPage.mLinkHref;
+    }
+
+    /**
+     * Finds the next page link, verifying the link remembered in |store| first, see
+     * findRememberedNextLink().  If there is none, falls back to findTopPagingLink(), and
+     * remembers the link found.
+     */
+    private static PagingLinkObj findNextPagingLink(AnchorSnapshot anchors, String original_url,
+            PaginationPatternStore store) {
+        if (store == null) return findTopPagingLink(anchors, original_url, PageLink.NEXT);
+
+        ParsedUrl url = ParsedUrl.create(original_url);
+        final String host = url == null ? "" : url.getHost();
+        PaginationPatternStore.Entry remembered = store.get(host);
+        if (remembered != null && !remembered.getNextLinkSignature().isEmpty()) {
+            PagingLinkObj next = findRememberedNextLink(anchors, original_url,
+                    remembered.getNextLinkSignature());
+            if (next != null) return next;
+        }
+
+        PagingLinkObj next = findTopPagingLink(anchors, original_url, PageLink.NEXT);
+        if (next != null && !host.isEmpty()) {
+            store.put(host, PaginationPatternStore.Entry.withNextLinkSignature(remembered,
+                    getLinkSignature(anchors.get(next.mLinkIndex))));
+        }
+        return next;
+    }
+
+    /**
+     * @return The signature of a paging link, which identifies the link across the pages of a
+     * site: its text, class name and ID.
+     */
+    static String getLinkSignature(AnchorSnapshot.Entry entry) {
+        return StringUtil.jsTrim(entry.getText()) + "\n" + entry.getClassName() + "\n" +
+                entry.getId();
+    }
+
+    /**
+     * Looks for the visible links whose signature is |signature|, e.g. the "Next" link of an
+     * earlier page of the same site, without scoring any link.
+     *
+     * @return The next page link, or null if no link has the signature, if the links with the
+     * signature point to different pages, or if they point to a page the text heuristics would
+     * have ignored outright: another host, the current page, or a URL without a number.
+     */
+    private static PagingLinkObj findRememberedNextLink(AnchorSnapshot anchors,
+            String original_url, String signature) {
+        String wndLocationHref = StringUtil.findAndReplace(original_url, "\\/$", "");
+        String allowedPrefix = getScheme(original_url) + "://" + getHostname(original_url) + "/";
+        RegExp regPrefixNum = getPrefixNumRegExp(allowedPrefix);
+
+        PagingLinkObj found = null;
+        for (AnchorSnapshot.Entry entry : anchors.getEntries()) {
+            if (entry.getWidth() == 0 || entry.getHeight() == 0 || !entry.isVisible()) continue;
+            if (!getLinkSignature(entry).equals(signature)) continue;
+
+            String linkHref = entry.getResolvedHref();
+            if (!regPrefixNum.test(linkHref)) return null;
+            // Remove url anchor and then trailing '/' from link's href, as findTopPagingLink()
+            // does.
+            linkHref = StringUtil.findAndReplace(
+                    RegExpRegistry.get(REG_HREF_CLEANER).replace(linkHref, ""), "\\/$", "");
+            if (linkHref.equalsIgnoreCase(wndLocationHref)) return null;
+            if (found == null) {
+                found = new PagingLinkObj(entry.getIndex(), 50, entry.getText(), linkHref);
+            } else if (!found.mLinkHref.equals(linkHref)) {
+                return null;
+            }
+        }
+
+        if (found != null && LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_PAGING_INFO)) {
+            LogUtil.logToConsole("remembered next page link: " + found.mLinkHref);
+        }
+        return found;
+    }
+
+    /**
+     * @return The paging link with the highest score of at least 50, with its trailing '/'
+     * removed, or null if there is none.
+     */
+    private static PagingLinkObj findTopPagingLink(AnchorSnapshot anchors, String original_url,
+            PageLink pageLink) {
         // findPagingLink() is static, so clear mLinkDebugInfo before processing the links.
         if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_PAGING_INFO)) {
-            mLinkDebugInfo.clear();
+            mLinkDebugInfo = new HashMap<Element, String>();
         }
 
         String folderUrl = StringUtil.findAndReplace(original_url, "\\/[^/]*$", "");
@@ -95,28 +230,25 @@ public class PagingLinksFinder {
         // Remove trailing '/' from window location href, because it'll be used to compare with
         // other href's whose trailing '/' are also removed.
         String wndLocationHref = StringUtil.findAndReplace(original_url, "\\/$", "");
-        NodeList<Element> allLinks = root.getElementsByTagName("A");
         Set<PagingLinkObj> possiblePages = new HashSet<PagingLinkObj>();
         Set<String> bannedUrls = new HashSet<String>();
 
-        AnchorElement baseAnchor = createAnchorWithBase(getBaseUrlForRelative(root, original_url));
-
         // The trailing "/" is essential to ensure the whole hostname is matched, and not just the
         // prefix of the hostname. It also maintains the requirement of having a "path" in the URL.
         String allowedPrefix = getScheme(original_url) + "://" + getHostname(original_url) + "/";
-        RegExp regPrefixNum = RegExp.compile("^" + StringUtil.regexEscape(allowedPrefix) + ".*\\d", "i");
+        RegExp regPrefixNum = getPrefixNumRegExp(allowedPrefix);
 
         // Loop through all links, looking for hints that they may be next- or previous- page links.
         // Things like having "page" in their textContent, className or id, or being a child of a
         // node with a page-y className or id.
         // Also possible: levenshtein distance? longest common subsequence?
         // After we do that, assign each page a score.
-        for (int i = 0; i < allLinks.getLength(); i++) {
-            AnchorElement link = AnchorElement.as(allLinks.getItem(i));
+        for (AnchorSnapshot.Entry entry : anchors.getEntries()) {
+            AnchorElement link = entry.getAnchor();
 
-            // Note that AnchorElement.getHref() returns the absolute URI, so there's no need to
-            // worry about relative links.
-            String linkHref = resolveLinkHref(link, baseAnchor);
+            // The snapshot has already resolved the href against the base URL, so there's no need
+            // to worry about relative links.
+            String linkHref = entry.getResolvedHref();
 
             if (pageLink == PageLink.NEXT) {
                 if (!regPrefixNum.test(linkHref)) {
@@ -130,20 +262,20 @@ public class PagingLinksFinder {
                 }
             }
 
-            int width = link.getOffsetWidth();
-            int height = link.getOffsetHeight();
+            int width = entry.getWidth();
+            int height = entry.getHeight();
             if (width == 0 || height == 0) {
                 appendDbgStrForLink(link, "ignored: sz=" + width + "x" + height);
                 continue;
             }
 
-            if (!DomUtil.isVisible(link)) {
+            if (!entry.isVisible()) {
                 appendDbgStrForLink(link, "ignored: invisible");
                 continue;
             }
 
             // Remove url anchor and then trailing '/' from link's href.
-            linkHref = REG_HREF_CLEANER.replace(linkHref, "");
+            linkHref = RegExpRegistry.get(REG_HREF_CLEANER).replace(linkHref, "");
             appendDbgStrForLink(link, "-> " + linkHref);
 
             // Ignore page link that is the same as current window location.
@@ -158,9 +290,7 @@ public class PagingLinksFinder {
                 continue;
             }
 
-            // Use javascript innerText (instead of javascript textContent) to only get visible
-            // text.
-            String linkText = DomUtil.getInnerText(link);
+            String linkText = entry.getText();
 
             // If the linkText looks like it's not the next or previous page, skip it.
             if (linkText.length() > 25) {
@@ -170,7 +300,7 @@ public class PagingLinksFinder {
 
             // If the linkText contains banned text, skip it, and also ban other anchors with the
             // same link URL.
-            if (REG_EXTRANEOUS.test(linkText)) {
+            if (regExp(REG_EXTRANEOUS).test(linkText)) {
                 appendDbgStrForLink(link, "ignored: one of extra");
                 bannedUrls.add(linkHref);
                 continue;
@@ -187,14 +317,14 @@ public class PagingLinksFinder {
                 if (linkHref.startsWith(folderUrl)) {
                     linkHrefRemaining = linkHref.substring(folderUrl.length());
                 }
-                if (!REG_NUMBER.test(linkHrefRemaining)) {
+                if (!RegExpRegistry.get(REG_NUMBER).test(linkHrefRemaining)) {
                     appendDbgStrForLink(link, "ignored: no number beyond folder url " + folderUrl);
                     continue;
                 }
             }
 
             PagingLinkObj linkObj = null;
-            linkObj = new PagingLinkObj(i, 0, linkText, linkHref);
+            linkObj = new PagingLinkObj(entry.getIndex(), 0, linkText, linkHref);
             possiblePages.add(linkObj);
 
             // If the folder URL isn't part of this URL, penalize this link.  It could still be the
@@ -208,37 +338,39 @@ public class PagingLinksFinder {
 
             // Concatenate the link text with class name and id, and determine the score based on
             // existence of various paging-related words.
-            String linkData = linkText + " " + link.getAttribute("class") + " " + link.getId();
+            String linkData = linkText + " " + entry.getClassName() + " " + entry.getId();
             appendDbgStrForLink(link, "txt+class+id=" + linkData);
-            if (pageLink == PageLink.NEXT ? REG_NEXT_LINK.test(linkData)
-                                          : REG_PREV_LINK.test(linkData)) {
+            if (pageLink == PageLink.NEXT ? regExp(REG_NEXT_LINK).test(linkData)
+                                          : regExp(REG_PREV_LINK).test(linkData)) {
                 linkObj.mScore += 50;
                 appendDbgStrForLink(link, "score=" + linkObj.mScore + ": has " +
                         (pageLink == PageLink.NEXT ? "next" : "prev" + " regex"));
             }
-            if (REG_PAGINATION.test(linkData)) {
+            if (regExp(REG_PAGINATION).test(linkData)) {
                 linkObj.mScore += 25;
                 appendDbgStrForLink(link, "score=" + linkObj.mScore + ": has pag* word");
             }
-            if (REG_FIRST_LAST.test(linkData)) {
+            if (regExp(REG_FIRST_LAST).test(linkData)) {
                 // -65 is enough to negate any bonuses gotten from a > or » in the text.
                 // If we already matched on "next", last is probably fine.
                 // If we didn't, then it's bad.  Penalize.
                 // Same for "prev".
-                if ((pageLink == PageLink.NEXT && !REG_NEXT_LINK.test(linkObj.mLinkText))
-                        || (pageLink == PageLink.PREV && !REG_PREV_LINK.test(linkObj.mLinkText))) {
+                if ((pageLink == PageLink.NEXT &&
+                            !regExp(REG_NEXT_LINK).test(linkObj.mLinkText))
+                        || (pageLink == PageLink.PREV &&
+                            !regExp(REG_PREV_LINK).test(linkObj.mLinkText))) {
                     linkObj.mScore -= 65;
                     appendDbgStrForLink(link, "score=" + linkObj.mScore +
                             ": has first|last but no " +
                             (pageLink == PageLink.NEXT ? "next" : "prev") + " regex");
                 }
             }
-            if (REG_NEGATIVE.test(linkData) || REG_EXTRANEOUS.test(linkData)) {
+            if (regExp(REG_NEGATIVE).test(linkData) || regExp(REG_EXTRANEOUS).test(linkData)) {
                 linkObj.mScore -= 50;
                 appendDbgStrForLink(link, "score=" + linkObj.mScore + ": has neg or extra regex");
             }
-            if (pageLink == PageLink.NEXT ? REG_PREV_LINK.test(linkData)
-                                          : REG_NEXT_LINK.test(linkData)) {
+            if (pageLink == PageLink.NEXT ? regExp(REG_PREV_LINK).test(linkData)
+                                          : regExp(REG_NEXT_LINK).test(linkData)) {
                 linkObj.mScore -= 200;
                 appendDbgStrForLink(link, "score=" + linkObj.mScore + ": has opp of " +
                         (pageLink == PageLink.NEXT ? "next" : "prev") + " regex");
@@ -249,7 +381,7 @@ public class PagingLinksFinder {
             Element parent = link.getParentElement();
             while (parent != null && (positiveMatch == false || negativeMatch == false)) {
                 String parentClassAndId = parent.getAttribute("class") + " " + parent.getId();
-                if (!positiveMatch && REG_PAGINATION.test(parentClassAndId)) {
+                if (!positiveMatch && regExp(REG_PAGINATION).test(parentClassAndId)) {
                     linkObj.mScore += 25;
                     positiveMatch = true;
                     appendDbgStrForLink(link,"score=" + linkObj.mScore +
@@ -258,10 +390,10 @@ public class PagingLinksFinder {
                 // TODO(kuan): to get 1st page for prev page link, this can't be applied; however,
                 // the non-application might be the cause of recursive prev page being returned,
                 // i.e. for page 1, it may incorrectly return page 3 for prev page link.
-                if (!negativeMatch && REG_NEGATIVE.test(parentClassAndId)) {
+                if (!negativeMatch && regExp(REG_NEGATIVE).test(parentClassAndId)) {
                     // If this is just something like "footer", give it a negative.
                     // If it's something like "body-and-footer", leave it be.
-                    if (!REG_POSITIVE.test(parentClassAndId)) {
+                    if (!regExp(REG_POSITIVE).test(parentClassAndId)) {
                         linkObj.mScore -= 25;
                         negativeMatch = true;
                         appendDbgStrForLink(link, "score=" + linkObj.mScore + ": negParent - " +
@@ -273,13 +405,14 @@ public class PagingLinksFinder {
 
             // If the URL looks like it has paging in it, add to the score.
             // Things like /page/2/, /pagenum/2, ?p=3, ?page=11, ?pagination=34.
-            if (REG_LINK_PAGINATION.test(linkHref) || REG_PAGINATION.test(linkHref)) {
+            if (regExp(REG_LINK_PAGINATION).test(linkHref) ||
+                    regExp(REG_PAGINATION).test(linkHref)) {
                 linkObj.mScore += 25;
                 appendDbgStrForLink(link, "score=" + linkObj.mScore + ": has paging info");
             }
 
             // If the URL contains negative values, give a slight decrease.
-            if (REG_EXTRANEOUS.test(linkHref)) {
+            if (regExp(REG_EXTRANEOUS).test(linkHref)) {
                 linkObj.mScore -= 15;
                 appendDbgStrForLink(link, "score=" + linkObj.mScore + ": has extra regex");
             }
@@ -335,15 +468,80 @@ public class PagingLinksFinder {
         String pagingHref = null;
         if (topPage != null) {
             pagingHref = StringUtil.findAndReplace(topPage.mLinkHref, "\\/$", "");
-            appendDbgStrForLink(allLinks.getItem(topPage.mLinkIndex), "found: score=" +
+            appendDbgStrForLink(anchors.get(topPage.mLinkIndex).getAnchor(), "found: score=" +
                     topPage.mScore + ", txt=[" + topPage.mLinkText + "], " + pagingHref);
         }
 
         if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_PAGING_INFO)) {
-            logDbgInfoToConsole(pageLink, pagingHref, allLinks);
+            logDbgInfoToConsole(pageLink, pagingHref, anchors);
+        }
+
+        if (topPage == null) return null;
+        return new PagingLinkObj(topPage.mLinkIndex, topPage.mScore, topPage.mLinkText,
+                pagingHref);
+    }
+
+    /**
+     * Finds the next and previous page links with the text heuristics of this class, and
+     * reconciles them with those of the page number pattern of PageParameterParser, |pageNumNext|
+     * and |pageNumPrev|, which are empty if there are none. Where they disagree, the page number
+     * pattern is preferred unless the text heuristics scored at least STRONG_LINK_SCORE. The
+     * canonical page is taken from the rel="canonical" link if there is one, or is the original url
+     * otherwise.
+     *
+     * PageParameterParser isn't part of the core script, so this is called by
+     * PageNumberPagination.getCombinedPaginationInfo(), which runs it first.
+     *
+     * @param root The root of the document.
+     * @param anchors The anchors of the document.
+     * @param original_url The original url of the page being processed.
+     * @param store The paging links remembered per host, can be null.
+     * @return The pagination info with next, previous and canonical pages.
+     */
+    static DomDistillerProtos.PaginationInfo getCombinedPaginationInfo(Element root,
+            AnchorSnapshot anchors, String original_url, String pageNumNext, String pageNumPrev,
+            PaginationPatternStore store) {
+        PagingLinkObj textNext = findNextPagingLink(anchors, original_url, store);
+        PagingLinkObj textPrev = findTopPagingLink(anchors, original_url, PageLink.PREV);
+
+        DomDistillerProtos.PaginationInfo info = DomDistillerProtos.PaginationInfo.create();
+        String next = reconcilePagingLinks(textNext, pageNumNext);
+        if (next != null) {
+            info.setNextPage(next);
+        }
+        String prev = reconcilePagingLinks(textPrev, pageNumPrev);
+        if (prev != null) {
+            info.setPrevPage(prev);
         }
+        String canonical = findCanonicalUrl(root, original_url);
+        info.setCanonicalPage(canonical != null ? canonical : original_url);
+        return info;
+    }
 
-        return pagingHref;
+    private static String reconcilePagingLinks(PagingLinkObj textLink, String pageNumUrl) {
+        if (pageNumUrl.isEmpty()) {
+            return textLink == null ? null : textLink.mLinkHref;
+        }
+        if (textLink == null || textLink.mLinkHref.equalsIgnoreCase(pageNumUrl)) {
+            return pageNumUrl;
+        }
+        return textLink.mScore >= STRONG_LINK_SCORE ? textLink.mLinkHref : pageNumUrl;
+    }
+
+    /**
+     * @return The absolute href of the first rel="canonical" link of the document, or null if
+     * there is none.
+     */
+    public static String findCanonicalUrl(Element root, String original_url) {
+        NodeList<Element> links = root.getElementsByTagName("LINK");
+        for (int i = 0; i < links.getLength(); i++) {
+            Element link = links.getItem(i);
+            if (!link.getAttribute("rel").equalsIgnoreCase("canonical")) continue;
+            String href = link.getAttribute("href");
+            if (href.isEmpty()) continue;
+            return UrlResolver.get(getBaseUrlForRelative(root, original_url)).resolve(href);
+        }
+        return null;
     }
 
     public static String getBaseUrlForRelative(Element root, String original_url) {
@@ -355,8 +553,8 @@ public class PagingLinksFinder {
         // If multiple <base> elements are specified, only the first href and
         // first target value are used; all others are ignored.
         // Reference: https://developer.mozilla.org/en-US/docs/Web/HTML/Element/base
-        AnchorElement baseAnchor = createAnchorWithBase(original_url);
-        return resolveLinkHref(BaseElement.as(bases.getItem(0)).getAttribute("href"), baseAnchor);
+        return new UrlResolver(original_url).resolve(
+                BaseElement.as(bases.getItem(0)).getAttribute("href"));
     }
 
     public static AnchorElement createAnchorWithBase(String base_url) {
@@ -371,7 +569,8 @@ public class PagingLinksFinder {
         return a;
     }
 
-    // The link is resolved using an anchor within a new HTML document with a base tag.
+    // The link is resolved using an anchor within a new HTML document with a base tag. Prefer
+    // UrlResolver, which doesn't go through the DOM.
     public static String resolveLinkHref(AnchorElement link, AnchorElement baseAnchor) {
         String linkHref = link.getAttribute("href");
         return resolveLinkHref(linkHref, baseAnchor);
@@ -430,7 +629,7 @@ public class PagingLinksFinder {
     }
 
     private static void logDbgInfoToConsole(PageLink pageLink, String pagingHref,
-            NodeList<Element> allLinks) {
+            AnchorSnapshot anchors) {
         // This logs the following to the console:
         // - number of links processed
         // - the next or previous page link found
@@ -441,16 +640,14 @@ public class PagingLinksFinder {
         // (TODO)kuan): investigate how to get logging when running "ant test.prod" - currently,
         // nothing appears.  In the meantime, throwing an exception with a log message at suspicious
         // codepoints can produce a call stack and help debugging, albeit tediously.
-        LogUtil.logToConsole("numLinks=" + allLinks.getLength() + ", found " +
+        LogUtil.logToConsole("numLinks=" + anchors.size() + ", found " +
                 (pageLink == PageLink.NEXT ? "next: " : "prev: ") +
                 (pagingHref != null ? pagingHref : "null"));
 
-        for (int i = 0; i < allLinks.getLength(); i++) {
-            AnchorElement link = AnchorElement.as(allLinks.getItem(i));
+        for (AnchorSnapshot.Entry entry : anchors.getEntries()) {
+            AnchorElement link = entry.getAnchor();
 
-            // Use javascript innerText (instead of javascript textContent) to get only visible
-            // text.
-            String text = DomUtil.getInnerText(link);
+            String text = entry.getText();
             // Trim unnecessary white spaces from text.
             String[] words = StringUtil.split(text, "\\s+");
             text = "";
@@ -459,11 +656,28 @@ public class PagingLinksFinder {
                 if (w < words.length - 1) text += " ";
             }
 
-            LogUtil.logToConsole(i + ")" + link.getHref() + ", txt=[" + text + "], dbg=[" +
-                    mLinkDebugInfo.get(link) + "]");
+            LogUtil.logToConsole(entry.getIndex() + ")" + entry.getResolvedHref() +
+                    ", txt=[" + text + "], dbg=[" + mLinkDebugInfo.get(link) + "]");
         }
     }
 
+    /**
+     * @return The case-insensitive RegExp of the URLs that start with |allowedPrefix| and contain
+     * a number. The last one is kept, as all the pagination lookups of a page use the same prefix.
+     */
+    private static RegExp getPrefixNumRegExp(String allowedPrefix) {
+        if (!allowedPrefix.equals(sPrefixNumPrefix)) {
+            sPrefixNumRegExp =
+                    RegExp.compile("^" + StringUtil.regexEscape(allowedPrefix) + ".*\\d", "i");
+            sPrefixNumPrefix = allowedPrefix;
+        }
+        return sPrefixNumRegExp;
+    }
+
+    private static RegExp regExp(String source) {
+        return RegExpRegistry.get(source, "i");
+    }
+
     private static class PagingLinkObj {
         private int mLinkIndex = -1;
         private int mScore = 0;
@@ -483,6 +697,8 @@ public class PagingLinksFinder {
         PREV,
     }
 
-    private static final Map<Element, String> mLinkDebugInfo = new HashMap<Element, String>();
+    // Only used at DEBUG_LEVEL_PAGING_INFO. Not initialized statically, so that this class has no
+    // static initializer.
+    private static Map<Element, String> mLinkDebugInfo;
 
 }
@@ -4,94 +4,38 @@
 
 package org.chromium.distiller;
 
-import com.google.gwt.core.client.JavaScriptObject;
-import com.google.gwt.regexp.shared.RegExp;
-
 /**
- * Wraps a javascript URL object and its URLUtils properties, with additional methods and instance
- * fields as needed.
+ * A parsed absolute URL, with the same properties and normalization as the URLUtils of a
+ * javascript URL object, for the URLs distiller deals with:
+ * - scheme and host are lowercased, and the default port is dropped
+ * - hierarchical paths have their dot segments removed, and are "/" if empty
+ * - characters that are not allowed in the path, query or fragment are percent-encoded
+ * International domain names are kept as is instead of being converted to punycode.
+ *
+ * This is implemented in Java so that parsing doesn't need to cross into javascript for every
+ * candidate link; see UrlResolver for resolving relative URLs.
  */
 public final class ParsedUrl {
+    private static final String[] SPECIAL_SCHEMES = {"http", "https", "ftp", "ws", "wss", "file"};
+    private static final String[] DEFAULT_PORTS = {"80", "443", "21", "80", "443", ""};
+
+    // Characters that are percent-encoded in addition to controls, space and non-ASCII.
+    private static final String PATH_ENCODE_SET = "\"#<>?`{}";
+    private static final String QUERY_ENCODE_SET = "\"#<>";
+    private static final String SPECIAL_QUERY_ENCODE_SET = "\"#<>'";
+    private static final String FRAGMENT_ENCODE_SET = "\"<>`";
+    private static final String USERINFO_ENCODE_SET = "\"#<>?`{}/:;=@[\\]^|";
+
+    final String mScheme;
+    private String mUsername;
+    private String mPassword;
+    // Host name and port, if the URL has an authority; null otherwise.
+    final String mHost;
+    final String mPath;
+    // Query without the leading '?' and fragment without the leading '#', or null if absent.
+    final String mQuery;
+    private String mFragment;
 
-    private static class Url extends JavaScriptObject {
-
-        protected Url() {}
-
-        /**
-         * Returns a new URL javascript object if url is valid.  Otherwise returns null.
-         */
-        private static native Url createUrl(String url) /*-{
-            try {
-                return new URL(url);
-            } catch (e) {
-                return null;
-            }
-        }-*/;
-
-        private final native String getHref() /*-{
-            return this.href;
-        }-*/;
-
-        private final native String getHost() /*-{
-            return this.host;
-        }-*/;
-
-        private final native String getOrigin() /*-{
-            return this.origin;
-        }-*/;
-
-        private final native String getPath() /*-{
-            return this.pathname;
-        }-*/;
-
-        private final native String getQuery() /*-{
-            return this.search;
-        }-*/;
-
-        private final native String getUsername() /*-{
-            return this.username;
-        }-*/;
-
-        private final native String getPassword() /*-{
-            return this.password;
-        }-*/;
-
-        private final native String getHash() /*-{
-            return this.hash;
-        }-*/;
-
-        private final native String setUsername(String username) /*-{
-            this.username = username;
-        }-*/;
-
-        private final native String setPassword(String password) /*-{
-            this.password = password;
-        }-*/;
-
-        private final native String setHash(String hash) /*-{
-            this.hash = hash;
-        }-*/;
-
-        private final native String replaceQueryValue(boolean isFirstQueryParam, String queryName,
-                String currentQueryValue, String newQueryValue) /*-{
-            var queryNameWithSeps = (isFirstQueryParam ? "?" : "&") + queryName + "=";
-            return this.href.replace(queryNameWithSeps + currentQueryValue,
-                    queryNameWithSeps + newQueryValue);
-        }-*/;
-
-        /**
-         * Returns pathname without leading and trailing '/'s and part after ';'.
-         * This is needed for ParsedUrl.getPathComponents(), and probably other callers.
-         */
-        private final native String getTrimmedPath() /*-{
-            var path = this.pathname.replace(/;.*$/, "");  // Strip away params i.e. part after ';'.
-            path = path.replace(/^\//, "");  // Remove leading '/'.
-            return path.replace(/\/$/, "");  // Remove trailing '/'.
-        }-*/;
-
-    }  // Url
-
-    private Url mUrl;
     private String mTrimmedPath = null;
     private String[] mPathComponents = null;
     private String[][] mQueryParams = null;
@@ -100,36 +44,87 @@ public final class ParsedUrl {
      * Returns a ParsedUrl object if urlStr is valid.  Otherwise returns null.
      */
     public static ParsedUrl create(String urlStr) {
-        Url url = Url.createUrl(urlStr);
-        return url == null ? null : new ParsedUrl(url);
+        String url = stripWhitespace(urlStr);
+        int schemeEnd = getSchemeEnd(url);
+        if (schemeEnd < 0) return null;
+
+        String scheme = url.substring(0, schemeEnd).toLowerCase();
+        boolean special = isSpecialScheme(scheme);
+        String rest = url.substring(schemeEnd + 1);
+        if (special) {
+            // Slashes and backslashes after the scheme are all the same for special schemes, and
+            // the authority is expected even if there are none.
+            rest = rest.replace('\\', '/');
+            int i = 0;
+            while (i < rest.length() && rest.charAt(i) == '/') i++;
+            return parseWithAuthority(scheme, rest.substring(i));
+        }
+        if (rest.startsWith("//")) {
+            return parseWithAuthority(scheme, rest.substring(2));
+        }
+        return create(scheme, "", "", null, splitPath(rest), splitQuery(rest), splitFragment(rest));
+    }
+
+    /**
+     * Creates a ParsedUrl from its components, normalizing them. Returns null if they don't form
+     * a valid URL.
+     */
+    static ParsedUrl create(String scheme, String username, String password, String host,
+            String path, String query, String fragment) {
+        boolean special = isSpecialScheme(scheme);
+        if (host != null) {
+            host = normalizeHost(scheme, host);
+            if (host == null) return null;
+        }
+        if (special && host == null) return null;
+
+        boolean hierarchical = host != null || path.startsWith("/");
+        if (hierarchical) {
+            path = removeDotSegments(path.isEmpty() ? "/" : path);
+        }
+        return new ParsedUrl(scheme, percentEncode(username, USERINFO_ENCODE_SET),
+                percentEncode(password, USERINFO_ENCODE_SET), host,
+                // Opaque paths, like in "javascript:" URLs, only have controls encoded.
+                hierarchical ? percentEncode(path, PATH_ENCODE_SET) : percentEncode(path, null),
+                query == null ? null : percentEncode(query,
+                        special ? SPECIAL_QUERY_ENCODE_SET : QUERY_ENCODE_SET),
+                fragment == null ? null : percentEncode(fragment, FRAGMENT_ENCODE_SET));
     }
 
     /**
      * Returns URLUtils.host.
      */
     public final String getHost() {
-        return mUrl.getHost();
+        return mHost == null ? "" : mHost;
     }
 
     /**
      * Returns URLUtils.origin.
      */
     public final String getOrigin() {
-        return mUrl.getOrigin();
+        if (mHost == null || !isSpecialScheme(mScheme) || mScheme.equals("file")) return "null";
+        return mScheme + "://" + mHost;
     }
 
     /**
      * Returns URLUtils.pathname as is.
      */
     public final String getPath() {
-        return mUrl.getPath();
+        return mPath;
     }
 
     /**
      * Returns URLUtils.pathname without leading and trailing '/'s and part after ';'.
      */
     public final String getTrimmedPath() {
-        if (mTrimmedPath == null) mTrimmedPath = mUrl.getTrimmedPath();
+        if (mTrimmedPath == null) {
+            String path = mPath;
+            int paramsStart = path.indexOf(';');
+            if (paramsStart >= 0) path = path.substring(0, paramsStart);
+            if (path.startsWith("/")) path = path.substring(1);
+            if (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+            mTrimmedPath = path;
+        }
         return mTrimmedPath;
     }
 
@@ -137,31 +132,30 @@ public final class ParsedUrl {
      * Returns URLUtils.search.
      */
     public final String getQuery() {
-        return mUrl.getQuery();
+        return mQuery == null || mQuery.isEmpty() ? "" : "?" + mQuery;
     }
 
     /**
      * Returns URLUtils.username.
      */
     public final String getUsername() {
-        return mUrl.getUsername();
+        return mUsername;
     }
 
     /**
      * Returns URLUtils.password.
      */
     public final String getPassword() {
-        return mUrl.getPassword();
+        return mPassword;
     }
 
     /**
      * Returns URLUtils.hash.
      */
     public final String getHash() {
-        return mUrl.getHash();
+        return mFragment == null || mFragment.isEmpty() ? "" : "#" + mFragment;
     }
 
-    /**
     /**
      * Returns a array of components broken down from URLUtils.path without the part after ';'.
      */
@@ -184,7 +178,7 @@ public final class ParsedUrl {
      */
     public final String[][] getQueryParams() {
         if (mQueryParams == null) {
-            final String query = mUrl.getQuery();
+            final String query = getQuery();
             if (query.isEmpty()) {
                 mQueryParams = new String[0][2];
             } else {
@@ -205,31 +199,33 @@ public final class ParsedUrl {
      * Sets URLUtils.username.
      */
     public final String setUsername(String username) {
-        return mUrl.setUsername(username);
+        if (mHost != null) mUsername = percentEncode(username, USERINFO_ENCODE_SET);
+        return mUsername;
     }
 
     /**
      * Sets URLUtils.password.
      */
     public final String setPassword(String password) {
-        return mUrl.setPassword(password);
+        if (mHost != null) mPassword = percentEncode(password, USERINFO_ENCODE_SET);
+        return mPassword;
     }
 
     /**
      * Sets URLUtils.hash.
      */
     public final String setHash(String hash) {
-        return mUrl.setHash(hash);
+        if (hash.startsWith("#")) hash = hash.substring(1);
+        mFragment = hash.isEmpty() ? null : percentEncode(hash, FRAGMENT_ENCODE_SET);
+        return getHash();
     }
 
-    private static RegExp sHrefCleaner = null;
-
     /**
      * Returns URLUtils.href without trailing '/'.
      */
     public final String getCleanHref() {
-        if (sHrefCleaner == null) sHrefCleaner = RegExp.compile("\\/$");
-        return sHrefCleaner.replace(mUrl.getHref(), "");
+        String href = toString();
+        return href.endsWith("/") ? href.substring(0, href.length() - 1) : href;
     }
 
     /**
@@ -238,17 +234,248 @@ public final class ParsedUrl {
      */
     public final String replaceQueryValue(boolean isFirstQueryParam, String queryName,
             String currentQueryValue, String newQueryValue) {
-       return mUrl.replaceQueryValue(isFirstQueryParam, queryName, currentQueryValue,
-               newQueryValue);
+        String href = toString();
+        String queryNameWithSeps = (isFirstQueryParam ? "?" : "&") + queryName + "=";
+        String current = queryNameWithSeps + currentQueryValue;
+        int start = href.indexOf(current);
+        if (start < 0) return href;
+        return href.substring(0, start) + queryNameWithSeps + newQueryValue +
+                href.substring(start + current.length());
     }
 
     @Override
     public String toString() {
-        return mUrl.toString();
+        StringBuilder href = new StringBuilder(mScheme).append(':');
+        if (mHost != null) {
+            href.append("//");
+            if (!mUsername.isEmpty() || !mPassword.isEmpty()) {
+                href.append(mUsername);
+                if (!mPassword.isEmpty()) href.append(':').append(mPassword);
+                href.append('@');
+            }
+            href.append(mHost);
+        }
+        href.append(mPath);
+        if (mQuery != null) href.append('?').append(mQuery);
+        if (mFragment != null) href.append('#').append(mFragment);
+        return href.toString();
+    }
+
+    private ParsedUrl(String scheme, String username, String password, String host, String path,
+            String query, String fragment) {
+        mScheme = scheme;
+        mUsername = username;
+        mPassword = password;
+        mHost = host;
+        mPath = path;
+        mQuery = query;
+        mFragment = fragment;
+    }
+
+    private static ParsedUrl parseWithAuthority(String scheme, String rest) {
+        int authorityEnd = 0;
+        while (authorityEnd < rest.length() && "/?#".indexOf(rest.charAt(authorityEnd)) < 0) {
+            authorityEnd++;
+        }
+        String authority = rest.substring(0, authorityEnd);
+        rest = rest.substring(authorityEnd);
+
+        String username = "";
+        String password = "";
+        int userInfoEnd = authority.lastIndexOf('@');
+        if (userInfoEnd >= 0) {
+            String userInfo = authority.substring(0, userInfoEnd);
+            authority = authority.substring(userInfoEnd + 1);
+            int passwordStart = userInfo.indexOf(':');
+            if (passwordStart >= 0) {
+                username = userInfo.substring(0, passwordStart);
+                password = userInfo.substring(passwordStart + 1);
+            } else {
+                username = userInfo;
+            }
+        }
+        return create(scheme, username, password, authority, splitPath(rest), splitQuery(rest),
+                splitFragment(rest));
+    }
+
+    /**
+     * Returns the index of the ':' ending the scheme of |url|, or -1 if it has none.
+     */
+    static int getSchemeEnd(String url) {
+        if (url.isEmpty() || !isAsciiAlpha(url.charAt(0))) return -1;
+        for (int i = 1; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == ':') return i;
+            if (!isAsciiAlpha(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    static boolean isSpecialScheme(String scheme) {
+        for (String special : SPECIAL_SCHEMES) {
+            if (special.equals(scheme)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes leading and trailing controls and spaces, and all tabs and newlines.
+     */
+    static String stripWhitespace(String url) {
+        int start = 0;
+        int end = url.length();
+        while (start < end && url.charAt(start) <= ' ') start++;
+        while (end > start && url.charAt(end - 1) <= ' ') end--;
+        url = url.substring(start, end);
+        if (url.indexOf('\t') < 0 && url.indexOf('\n') < 0 && url.indexOf('\r') < 0) return url;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c != '\t' && c != '\n' && c != '\r') sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the path part of |s|, which is a URL without scheme and authority.
+     */
+    static String splitPath(String s) {
+        int end = 0;
+        while (end < s.length() && s.charAt(end) != '?' && s.charAt(end) != '#') end++;
+        return s.substring(0, end);
+    }
+
+    static String splitQuery(String s) {
+        int fragmentStart = s.indexOf('#');
+        String beforeFragment = fragmentStart < 0 ? s : s.substring(0, fragmentStart);
+        int queryStart = beforeFragment.indexOf('?');
+        return queryStart < 0 ? null : beforeFragment.substring(queryStart + 1);
+    }
+
+    static String splitFragment(String s) {
+        int fragmentStart = s.indexOf('#');
+        return fragmentStart < 0 ? null : s.substring(fragmentStart + 1);
+    }
+
+    /**
+     * Removes "." and ".." segments from an absolute path, see RFC 3986 section 5.2.4.
+     */
+    static String removeDotSegments(String path) {
+        if (path.indexOf("/.") < 0) return path;
+        String[] segments = StringUtil.jsSplit(path.substring(1), "/");
+        String[] output = new String[segments.length];
+        int size = 0;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            boolean isLast = i == segments.length - 1;
+            if (segment.equals("..")) {
+                if (size > 0) size--;
+                if (isLast) output[size++] = "";
+            } else if (segment.equals(".")) {
+                if (isLast) output[size++] = "";
+            } else {
+                output[size++] = segment;
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append('/').append(output[i]);
+        }
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
+
+    private static String normalizeHost(String scheme, String host) {
+        String port = "";
+        int portStart = host.lastIndexOf(':');
+        if (portStart >= 0 && host.indexOf(']', portStart) < 0) {
+            port = host.substring(portStart + 1);
+            host = host.substring(0, portStart);
+            for (int i = 0; i < port.length(); i++) {
+                if (port.charAt(i) < '0' || port.charAt(i) > '9') return null;
+            }
+            if (!port.isEmpty()) {
+                while (port.length() > 1 && port.charAt(0) == '0') port = port.substring(1);
+                if (port.length() > 5 || Integer.parseInt(port, 10) > 65535) return null;
+            }
+        }
+        if (host.isEmpty()) {
+            return isSpecialScheme(scheme) && !scheme.equals("file") ? null : "";
+        }
+        boolean isIpv6 = host.startsWith("[");
+        if (isIpv6 && (host.length() < 3 || !host.endsWith("]"))) return null;
+        for (int i = isIpv6 ? 1 : 0; i < (isIpv6 ? host.length() - 1 : host.length()); i++) {
+            char c = host.charAt(i);
+            if (c <= ' ' || "#%/<>?@[\\]^|".indexOf(c) >= 0) return null;
+            if (isIpv6 && !(c == ':' || c == '.' || (c >= '0' && c <= '9')
+                    || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return null;
+            }
+        }
+        host = host.toLowerCase();
+        for (int i = 0; i < SPECIAL_SCHEMES.length; i++) {
+            if (SPECIAL_SCHEMES[i].equals(scheme) && DEFAULT_PORTS[i].equals(port)) port = "";
+        }
+        return port.isEmpty() ? host : host + ":" + port;
+    }
+
+    /**
+     * Percent-encodes the UTF-8 bytes of controls, space, non-ASCII characters and characters in
+     * |encodeSet|. Existing escapes are kept as is. If |encodeSet| is null, only controls and
+     * non-ASCII characters are encoded.
+     */
+    private static String percentEncode(String s, String encodeSet) {
+        int i = 0;
+        while (i < s.length() && !shouldEncode(s.charAt(i), encodeSet)) i++;
+        if (i == s.length()) return s;
+
+        StringBuilder sb = new StringBuilder(s.substring(0, i));
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!shouldEncode(c, encodeSet)) {
+                sb.append(c);
+                continue;
+            }
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, s.charAt(++i));
+            }
+            appendUtf8Escapes(sb, codePoint);
+        }
+        return sb.toString();
+    }
+
+    private static boolean shouldEncode(char c, String encodeSet) {
+        if (encodeSet == null) return c < ' ' || c >= 0x7f;
+        return c <= ' ' || c >= 0x7f || encodeSet.indexOf(c) >= 0;
     }
 
-    private ParsedUrl(Url url) {
-        mUrl = url;
+    private static void appendUtf8Escapes(StringBuilder sb, int codePoint) {
+        if (codePoint < 0x80) {
+            appendEscape(sb, codePoint);
+        } else if (codePoint < 0x800) {
+            appendEscape(sb, 0xc0 | (codePoint >> 6));
+            appendEscape(sb, 0x80 | (codePoint & 0x3f));
+        } else if (codePoint < 0x10000) {
+            appendEscape(sb, 0xe0 | (codePoint >> 12));
+            appendEscape(sb, 0x80 | ((codePoint >> 6) & 0x3f));
+            appendEscape(sb, 0x80 | (codePoint & 0x3f));
+        } else {
+            appendEscape(sb, 0xf0 | (codePoint >> 18));
+            appendEscape(sb, 0x80 | ((codePoint >> 12) & 0x3f));
+            appendEscape(sb, 0x80 | ((codePoint >> 6) & 0x3f));
+            appendEscape(sb, 0x80 | (codePoint & 0x3f));
+        }
     }
 
+    private static void appendEscape(StringBuilder sb, int b) {
+        final String hex = "0123456789ABCDEF";
+        sb.append('%').append(hex.charAt((b >> 4) & 0xf)).append(hex.charAt(b & 0xf));
+    }
+
+    private static boolean isAsciiAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
 }
@@ -5,7 +5,6 @@
 package org.chromium.distiller;
 
 import com.google.gwt.regexp.shared.MatchResult;
-import com.google.gwt.regexp.shared.RegExp;
 
 /**
  * This class detects the page parameter in the path of a potential pagination URL.  If detected,
@@ -305,8 +304,10 @@ public class PathComponentPagePattern implements PageParameterDetector.PagePatte
         return false;
     }
 
-    private static RegExp sExtRegExp = null;  // Match trailing .(s)htm(l).
-    private static RegExp sLastPathComponentRegExp = null;  // Match last path component.
+    // Match trailing .(s)htm(l).
+    private static final String REG_EXT = "(.s?html?)?$";
+    // Match last path component.
+    private static final String REG_LAST_PATH_COMPONENT = "([^/]*)\\/$";
 
     /**
      * Returns true if:
@@ -323,14 +324,11 @@ public class PathComponentPagePattern implements PageParameterDetector.PagePatte
             String postMatch = urlStr.substring(digitEnd).toLowerCase();
             // Checks that this is the last path component, and trailing characters, if available,
             // are (s)htm(l) extensions.
-            if (sExtRegExp == null) sExtRegExp = RegExp.compile("(.s?html?)?$", "i");
-            if (sExtRegExp.test(postMatch)) {
+            if (RegExpRegistry.get(REG_EXT, "i").test(postMatch)) {
                 // Entire component is numeric, get previous path component.
-               if (sLastPathComponentRegExp == null) {
-                   sLastPathComponentRegExp = RegExp.compile("([^/]*)\\/$", "i");
-                }
-                MatchResult prevPathComponent = sLastPathComponentRegExp.exec(
-                        urlStr.substring(pathStart + 1, digitStart));
+                MatchResult prevPathComponent =
+                        RegExpRegistry.get(REG_LAST_PATH_COMPONENT, "i").exec(
+                                urlStr.substring(pathStart + 1, digitStart));
                 if (prevPathComponent != null && prevPathComponent.getGroupCount() > 1 &&
                         PageParameterDetector.isPageParamNameBad(prevPathComponent.getGroup(1))) {
                     return true;
@@ -4,8 +4,6 @@
 
 package org.chromium.distiller;
 
-import com.google.gwt.regexp.shared.RegExp;
-
 /**
  * This class detects the page parameter in the query of a potential pagination URL.  If detected,
  * it replaces the page param value with PageParameterDetector.PAGE_PARAM_PLACEHOLDER, then creates
@@ -61,7 +59,8 @@ public class QueryParamPagePattern implements PageParameterDetector.PagePattern
         return docUrl.getTrimmedPath().equalsIgnoreCase(mUrl.getTrimmedPath());
     }
 
-    private static RegExp sSlashOrHtmExtRegExp = null;  // Match either '/' or ".htm(l)".
+    // Match either '/' or ".htm(l)".
+    private static final String REG_SLASH_OR_HTM_EXT = "^\\/|(.html?)$";
 
     /**
      * Returns true if a URL matches this page pattern based on a pipeline of rules:
@@ -119,10 +118,7 @@ public class QueryParamPagePattern implements PageParameterDetector.PagePattern
         // If the only difference in the page param between url and pattern is "/", ".htm" or
         // ".html", it is fine.
         String diffPart = url.substring(mPlaceholderSegmentStart, suffixStart).toLowerCase();
-        if (sSlashOrHtmExtRegExp == null) {
-            sSlashOrHtmExtRegExp = RegExp.compile("^\\/|(.html?)$", "i");
-        }
-        if (sSlashOrHtmExtRegExp.test(diffPart)) return true;
+        if (RegExpRegistry.get(REG_SLASH_OR_HTM_EXT, "i").test(diffPart)) return true;
 
         // Both url and pattern must have the same query name.
         if (!url.regionMatches(mPlaceholderSegmentStart, mUrlStr, mPlaceholderSegmentStart,
@@ -133,7 +129,7 @@ public class QueryParamPagePattern implements PageParameterDetector.PagePattern
         return PageParameterDetector.isPlainNumber(url.substring(mPlaceholderStart, suffixStart));
     }
 
-    private static RegExp sHrefCleaner = null;
+    private static final String REG_HREF_CLEANER = "\\/$";
 
     private QueryParamPagePattern(ParsedUrl url, boolean isFirstQueryParam, String queryName,
             String queryValue) throws IllegalArgumentException {
@@ -163,8 +159,8 @@ public class QueryParamPagePattern implements PageParameterDetector.PagePattern
         if (mPlaceholderSegmentStart == -1) {  // Page param is the first query.
             mPlaceholderSegmentStart = mQueryStart;
         }
-        if (sHrefCleaner == null) sHrefCleaner = RegExp.compile("\\/$");
-        mPrefix = sHrefCleaner.replace(mUrlStr.substring(0, mPlaceholderSegmentStart) , "");
+        mPrefix = RegExpRegistry.get(REG_HREF_CLEANER).replace(
+                mUrlStr.substring(0, mPlaceholderSegmentStart) , "");
         // Determine suffix, if available.
         final int urlLen = mUrlStr.length();
         mSuffixLen = urlLen - mPlaceholderStart - PageParameterDetector.PAGE_PARAM_PLACEHOLDER_LEN;
@@ -0,0 +1,62 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.regexp.shared.RegExp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiles each regex the first time it's used, and shares it between all the places that use the
+ * same source and flags.
+ *
+ * A static RegExp field is compiled by the initializer of its class, either at startup or, as GWT
+ * inserts a call to the initializer before every access to a class that has one, on first use
+ * behind a check on every access. This class has no static initializer, so calls to it don't
+ * trigger any, and its users can keep their regexes in static final String constants, which are
+ * inlined and don't need one either.
+ *
+ * As a RegExp is shared, users of a global ("g") RegExp must not depend on its lastIndex, e.g. by
+ * only using it with replace(), which resets it, or by resetting it themselves.
+ */
+public class RegExpRegistry {
+    // Flags -> source -> RegExp. Created on first use, so that there's no static initializer.
+    private static Map<String, Map<String, RegExp>> sRegExps;
+    private static int sNumCompiled;
+
+    /**
+     * @return The RegExp of |source| with no flags.
+     */
+    public static RegExp get(String source) {
+        return get(source, "");
+    }
+
+    /**
+     * @return The RegExp of |source| with |flags|, e.g. "gi", compiled if it hasn't been before.
+     */
+    public static RegExp get(String source, String flags) {
+        if (sRegExps == null) sRegExps = new HashMap<>();
+        Map<String, RegExp> regExps = sRegExps.get(flags);
+        if (regExps == null) {
+            regExps = new HashMap<>();
+            sRegExps.put(flags, regExps);
+        }
+        RegExp regExp = regExps.get(source);
+        if (regExp == null) {
+            regExp = RegExp.compile(source, flags);
+            regExps.put(source, regExp);
+            sNumCompiled++;
+        }
+        return regExp;
+    }
+
+    /**
+     * @return The number of regexes compiled so far.
+     */
+    public static int getNumCompiled() {
+        return sNumCompiled;
+    }
+}
@@ -7,12 +7,13 @@ package org.chromium.distiller;
 import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
 
 import com.google.gwt.dom.client.Element;
-import com.google.gwt.dom.client.NodeList;
+import com.google.gwt.dom.client.Node;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Stack;
 
 /**
  * This class recognizes and parses schema.org markup tags, and returns the properties that matter
@@ -124,7 +125,6 @@ public class SchemaOrgParser {
     }
 
     private final List<ThingItem> mItemScopes = new ArrayList<ThingItem>();
-    private final Map<Element, ThingItem> mItemElement = new HashMap<Element, ThingItem>();
     private String mAuthorFromRel = "";
     private static final Map<String, Type> sTypeUrls;
 
@@ -177,48 +177,55 @@ public class SchemaOrgParser {
     final String getAuthorFromRel() { return mAuthorFromRel; }
 
     private void parse(Element root) {
-        NodeList<Element> allProp = DomUtil.querySelectorAll(root, "[ITEMPROP],[ITEMSCOPE]");
-
-        // Root node (html) is not included in the result of querySelectorAll, so need to
-        // handle it explicitly here.
-        parseElement(root, null);
+        new DomWalker(new ItemScopeVisitor()).walk(root);
+    }
 
-        for (int i = 0; i < allProp.getLength(); i++) {
-            Element e = allProp.getItem(i);
-            parseElement(e, getItemScopeParent(e));
-        }
+    /**
+     * Parses the elements in a single walk.  The item scopes that enclose the current element are
+     * kept on a stack, so that the parent item of an element is the top of the stack instead of
+     * having to be looked up from its ancestors.
+     */
+    private class ItemScopeVisitor implements DomWalker.Visitor {
+        // The elements with an item scope that enclose the current element, and their items.  The
+        // item is null if it wasn't added, e.g. because its type isn't supported.
+        private final Stack<Element> mScopeElements = new Stack<Element>();
+        private final Stack<ThingItem> mScopeItems = new Stack<ThingItem>();
+
+        @Override
+        public boolean visit(Node n) {
+            if (n.getNodeType() != Node.ELEMENT_NODE) return false;
+            Element e = Element.as(n);
+            if (e.hasAttribute("ITEMPROP") || e.hasAttribute("ITEMSCOPE")) {
+                ThingItem parentItem = mScopeItems.isEmpty() ? null : mScopeItems.peek();
+                ThingItem item = parseElement(e, parentItem);
+                if (isItemScope(e)) {
+                    mScopeElements.push(e);
+                    mScopeItems.push(item);
+                }
+            }
 
-        // As per http://schema.org/author (or http://schema.org/Article and search for "author"
-        // property), if <a> or <link> tags specify rel="author", extract it.
-        allProp = DomUtil.querySelectorAll(root, "A[rel=author],LINK[rel=author]");
-        for (int i = 0; i < allProp.getLength(); i++) {
-            Element e = allProp.getItem(i);
+            // As per http://schema.org/author (or http://schema.org/Article and search for
+            // "author" property), if <a> or <link> tags specify rel="author", extract it.
             if (mAuthorFromRel.isEmpty()) mAuthorFromRel = getAuthorFromRelAttribute(e);
+            return true;
         }
-    }
 
-    // It is assumed the ItemScope parent of Element e is already parsed.
-    // For querySelectorAll(), parent nodes are guaranteed
-    // to appear before child nodes, so this assumption is met.
-    private ThingItem getItemScopeParent(Element e) {
-        ThingItem parentItem = null;
-
-        Element parentElement = e;
-        while (parentElement != null) {
-            parentElement = parentElement.getParentElement();
-            if (parentElement == null) break;
-            if (isItemScope(parentElement)) {
-                if (mItemElement.containsKey(parentElement)) {
-                    parentItem = mItemElement.get(parentElement);
-                }
-                break;
+        @Override
+        public void exit(Node n) {
+            if (!mScopeElements.isEmpty() && mScopeElements.peek() == n) {
+                mScopeElements.pop();
+                mScopeItems.pop();
             }
         }
-        return parentItem;
+
+        @Override
+        public void skip(Element e) {}
     }
 
-    private void parseElement(Element e, ThingItem parentItem) {
+    // Returns the item created for |e| if it starts the scope of a supported item, null otherwise.
+    private ThingItem parseElement(Element e, ThingItem parentItem) {
         ThingItem newItem = null;
+        ThingItem scopeItem = null;
         boolean isItemScope = isItemScope(e);
         // A non-null |parentItem| means we're currently parsing the elements for a schema.org type.
         String[] propertyNames = parentItem != null ? getItemProp(e) : new String[0];
@@ -234,7 +241,7 @@ public class SchemaOrgParser {
             if (newItem != null && newItem.isSupported() &&
                 (parentItem == null || parentItem.isSupported() || propertyNames.length == 0)) {
                 mItemScopes.add(newItem);
-                mItemElement.put(e, newItem);
+                scopeItem = newItem;
             }
         }
 
@@ -254,6 +261,7 @@ public class SchemaOrgParser {
                 }
             }
         }
+        return scopeItem;
     }
 
     private Type getItemType(Element e) {
@@ -46,12 +46,14 @@ public class StringUtil {
         return StringUtil.split(input, regex).length;
     }
 
+    // The regexes of match() and findAndReplace() are kept in RegExpRegistry, so they should be
+    // constants.
     public static boolean match(String input, String regex) {
-        return RegExp.compile(regex, "i").test(input);
+        return RegExpRegistry.get(regex, "i").test(input);
     }
 
     public static String findAndReplace(String input, String regex, String replace) {
-        return RegExp.compile(regex, "gi").replace(input, replace);
+        return RegExpRegistry.get(regex, "gi").replace(input, replace);
     }
 
     /**
@@ -101,9 +103,17 @@ public class StringUtil {
         sWordCounter = selectWordCounter(text);
     }
 
+    /**
+     * Restores the initial word counter, for text that hasn't been seen.
+     */
+    static void resetWordCounter() {
+        sWordCounter = new FullWordCounter();
+    }
+
     public static WordCounter selectWordCounter(String text) {
-        final RegExp rFull = RegExp.compile("[\\u3040-\\uA4CF]", "g");
-        final RegExp rLetter = RegExp.compile("[\\uAC00-\\uD7AF]", "g");
+        // Not global, as test() on a shared global RegExp would start from its lastIndex.
+        final RegExp rFull = RegExpRegistry.get("[\\u3040-\\uA4CF]");
+        final RegExp rLetter = RegExpRegistry.get("[\\uAC00-\\uD7AF]");
 
         if (rFull.test(text)) {
             return new FullWordCounter();
@@ -0,0 +1,172 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.NodeList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class looks for an element that the page itself marks unambiguously as the article body,
+ * so that its content can be taken as is instead of being classified block by block.  In priority
+ * order, the container is:
+ * - the only visible element with the schema.org "articleBody" microdata property
+ * - the element whose text matches the "articleBody" of the JSON-LD article
+ * - the only visible ARTICLE element, if it holds most of the text of the page.
+ */
+public class StructuredContentFinder {
+    public static final String PATH_BOILERPIPE = "boilerpipe";
+    public static final String PATH_MICRODATA_ARTICLE_BODY = "microdata-article-body";
+    public static final String PATH_JSON_LD_ARTICLE_BODY = "json-ld-article-body";
+    public static final String PATH_ARTICLE_ELEMENT = "article-element";
+
+    // A JSON-LD articleBody shorter than this, without whitespace, is likely a summary, not the
+    // whole article.
+    private static final int MIN_JSON_LD_BODY_LENGTH = 200;
+    // The length of the start and the end of the JSON-LD articleBody, without whitespace, that the
+    // text of the container must have.
+    private static final int JSON_LD_MATCH_LENGTH = 64;
+    // How much longer than the JSON-LD articleBody the text of the container can be, e.g. for
+    // captions.
+    private static final double MAX_JSON_LD_TEXT_RATIO = 1.5;
+    // The part of the text of the page that an ARTICLE element must hold.
+    private static final double MIN_ARTICLE_TEXT_RATIO = 0.5;
+
+    /**
+     * The container found, and which of the above rules found it.
+     */
+    public static class Result {
+        public final Element container;
+        public final String path;
+
+        Result(Element container, String path) {
+            this.container = container;
+            this.path = path;
+        }
+    }
+
+    /**
+     * @param root The root of the document.
+     * @param jsonLdArticleBody The "articleBody" of the JSON-LD article, empty string if none.
+     * @return The container, or null if the page has no unambiguous one.
+     */
+    public static Result find(Element root, String jsonLdArticleBody) {
+        List<Element> bodies = DomUtil.getVisibleElements(
+                DomUtil.querySelectorAll(root, "[itemprop~=\"articleBody\"]"));
+        if (bodies.size() == 1) {
+            return new Result(bodies.get(0), PATH_MICRODATA_ARTICLE_BODY);
+        }
+
+        Element container = findJsonLdArticleBody(root, jsonLdArticleBody);
+        if (container != null) {
+            return new Result(container, PATH_JSON_LD_ARTICLE_BODY);
+        }
+
+        container = DomUtil.getArticleElement(root);
+        if (container != null && container.getTagName().equalsIgnoreCase("ARTICLE")) {
+            int pageLength =
+                    normalize(DomUtil.javascriptTextContent(
+                            DistillationContext.getDocument().getBody())).length();
+            int articleLength = normalize(DomUtil.javascriptTextContent(container)).length();
+            if (articleLength > 0 && articleLength >= pageLength * MIN_ARTICLE_TEXT_RATIO) {
+                return new Result(container, PATH_ARTICLE_ELEMENT);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the smallest visible element whose text starts and ends like |articleBody|, and
+     * isn't much longer, null if none.
+     */
+    private static Element findJsonLdArticleBody(Element root, String articleBody) {
+        String body = normalize(articleBody);
+        if (body.length() < MIN_JSON_LD_BODY_LENGTH) return null;
+        String start = body.substring(0, JSON_LD_MATCH_LENGTH);
+        String end = body.substring(body.length() - JSON_LD_MATCH_LENGTH);
+
+        // The text lengths of all the candidates from a single walk, so that only the text of the
+        // candidates of the right length is built, instead of that of every nested wrapper.
+        TextLengthCounter counter = new TextLengthCounter();
+        new DomWalker(counter).walk(root);
+
+        Element best = null;
+        int bestLength = 0;
+        NodeList<Element> candidates =
+                DomUtil.querySelectorAll(root, "article, main, section, div");
+        for (int i = 0; i < candidates.getLength(); i++) {
+            Element candidate = candidates.getItem(i);
+            Integer length = counter.lengths.get(candidate);
+            if (length == null || length < body.length()) continue;
+            if (length > body.length() * MAX_JSON_LD_TEXT_RATIO) continue;
+            if (best != null && length >= bestLength) continue;
+            String text = normalize(DomUtil.javascriptTextContent(candidate));
+            if (!text.contains(start) || !text.contains(end)) continue;
+            if (!DomUtil.isVisible(candidate)) continue;
+            best = candidate;
+            bestLength = length;
+        }
+        return best;
+    }
+
+    /**
+     * Counts the length of the text of each candidate element of findJsonLdArticleBody(), without
+     * whitespace, i.e. normalize(textContent).length().
+     */
+    private static class TextLengthCounter implements DomWalker.Visitor {
+        final Map<Node, Integer> lengths = new HashMap<>();
+        // The lengths counted so far of the elements from the root to the current one.
+        private final List<Integer> mOpen = new ArrayList<>();
+
+        @Override
+        public boolean visit(Node n) {
+            switch (n.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    mOpen.add(0);
+                    return true;
+                case Node.TEXT_NODE:
+                    add(normalize(n.getNodeValue()).length());
+                    return false;
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public void exit(Node n) {
+            int length = mOpen.remove(mOpen.size() - 1);
+            switch (Element.as(n).getTagName()) {
+                case "ARTICLE":
+                case "MAIN":
+                case "SECTION":
+                case "DIV":
+                    lengths.put(n, length);
+                    break;
+            }
+            add(length);
+        }
+
+        @Override
+        public void skip(Element e) {
+        }
+
+        private void add(int length) {
+            if (mOpen.isEmpty()) return;
+            int last = mOpen.size() - 1;
+            mOpen.set(last, mOpen.get(last) + length);
+        }
+    }
+
+    // Drops all whitespace, because textContent doesn't separate adjacent paragraphs the way a
+    // JSON-LD articleBody does.
+    private static String normalize(String text) {
+        return StringUtil.findAndReplace(text, "\\s+", "");
+    }
+}
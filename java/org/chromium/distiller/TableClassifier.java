@@ -6,17 +6,12 @@ package org.chromium.distiller;
 
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.MetaElement;
+import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.NodeList;
-import com.google.gwt.dom.client.TableCellElement;
 import com.google.gwt.dom.client.TableElement;
-import com.google.gwt.dom.client.TableRowElement;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Classifies a <table> element as layout or data type, based on the set of heuristics at
@@ -54,55 +49,222 @@ public class TableClassifier {
     }
     static Reason sReason;
 
-    // sHeaderTags and sObjectTags have the same Map entry type:
-    // - String: tagname of element to search for in <table>
-    // - Boolean: whether to check if element has valid (not empty or all-whitespaced) innerText.
-    private static final Map<String, Boolean> sHeaderTags;
-    private static final Map<String, Boolean> sObjectTags;
-    private static final Set<String> sARIATableRoles;
-    private static final Set<String> sARIATableDescendantRoles;
-    private static final Set<String> sARIARoles;
-    static {
-        sHeaderTags = new HashMap<String, Boolean>();
-        sHeaderTags.put("COLGROUP", Boolean.FALSE);
-        sHeaderTags.put("COL", Boolean.FALSE);
-        sHeaderTags.put("TH", Boolean.TRUE);
-
-        sObjectTags = new HashMap<String, Boolean>();
-        sObjectTags.put("EMBED", Boolean.FALSE);
-        sObjectTags.put("OBJECT", Boolean.FALSE);
-        sObjectTags.put("APPLET", Boolean.FALSE);
-        sObjectTags.put("IFRAME", Boolean.FALSE);
-
-        // ARIA roles for table - http://www.w3.org/TR/wai-aria/roles#widget_roles_header.
-        sARIATableRoles = new HashSet<String>();
-        sARIATableRoles.add("grid");
-        sARIATableRoles.add("treegrid");
-
-        // ARIA roles for descendants of table:
-        sARIATableDescendantRoles = new HashSet<String>();
-        // - http://www.w3.org/TR/wai-aria/roles#widget_roles_header.
-        sARIATableDescendantRoles.add("gridcell");
-        // - http://www.w3.org/TR/wai-aria/roles#document_structure_roles_header.
-        sARIATableDescendantRoles.add("columnheader");
-        sARIATableDescendantRoles.add("row");
-        sARIATableDescendantRoles.add("rowgroup");
-        sARIATableDescendantRoles.add("rowheader");
-
-        // ARIA landmark roles, applicable to both table and its descendants
-        // - http://www.w3.org/TR/wai-aria/roles#landmark_roles_header.
-        sARIARoles = new HashSet<String>();
-        sARIARoles.add("application");
-        sARIARoles.add("banner");
-        sARIARoles.add("complementary");
-        sARIARoles.add("contentinfo");
-        sARIARoles.add("form");
-        sARIARoles.add("main");
-        sARIARoles.add("navigation");
-        sARIARoles.add("search");
+    // The tag and role sets below are switches rather than static collections, so that this class
+    // has no static initializer to run at startup, or to check for on every access to it.
+
+    // Tagname of an element to search for in <table>, whose first occurrence makes it a data table.
+    private static boolean isHeaderTag(String tagName) {
+        switch (tagName) {
+            case "COLGROUP":
+            case "COL":
+            case "TH":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Tagname of an element to search for in <table>, whose first occurrence makes it a layout
+    // table.
+    private static boolean isObjectTag(String tagName) {
+        switch (tagName) {
+            case "EMBED":
+            case "OBJECT":
+            case "APPLET":
+            case "IFRAME":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Whether the first element of isHeaderTag() or isObjectTag() needs valid (not empty or
+    // all-whitespaced) innerText to count.
+    private static boolean needsValidText(String tagName) {
+        return tagName.equals("TH");
+    }
+
+    // ARIA roles for table - http://www.w3.org/TR/wai-aria/roles#widget_roles_header.
+    private static boolean isARIATableRole(String role) {
+        switch (role) {
+            case "grid":
+            case "treegrid":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // ARIA roles for descendants of table:
+    private static boolean isARIATableDescendantRole(String role) {
+        switch (role) {
+            // - http://www.w3.org/TR/wai-aria/roles#widget_roles_header.
+            case "gridcell":
+            // - http://www.w3.org/TR/wai-aria/roles#document_structure_roles_header.
+            case "columnheader":
+            case "row":
+            case "rowgroup":
+            case "rowheader":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // ARIA landmark roles, applicable to both table and its descendants
+    // - http://www.w3.org/TR/wai-aria/roles#landmark_roles_header.
+    private static boolean isARIARole(String role) {
+        switch (role) {
+            case "application":
+            case "banner":
+            case "complementary":
+            case "contentinfo":
+            case "form":
+            case "main":
+            case "navigation":
+            case "search":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Structural features of a <table>, gathered in a single walk over its subtree. Elements of
+     * nested tables are not part of the features of the outer table, but the nested <table>
+     * elements themselves are.
+     */
+    static class Features {
+        // Elements that belong to this table, as opposed to a nested table, in document order.
+        final List<Element> directDescendants = new ArrayList<>();
+        final List<Element> directTDs = new ArrayList<>();
+        final List<Element> rows = new ArrayList<>();
+        int maxCols;
+        boolean hasNestedTables;
+        // The first descendant with an ARIA table descendant role or landmark role, if any.
+        String descendantRole;
+        // The first descendant that is one of isHeaderTag() or isObjectTag() respectively, if any.
+        Element firstHeaderElement;
+        Element firstObjectElement;
+        // For each entry in directTDs: the number of elements in the cell and the first of them.
+        final List<Integer> cellElementCounts = new ArrayList<>();
+        final List<Element> cellFirstElements = new ArrayList<>();
+
+        Features(final TableElement t) {
+            new DomWalker(new DomWalker.Visitor() {
+                private Element currentRow;
+                private int currentRowCols;
+                private Element currentTD;
+                private int currentTDElements;
+                private Element currentTDFirstElement;
+
+                @Override
+                public boolean visit(Node n) {
+                    if (n.getNodeType() != Node.ELEMENT_NODE) return false;
+                    if (n == t) return true;
+                    Element e = Element.as(n);
+                    directDescendants.add(e);
+                    String tagName = e.getTagName();
+                    if (currentTD != null) {
+                        if (currentTDElements == 0) currentTDFirstElement = e;
+                        currentTDElements++;
+                    }
+                    if (descendantRole == null) {
+                        String role = e.getAttribute("role").toLowerCase();
+                        if (isARIATableDescendantRole(role) || isARIARole(role)) {
+                            descendantRole = role;
+                        }
+                    }
+                    if (firstHeaderElement == null && isHeaderTag(tagName)) {
+                        firstHeaderElement = e;
+                    }
+                    if (firstObjectElement == null && isObjectTag(tagName)) {
+                        firstObjectElement = e;
+                    }
+                    switch (tagName) {
+                        case "TABLE":
+                            hasNestedTables = true;
+                            return false;
+                        case "TR":
+                            if (isRowOf(e, t)) {
+                                rows.add(e);
+                                currentRow = e;
+                                currentRowCols = 0;
+                            }
+                            break;
+                        case "TD":
+                            directTDs.add(e);
+                            currentTD = e;
+                            currentTDElements = 0;
+                            currentTDFirstElement = null;
+                            // Fall through.
+                        case "TH":
+                            if (currentRow != null && e.getParentElement() == currentRow) {
+                                currentRowCols++;
+                            }
+                            break;
+                    }
+                    return true;
+                }
+
+                @Override
+                public void exit(Node n) {
+                    if (n == currentRow) {
+                        maxCols = Math.max(maxCols, currentRowCols);
+                        currentRow = null;
+                    } else if (n == currentTD) {
+                        cellElementCounts.add(currentTDElements);
+                        cellFirstElements.add(currentTDFirstElement);
+                        currentTD = null;
+                    }
+                }
+
+                @Override
+                public void skip(Element e) {
+                }
+            }).walk(t);
+        }
+
+        // Whether |tr| is in the rows collection of |t|, i.e. a child of |t| or of one of its
+        // table sections.
+        private static boolean isRowOf(Element tr, TableElement t) {
+            Element parent = tr.getParentElement();
+            if (parent == t) return true;
+            if (parent == null || parent.getParentElement() != t) return false;
+            return parent.hasTagName("TBODY") || parent.hasTagName("THEAD") ||
+                    parent.hasTagName("TFOOT");
+        }
+    }
+
+    /**
+     * Returns whether any ancestor of |e| makes it part of an editable area.
+     */
+    public static boolean isInsideEditableArea(Element e) {
+        Element parent = e.getParentElement();
+        while (parent != null) {
+            if (isEditableArea(parent)) return true;
+            parent = parent.getParentElement();
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether |e| itself starts an editable area, i.e. it is an <input> or has
+     * contenteditable="true".
+     */
+    public static boolean isEditableArea(Element e) {
+        return e.hasTagName("INPUT") || e.getAttribute("contenteditable").equalsIgnoreCase("true");
     }
 
     public static Type table(TableElement t) {
+        return table(t, isInsideEditableArea(t));
+    }
+
+    /**
+     * Classifies |t| like {@link #table(TableElement)}, but with the editable area check supplied
+     * by the caller, e.g. a DOM walk that already tracks it, instead of climbing the ancestors.
+     */
+    public static Type table(TableElement t, boolean insideEditableArea) {
         sReason = Reason.UNKNOWN;
 
         // The following heuristics are dropped from said url:
@@ -111,13 +273,8 @@ public class TableClassifier {
 
         // 1) Table inside editable area is layout table, different from said url because we ignore
         //    editable areas during distillation.
-        Element parent = t.getParentElement();
-        while (parent != null) {
-            if (parent.hasTagName("INPUT") ||
-                    parent.getAttribute("contenteditable").equalsIgnoreCase("true")) {
-                return logAndReturn(Reason.INSIDE_EDITABLE_AREA, "", Type.LAYOUT);
-            }
-            parent = parent.getParentElement();
+        if (insideEditableArea) {
+            return logAndReturn(Reason.INSIDE_EDITABLE_AREA, "", Type.LAYOUT);
         }
 
         // 2) Table having role="presentation" is layout table.
@@ -127,19 +284,17 @@ public class TableClassifier {
         }
 
         // 3) Table having ARIA table-related roles is data table.
-        if (sARIATableRoles.contains(tableRole) || sARIARoles.contains(tableRole)) {
+        if (isARIATableRole(tableRole) || isARIARole(tableRole)) {
             return logAndReturn(Reason.ROLE_TABLE, "_" + tableRole, Type.DATA);
         }
 
+        Features features = new Features(t);
+
         // 4) Table having ARIA table-related roles in its descendants is data table.
         // This may have deviated from said url if it only checks for <table> element but not its
         // descendants.
-        List<Element> directDescendants = getDirectDescendants(t);
-        for (Element e : directDescendants) {
-            String role = e.getAttribute("role").toLowerCase();
-            if (sARIATableDescendantRoles.contains(role) || sARIARoles.contains(role)) {
-                return logAndReturn(Reason.ROLE_DESCENDANT, "_" + role, Type.DATA);
-            }
+        if (features.descendantRole != null) {
+            return logAndReturn(Reason.ROLE_DESCENDANT, "_" + features.descendantRole, Type.DATA);
         }
 
         // 5) Table having datatable="0" attribute is layout table.
@@ -153,14 +308,13 @@ public class TableClassifier {
         // data table), but our eval sets indicate the need to bump these way up to here, because
         // many (old) pages have layout tables that are nested or with <TH>/<CAPTION>s but only 1
         // row or col.
-        if (hasNestedTables(t)) return logAndReturn(Reason.NESTED_TABLE, "", Type.LAYOUT);
+        if (features.hasNestedTables) return logAndReturn(Reason.NESTED_TABLE, "", Type.LAYOUT);
 
         // 7) Table having only one row or column is layout table.
         // See comments for #6 about deviation from said url.
-        NodeList<TableRowElement> rows = t.getRows();
-        if (rows.getLength() <= 1) return logAndReturn(Reason.LESS_EQ_1_ROW, "", Type.LAYOUT);
-        NodeList<TableCellElement> cols = getMaxColsAmongRows(rows);
-        if (cols == null || cols.getLength() <= 1) {
+        List<Element> rows = features.rows;
+        if (rows.size() <= 1) return logAndReturn(Reason.LESS_EQ_1_ROW, "", Type.LAYOUT);
+        if (features.maxCols <= 1) {
             return logAndReturn(Reason.LESS_EQ_1_COL, "", Type.LAYOUT);
         }
 
@@ -168,24 +322,20 @@ public class TableClassifier {
         // a) table has <caption>, <thead>, <tfoot>, <colgroup>, <col>, or <th> elements
         Element caption = t.getCaption();
         if ((caption != null && hasValidText(caption)) || t.getTHead() != null ||
-                t.getTFoot() != null || hasOneOfElements(directDescendants, sHeaderTags)) {
+                t.getTFoot() != null || matches(features.firstHeaderElement)) {
             return logAndReturn(Reason.CAPTION_THEAD_TFOOT_COLGROUP_COL_TH, "", Type.DATA);
         }
 
-        // Extract all <td> elements from direct descendants, for easier/faster multiple access.
-        List<Element> directTDs = new ArrayList<Element>();
-        for (Element e : directDescendants) {
-            if (e.hasTagName("TD")) directTDs.add(e);
-        }
-
-        for (Element e : directTDs) {
+        List<Element> directTDs = features.directTDs;
+        for (int i = 0; i < directTDs.size(); i++) {
+            Element e = directTDs.get(i);
             // b) table cell has abbr, headers, or scope attributes
             if (e.hasAttribute("abbr") || e.hasAttribute("headers") || e.hasAttribute("scope")) {
                 return logAndReturn(Reason.ABBR_HEADERS_SCOPE, "", Type.DATA);
             }
             // c) table cell has <abbr> element as a single child element.
-            NodeList<Element> children = e.getElementsByTagName("*");
-            if (children.getLength() == 1 && children.getItem(0).hasTagName("ABBR")) {
+            if (features.cellElementCounts.get(i) == 1 &&
+                    features.cellFirstElements.get(i).hasTagName("ABBR")) {
                 return logAndReturn(Reason.ONLY_HAS_ABBR, "", Type.DATA);
             }
         }
@@ -196,8 +346,8 @@ public class TableClassifier {
         // data table), but our eval sets indicate the need to bump this way up to here, because
         // many (old) pages have layout tables with the "summary" attribute (#10).
         Element docElement = t.getOwnerDocument().getDocumentElement();
-        int docWidth = docElement.getOffsetWidth();
-        if (docWidth > 0 && t.getOffsetWidth() > 0.95 * docWidth) {
+        int docWidth = DomUtil.getOffsetWidth(docElement);
+        if (docWidth > 0 && DomUtil.getOffsetWidth(t) > 0.95 * docWidth) {
             boolean viewportFound = false;
             NodeList<Element> allMeta = docElement.getElementsByTagName("META");
             for (int i = 0; i < allMeta.getLength() && !viewportFound; i++) {
@@ -217,7 +367,7 @@ public class TableClassifier {
         if (t.hasAttribute("summary")) return logAndReturn(Reason.SUMMARY, "", Type.DATA);
 
         // 11) Table having >=5 columns is data table.
-        if (cols.getLength() >= 5) return logAndReturn(Reason.MORE_EQ_5_COLS, "", Type.DATA);
+        if (features.maxCols >= 5) return logAndReturn(Reason.MORE_EQ_5_COLS, "", Type.DATA);
 
         // 12) Table having borders around cells is data table.
         for (Element e : directTDs) {
@@ -229,8 +379,8 @@ public class TableClassifier {
 
         // 13) Table having differently-colored rows is data table.
         String prevBackgroundColor = null;
-        for (int i = 0; i < rows.getLength(); i++) {
-            String color = DomUtil.getComputedStyle(rows.getItem(i)).getBackgroundColor();
+        for (Element row : rows) {
+            String color = DomUtil.getComputedStyle(row).getBackgroundColor();
             if (prevBackgroundColor == null) {
                 prevBackgroundColor = color;
                 continue;
@@ -241,14 +391,14 @@ public class TableClassifier {
         }
 
         // 14) Table having >=20 rows is data table.
-        if (rows.getLength() >= 20) return logAndReturn(Reason.MORE_EQ_20_ROWS, "", Type.DATA);
+        if (rows.size() >= 20) return logAndReturn(Reason.MORE_EQ_20_ROWS, "", Type.DATA);
 
         // 15) Table having <=10 cells is layout table.
         if (directTDs.size() <= 10) return logAndReturn(Reason.LESS_EQ_10_CELLS, "", Type.LAYOUT);
 
         // 16) Table containing <embed>, <object>, <applet> or <iframe> elements (typical
         //     advertisement elements) is layout table.
-        if (hasOneOfElements(directDescendants, sObjectTags)) {
+        if (matches(features.firstObjectElement)) {
             return logAndReturn(Reason.EMBED_OBJECT_APPLET_IFRAME, "", Type.LAYOUT);
         }
 
@@ -256,8 +406,8 @@ public class TableClassifier {
         // This is not in said url, added here because many (old) pages have tables that don't fall
         // into any of the above heuristics but are for layout, and hence shouldn't default to data
         // by #18.
-        int docHeight = docElement.getOffsetHeight();
-        if (docHeight > 0 && t.getOffsetHeight() > 0.9 * docHeight) {
+        int docHeight = DomUtil.getOffsetHeight(docElement);
+        if (docHeight > 0 && DomUtil.getOffsetHeight(t) > 0.9 * docHeight) {
             return logAndReturn(Reason.MORE_90_PERCENT_DOC_HEIGHT, "", Type.LAYOUT);
         }
 
@@ -265,43 +415,11 @@ public class TableClassifier {
         return logAndReturn(Reason.DEFAULT, "", Type.DATA);
     }
 
-    private static boolean hasNestedTables(Element t) {
-        return t.getElementsByTagName("TABLE").getLength() > 0;
-    }
-
-    private static List<Element> getDirectDescendants(Element t) {
-        List<Element> directDescendants = new ArrayList<Element>();
-        NodeList<Element> allDescendants = t.getElementsByTagName("*");
-        if (!hasNestedTables(t)) {
-            for (int i = 0; i < allDescendants.getLength(); i++) {
-                directDescendants.add(allDescendants.getItem(i));
-            }
-        } else {
-            for (int i = 0; i < allDescendants.getLength(); i++) {
-                // Check if the current element is a direct descendant of the |t| table element in
-                // question, as opposed to being a descendant of a nested table in |t|.
-                Element e = allDescendants.getItem(i);
-                Element parent = e.getParentElement();
-                while (parent != null) {
-                    if (parent.hasTagName("TABLE")) {
-                        if (parent == t) directDescendants.add(e);
-                        break;
-                    }
-                    parent = parent.getParentElement();
-                }
-            }
-        }
-        return directDescendants;
-    }
-
-    private static boolean hasOneOfElements(List<Element> list, Map<String, Boolean> tags) {
-        for (Element e : list) {
-            String tagName = e.getTagName();
-            if (tags.containsKey(tagName)) {
-                return !tags.get(tagName) || hasValidText(e);
-            }
-        }
-        return false;
+    // Whether the first element of a tag set found in the table qualifies, i.e. it doesn't need
+    // valid text or it has it.
+    private static boolean matches(Element e) {
+        if (e == null) return false;
+        return !needsValidText(e.getTagName()) || hasValidText(e);
     }
 
     private static boolean hasValidText(Element e) {
@@ -309,19 +427,6 @@ public class TableClassifier {
         return !txt.isEmpty() && !StringUtil.isStringAllWhitespace(txt);
     }
 
-    private static NodeList<TableCellElement> getMaxColsAmongRows(NodeList<TableRowElement> rows) {
-        NodeList<TableCellElement> cols = null;
-        int maxCols = 0;
-        for (int i = 0; i < rows.getLength(); i++) {
-            NodeList<TableCellElement> currCols = rows.getItem(i).getCells();
-            if (currCols.getLength() > maxCols) {
-                maxCols = currCols.getLength();
-                cols = currCols;
-            }
-        }
-        return cols;
-    }
-
     private static Type logAndReturn(Reason reason, String append, Type type) {
         if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_VISIBILITY_INFO)) {
             LogUtil.logToConsole(reason + append + " -> " + type);
@@ -0,0 +1,153 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Records the stages of a distillation as nested events in the Chrome trace-event JSON format,
+ * which chrome://tracing and Perfetto can load, and as performance.mark()/measure() calls, which
+ * show up in the DevTools timeline and in Chrome traces of the page.
+ *
+ * Recording is off unless {@link #start} is called, and all other calls are no-ops then.
+ */
+public class TraceRecorder {
+    // All statically initialized fields in this class should be primitives or Strings, like in
+    // LogUtil, as the methods are called on hot paths even when recording is off.
+    private static final String CATEGORY = "dom_distiller";
+    private static final String MARK_PREFIX = "DomDistiller:";
+
+    private static boolean sEnabled = false;
+
+    // The events recorded so far, as a JS array of trace event objects.
+    private static JavaScriptObject sEvents;
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Starts recording, discarding any events recorded before.
+     */
+    public static void start() {
+        sEnabled = true;
+        sEvents = createEvents();
+    }
+
+    /**
+     * Stops recording.
+     *
+     * @return The recorded events, as a JSON trace, or an empty string if recording wasn't
+     * started.
+     */
+    public static String stop() {
+        if (!sEnabled) return "";
+        sEnabled = false;
+        String trace = toJson(sEvents);
+        sEvents = null;
+        return trace;
+    }
+
+    /**
+     * Begins the event |name|, which must be ended by {@link #end} with the same name before the
+     * enclosing event ends. The event is also the stage of the reads audited by LayoutAudit.
+     */
+    public static void begin(String name) {
+        LayoutAudit.enterStage(name);
+        if (!sEnabled) return;
+        addEvent(sEvents, name, "B", DomUtil.getTime(), 0, null, 0, null, 0);
+        mark(MARK_PREFIX + name + ":begin");
+    }
+
+    public static void end(String name) {
+        end(name, null, 0, null, 0);
+    }
+
+    /**
+     * Ends the event |name|, annotated with a count, e.g. of the nodes or blocks it processed.
+     */
+    public static void end(String name, String argName, double argValue) {
+        end(name, argName, argValue, null, 0);
+    }
+
+    /**
+     * Ends the event |name|, annotated with two counts.
+     */
+    public static void end(String name, String argName, double argValue, String argName2,
+            double argValue2) {
+        LayoutAudit.exitStage();
+        if (!sEnabled) return;
+        addEvent(sEvents, name, "E", DomUtil.getTime(), 0, argName, argValue, argName2,
+                argValue2);
+        mark(MARK_PREFIX + name + ":end");
+        measure(MARK_PREFIX + name, MARK_PREFIX + name + ":begin", MARK_PREFIX + name + ":end");
+    }
+
+    /**
+     * Records the event |name| that started at |startTime| (from {@link DomUtil#getTime}) and
+     * ends now, e.g. for the entries of TimingInfo.
+     */
+    public static void complete(String name, double startTime) {
+        if (!sEnabled) return;
+        addEvent(sEvents, name, "X", startTime, DomUtil.getTime() - startTime, null, 0, null, 0);
+    }
+
+    private static native JavaScriptObject createEvents() /*-{
+        return [{
+            name: "thread_name",
+            ph: "M",
+            pid: 1,
+            tid: 1,
+            args: { name: "DomDistiller" }
+        }];
+    }-*/;
+
+    // The times are in ms, and the trace timestamps in microseconds.
+    private static native void addEvent(JavaScriptObject events, String name, String phase,
+            double time, double duration, String argName, double argValue, String argName2,
+            double argValue2) /*-{
+        var event = {
+            name: name,
+            cat: @org.chromium.distiller.TraceRecorder::CATEGORY,
+            ph: phase,
+            ts: time * 1000,
+            pid: 1,
+            tid: 1
+        };
+        if (phase == "X") event.dur = duration * 1000;
+        if (argName != null) {
+            event.args = {};
+            event.args[argName] = argValue;
+            if (argName2 != null) event.args[argName2] = argValue2;
+        }
+        events.push(event);
+    }-*/;
+
+    private static native String toJson(JavaScriptObject events) /*-{
+        return JSON.stringify({ traceEvents: events, displayTimeUnit: "ms" });
+    }-*/;
+
+    // window.performance is unavailable in Gwt's dev environment, and even referencing it on iOS
+    // causes a crash, see DomUtil.getTime().
+    private static native void mark(String name) /*-{
+        if ((typeof distiller_on_ios === 'undefined' || !distiller_on_ios) &&
+                window.performance && window.performance.mark) {
+            window.performance.mark(name);
+        }
+    }-*/;
+
+    private static native void measure(String name, String startMark, String endMark) /*-{
+        if ((typeof distiller_on_ios === 'undefined' || !distiller_on_ios) &&
+                window.performance && window.performance.measure) {
+            try {
+                window.performance.measure(name, startMark, endMark);
+                window.performance.clearMarks(startMark);
+                window.performance.clearMarks(endMark);
+            } catch (e) {
+                // The begin mark is missing if the event was begun before recording started.
+            }
+        }
+    }-*/;
+}
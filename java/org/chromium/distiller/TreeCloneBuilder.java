@@ -23,25 +23,33 @@ public class TreeCloneBuilder {
     public static Node cloneNode(Node node) {
         Node clone = node.cloneNode(false);
         if (node.getNodeType() == Node.ELEMENT_NODE) {
-            String direction = DomUtil.getComputedStyle(Element.as(node)).getProperty("direction");
-            if (direction.isEmpty()) {
-                direction = "auto";
-            }
-            Element.as(clone).setAttribute("dir", direction);
+            Element.as(clone).setAttribute("dir", NodeDirections.getComputedDirection(node));
+        }
+        return clone;
+    }
+
+    /**
+     * Clone the provided node, with a "dir" attribute only if its direction differs from its
+     * parent's. The root of the cloned tree gets its "dir" attribute separately.
+     */
+    private static Node cloneNodeRetainDirectionChange(Node node, NodeDirections directions) {
+        Node clone = node.cloneNode(false);
+        if (directions.isDirectionChange(node)) {
+            Element.as(clone).setAttribute("dir", directions.getDirection(node));
         }
         return clone;
     }
 
-    private static Node cloneChild(Node clone, Node newChild) {
-        Node cl = cloneNode(newChild);
+    private static Node cloneChild(Node clone, Node newChild, NodeDirections directions) {
+        Node cl = cloneNodeRetainDirectionChange(newChild, directions);
         clone.appendChild(cl);
         return cl;
     }
 
-    private static Node cloneParent(Node clone, Node newParent) {
+    private static Node cloneParent(Node clone, Node newParent, NodeDirections directions) {
         Node p = clone.getParentNode();
         if (p == null) {
-            p = cloneNode(newParent);
+            p = cloneNodeRetainDirectionChange(newParent, directions);
             p.appendChild(clone);
         }
         return p;
@@ -52,16 +60,19 @@ public class TreeCloneBuilder {
      * contains all of them. This is done by going through each node, cloning its parent and adding
      * children to that parent until the next node is not contained in that parent (originally).
      * The list cannot contain a parent of any of the other nodes. Children of the nodes in the
-     * provided list are excluded.
+     * provided list are excluded. Text directionality is retained with a "dir" attribute on the
+     * root and on the elements whose direction differs from their parent's.
      * @param nodes The list of nodes.
+     * @param directions The text directions of the nodes.
      * @return Root node of cloned tree.
      */
-    public static Node buildTreeClone(List<Node> nodes) {
+    public static Node buildTreeClone(List<Node> nodes, NodeDirections directions) {
         if (nodes.size() == 1) {
             return new NodeTree(nodes.get(0)).cloneSubtree();
         }
         Node n = nodes.get(0);
         Node clone = n.cloneNode(false);
+        Node firstClone = clone;
         OrderedNodeMatcher matcher = new OrderedNodeMatcher(nodes);
         while (!matcher.isFinished()) {
             if (matcher.match(n)) {
@@ -71,7 +82,7 @@ public class TreeCloneBuilder {
                 while (!JavaScript.contains(n, matcher.peek())) {
                     n = n.getNextSibling();
                 }
-                clone = cloneChild(clone, n);
+                clone = cloneChild(clone, n, directions);
                 continue;
             }
             while (true) {
@@ -80,18 +91,26 @@ public class TreeCloneBuilder {
                     s = s.getNextSibling();
                 }
                 if (s != null) {
-                    clone = cloneParent(clone, n.getParentNode());
-                    clone = cloneChild(clone, s);
+                    clone = cloneParent(clone, n.getParentNode(), directions);
+                    clone = cloneChild(clone, s, directions);
                     n = s;
                     break;
                 }
                 n = n.getParentNode();
-                clone = cloneParent(clone, n);
+                clone = cloneParent(clone, n, directions);
             }
         }
-        while (clone.getParentNode() != null) {
-            clone = clone.getParentNode();
+        // The cloned tree mirrors the DOM, so the source of the root is as many levels above the
+        // first node as the root is above its clone.
+        Node root = firstClone;
+        Node source = nodes.get(0);
+        while (root.getParentNode() != null) {
+            root = root.getParentNode();
+            source = source.getParentNode();
         }
-        return clone;
+        if (root.getNodeType() == Node.ELEMENT_NODE) {
+            Element.as(root).setAttribute("dir", directions.getDirection(source));
+        }
+        return root;
     }
 }
@@ -0,0 +1,112 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves hrefs against a base URL, following RFC 3986 section 5.2 with the same normalization
+ * as ParsedUrl. This replaces resolving through a DOM anchor or image, which costs a round trip
+ * into the DOM for every href.
+ *
+ * The base URL is parsed once, and resolved hrefs are cached by their raw value, since pages tend
+ * to repeat the same links (e.g. pagination and navigation). Use get() to share the resolver of a
+ * base URL within a distillation run, and clearCache() between runs.
+ */
+public class UrlResolver {
+    private static UrlResolver sLastResolver = null;
+
+    private final String mBaseUrl;
+    private final ParsedUrl mBase;
+    private final Map<String, String> mCache;
+
+    /**
+     * @return The resolver for |baseUrl|, reusing the last one if it has the same base.
+     */
+    public static UrlResolver get(String baseUrl) {
+        if (sLastResolver == null || !sLastResolver.mBaseUrl.equals(baseUrl)) {
+            sLastResolver = new UrlResolver(baseUrl);
+        }
+        return sLastResolver;
+    }
+
+    /**
+     * Drops the shared resolver and its cache.
+     */
+    public static void clearCache() {
+        sLastResolver = null;
+    }
+
+    public UrlResolver(String baseUrl) {
+        mBaseUrl = baseUrl;
+        mBase = ParsedUrl.create(baseUrl);
+        mCache = new HashMap<>();
+    }
+
+    /**
+     * Resolves |href| against the base URL. As with the href of an anchor, an empty href resolves
+     * to the base URL without its fragment, and an href that can't be resolved is returned as is.
+     * @param href The raw href, e.g. the value of an href attribute.
+     * @return The absolute URL.
+     */
+    public String resolve(String href) {
+        String resolved = mCache.get(href);
+        if (resolved == null) {
+            ParsedUrl url = resolveToParsedUrl(href);
+            resolved = url == null ? href : url.toString();
+            mCache.put(href, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * Same as resolve(), returning a new ParsedUrl, or null if |href| can't be resolved.
+     */
+    public ParsedUrl resolveToParsedUrl(String href) {
+        String ref = ParsedUrl.stripWhitespace(href);
+
+        int schemeEnd = ParsedUrl.getSchemeEnd(ref);
+        if (schemeEnd >= 0) {
+            String scheme = ref.substring(0, schemeEnd).toLowerCase();
+            String rest = ref.substring(schemeEnd + 1);
+            // "http:foo" is relative to an http base, but absolute otherwise.
+            boolean relativeToBase = mBase != null && ParsedUrl.isSpecialScheme(scheme)
+                    && scheme.equals(mBase.mScheme)
+                    && !rest.startsWith("/") && !rest.startsWith("\\");
+            if (!relativeToBase) return ParsedUrl.create(ref);
+            ref = rest;
+        }
+        if (mBase == null) return null;
+
+        boolean special = ParsedUrl.isSpecialScheme(mBase.mScheme);
+        if (special) {
+            String path = ParsedUrl.splitPath(ref);
+            ref = path.replace('\\', '/') + ref.substring(path.length());
+        }
+
+        if (ref.startsWith("//")) {
+            return ParsedUrl.create(mBase.mScheme + ":" + ref);
+        }
+
+        String path = ParsedUrl.splitPath(ref);
+        String query = ParsedUrl.splitQuery(ref);
+        String fragment = ParsedUrl.splitFragment(ref);
+
+        // Only fragments can be resolved against an opaque base, e.g. "javascript:".
+        boolean opaqueBase = mBase.mHost == null && !mBase.mPath.startsWith("/");
+        if (opaqueBase && (!path.isEmpty() || query != null)) return null;
+
+        if (path.isEmpty()) {
+            path = mBase.mPath;
+            if (query == null) query = mBase.mQuery;
+        } else if (!path.startsWith("/")) {
+            // Merge with the directory of the base path.
+            path = mBase.mPath.substring(0, mBase.mPath.lastIndexOf('/') + 1) + path;
+        }
+        return ParsedUrl.create(mBase.mScheme, mBase.getUsername(), mBase.getPassword(),
+                mBase.mHost, path, query, fragment);
+    }
+}
@@ -21,6 +21,8 @@
  */
 package org.chromium.distiller.extractors;
 
+import org.chromium.distiller.BoilerpipeFilter;
+import org.chromium.distiller.TraceRecorder;
 import org.chromium.distiller.document.TextDocument;
 import org.chromium.distiller.filters.debug.PrintDebugFilter;
 import org.chromium.distiller.filters.english.NumWordsRulesClassifier;
@@ -59,59 +61,72 @@ public final class ArticleExtractor {
 
         PrintDebugFilter.INSTANCE.process(doc, true, "Start");
 
-        TerminatingBlocksFinder.INSTANCE.process(doc);
-        new DocumentTitleMatchClassifier(candidateTitles).process(doc);
+        process(TerminatingBlocksFinder.INSTANCE, doc, "TerminatingBlocksFinder");
+        process(new DocumentTitleMatchClassifier(candidateTitles), doc,
+                "DocumentTitleMatchClassifier");
         // Intentionally don't print changes from these two steps.
 
-        changed = NumWordsRulesClassifier.INSTANCE.process(doc);
+        changed = process(NumWordsRulesClassifier.INSTANCE, doc, "NumWordsRulesClassifier");
         PrintDebugFilter.INSTANCE.process(doc, changed, "Classification Complete");
 
-        changed = LabelToBoilerplateFilter.INSTANCE_STRICTLY_NOT_CONTENT.process(doc);
+        changed = process(LabelToBoilerplateFilter.INSTANCE_STRICTLY_NOT_CONTENT, doc,
+                "LabelToBoilerplateFilter");
         PrintDebugFilter.INSTANCE.process(doc, changed, "Ignore Strictly Not Content blocks");
 
-        changed = new SimilarSiblingContentExpansion.Builder()
+        changed = process(new SimilarSiblingContentExpansion.Builder()
                 .allowCrossHeadings()
                 .maxLinkDensity(0.5)
                 .maxBlockDistance(10)
-                .build()
-                .process(doc);
+                .build(), doc, "SimilarSiblingContentExpansion: Cross headings");
         PrintDebugFilter.INSTANCE.process(doc, changed,
                 "SimilarSiblingContentExpansion: Cross headings");
 
-        changed = new SimilarSiblingContentExpansion.Builder()
+        changed = process(new SimilarSiblingContentExpansion.Builder()
                 .allowCrossHeadings()
                 .allowMixedTags()
                 .maxLinkDensity(0.0)
                 .maxBlockDistance(10)
-                .build()
-                .process(doc);
+                .build(), doc, "SimilarSiblingContentExpansion: Mixed tags");
         PrintDebugFilter.INSTANCE.process(doc, changed,
                 "SimilarSiblingContentExpansion: Mixed tags");
 
-        changed = new HeadingFusion().process(doc);
+        changed = process(new HeadingFusion(), doc, "HeadingFusion");
         PrintDebugFilter.INSTANCE.process(doc, changed, "HeadingFusion");
 
-        changed = BlockProximityFusion.PRE_FILTERING.process(doc);
+        changed = process(BlockProximityFusion.PRE_FILTERING, doc, "BlockProximityFusion: Pre");
         PrintDebugFilter.INSTANCE.process(doc, changed, "BlockProximityFusion: Distance 1");
 
-        changed = BoilerplateBlockFilter.INSTANCE_KEEP_TITLE.process(doc);
+        changed = process(BoilerplateBlockFilter.INSTANCE_KEEP_TITLE, doc,
+                "BoilerplateBlockFilter");
         PrintDebugFilter.INSTANCE.process(doc, changed, "BlockFilter");
 
-        changed = BlockProximityFusion.POST_FILTERING.process(doc);
+        changed = process(BlockProximityFusion.POST_FILTERING, doc, "BlockProximityFusion: Post");
         PrintDebugFilter.INSTANCE.process(doc, changed, "BlockProximityFusion: Same level content-only");
 
-        changed = KeepLargestBlockFilter.INSTANCE_EXPAND_TO_SIBLINGS.process(doc);
+        changed = process(KeepLargestBlockFilter.INSTANCE_EXPAND_TO_SIBLINGS, doc,
+                "KeepLargestBlockFilter");
         PrintDebugFilter.INSTANCE.process(doc, changed, "Keep Largest Block");
 
-        changed = ExpandTitleToContentFilter.INSTANCE.process(doc);
+        changed = process(ExpandTitleToContentFilter.INSTANCE, doc, "ExpandTitleToContentFilter");
         PrintDebugFilter.INSTANCE.process(doc, changed, "Expand Title to Content");
 
-        changed = LargeBlockSameTagLevelToContentFilter.INSTANCE.process(doc);
+        changed = process(LargeBlockSameTagLevelToContentFilter.INSTANCE, doc,
+                "LargeBlockSameTagLevelToContentFilter");
         PrintDebugFilter.INSTANCE.process(doc, changed, "Largest Block Same Tag Level -> Content");
 
-        changed = ListAtEndFilter.INSTANCE.process(doc);
+        changed = process(ListAtEndFilter.INSTANCE, doc, "ListAtEndFilter");
         PrintDebugFilter.INSTANCE.process(doc, changed, "List at end filter");
 
         return true;
     }
+
+    /**
+     * Runs |filter| on |doc|, as the trace event |name|.
+     */
+    static boolean process(BoilerpipeFilter filter, TextDocument doc, String name) {
+        TraceRecorder.begin(name);
+        boolean changed = filter.process(doc);
+        TraceRecorder.end(name, "blocks", doc.getTextBlocks().size());
+        return changed;
+    }
 }
@@ -0,0 +1,47 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.extractors;
+
+import org.chromium.distiller.document.TextDocument;
+import org.chromium.distiller.filters.debug.PrintDebugFilter;
+import org.chromium.distiller.filters.english.TerminatingBlocksFinder;
+import org.chromium.distiller.filters.simple.IgnoreBlocksAfterLabelFilter;
+import org.chromium.distiller.filters.simple.LabelToBoilerplateFilter;
+import org.chromium.distiller.filters.simple.MarkEverythingContentFilter;
+
+/**
+ * An extractor for a document that only holds the article container found by
+ * StructuredContentFinder.  All blocks are content, except for the terminating ones, e.g.
+ * "Comments", and the blocks after them, so none of the classification of ArticleExtractor is
+ * needed.
+ */
+public final class StructuredContentExtractor {
+    public static final StructuredContentExtractor INSTANCE = new StructuredContentExtractor();
+
+    private StructuredContentExtractor() {
+    }
+
+    public boolean process(TextDocument doc) {
+        boolean changed;
+
+        PrintDebugFilter.INSTANCE.process(doc, true, "Start");
+
+        changed = ArticleExtractor.process(MarkEverythingContentFilter.INSTANCE, doc,
+                "MarkEverythingContentFilter");
+        PrintDebugFilter.INSTANCE.process(doc, changed, "Mark everything content");
+
+        ArticleExtractor.process(TerminatingBlocksFinder.INSTANCE, doc, "TerminatingBlocksFinder");
+        changed = ArticleExtractor.process(LabelToBoilerplateFilter.INSTANCE_STRICTLY_NOT_CONTENT,
+                doc, "LabelToBoilerplateFilter");
+        PrintDebugFilter.INSTANCE.process(doc, changed, "Ignore Strictly Not Content blocks");
+
+        changed = ArticleExtractor.process(
+                IgnoreBlocksAfterLabelFilter.INSTANCE_STRICTLY_NOT_CONTENT, doc,
+                "IgnoreBlocksAfterLabelFilter");
+        PrintDebugFilter.INSTANCE.process(doc, changed, "Ignore blocks after the end of the text");
+
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.extractors.embeds;
+
+import org.chromium.distiller.DistillationContext;
+import org.chromium.distiller.webdocument.WebElement;
+
+import com.google.gwt.dom.client.AnchorElement;
+import com.google.gwt.dom.client.Element;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dispatches elements to the embed extractors that could be interested in them. Elements with a
+ * source URL (<iframe> and <object>) have their source parsed once, and are then handed to the
+ * single extractor registered for the host through a hash lookup. Other elements, and <iframe>s
+ * without a source, are handed to the extractors registered for their tag name.
+ *
+ * To support a new provider, implement {@link SourceEmbedExtractor} (or {@link EmbedExtractor}
+ * for tag-based embeds) and add it to {@link #EmbedExtractorRegistry()}.
+ */
+public class EmbedExtractorRegistry {
+    // Tag name -> extractors to check, in order, for elements without a source URL.
+    private final Map<String, List<EmbedExtractor>> tagExtractors;
+    // Root domain -> the extractor for source URLs on that domain.
+    private final Map<String, SourceEmbedExtractor> hostExtractors;
+    // Tag names that might be embeds, from either map.
+    private final Set<String> relevantTagNames;
+    // Reused to parse source URLs.
+    private AnchorElement resolver;
+
+    public EmbedExtractorRegistry() {
+        tagExtractors = new HashMap<>();
+        hostExtractors = new HashMap<>();
+        relevantTagNames = new HashSet<>();
+
+        addExtractor(new ImageExtractor());
+        addExtractor(new TwitterExtractor());
+        addSourceExtractor(new VimeoExtractor());
+        addSourceExtractor(new YouTubeExtractor());
+    }
+
+    /**
+     * Register an extractor that is checked for every element of its relevant tag names.
+     */
+    public void addExtractor(EmbedExtractor extractor) {
+        for (String tagName : extractor.getRelevantTagNames()) {
+            List<EmbedExtractor> extractors = tagExtractors.get(tagName);
+            if (extractors == null) {
+                extractors = new ArrayList<>();
+                tagExtractors.put(tagName, extractors);
+            }
+            extractors.add(extractor);
+            relevantTagNames.add(tagName);
+        }
+    }
+
+    /**
+     * Register an extractor that is only checked for sources on its root domains.
+     */
+    public void addSourceExtractor(SourceEmbedExtractor extractor) {
+        for (String domain : extractor.getRootDomains()) {
+            hostExtractors.put(domain, extractor);
+        }
+        relevantTagNames.addAll(extractor.getRelevantTagNames());
+    }
+
+    /**
+     * @return Whether an element with |tagName| could be extracted as an embed.
+     */
+    public boolean isRelevantTagName(String tagName) {
+        return relevantTagNames.contains(tagName);
+    }
+
+    /**
+     * Detect if an element should be extracted as an embedded element.
+     * @param e The element to test.
+     * @return The extracted embed, or null if |e| is not an embed.
+     */
+    public WebElement extract(Element e) {
+        String tagName = e.getTagName();
+        if ("IFRAME".equals(tagName) || "OBJECT".equals(tagName)) {
+            EmbedSource source = EmbedSource.create(e, getResolver());
+            if (source != null) {
+                SourceEmbedExtractor extractor = getExtractorForHost(source.getHost());
+                return extractor == null ? null : extractor.extract(e, source);
+            }
+        }
+        List<EmbedExtractor> extractors = tagExtractors.get(tagName);
+        if (extractors == null) return null;
+        for (EmbedExtractor extractor : extractors) {
+            WebElement embed = extractor.extract(e);
+            if (embed != null) return embed;
+        }
+        return null;
+    }
+
+    // Look up |host| and each of its parent domains, e.g. "www.youtube.com", then "youtube.com",
+    // then "com".
+    private SourceEmbedExtractor getExtractorForHost(String host) {
+        String domain = host;
+        while (!domain.isEmpty()) {
+            SourceEmbedExtractor extractor = hostExtractors.get(domain);
+            if (extractor != null) return extractor;
+            int dot = domain.indexOf('.');
+            if (dot < 0) break;
+            domain = domain.substring(dot + 1);
+        }
+        return null;
+    }
+
+    private AnchorElement getResolver() {
+        if (resolver == null) {
+            resolver = DistillationContext.getDocument().createAnchorElement();
+        }
+        return resolver;
+    }
+}
@@ -0,0 +1,119 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.extractors.embeds;
+
+import org.chromium.distiller.DistillationContext;
+import org.chromium.distiller.DomUtil;
+
+import com.google.gwt.dom.client.AnchorElement;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.IFrameElement;
+import com.google.gwt.dom.client.NodeList;
+
+/**
+ * The parsed source URL of an <iframe> or <object> that might be an embed. It is parsed once and
+ * then shared by all the {@link SourceEmbedExtractor}s that look at the element.
+ */
+public class EmbedSource {
+    private final String src;
+    private final String host;
+    private final String path;
+    private final String query;
+
+    private EmbedSource(String src, String host, String path, String query) {
+        this.src = src;
+        this.host = host;
+        this.path = path;
+        this.query = query;
+    }
+
+    /**
+     * Get the source URL of an <iframe> or <object> element.
+     * @param e The element to get the source of.
+     * @return The source URL, or null if |e| is neither or has no source.
+     */
+    public static String getSourceUrl(Element e) {
+        String src = null;
+        if ("IFRAME".equals(e.getTagName())) {
+            src = IFrameElement.as(e).getSrc();
+        } else if ("OBJECT".equals(e.getTagName())) {
+            // Deprecated way to embed videos, e.g. youtube.
+            // Ref: https://www.w3.org/blog/2008/09/howto-insert-youtube-video/
+            //      http://xahlee.info/js/html_embed_video.html
+            if (e.getAttribute("type").equals("application/x-shockwave-flash")) {
+                src = e.getAttribute("data");
+            } else {
+                NodeList<Element> params = DomUtil.querySelectorAll(e, "param[name=\"movie\"]");
+                if (params.getLength() == 1) {
+                    src = params.getItem(0).getAttribute("value");
+                }
+            }
+        }
+        if (src == null || src.isEmpty()) return null;
+        return src;
+    }
+
+    /**
+     * Parse the source URL of an <iframe> or <object> element.
+     * @param e The element to parse the source of.
+     * @param resolver An anchor used to resolve the URL, which can be reused across calls.
+     * @return The parsed source, or null if |e| has no source.
+     */
+    public static EmbedSource create(Element e, AnchorElement resolver) {
+        String src = getSourceUrl(e);
+        if (src == null) return null;
+        resolver.setHref(src);
+        String search = resolver.getPropertyString("search");
+        return new EmbedSource(src,
+                resolver.getPropertyString("host"),
+                resolver.getPropertyString("pathname"),
+                search.startsWith("?") ? search.substring(1) : search);
+    }
+
+    /**
+     * Parse the source URL of an <iframe> or <object> element with a newly created resolver.
+     */
+    public static EmbedSource create(Element e) {
+        return create(e, DistillationContext.getDocument().createAnchorElement());
+    }
+
+    /**
+     * @return The source URL as it was found on the element.
+     */
+    public String getSrc() {
+        return src;
+    }
+
+    /**
+     * @return The host of the resolved source URL, e.g. "www.youtube.com".
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return The path of the resolved source URL.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return The query of the resolved source URL, without the leading "?".
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Check whether the host has the specified root domain, like
+     * {@link DomUtil#hasRootDomain(String, String)} but without parsing the URL again.
+     * @param root The root domain to test against.
+     * @return True if the host has the specified root domain.
+     */
+    public boolean hasRootDomain(String root) {
+        return ("." + host).endsWith("." + root);
+    }
+}
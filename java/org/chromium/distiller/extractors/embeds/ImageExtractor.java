@@ -113,8 +113,8 @@ public class ImageExtractor implements EmbedExtractor {
             imgSrc = imageElement.getSrc();
             // As an ImageElement is manipulated here, it is possible
             // to get the real dimensions.
-            width = imageElement.getWidth();
-            height = imageElement.getHeight();
+            width = DomUtil.getImageWidth(imageElement);
+            height = DomUtil.getImageHeight(imageElement);
         }
         if (LogUtil.isLoggable(LogUtil.DEBUG_LEVEL_VISIBILITY_INFO)) {
             LogUtil.logToConsole("Extracted WebImage: " + imgSrc);
@@ -0,0 +1,35 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.extractors.embeds;
+
+import org.chromium.distiller.webdocument.WebElement;
+
+import com.google.gwt.dom.client.Element;
+
+import java.util.Set;
+
+/**
+ * An {@link EmbedExtractor} for embeds that are identified by the host of their <iframe> or
+ * <object> source URL. {@link EmbedExtractorRegistry} only dispatches an element to the extractor
+ * registered for the host of its source.
+ */
+public interface SourceEmbedExtractor extends EmbedExtractor {
+
+    /**
+     * Get the root domains of the source URLs this extractor handles, e.g. "youtube.com" also
+     * matches "www.youtube.com".
+     * @return set of root domains.
+     */
+    public Set<String> getRootDomains();
+
+    /**
+     * Same as {@link EmbedExtractor#extract(Element)}, with the source of the element already
+     * parsed.
+     * @param e The element to test.
+     * @param source The parsed source of |e|.
+     * @return A {@link WebElement} object that contains information about the embed including type.
+     */
+    public WebElement extract(Element e, EmbedSource source);
+}
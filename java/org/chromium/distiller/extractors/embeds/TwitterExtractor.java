@@ -6,6 +6,7 @@ package org.chromium.distiller.extractors.embeds;
 
 import org.chromium.distiller.DomUtil;
 import org.chromium.distiller.LogUtil;
+import org.chromium.distiller.StringUtil;
 import org.chromium.distiller.webdocument.WebEmbed;
 
 import com.google.gwt.dom.client.AnchorElement;
@@ -87,7 +88,7 @@ public class TwitterExtractor implements EmbedExtractor {
             return null;
         }
 
-        return new WebEmbed(e, "twitter", id, null);
+        return createEmbed(e, id, e);
     }
 
     /**
@@ -141,6 +142,19 @@ public class TwitterExtractor implements EmbedExtractor {
             return null;
         }
 
-        return new WebEmbed(e, "twitter", id, null);
+        return createEmbed(e, id, tweetBlock);
+    }
+
+    /**
+     * Create the embed for a tweet, with the text of the tweet as its title.
+     * @param e The root element of the embed.
+     * @param id The ID of the tweet.
+     * @param tweetBlock The blockquote that holds the tweet.
+     */
+    private WebEmbed createEmbed(Element e, String id, Element tweetBlock) {
+        WebEmbed embed = new WebEmbed(e, "twitter", id, null);
+        // textContent doesn't require layout, unlike innerText.
+        embed.setTitle(StringUtil.jsTrim(DomUtil.javascriptTextContent(tweetBlock)));
+        return embed;
     }
 }
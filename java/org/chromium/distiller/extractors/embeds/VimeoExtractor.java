@@ -8,10 +8,7 @@ import org.chromium.distiller.DomUtil;
 import org.chromium.distiller.LogUtil;
 import org.chromium.distiller.webdocument.WebEmbed;
 
-import com.google.gwt.dom.client.AnchorElement;
-import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
-import com.google.gwt.dom.client.IFrameElement;
 
 import java.util.HashSet;
 import java.util.Map;
@@ -20,11 +17,13 @@ import java.util.Set;
 /**
  * VimeoExtractor is used for extracting Vimeo videos and relevant information.
  */
-public class VimeoExtractor implements EmbedExtractor {
+public class VimeoExtractor implements SourceEmbedExtractor {
 
     private static final Set<String> relevantTags = new HashSet<>();
+    private static final Set<String> rootDomains = new HashSet<>();
     static {
         relevantTags.add("IFRAME");
+        rootDomains.add("player.vimeo.com");
     }
 
     @Override
@@ -32,23 +31,36 @@ public class VimeoExtractor implements EmbedExtractor {
         return relevantTags;
     }
 
+    @Override
+    public Set<String> getRootDomains() {
+        return rootDomains;
+    }
+
     @Override
     public WebEmbed extract(Element e) {
         if (e == null || !relevantTags.contains(e.getTagName())) {
             return null;
         }
-        String src = IFrameElement.as(e).getSrc();
-        if (!DomUtil.hasRootDomain(src, "player.vimeo.com")) {
+        EmbedSource source = EmbedSource.create(e);
+        if (source == null) {
+            return null;
+        }
+        return extract(e, source);
+    }
+
+    @Override
+    public WebEmbed extract(Element e, EmbedSource source) {
+        if (e == null || !relevantTags.contains(e.getTagName())) {
+            return null;
+        }
+        if (!source.hasRootDomain("player.vimeo.com")) {
             return null;
         }
 
         // Get specific attributes about the Vimeo embed.
-        AnchorElement anchor = Document.get().createAnchorElement();
-        anchor.setHref(src);
-        String path = anchor.getPropertyString("pathname");
+        String path = source.getPath();
 
-        Map<String, String> paramMap =
-                DomUtil.splitUrlParams(anchor.getPropertyString("search").substring(1));
+        Map<String, String> paramMap = DomUtil.splitUrlParams(source.getQuery());
 
         String id = getVimeoIdFromPath(path);
         if (id == null) {
@@ -60,7 +72,11 @@ public class VimeoExtractor implements EmbedExtractor {
             LogUtil.logToConsole("    ID:    " + id);
         }
 
-        return new WebEmbed(e, "vimeo", id, paramMap);
+        // Vimeo thumbnails can only be looked up through its API, so there is no poster URL.
+        WebEmbed embed = new WebEmbed(e, "vimeo", id, paramMap);
+        embed.setTitle(e.getAttribute("title"));
+        embed.setSizeFromAttributes(e);
+        return embed;
     }
 
     /**
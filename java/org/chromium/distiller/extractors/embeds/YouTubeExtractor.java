@@ -8,12 +8,7 @@ import org.chromium.distiller.DomUtil;
 import org.chromium.distiller.LogUtil;
 import org.chromium.distiller.webdocument.WebEmbed;
 
-import com.google.gwt.dom.client.AnchorElement;
-import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
-import com.google.gwt.dom.client.IFrameElement;
-import com.google.gwt.dom.client.NodeList;
-import com.google.gwt.dom.client.ObjectElement;
 
 import java.util.HashSet;
 import java.util.Map;
@@ -22,12 +17,14 @@ import java.util.Set;
 /**
  * YouTubeExtractor is used for extracting YouTube videos and relevant information.
  */
-public class YouTubeExtractor implements EmbedExtractor {
+public class YouTubeExtractor implements SourceEmbedExtractor {
 
     private static final Set<String> relevantTags = new HashSet<>();
+    private static final Set<String> rootDomains = new HashSet<>();
     static {
         relevantTags.add("IFRAME");
         relevantTags.add("OBJECT");
+        rootDomains.add("youtube.com");
     }
 
     @Override
@@ -35,36 +32,34 @@ public class YouTubeExtractor implements EmbedExtractor {
         return relevantTags;
     }
 
+    @Override
+    public Set<String> getRootDomains() {
+        return rootDomains;
+    }
+
     @Override
     public WebEmbed extract(Element e) {
         if (e == null || !relevantTags.contains(e.getTagName())) {
             return null;
         }
-        String src = null;
-        if ("IFRAME".equals(e.getTagName())) {
-            src = IFrameElement.as(e).getSrc();
-        } else if ("OBJECT".equals(e.getTagName())) {
-            // Deprecated way to embed youtube.
-            // Ref: https://www.w3.org/blog/2008/09/howto-insert-youtube-video/
-            //      http://xahlee.info/js/html_embed_video.html
-            ObjectElement o = ObjectElement.as(e);
-            if (o.getAttribute("type").equals("application/x-shockwave-flash")) {
-                src = o.getAttribute("data");
-            } else {
-                NodeList<Element> params = DomUtil.querySelectorAll(e, "param[name=\"movie\"]");
-                if (params.getLength() == 1) {
-                    src = params.getItem(0).getAttribute("value");
-                }
-            }
+        EmbedSource source = EmbedSource.create(e);
+        if (source == null) {
+            return null;
         }
-        if (src == null) {
+        return extract(e, source);
+    }
+
+    @Override
+    public WebEmbed extract(Element e, EmbedSource source) {
+        if (e == null || !relevantTags.contains(e.getTagName())) {
             return null;
         }
-        if (!DomUtil.hasRootDomain(src, "youtube.com")) {
+        if (!source.hasRootDomain("youtube.com")) {
             return null;
         }
 
         // Get specific attributes about the YouTube embed.
+        String src = source.getSrc();
         int paramLoc = src.indexOf("?");
         if (paramLoc < 0) {
             // Wrong syntax like "http://www.youtube.com/v/<video-id>&param=value" has been
@@ -89,7 +84,20 @@ public class YouTubeExtractor implements EmbedExtractor {
             LogUtil.logToConsole("    ID:    " + id);
         }
 
-        return new WebEmbed(e, "youtube", id, paramMap);
+        WebEmbed embed = new WebEmbed(e, "youtube", id, paramMap);
+        embed.setTitle(e.getAttribute("title"));
+        embed.setSizeFromAttributes(e);
+        embed.setPosterUrl(getPosterUrl(id));
+        return embed;
+    }
+
+    /**
+     * Get the thumbnail YouTube serves for a video, which needs no API call.
+     * @param id The ID of the video.
+     * @return The URL of the thumbnail.
+     */
+    static String getPosterUrl(String id) {
+        return "https://i.ytimg.com/vi/" + id + "/hqdefault.jpg";
     }
 
     /**
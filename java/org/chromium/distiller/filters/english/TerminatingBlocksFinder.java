@@ -22,13 +22,12 @@
 package org.chromium.distiller.filters.english;
 
 import org.chromium.distiller.BoilerpipeFilter;
+import org.chromium.distiller.RegExpRegistry;
 import org.chromium.distiller.StringUtil;
 import org.chromium.distiller.document.TextBlock;
 import org.chromium.distiller.document.TextDocument;
 import org.chromium.distiller.labels.DefaultLabels;
 
-import com.google.gwt.regexp.shared.RegExp;
-
 /**
  * Finds blocks which are potentially indicating the end of an article text and
  * marks them with {@link DefaultLabels#STRICTLY_NOT_CONTENT}.
@@ -46,7 +45,8 @@ public class TerminatingBlocksFinder implements BoilerpipeFilter {
         return INSTANCE;
     }
 
-    public static final RegExp REG_TERMINATING = RegExp.compile("("
+    // Case-insensitive.
+    private static final String REG_TERMINATING = "("
                     + "^(comments|© reuters|please rate this|post a comment|"
                     + "\\d+\\s+(comments|users responded in)"
                     + ")"
@@ -58,11 +58,10 @@ public class TerminatingBlocksFinder implements BoilerpipeFilter {
                     + "|reader comments"
                     + "|rätta artikeln"
                     + "|^thanks for your comments - this feedback is now closed$"
-                    + ")",
-            "i");
+                    + ")";
 
     public static boolean isTerminatingText(String longText) {
-        return REG_TERMINATING.test(longText);
+        return RegExpRegistry.get(REG_TERMINATING, "i").test(longText);
     }
 
     public static boolean isTerminating(TextBlock tb) {
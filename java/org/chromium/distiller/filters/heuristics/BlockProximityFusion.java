@@ -26,7 +26,7 @@ import org.chromium.distiller.document.TextBlock;
 import org.chromium.distiller.document.TextDocument;
 import org.chromium.distiller.labels.DefaultLabels;
 
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -63,10 +63,15 @@ public final class BlockProximityFusion implements BoilerpipeFilter {
 
         boolean changes = false;
         TextBlock prevBlock = textBlocks.get(0);
+        // Removing the merged blocks one at a time from the list would be quadratic when most of
+        // them are merged, so collect the remaining ones instead.
+        List<TextBlock> remaining = new ArrayList<TextBlock>(textBlocks.size());
+        remaining.add(prevBlock);
 
-        for (Iterator<TextBlock> it = textBlocks.listIterator(1); it.hasNext();) {
-            TextBlock block = it.next();
+        for (int i = 1; i < textBlocks.size(); i++) {
+            TextBlock block = textBlocks.get(i);
             if (!block.isContent() || !prevBlock.isContent()) {
+                remaining.add(block);
                 prevBlock = block;
                 continue;
             }
@@ -96,15 +101,20 @@ public final class BlockProximityFusion implements BoilerpipeFilter {
 
                 if (ok) {
                     prevBlock.mergeNext(block);
-                    it.remove();
                     changes = true;
                 } else {
+                    remaining.add(block);
                     prevBlock = block;
                 }
             } else {
+                remaining.add(block);
                 prevBlock = block;
             }
         }
+        if (changes) {
+            textBlocks.clear();
+            textBlocks.addAll(remaining);
+        }
         return changes;
     }
 
@@ -22,13 +22,12 @@
 package org.chromium.distiller.filters.heuristics;
 
 import org.chromium.distiller.BoilerpipeFilter;
+import org.chromium.distiller.RegExpRegistry;
 import org.chromium.distiller.StringUtil;
 import org.chromium.distiller.document.TextBlock;
 import org.chromium.distiller.document.TextDocument;
 import org.chromium.distiller.labels.DefaultLabels;
 
-import com.google.gwt.regexp.shared.RegExp;
-
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -148,7 +147,7 @@ public final class DocumentTitleMatchClassifier implements BoilerpipeFilter {
         }
     }
 
-    private static final RegExp REG_REMOVE_CHARACTERS = RegExp.compile("[\\?\\!\\.\\-\\:]+", "g");
+    private static final String REG_REMOVE_CHARACTERS = "[\\?\\!\\.\\-\\:]+";
 
     @Override
     public boolean process(TextDocument doc) {
@@ -170,7 +169,7 @@ public final class DocumentTitleMatchClassifier implements BoilerpipeFilter {
                 changes = true;
             }
 
-            text = REG_REMOVE_CHARACTERS.replace(text, "").trim();
+            text = RegExpRegistry.get(REG_REMOVE_CHARACTERS, "g").replace(text, "").trim();
             if (potentialTitles.contains(text)) {
                 tb.addLabel(DefaultLabels.TITLE);
                 changes = true;
@@ -5,12 +5,12 @@
 package org.chromium.distiller.filters.heuristics;
 
 import org.chromium.distiller.BoilerpipeFilter;
+import org.chromium.distiller.DistillationContext;
 import org.chromium.distiller.JavaScript;
 import org.chromium.distiller.document.TextBlock;
 import org.chromium.distiller.document.TextDocument;
 import org.chromium.distiller.labels.DefaultLabels;
 
-import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Node;
 
 import java.util.ArrayList;
@@ -107,7 +107,7 @@ public final class SimilarSiblingContentExpansion implements BoilerpipeFilter {
             return false;
         }
 
-        Node docNode = Document.get().getDocumentElement();
+        Node docNode = DistillationContext.getDocument().getDocumentElement();
         canonicalReps = findCanonicalReps(textBlocks, docNode);
 
         // After processing a block, it will be added to either the list of good or the list of bad
@@ -0,0 +1,48 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.filters.simple;
+
+import org.chromium.distiller.BoilerpipeFilter;
+import org.chromium.distiller.document.TextBlock;
+import org.chromium.distiller.document.TextDocument;
+import org.chromium.distiller.labels.DefaultLabels;
+
+/**
+ * Marks the first block with a given label that follows some content, and every block after it, as
+ * boilerplate. With the label of TerminatingBlocksFinder, this drops e.g. a "Comments" heading
+ * together with the comments below it. A labeled block before any content, e.g. a comment count
+ * under the headline, doesn't end the text.
+ */
+public final class IgnoreBlocksAfterLabelFilter implements BoilerpipeFilter {
+    public static final IgnoreBlocksAfterLabelFilter INSTANCE_STRICTLY_NOT_CONTENT =
+            new IgnoreBlocksAfterLabelFilter(DefaultLabels.STRICTLY_NOT_CONTENT);
+
+    private final String label;
+
+    public IgnoreBlocksAfterLabelFilter(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public boolean process(TextDocument doc) {
+        boolean changes = false;
+        boolean seenContent = false;
+        boolean ended = false;
+        for (TextBlock tb : doc.getTextBlocks()) {
+            if (!ended) {
+                if (tb.hasLabel(label)) {
+                    ended = seenContent;
+                } else if (tb.isContent() && tb.getNumWords() > 0) {
+                    seenContent = true;
+                }
+            }
+            if (ended && tb.isContent()) {
+                tb.setIsContent(false);
+                changes = true;
+            }
+        }
+        return changes;
+    }
+}
@@ -7,7 +7,10 @@ package org.chromium.distiller.webdocument;
 import org.chromium.distiller.DomUtil;
 import org.chromium.distiller.DomWalker;
 import org.chromium.distiller.LogUtil;
+import org.chromium.distiller.NodeDirections;
 import org.chromium.distiller.TableClassifier;
+import org.chromium.distiller.TraceRecorder;
+import org.chromium.distiller.extractors.embeds.EmbedExtractorRegistry;
 
 import com.google.gwt.dom.client.AnchorElement;
 import com.google.gwt.dom.client.Element;
@@ -15,15 +18,8 @@ import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.dom.client.TableElement;
 import com.google.gwt.dom.client.Text;
-import org.chromium.distiller.extractors.embeds.EmbedExtractor;
-import org.chromium.distiller.extractors.embeds.ImageExtractor;
-import org.chromium.distiller.extractors.embeds.TwitterExtractor;
-import org.chromium.distiller.extractors.embeds.VimeoExtractor;
-import org.chromium.distiller.extractors.embeds.YouTubeExtractor;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.Stack;
 
@@ -35,29 +31,36 @@ import java.util.Stack;
 public class DomConverter implements DomWalker.Visitor {
     private final WebDocumentBuilderInterface builder;
     private final Set<Node> hiddenElements;
-    private final List<EmbedExtractor> extractors;
-    // For quick lookup of tags that could possibly be embeds.
-    private final HashSet<String> embedTagNames;
+    private final EmbedExtractorRegistry embedExtractors;
 
     private boolean isMobileFriendly;
     private boolean hasArticleElement;
     private boolean isHiddenClass = false;
     private Stack<Boolean> isHiddenStack = new Stack<>();
+    // Whether the current element is inside an editable area, see TableClassifier.
+    private boolean isInsideEditableArea = false;
+    private Stack<Boolean> isInsideEditableAreaStack = new Stack<>();
+    // The text direction of the current element, null before the root.
+    private String direction = null;
+    private Stack<String> directionStack = new Stack<>();
+    private final NodeDirections directions;
+    private int numVisitedNodes = 0;
+    private int numVisitedElements = 0;
+    private int numVisitedTextNodes = 0;
+    private int numClassifiedTables = 0;
 
     public DomConverter(WebDocumentBuilderInterface builder) {
+        this(builder, new NodeDirections());
+    }
+
+    /**
+     * @param directions Records the text directions of the visited elements.
+     */
+    public DomConverter(WebDocumentBuilderInterface builder, NodeDirections directions) {
         hiddenElements = new HashSet<>();
         this.builder = builder;
-
-        extractors = new ArrayList<>();
-        extractors.add(new ImageExtractor());
-        extractors.add(new TwitterExtractor());
-        extractors.add(new VimeoExtractor());
-        extractors.add(new YouTubeExtractor());
-
-        embedTagNames = new HashSet<>();
-        for (EmbedExtractor extractor : extractors) {
-            embedTagNames.addAll(extractor.getRelevantTagNames());
-        }
+        this.directions = directions;
+        embedExtractors = new EmbedExtractorRegistry();
     }
 
     public void setIsMobileFriendly(boolean mobileFriendly) {
@@ -68,10 +71,40 @@ public class DomConverter implements DomWalker.Visitor {
         hasArticleElement = hasArticle;
     }
 
+    /**
+     * Sets whether the root of the walk is inside an editable area, since the ancestors of the
+     * root are not visited.
+     */
+    public void setIsInsideEditableArea(boolean insideEditableArea) {
+        isInsideEditableArea = insideEditableArea;
+    }
+
     public final Set<Node> getHiddenElements() {
         return hiddenElements;
     }
 
+    /**
+     * Get the number of nodes visited so far.
+     */
+    public final int getNumVisitedNodes() {
+        return numVisitedNodes;
+    }
+
+    public final int getNumVisitedElements() {
+        return numVisitedElements;
+    }
+
+    public final int getNumVisitedTextNodes() {
+        return numVisitedTextNodes;
+    }
+
+    /**
+     * Get the number of tables classified by TableClassifier so far.
+     */
+    public final int getNumClassifiedTables() {
+        return numClassifiedTables;
+    }
+
     @Override
     public void skip(Element e) {
         builder.skipElement(e);
@@ -79,11 +112,14 @@ public class DomConverter implements DomWalker.Visitor {
 
     @Override
     public boolean visit(Node n) {
+        numVisitedNodes++;
         switch (n.getNodeType()) {
             case Node.TEXT_NODE:
+                numVisitedTextNodes++;
                 builder.textNode(Text.as(n));
                 return false;
             case Node.ELEMENT_NODE:
+                numVisitedElements++;
                 return visitElement(Element.as(n));
             default:
                 return false;
@@ -92,7 +128,8 @@ public class DomConverter implements DomWalker.Visitor {
 
     private boolean visitElement(Element e) {
         // Skip invisible or uninteresting elements.
-        boolean visible = DomUtil.isVisible(e);
+        Style style = DomUtil.getComputedStyle(e);
+        boolean visible = DomUtil.isVisible(style);
         boolean keepAnyway = false;
         boolean hasHiddenClassName = false;
         if (!visible) {
@@ -125,19 +162,24 @@ public class DomConverter implements DomWalker.Visitor {
             return false;
         }
 
+        // Record the text direction from the same style read, before any early return, so that
+        // embeds and data tables have it too.
+        String elementDirection = style.getProperty("direction");
+        if (elementDirection.isEmpty()) elementDirection = "auto";
+        directions.record(e, direction, elementDirection);
+
         // Node-type specific extractors check for elements they are interested in here. Everything
         // else will be filtered through the switch below.
 
         try {
             // Check for embedded elements that might be extracted.
-            if (embedTagNames.contains(e.getTagName())) {
+            if (embedExtractors.isRelevantTagName(e.getTagName())) {
                 // If the tag is marked as interesting, check the extractors.
-                for (EmbedExtractor extractor : extractors) {
-                    WebElement embed = extractor.extract(e);
-                    if (embed != null) {
-                        builder.embed(embed);
-                        return false;
-                    }
+                WebElement embed = embedExtractors.extract(e);
+                if (embed != null) {
+                    builder.embed(embed);
+                    directions.recordUnwalked(e);
+                    return false;
                 }
             }
         } catch (Exception exception) {
@@ -154,9 +196,11 @@ public class DomConverter implements DomWalker.Visitor {
             return false;
         }
 
-        // Create a placeholder for the elements we want to preserve.
+        // Create a placeholder for the elements we want to preserve. The text inside is output
+        // without the element itself (see WebText), so the tag carries its "dir" if it changes.
         if (WebTag.canBeNested(e.getTagName())) {
-            builder.tag(new WebTag(e.getTagName(), WebTag.TagType.START));
+            builder.tag(new WebTag(e.getTagName(), WebTag.TagType.START,
+                    elementDirection.equals(direction) ? null : elementDirection));
         }
 
         switch (e.getTagName()) {
@@ -184,10 +228,15 @@ public class DomConverter implements DomWalker.Visitor {
             // Skip data tables, keep track of them to be extracted by RelevantElementsFinder
             // later.
             case "TABLE":
-                TableClassifier.Type type = TableClassifier.table(TableElement.as(e));
+                numClassifiedTables++;
+                TraceRecorder.begin("TableClassifier");
+                TableClassifier.Type type =
+                        TableClassifier.table(TableElement.as(e), isInsideEditableArea);
+                TraceRecorder.end("TableClassifier");
                 logTableInfo(e, type);
                 if (type == TableClassifier.Type.DATA) {
                     builder.dataTable(e);
+                    directions.recordUnwalked(e);
                     return false;
                 }
                 break;
@@ -195,7 +244,8 @@ public class DomConverter implements DomWalker.Visitor {
             // Some components are revisited later in context as they break text-flow of a
             // document.  e.g. <video> can contain text if format is unsupported.
             case "VIDEO":
-                builder.embed(new WebVideo(e, e.getClientHeight(), e.getClientHeight()));
+                int videoHeight = DomUtil.getClientHeight(e);
+                builder.embed(new WebVideo(e, videoHeight, videoHeight));
                 return false;
 
             // These element types are all skipped (but may affect document construction).
@@ -220,6 +270,10 @@ public class DomConverter implements DomWalker.Visitor {
         builder.startElement(e);
         isHiddenStack.push(isHiddenClass);
         isHiddenClass |= hasHiddenClassName;
+        isInsideEditableAreaStack.push(isInsideEditableArea);
+        isInsideEditableArea |= TableClassifier.isEditableArea(e);
+        directionStack.push(direction);
+        direction = elementDirection;
         return true;
     }
 
@@ -233,6 +287,8 @@ public class DomConverter implements DomWalker.Visitor {
         }
         builder.endElement();
         isHiddenClass = isHiddenStack.pop();
+        isInsideEditableArea = isInsideEditableAreaStack.pop();
+        direction = directionStack.pop();
     }
 
     private static void logVisibilityInfo(Element e, boolean visible) {
@@ -5,6 +5,7 @@
 package org.chromium.distiller.webdocument;
 
 import org.chromium.distiller.DomUtil;
+import org.chromium.distiller.RegExpRegistry;
 import org.chromium.distiller.labels.DefaultLabels;
 
 import com.google.gwt.core.client.JavaScriptObject;
@@ -19,7 +20,7 @@ public class ElementAction {
     public boolean isAnchor = false;
     public JsArrayString labels = JavaScriptObject.createArray().<JsArrayString>cast();
 
-    private static final RegExp REG_COMMENT = RegExp.compile("\\bcomments?\\b");
+    private static final String REG_COMMENT = "\\bcomments?\\b";
     private static final int MAX_CLASS_COUNT = 2;
 
     public static ElementAction getForElement(Element element) {
@@ -66,7 +67,8 @@ public class ElementAction {
             String className = element.getAttribute("class");
             int classCount = DomUtil.getClassList(element).length();
             String id = element.getAttribute("id");
-            if ((REG_COMMENT.test(className) || REG_COMMENT.test(id)) &&
+            RegExp comment = RegExpRegistry.get(REG_COMMENT);
+            if ((comment.test(className) || comment.test(id)) &&
                     classCount <= MAX_CLASS_COUNT) {
                 action.labels.push(DefaultLabels.STRICTLY_NOT_CONTENT);
             }
@@ -0,0 +1,162 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.webdocument;
+
+import org.chromium.distiller.DomUtil;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compacts a cloned output tree without changing how it renders: whitespace runs in text are
+ * collapsed to a single space, whitespace-only text next to block boundaries is dropped, empty
+ * inline wrappers are removed, and adjacent inline wrappers with the same tag name and attributes
+ * are merged. Preformatted subtrees are left untouched.
+ */
+public class TreeCompactor {
+    // Inline elements that only carry formatting, and so can be dropped when empty or merged with
+    // an identical sibling.
+    private static final Set<String> sWrapperTags;
+    // Block-level elements, at the edges of which whitespace is insignificant. Everything else,
+    // e.g. BR, IMG or INPUT, is laid out inline and keeps the whitespace around it.
+    private static final Set<String> sBlockTags;
+    // Elements whose whitespace is significant.
+    private static final Set<String> sPreformattedTags;
+    static {
+        sWrapperTags = new HashSet<>();
+        String[] wrappers = {"A", "ABBR", "ACRONYM", "B", "BDO", "BIG", "CITE", "CODE", "DEL",
+                "DFN", "EM", "FONT", "I", "INS", "KBD", "LABEL", "MARK", "Q", "S", "SAMP",
+                "SMALL", "SPAN", "STRIKE", "STRONG", "SUB", "SUP", "TIME", "TT", "U", "VAR"};
+        for (String tag : wrappers) {
+            sWrapperTags.add(tag);
+        }
+
+        sBlockTags = new HashSet<>();
+        String[] blocks = {"ADDRESS", "ARTICLE", "ASIDE", "BLOCKQUOTE", "BODY", "CAPTION",
+                "CENTER", "COLGROUP", "DD", "DETAILS", "DIALOG", "DIR", "DIV", "DL", "DT",
+                "FIELDSET", "FIGCAPTION", "FIGURE", "FOOTER", "FORM", "H1", "H2", "H3", "H4", "H5",
+                "H6", "HEADER", "HGROUP", "HR", "LEGEND", "LI", "LISTING", "MAIN", "MENU", "NAV",
+                "OL", "P", "PLAINTEXT", "PRE", "SECTION", "SUMMARY", "TABLE", "TBODY", "TD",
+                "TFOOT", "TH", "THEAD", "TR", "UL", "XMP"};
+        for (String tag : blocks) {
+            sBlockTags.add(tag);
+        }
+
+        sPreformattedTags = new HashSet<>();
+        sPreformattedTags.add("PRE");
+        sPreformattedTags.add("TEXTAREA");
+        sPreformattedTags.add("LISTING");
+        sPreformattedTags.add("PLAINTEXT");
+        sPreformattedTags.add("XMP");
+    }
+
+    /**
+     * @return Whether the whitespace inside elements with tag name |tagName| is significant.
+     */
+    public static boolean isPreformatted(String tagName) {
+        return sPreformattedTags.contains(tagName);
+    }
+
+    /**
+     * Compacts the tree rooted at |root| in place.
+     * @param root The root of the tree to compact.
+     */
+    public static void compact(Element root) {
+        if (isPreformatted(root.getTagName())) return;
+        compactChildren(root);
+    }
+
+    private static void compactChildren(Element parent) {
+        Node child = parent.getFirstChild();
+        while (child != null) {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE) {
+                String data = child.getNodeValue();
+                String collapsed = collapseWhitespace(data);
+                if (collapsed.isEmpty()
+                        || (collapsed.equals(" ") && isAtBlockBoundary(parent, child))) {
+                    parent.removeChild(child);
+                } else if (!collapsed.equals(data)) {
+                    child.setNodeValue(collapsed);
+                }
+            } else if (child.getNodeType() == Node.ELEMENT_NODE) {
+                Element e = Element.as(child);
+                if (!isPreformatted(e.getTagName())) {
+                    compactChildren(e);
+                }
+                if (sWrapperTags.contains(e.getTagName())) {
+                    Node previous = e.getPreviousSibling();
+                    if (!e.hasChildNodes()) {
+                        parent.removeChild(e);
+                    } else if (previous != null && previous.getNodeType() == Node.ELEMENT_NODE
+                            && isSameWrapper(Element.as(previous), e)) {
+                        while (e.hasChildNodes()) {
+                            previous.appendChild(e.getFirstChild());
+                        }
+                        parent.removeChild(e);
+                    }
+                }
+            } else {
+                parent.removeChild(child);
+            }
+            child = next;
+        }
+    }
+
+    /**
+     * Collapses each run of HTML whitespace in |s| to a single space.
+     */
+    private static String collapseWhitespace(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean changed = false;
+        boolean inWhitespace = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                if (inWhitespace || c != ' ') changed = true;
+                if (!inWhitespace) sb.append(' ');
+                inWhitespace = true;
+            } else {
+                sb.append(c);
+                inWhitespace = false;
+            }
+        }
+        return changed ? sb.toString() : s;
+    }
+
+    // Whitespace is insignificant at the edges of a block element and next to a block element.
+    private static boolean isAtBlockBoundary(Element parent, Node text) {
+        Node previous = text.getPreviousSibling();
+        Node next = text.getNextSibling();
+        if (previous == null || next == null) {
+            return sBlockTags.contains(parent.getTagName());
+        }
+        return isBlock(previous) || isBlock(next);
+    }
+
+    private static boolean isBlock(Node n) {
+        return n.getNodeType() == Node.ELEMENT_NODE
+                && sBlockTags.contains(Element.as(n).getTagName());
+    }
+
+    private static boolean isSameWrapper(Element a, Element b) {
+        if (!a.getTagName().equals(b.getTagName())) return false;
+        JsArray<Node> attributes = DomUtil.getAttributes(a);
+        if (attributes.length() != DomUtil.getAttributes(b).length()) return false;
+        for (int i = 0; i < attributes.length(); i++) {
+            Node attribute = attributes.get(i);
+            String name = attribute.getNodeName();
+            if (!b.hasAttribute(name)
+                    || !b.getAttribute(name).equals(attribute.getNodeValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -16,13 +16,18 @@ import java.util.List;
  */
 public class WebDocument {
     private final ArrayList<WebElement> elements;
+    private int numTexts;
+    private int numEmbeds;
 
     public WebDocument() {
         elements = new ArrayList<>();
+        numTexts = 0;
+        numEmbeds = 0;
     }
 
     public void addText(WebText text) {
         elements.add(text);
+        numTexts++;
     }
 
     public void addTable(WebTable table) {
@@ -35,12 +40,27 @@ public class WebDocument {
 
     public void addEmbed(WebElement embed) {
         elements.add(embed);
+        numEmbeds++;
     }
 
     public List<WebElement> getElements() {
         return elements;
     }
 
+    /**
+     * @return The number of WebTexts added, without going through the elements.
+     */
+    public int getNumTexts() {
+        return numTexts;
+    }
+
+    /**
+     * @return The number of embeds added, content or not.
+     */
+    public int getNumEmbeds() {
+        return numEmbeds;
+    }
+
     public List<String> getImageUrls() {
         List<String> images = new ArrayList<>();
         for (WebElement e : elements) {
@@ -55,6 +75,20 @@ public class WebDocument {
         return images;
     }
 
+    /**
+     * Get the embeds that are part of the content, in document order.
+     * @return A list of content embeds.
+     */
+    public List<WebEmbed> getEmbeds() {
+        List<WebEmbed> embeds = new ArrayList<>();
+        for (WebElement e : elements) {
+            if (e.getIsContent() && e instanceof WebEmbed) {
+                embeds.add((WebEmbed) e);
+            }
+        }
+        return embeds;
+    }
+
     /**
      * This method generates a web document to be processed by boilerpipe. Text groups have been
      * introduced to help retain element order when adding images and embeds.
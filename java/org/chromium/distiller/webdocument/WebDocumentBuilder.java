@@ -21,6 +21,8 @@
  */
 package org.chromium.distiller.webdocument;
 
+import org.chromium.distiller.NodeDirections;
+
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.Text;
@@ -38,10 +40,21 @@ public class WebDocumentBuilder implements WebDocumentBuilderInterface {
     private WebDocument document = new WebDocument();
     private boolean flush;
     private Stack<ElementAction> actionStack = new Stack<ElementAction>();
-    private WebTextBuilder webTextBuilder = new WebTextBuilder();
+    private final NodeDirections directions;
+    private WebTextBuilder webTextBuilder;
 
     public WebDocumentBuilder() {
+        this(new NodeDirections());
+    }
+
+    /**
+     * @param directions The text directions recorded during the walk, for the output of the
+     * built elements.
+     */
+    public WebDocumentBuilder(NodeDirections directions) {
         groupNumber = 0;
+        this.directions = directions;
+        webTextBuilder = new WebTextBuilder(directions);
     }
 
     @Override
@@ -111,7 +124,7 @@ public class WebDocumentBuilder implements WebDocumentBuilderInterface {
     @Override
     public void dataTable(Element e) {
         flushBlock(groupNumber);
-        document.addTable(new WebTable(e));
+        document.addTable(new WebTable(e, directions));
     }
 
     @Override
@@ -4,8 +4,11 @@
 
 package org.chromium.distiller.webdocument;
 
+import org.chromium.distiller.JavaScript;
+
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.ImageElement;
 import com.google.gwt.dom.client.Node;
 
 import java.util.ArrayList;
@@ -26,6 +29,13 @@ public class WebEmbed extends WebElement {
     private String type;
     // Other parameters that may have been found on the embed URL or in attributes.
     private final Map<String, String> altParams;
+    // Metadata for a click-to-load facade; empty or 0 if unknown.
+    private String title = "";
+    private String posterUrl = "";
+    private int width;
+    private int height;
+    // Whether to output a facade with the metadata instead of a bare placeholder.
+    private boolean useFacade;
 
     /**
      * Build an embed element.
@@ -54,9 +64,32 @@ public class WebEmbed extends WebElement {
         embed.setClassName("embed-placeholder");
         embed.setAttribute("data-type", type);
         embed.setAttribute("data-id", id);
+        if (!useFacade) return embed.getString();
+
+        // A facade carries what the client needs to render a poster and load the real embed on
+        // click, without loading the provider's iframe up front.
+        embed.addClassName("embed-facade");
+        if (!title.isEmpty()) embed.setAttribute("data-title", title);
+        if (width > 0 && height > 0) {
+            embed.setAttribute("data-width", Integer.toString(width));
+            embed.setAttribute("data-height", Integer.toString(height));
+        }
+        if (!posterUrl.isEmpty()) {
+            ImageElement poster = Document.get().createImageElement();
+            poster.setSrc(posterUrl);
+            poster.setAlt(title);
+            embed.appendChild(poster);
+        }
         return embed.getString();
     }
 
+    /**
+     * Set whether {@link #generateOutput} emits a facade with the poster metadata.
+     */
+    public void setUseFacade(boolean facade) {
+        useFacade = facade;
+    }
+
     /**
      * Get the map of parameters associated with this embed.
      * @return A map of the parameters or an empty map if there are no parameters.
@@ -73,6 +106,63 @@ public class WebEmbed extends WebElement {
         return id;
     }
 
+    /**
+     * Get the title of this embed, e.g. the video title or the text of a tweet.
+     * @return The title or an empty string if unknown.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String t) {
+        title = t == null ? "" : t;
+    }
+
+    /**
+     * Get the URL of a poster or thumbnail image for this embed.
+     * @return The URL or an empty string if unknown.
+     */
+    public String getPosterUrl() {
+        return posterUrl;
+    }
+
+    public void setPosterUrl(String url) {
+        posterUrl = url == null ? "" : url;
+    }
+
+    /**
+     * Get the width of this embed as declared by the page, which gives the aspect ratio together
+     * with {@link #getHeight()}.
+     * @return The width in pixels, or 0 if unknown.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of this embed as declared by the page.
+     * @return The height in pixels, or 0 if unknown.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    public void setSize(int w, int h) {
+        width = w;
+        height = h;
+    }
+
+    /**
+     * Set the size from the "width" and "height" attributes of |e|, if both are absolute. This
+     * avoids a layout read, and relative sizes like "100%" say nothing about the aspect ratio.
+     */
+    public void setSizeFromAttributes(Element e) {
+        String w = e.getAttribute("width");
+        String h = e.getAttribute("height");
+        if (w.contains("%") || h.contains("%")) return;
+        setSize(JavaScript.parseInt(w), JavaScript.parseInt(h));
+    }
+
     protected void setType(String t) {
         type = t;
     }
@@ -5,6 +5,7 @@
 package org.chromium.distiller.webdocument;
 
 import org.chromium.distiller.DomUtil;
+import org.chromium.distiller.NodeDirections;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,15 +16,22 @@ import com.google.gwt.dom.client.NodeList;
 
 public class WebTable extends WebElement {
     private Element tableElement;
+    // The text directions recorded during the walk.
+    private final NodeDirections directions;
     // Cloned and processed table element.
     private Element cloned;
 
     public WebTable(Element tableRoot) {
+        this(tableRoot, new NodeDirections());
+    }
+
+    public WebTable(Element tableRoot, NodeDirections directions) {
         tableElement = tableRoot;
+        this.directions = directions;
     }
 
     private void cloneAndProcessNode() {
-        cloned = DomUtil.cloneAndProcessTree(tableElement);
+        cloned = DomUtil.cloneAndProcessTree(tableElement, directions);
     }
 
     @Override
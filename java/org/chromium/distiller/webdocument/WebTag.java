@@ -1,8 +1,5 @@
 package org.chromium.distiller.webdocument;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * This class represents HTML tags that need to be preserved over
  * the distillation process.
@@ -10,24 +7,25 @@ import java.util.Set;
 public class WebTag extends WebElement {
     private String tagName;
     private TagType tagType;
+    // The "dir" attribute of a start tag, or null if it doesn't need one.
+    private String direction;
 
     public enum TagType {
         START, END
     }
 
-    private static Set<String> nestingTags;
-    static {
-        nestingTags = new HashSet<String>();
-        nestingTags.add("UL");
-        nestingTags.add("OL");
-        nestingTags.add("LI");
-        nestingTags.add("BLOCKQUOTE");
-        nestingTags.add("PRE");
+    public WebTag(String tagName, TagType tagType) {
+        this(tagName, tagType, null);
     }
 
-    public WebTag(String tagName, TagType tagType) {
+    /**
+     * @param direction The "dir" attribute of a start tag, e.g. where the direction of the
+     *        element differs from its parent's, or null.
+     */
+    public WebTag(String tagName, TagType tagType, String direction) {
         this.tagName = tagName;
         this.tagType = tagType;
+        this.direction = direction;
     }
 
     public boolean isStartTag() {
@@ -43,10 +41,23 @@ public class WebTag extends WebElement {
         if (textOnly) {
             return "";
         }
+        if (isStartTag() && direction != null) {
+            return "<" + tagName + " dir=\"" + direction + "\">";
+        }
         return "<" + (isStartTag() ? "" : "/") + tagName + ">";
     }
 
+    // A switch rather than a static set, so that this class has no static initializer.
     public static boolean canBeNested(String tagName) {
-        return nestingTags.contains(tagName);
+        switch (tagName) {
+            case "UL":
+            case "OL":
+            case "LI":
+            case "BLOCKQUOTE":
+            case "PRE":
+                return true;
+            default:
+                return false;
+        }
     }
 }
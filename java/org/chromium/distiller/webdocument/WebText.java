@@ -7,6 +7,7 @@ package org.chromium.distiller.webdocument;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 import org.chromium.distiller.DomUtil;
+import org.chromium.distiller.NodeDirections;
 import org.chromium.distiller.TreeCloneBuilder;
 import org.chromium.distiller.labels.DefaultLabels;
 import com.google.gwt.dom.client.Node;
@@ -27,10 +28,20 @@ public class WebText extends WebElement {
     // If this text needs to be split to place an image properly its group will signify how they
     // should be joined again (same group numbers get merged).
     private int groupNumber;
-    private static Set<String> sInlineTags = null;
+    // The text directions recorded during the walk.
+    private final NodeDirections directions;
+    // Whether the output should be compacted, see TreeCompactor.
+    private boolean compact;
 
     public WebText(String text, List<Node> allTextNodes, int start, int end, int firstWordNode,
             int lastWordNode, int numWords, int numLinkedWords, int tagLevel, int offsetBlock) {
+        this(text, allTextNodes, start, end, firstWordNode, lastWordNode, numWords, numLinkedWords,
+                tagLevel, offsetBlock, new NodeDirections());
+    }
+
+    public WebText(String text, List<Node> allTextNodes, int start, int end, int firstWordNode,
+            int lastWordNode, int numWords, int numLinkedWords, int tagLevel, int offsetBlock,
+            NodeDirections directions) {
         assert allTextNodes != null;
         assert start < allTextNodes.size();
         assert end <= allTextNodes.size();
@@ -48,45 +59,48 @@ public class WebText extends WebElement {
         this.labels = new HashSet<>();
         this.tagLevel = tagLevel;
         this.offsetBlock = offsetBlock;
+        this.directions = directions;
     }
 
-    private Set<String> getInlineTags() {
-        if (sInlineTags == null) {
-            sInlineTags = new HashSet<String>();
+    // A switch rather than a static set, so that there's nothing to build on first use.
+    private static boolean isInlineTag(String tagName) {
+        switch (tagName) {
             // All inline elements except for impossible tags: BR, OBJECT, and SCRIPT.
             // Please refer to DomConverter.visitElement() for skipped tags.
             // Reference: https://developer.mozilla.org/en-US/docs/HTML/Inline_elements
-            sInlineTags.add("B");
-            sInlineTags.add("BIG");
-            sInlineTags.add("I");
-            sInlineTags.add("SMALL");
-            sInlineTags.add("TT");
-            sInlineTags.add("ABBR");
-            sInlineTags.add("ACRONYM");
-            sInlineTags.add("CITE");
-            sInlineTags.add("CODE");
-            sInlineTags.add("DFN");
-            sInlineTags.add("EM");
-            sInlineTags.add("KBD");
-            sInlineTags.add("STRONG");
-            sInlineTags.add("SAMP");
-            sInlineTags.add("TIME");
-            sInlineTags.add("VAR");
-            sInlineTags.add("A");
-            sInlineTags.add("BDO");
-            sInlineTags.add("IMG");
-            sInlineTags.add("MAP");
-            sInlineTags.add("Q");
-            sInlineTags.add("SPAN");
-            sInlineTags.add("SUB");
-            sInlineTags.add("SUP");
-            sInlineTags.add("BUTTON");
-            sInlineTags.add("INPUT");
-            sInlineTags.add("LABEL");
-            sInlineTags.add("SELECT");
-            sInlineTags.add("TEXTAREA");
+            case "B":
+            case "BIG":
+            case "I":
+            case "SMALL":
+            case "TT":
+            case "ABBR":
+            case "ACRONYM":
+            case "CITE":
+            case "CODE":
+            case "DFN":
+            case "EM":
+            case "KBD":
+            case "STRONG":
+            case "SAMP":
+            case "TIME":
+            case "VAR":
+            case "A":
+            case "BDO":
+            case "IMG":
+            case "MAP":
+            case "Q":
+            case "SPAN":
+            case "SUB":
+            case "SUP":
+            case "BUTTON":
+            case "INPUT":
+            case "LABEL":
+            case "SELECT":
+            case "TEXTAREA":
+                return true;
+            default:
+                return false;
         }
-        return sInlineTags;
     }
 
     @Override
@@ -95,7 +109,7 @@ public class WebText extends WebElement {
 
         // TODO(mdjones): Instead of doing this next part, in the future track font size weight
         // and etc. and wrap the nodes in a "p" tag.
-        Node clonedRoot = TreeCloneBuilder.buildTreeClone(getTextNodes());
+        Node clonedRoot = TreeCloneBuilder.buildTreeClone(getTextNodes(), directions);
 
         // To keep formatting/structure, at least one parent element should be in the output. This
         // is necessary because many times a WebText is only a single text node.
@@ -115,7 +129,7 @@ public class WebText extends WebElement {
         // Retain parent tags until the root is not an inline element, to make sure the style is
         // display:block.
         Node srcRoot = null;
-        while (getInlineTags().contains(Element.as(clonedRoot).getTagName())) {
+        while (isInlineTag(Element.as(clonedRoot).getTagName())) {
             if (srcRoot == null) {
                 srcRoot = DomUtil.getNearestCommonAncestor(getTextNodes());
                 if (srcRoot.getNodeType() != Node.ELEMENT_NODE) {
@@ -138,10 +152,14 @@ public class WebText extends WebElement {
         DomUtil.stripStyleAttributes(clonedRoot);
         // TODO(wychen): if we allow images in WebText later, add stripImageElements().
 
+        Element elementClonedRoot = Element.as(clonedRoot);
+        if (compact && !textOnly) {
+            TreeCompactor.compact(elementClonedRoot);
+        }
+
         // Since there are tag elements that are being wrapped
         // by a pair of {@link WebTag}s, we only need to
         // get the innerHTML, otherwise these tags would be duplicated.
-        Element elementClonedRoot = Element.as(clonedRoot);
         if (textOnly) {
             return DomUtil.getTextFromTreeForTest(elementClonedRoot);
         } else if (WebTag.canBeNested(elementClonedRoot.getTagName())) {
@@ -207,4 +225,12 @@ public class WebText extends WebElement {
     public int getGroupNumber() {
         return groupNumber;
     }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
 }
@@ -4,6 +4,7 @@
 
 package org.chromium.distiller.webdocument;
 
+import org.chromium.distiller.NodeDirections;
 import org.chromium.distiller.StringUtil;
 
 import com.google.gwt.dom.client.Node;
@@ -13,6 +14,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class WebTextBuilder {
+    private final NodeDirections directions;
+
     private String textBuffer = "";
     private int numWords;
     private int numAnchorWords;
@@ -25,6 +28,18 @@ public class WebTextBuilder {
     private int firstNonWhitespaceNode = -1;
     private int lastNonWhitespaceNode;
 
+    public WebTextBuilder() {
+        this(new NodeDirections());
+    }
+
+    /**
+     * @param directions The text directions recorded during the walk, for the output of the built
+     * WebTexts.
+     */
+    public WebTextBuilder(NodeDirections directions) {
+        this.directions = directions;
+    }
+
     public void textNode(Text textNode, int tagLevel) {
         String text = textNode.getData();
 
@@ -80,7 +95,7 @@ public class WebTextBuilder {
 
         WebText tb = new WebText(textBuffer, allTextNodes, firstNode, allTextNodes.size(),
                 firstNonWhitespaceNode, lastNonWhitespaceNode, numWords, numAnchorWords,
-                blockTagLevel, offsetBlock);
+                blockTagLevel, offsetBlock, directions);
         reset();
         return tb;
     }
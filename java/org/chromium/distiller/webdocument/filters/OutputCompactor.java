@@ -0,0 +1,65 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.webdocument.filters;
+
+import org.chromium.distiller.webdocument.TreeCompactor;
+import org.chromium.distiller.webdocument.WebDocument;
+import org.chromium.distiller.webdocument.WebElement;
+import org.chromium.distiller.webdocument.WebTag;
+import org.chromium.distiller.webdocument.WebText;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reduces the size of the distilled output without changing how it renders. It runs
+ * after {@link NestedElementRetainer} and:
+ * <ul>
+ *    <li>Drops {@link WebTag} pairs that no longer wrap any content, including pairs that only
+ *    wrap other dropped pairs.</li>
+ *    <li>Marks {@link WebText}s outside of PRE to be compacted when their output is generated,
+ *    see {@link TreeCompactor}.</li>
+ * </ul>
+ */
+public class OutputCompactor {
+    public static void process(WebDocument document) {
+        List<WebTag> openTags = new ArrayList<>();
+        // Whether anything is output inside each of the open tags.
+        List<Boolean> hasContent = new ArrayList<>();
+        int preDepth = 0;
+
+        for (WebElement e : document.getElements()) {
+            if (e instanceof WebTag) {
+                WebTag webTag = (WebTag) e;
+                boolean isPre = TreeCompactor.isPreformatted(webTag.getTagName());
+                if (webTag.isStartTag()) {
+                    if (isPre) preDepth++;
+                    openTags.add(webTag);
+                    hasContent.add(false);
+                } else {
+                    if (isPre) preDepth--;
+                    WebTag startTag = openTags.remove(openTags.size() - 1);
+                    if (!hasContent.remove(hasContent.size() - 1)) {
+                        startTag.setIsContent(false);
+                        webTag.setIsContent(false);
+                    }
+                    if (startTag.getIsContent() || webTag.getIsContent()) {
+                        setHasContent(hasContent);
+                    }
+                }
+                continue;
+            }
+            if (!e.getIsContent()) continue;
+            setHasContent(hasContent);
+            if (e instanceof WebText) {
+                ((WebText) e).setCompact(preDepth == 0);
+            }
+        }
+    }
+
+    private static void setHasContent(List<Boolean> hasContent) {
+        if (!hasContent.isEmpty()) hasContent.set(hasContent.size() - 1, true);
+    }
+}
@@ -4,6 +4,8 @@
 
 package org.chromium.distiller.webdocument.filters.images;
 
+import org.chromium.distiller.DomUtil;
+
 import com.google.gwt.dom.client.Element;
 
 /**
@@ -28,7 +30,7 @@ public class AreaScorer extends BaseImageScorer {
 
     @Override
     protected int computeScore(Element e) {
-        int area = e.getOffsetWidth() * e.getOffsetHeight();
+        int area = DomUtil.getOffsetWidth(e) * DomUtil.getOffsetHeight(e);
         if (area < minArea) return 0;
 
         int score = (int) ((float) (area - minArea) / (maxArea - minArea) * maxScore);
@@ -4,6 +4,8 @@
 
 package org.chromium.distiller.webdocument.filters.images;
 
+import org.chromium.distiller.DomUtil;
+
 import com.google.gwt.dom.client.Element;
 
 /**
@@ -22,11 +24,11 @@ public class DimensionsRatioScorer extends BaseImageScorer {
 
     @Override
     protected int computeScore(Element e) {
-        int height = e.getOffsetHeight();
+        int height = DomUtil.getOffsetHeight(e);
         // For divide by 0 errors.
         if (height <= 0) return 0;
 
-        int width = e.getOffsetWidth();
+        int width = DomUtil.getOffsetWidth(e);
         float multiplier = 0.0f;
         // We are mainly interested in wide images.
         float ratio = (float) width / height;
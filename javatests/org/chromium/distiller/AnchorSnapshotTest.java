@@ -0,0 +1,77 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.AnchorElement;
+import com.google.gwt.dom.client.Element;
+
+public class AnchorSnapshotTest extends DomDistillerJsTestCase {
+    private static final String EXAMPLE_URL = "http://example.com/path/toward/news.php";
+
+    public void testEntries() {
+        Element root = TestUtil.createDiv(0);
+        mBody.appendChild(root);
+        AnchorElement first = TestUtil.createAnchor("page2", "next");
+        first.setClassName("pager");
+        first.setId("next-link");
+        root.appendChild(first);
+        AnchorElement hidden = TestUtil.createAnchor("/page3", "3");
+        hidden.getStyle().setProperty("display", "none");
+        root.appendChild(hidden);
+        AnchorElement noHref = TestUtil.createAnchor("", "4");
+        noHref.removeAttribute("href");
+        root.appendChild(noHref);
+
+        AnchorSnapshot anchors = AnchorSnapshot.create(root, EXAMPLE_URL);
+        assertEquals(3, anchors.size());
+
+        AnchorSnapshot.Entry entry = anchors.get(0);
+        assertEquals(first, entry.getAnchor());
+        assertEquals(0, entry.getIndex());
+        assertEquals("page2", entry.getHref());
+        assertEquals("http://example.com/path/toward/page2", entry.getResolvedHref());
+        assertEquals("next", entry.getText());
+        assertTrue(entry.isVisible());
+        assertTrue(entry.getWidth() > 0);
+        assertTrue(entry.getHeight() > 0);
+        assertEquals("pager", entry.getClassName());
+        assertEquals("next-link", entry.getId());
+
+        entry = anchors.get(1);
+        assertEquals(1, entry.getIndex());
+        assertEquals("http://example.com/page3", entry.getResolvedHref());
+        assertFalse(entry.isVisible());
+        assertEquals(0, entry.getWidth());
+
+        entry = anchors.get(2);
+        assertEquals("", entry.getHref());
+        assertEquals(EXAMPLE_URL, entry.getResolvedHref());
+
+        assertSame(anchors.get(1), anchors.getEntry(hidden));
+        assertNull(anchors.getEntry(root));
+    }
+
+    public void testSharedSnapshot() {
+        Element root = TestUtil.createDiv(0);
+        mBody.appendChild(root);
+        AnchorElement prev = TestUtil.createAnchor("http://example.com/page/1", "prev");
+        root.appendChild(prev);
+        AnchorElement next = TestUtil.createAnchor("http://example.com/page/3", "next");
+        root.appendChild(next);
+        String url = "http://example.com/page/2";
+
+        AnchorSnapshot anchors = AnchorSnapshot.create(root, url);
+        assertEquals(PagingLinksFinder.findNext(root, url),
+                PagingLinksFinder.findNext(anchors, url));
+        assertEquals(PagingLinksFinder.findPrevious(root, url),
+                PagingLinksFinder.findPrevious(anchors, url));
+        assertEquals("http://example.com/page/3", PagingLinksFinder.findNext(anchors, url));
+
+        // The snapshot doesn't change with the document.
+        root.removeChild(next);
+        assertEquals("http://example.com/page/3", PagingLinksFinder.findNext(anchors, url));
+        assertNull(PagingLinksFinder.findNext(root, url));
+    }
+}
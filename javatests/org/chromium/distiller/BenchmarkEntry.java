@@ -0,0 +1,39 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos;
+
+import com.google.gwt.core.client.js.JsExport;
+import com.google.gwt.dom.client.Document;
+
+/**
+ * The entry point of run_benchmark.py, which loads the pages of the benchmark corpus in the test
+ * page one at a time.
+ */
+public class BenchmarkEntry {
+    /**
+     * Replaces the current document with |html|, and distills it |warmups| + |iterations| times.
+     *
+     * @param url The URL the page was saved from, used as the original URL.
+     * @return The JSON report of BenchmarkTimings for the last |iterations| runs.
+     */
+    @JsExport
+    public static String runPage(String html, String url, int warmups, int iterations) {
+        Document.get().getDocumentElement().setInnerHTML(html);
+        DomDistillerProtos.DomDistillerOptions options =
+                DomDistillerProtos.DomDistillerOptions.create();
+        options.setOriginalUrl(url);
+
+        for (int i = 0; i < warmups; i++) {
+            DomDistiller.applyWithOptions(options);
+        }
+        BenchmarkTimings timings = new BenchmarkTimings();
+        for (int i = 0; i < iterations; i++) {
+            timings.add(DomDistiller.applyWithOptions(options).getTimingInfo());
+        }
+        return timings.toJson().toString();
+    }
+}
@@ -0,0 +1,86 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos.TimingEntry;
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the TimingInfo of repeated distillation runs, and reports the percentiles of each
+ * stage: the fields of TimingInfo and each of its other_times entries, by name.
+ */
+public class BenchmarkTimings {
+    static final double[] PERCENTILES = { 50, 90, 99 };
+
+    private final Map<String, List<Double>> mSamples = new LinkedHashMap<String, List<Double>>();
+
+    /**
+     * Adds the times of a run.  Several other_times entries with the same name are summed.
+     */
+    public void add(TimingInfo timingInfo) {
+        Map<String, Double> run = new LinkedHashMap<String, Double>();
+        run.put("MarkupParsingTime", timingInfo.getMarkupParsingTime());
+        run.put("DocumentConstructionTime", timingInfo.getDocumentConstructionTime());
+        run.put("ArticleProcessingTime", timingInfo.getArticleProcessingTime());
+        run.put("FormattingTime", timingInfo.getFormattingTime());
+        run.put("TotalTime", timingInfo.getTotalTime());
+        for (int i = 0; i < timingInfo.getOtherTimesCount(); i++) {
+            TimingEntry entry = timingInfo.getOtherTimes(i);
+            Double time = run.get(entry.getName());
+            run.put(entry.getName(), (time == null ? 0 : time) + entry.getTime());
+        }
+        for (Map.Entry<String, Double> e : run.entrySet()) {
+            add(e.getKey(), e.getValue());
+        }
+    }
+
+    void add(String name, double time) {
+        List<Double> samples = mSamples.get(name);
+        if (samples == null) {
+            samples = new ArrayList<Double>();
+            mSamples.put(name, samples);
+        }
+        samples.add(time);
+    }
+
+    /**
+     * @return The |percentile|th percentile of the samples of |name|, with the nearest-rank
+     * method, or 0 if there are none.
+     */
+    public double getPercentile(String name, double percentile) {
+        List<Double> samples = mSamples.get(name);
+        if (samples == null || samples.isEmpty()) return 0;
+        List<Double> sorted = new ArrayList<Double>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size(), rank) - 1));
+    }
+
+    /**
+     * @return The report, e.g. {"TotalTime": {"p50": 12.5, "p90": 15, "p99": 20, "runs": 100}}.
+     */
+    public JSONObject toJson() {
+        JSONObject report = new JSONObject();
+        for (Map.Entry<String, List<Double>> e : mSamples.entrySet()) {
+            JSONObject stage = new JSONObject();
+            for (double percentile : PERCENTILES) {
+                stage.put("p" + (int) percentile,
+                        new JSONNumber(getPercentile(e.getKey(), percentile)));
+            }
+            stage.put("runs", new JSONNumber(e.getValue().size()));
+            report.put(e.getKey(), stage);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,52 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import com.google.gwt.json.client.JSONObject;
+
+public class BenchmarkTimingsTest extends JsTestCase {
+    public void testPercentiles() {
+        BenchmarkTimings timings = new BenchmarkTimings();
+        // Added out of order, the percentiles are of the sorted samples.
+        for (int i = 100; i >= 1; i--) {
+            timings.add("Stage", i);
+        }
+        assertEquals(50, timings.getPercentile("Stage", 50), 1e-6);
+        assertEquals(90, timings.getPercentile("Stage", 90), 1e-6);
+        assertEquals(99, timings.getPercentile("Stage", 99), 1e-6);
+        assertEquals(0, timings.getPercentile("Unknown", 50), 1e-6);
+
+        timings.add("Single", 3);
+        assertEquals(3, timings.getPercentile("Single", 50), 1e-6);
+        assertEquals(3, timings.getPercentile("Single", 99), 1e-6);
+    }
+
+    public void testTimingInfo() {
+        BenchmarkTimings timings = new BenchmarkTimings();
+        for (int i = 1; i <= 2; i++) {
+            TimingInfo timingInfo = TimingInfo.create();
+            timingInfo.setTotalTime(10 * i);
+            LogUtil.addTimingInfo(DomUtil.getTime(), timingInfo, "Pagination");
+            timingInfo.getOtherTimes(0).setTime(i);
+            // Entries with the same name in a run are summed.
+            LogUtil.addTimingInfo(DomUtil.getTime(), timingInfo, "Pagination");
+            timingInfo.getOtherTimes(1).setTime(1);
+            timings.add(timingInfo);
+        }
+
+        assertEquals(10, timings.getPercentile("TotalTime", 50), 1e-6);
+        assertEquals(20, timings.getPercentile("TotalTime", 90), 1e-6);
+        assertEquals(2, timings.getPercentile("Pagination", 50), 1e-6);
+        assertEquals(3, timings.getPercentile("Pagination", 99), 1e-6);
+
+        JSONObject report = timings.toJson();
+        assertNotNull(report.get("MarkupParsingTime"));
+        JSONObject pagination = report.get("Pagination").isObject();
+        assertEquals(3, pagination.get("p99").isNumber().doubleValue(), 1e-6);
+        assertEquals(2, pagination.get("runs").isNumber().doubleValue(), 1e-6);
+    }
+}
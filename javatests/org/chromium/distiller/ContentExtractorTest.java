@@ -4,6 +4,8 @@
 
 package org.chromium.distiller;
 
+import org.chromium.distiller.proto.DomDistillerProtos;
+
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 
@@ -701,4 +703,55 @@ public class ContentExtractorTest extends DomDistillerJsTestCase {
 
         assertExtractor(expected, html);
     }
+
+    public void testStructuredDataFastPath() {
+        final String html =
+            "<div><a href=\"/\">Home</a></div>" +
+            "<div itemprop=\"articleBody\">" +
+                "<p>" + CONTENT_TEXT + "</p>" +
+                "<p>Short.</p>" +
+                "<p>" + CONTENT_TEXT + "</p>" +
+                "<p>Comments</p>" +
+                "<p>" + CONTENT_TEXT + " A comment.</p>" +
+            "</div>" +
+            "<div>" + CONTENT_TEXT + "</div>";
+        mBody.setInnerHTML(html);
+
+        ContentExtractor extractor = new ContentExtractor(mRoot);
+        extractor.setStructuredDataFastPath(true);
+        String extractedContent = extractor.extractContent();
+        // Everything in the container is content, up to the terminating block.
+        final String expected =
+            "<p>" + CONTENT_TEXT + "</p>" +
+            "<p>Short.</p>" +
+            "<p>" + CONTENT_TEXT + "</p>";
+        assertEquals(expected, TestUtil.removeAllDirAttributes(extractedContent));
+        assertEquals(StructuredContentFinder.PATH_MICRODATA_ARTICLE_BODY,
+                extractor.getExtractionPath());
+
+        extractor = new ContentExtractor(mRoot);
+        extractor.extractContent();
+        assertEquals(StructuredContentFinder.PATH_BOILERPIPE, extractor.getExtractionPath());
+    }
+
+    public void testStatisticsInfo() {
+        String paragraph = "<p>" + CONTENT_TEXT + " " + CONTENT_TEXT + "</p>";
+        mBody.setInnerHTML(paragraph + paragraph + paragraph +
+                "<div style=\"display: none\">" + paragraph + "</div>" +
+                "<table><tbody><tr><td>1</td></tr></tbody></table>");
+        ContentExtractor extractor = new ContentExtractor(mRoot);
+        extractor.extractContent();
+        DomDistillerProtos.StatisticsInfo info = extractor.getStatisticsInfo();
+
+        // HTML, HEAD, BODY, the 3 visible P's, the DIV, and the 4 elements of the table.
+        assertEquals(11, info.getElementsVisited());
+        assertEquals(4, info.getTextNodesVisited());
+        // The HEAD and the DIV.
+        assertEquals(2, info.getHiddenSubtreesSkipped());
+        assertEquals(1, info.getTablesClassified());
+        assertEquals(0, info.getEmbedsExtracted());
+        assertTrue(info.getWebTexts() >= 4);
+        assertTrue(info.getTextBlocksBeforeFusion() >= info.getTextBlocksAfterFusion());
+        assertTrue(info.getTextBlocksAfterFusion() > 0);
+    }
 }
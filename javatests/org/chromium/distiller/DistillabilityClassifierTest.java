@@ -0,0 +1,99 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Document;
+
+import java.util.Arrays;
+
+public class DistillabilityClassifierTest extends DomDistillerJsTestCase {
+    private static final String CONTENT_TEXT = "Lorem Ipsum Lorem Ipsum Lorem Ipsum. ";
+
+    public void testScore() {
+        DistillabilityClassifier classifier = DistillabilityClassifier.fromJson(
+                "{\"threshold\": 1.5, \"stumps\": [" +
+                "{\"feature\": \"mozScore\", \"split\": 20, \"weight\": 2}," +
+                "{\"feature\": \"numPasswordInput\", \"split\": 0.5, \"weight\": -1}]}");
+
+        double[] features = new double[DistillabilityClassifier.FEATURE_NAMES.length];
+        assertEquals(0.0, classifier.score(features), 1e-6);
+        assertFalse(classifier.isDistillable(features));
+
+        setFeature(features, "mozScore", 21);
+        assertEquals(2.0, classifier.score(features), 1e-6);
+        assertTrue(classifier.isDistillable(features));
+
+        setFeature(features, "numPasswordInput", 1);
+        assertEquals(1.0, classifier.score(features), 1e-6);
+        assertFalse(classifier.isDistillable(features));
+    }
+
+    public void testUnknownFeature() {
+        try {
+            DistillabilityClassifier.fromJson(
+                    "{\"threshold\": 0, \"stumps\": [{\"feature\": \"id\", \"split\": 0, " +
+                    "\"weight\": 1}]}");
+            fail("Features that aren't calculated should be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public void testFeatures() {
+        mHead.appendChild(TestUtil.createMetaProperty("og:type", "article"));
+        mBody.setInnerHTML(
+                "<p>" + CONTENT_TEXT + "</p>" +
+                "<p style=\"display: none\">" + CONTENT_TEXT + "</p>" +
+                "<a href=\"/\">Home</a>" +
+                "<form><input type=\"text\"><input type=\"password\"></form>");
+
+        double[] features = DistillabilityClassifier.calculateFeatures(
+                Document.get(), "http://example.com/forum/thread-123/view.php");
+        assertEquals(DistillabilityClassifier.FEATURE_NAMES.length, features.length);
+        assertEquals(1.0, getFeature(features, "openGraph"), 1e-6);
+        assertEquals(1.0, getFeature(features, "forum"), 1e-6);
+        assertEquals(1.0, getFeature(features, "view"), 1e-6);
+        assertEquals(1.0, getFeature(features, "php"), 1e-6);
+        assertEquals(0.0, getFeature(features, "domain"), 1e-6);
+        assertEquals(3.0, getFeature(features, "pathComponents"), 1e-6);
+        // The "-" and the ".".
+        assertEquals(2.0, getFeature(features, "slugDetector"), 1e-6);
+        assertEquals(1.0, getFeature(features, "pathNumbers"), 1e-6);
+        assertEquals(8.0, getFeature(features, "lastSegmentLength"), 1e-6);
+        assertEquals(2.0, getFeature(features, "numPPRE"), 1e-6);
+        assertEquals(0.5, getFeature(features, "visiblePPRERatio"), 1e-6);
+        assertEquals(1.0, getFeature(features, "numAnchors"), 1e-6);
+        assertEquals(1.0, getFeature(features, "numForms"), 1e-6);
+        assertEquals(1.0, getFeature(features, "numTextInput"), 1e-6);
+        assertEquals(1.0, getFeature(features, "numPasswordInput"), 1e-6);
+        // The paragraphs are too short to count.
+        assertEquals(0.0, getFeature(features, "mozScore"), 1e-6);
+    }
+
+    public void testDefaultModel() {
+        String paragraph = "";
+        for (int i = 0; i < 10; i++) {
+            paragraph += CONTENT_TEXT;
+        }
+        mBody.setInnerHTML(
+                "<p>" + paragraph + "</p>" +
+                "<p>" + paragraph + "</p>" +
+                "<p>" + paragraph + "</p>");
+        DistillabilityClassifier classifier = DistillabilityClassifier.getDefault();
+        assertTrue(classifier.isDistillable(Document.get(), "http://example.com/2015/article"));
+
+        mBody.setInnerHTML(
+                "<a href=\"/news\">News</a>" +
+                "<form><input type=\"text\"><input type=\"password\"></form>");
+        assertFalse(classifier.isDistillable(Document.get(), "http://example.com/"));
+    }
+
+    private static double getFeature(double[] features, String name) {
+        return features[Arrays.asList(DistillabilityClassifier.FEATURE_NAMES).indexOf(name)];
+    }
+
+    private static void setFeature(double[] features, String name, double value) {
+        features[Arrays.asList(DistillabilityClassifier.FEATURE_NAMES).indexOf(name)] = value;
+    }
+}
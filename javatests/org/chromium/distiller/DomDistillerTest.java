@@ -0,0 +1,152 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.proto.DomDistillerProtos;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.IFrameElement;
+
+public class DomDistillerTest extends DomDistillerJsTestCase {
+    private static final String CONTENT_TEXT = "Lorem Ipsum Lorem Ipsum Lorem Ipsum. " +
+            "Lorem Ipsum Lorem Ipsum Lorem Ipsum. Lorem Ipsum Lorem Ipsum.";
+
+    // The debug level of the test run, which the runs of the distiller reset.
+    private int mDebugLevel;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mDebugLevel = LogUtil.getDebugLevel();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        LogUtil.setDebugLevel(mDebugLevel);
+        super.tearDown();
+    }
+
+    public void testRunStateReset() {
+        LogUtil.setDebugLevel(LogUtil.DEBUG_LEVEL_PAGING_INFO);
+        LogUtil.logToConsole("Previous run");
+        StringUtil.setWordCounter("Lorem ipsum");
+        TableClassifier.sReason = TableClassifier.Reason.SUMMARY;
+        TraceRecorder.start();
+        LayoutAudit.start(Document.get());
+
+        DistillationContext.begin(Document.get());
+        DistillationContext.end();
+        assertEquals(LogUtil.DEBUG_LEVEL_NONE, LogUtil.getDebugLevel());
+        assertEquals("", LogUtil.getAndClearLog());
+        assertTrue(StringUtil.sWordCounter instanceof StringUtil.FullWordCounter);
+        assertNull(TableClassifier.sReason);
+        assertFalse(TraceRecorder.isEnabled());
+        assertFalse(LayoutAudit.isEnabled());
+        assertEquals(0, DomUtil.getNumComputedStyleReads());
+    }
+
+    public void testRepeatedRuns() {
+        mBody.setInnerHTML("<p>" + CONTENT_TEXT + "</p><p>" + CONTENT_TEXT + "</p>");
+        DomDistillerProtos.DomDistillerOptions options =
+                DomDistillerProtos.DomDistillerOptions.create();
+        options.setDebugLevel(LogUtil.DEBUG_LEVEL_VISIBILITY_INFO);
+        DomDistillerProtos.DomDistillerResult first = DomDistiller.applyWithOptions(options);
+        DomDistillerProtos.DomDistillerResult second = DomDistiller.applyWithOptions(options);
+
+        // A warm run gives the same result as the first one, and doesn't carry over its log.
+        assertEquals(first.getDistilledContent().getHtml(),
+                second.getDistilledContent().getHtml());
+        assertEquals(first.getStatisticsInfo().getComputedStyleReads(),
+                second.getStatisticsInfo().getComputedStyleReads());
+        assertEquals(first.getDebugInfo().getLog(), second.getDebugInfo().getLog());
+    }
+
+    public void testPaginationPatternsFromOptionsOnly() {
+        mBody.setInnerHTML("<p>" + CONTENT_TEXT + "</p>");
+        DomDistillerProtos.DomDistillerOptions options =
+                DomDistillerProtos.DomDistillerOptions.create();
+        options.setPaginationPatterns("remembered.example.com\tpattern\tlink\n");
+        DomDistillerProtos.DomDistillerResult first = DomDistiller.applyWithOptions(options);
+        assertEquals("remembered.example.com\tpattern\tlink\n", first.getPaginationPatterns());
+
+        // A later run doesn't see the patterns of the earlier one unless they're passed in.
+        options.setPaginationPatterns("");
+        DomDistillerProtos.DomDistillerResult second = DomDistiller.applyWithOptions(options);
+        assertEquals("", second.getPaginationPatterns());
+    }
+
+    public void testPageNumberPagination() {
+        mBody.setInnerHTML("<p>" + CONTENT_TEXT + "</p>" +
+                "<a href=\"http://example.com/page/2\">2</a>" +
+                "<a href=\"http://example.com/page/3\">3</a>");
+        DomDistillerProtos.DomDistillerOptions options =
+                DomDistillerProtos.DomDistillerOptions.create();
+        options.setDebugLevel(LogUtil.DEBUG_LEVEL_PAGING_INFO);
+        options.setPaginationAlgo("pagenum");
+        // The jstests are compiled with PageNumberPagination, so there's nothing to evaluate.
+        assertTrue(PageNumberModule.load());
+        DomDistillerProtos.DomDistillerResult result = DomDistiller.applyWithOptions(options);
+        assertTrue(result.hasPaginationInfo());
+        assertEquals(2, result.getStatisticsInfo().getAnchorsScanned());
+        assertTrue(result.getDebugInfo().getLog().contains("paging by pagenum"));
+    }
+
+    public void testIsDistillableDocument() {
+        mBody.setInnerHTML("<a href=\"/news\">News</a><form><input type=\"password\"></form>");
+        IFrameElement iframe = Document.get().createIFrameElement();
+        mBody.appendChild(iframe);
+        Document iframeDoc = iframe.getContentDocument();
+        String paragraph = "";
+        for (int i = 0; i < 5; i++) {
+            paragraph += CONTENT_TEXT;
+        }
+        iframeDoc.getBody().setInnerHTML(
+                "<p>" + paragraph + "</p><p>" + paragraph + "</p><p>" + paragraph + "</p>");
+
+        DomDistillerProtos.DomDistillerOptions options =
+                DomDistillerProtos.DomDistillerOptions.create();
+        options.setOriginalUrl("http://example.com/2015/article");
+        assertTrue(DomDistiller.isDistillable(iframeDoc, options));
+        assertFalse(DomDistiller.isDistillable(options));
+    }
+
+    public void testApplyToDocument() {
+        mBody.setInnerHTML("<p>Outer text that is not distilled.</p>");
+        IFrameElement iframe = Document.get().createIFrameElement();
+        mBody.appendChild(iframe);
+        Document iframeDoc = iframe.getContentDocument();
+        iframeDoc.setTitle("Iframe title");
+        iframeDoc.getBody().setInnerHTML("<p>" + CONTENT_TEXT + "</p><p>" + CONTENT_TEXT + "</p>");
+
+        DomDistillerProtos.DomDistillerResult result = DomDistiller.applyToDocument(
+                iframeDoc, DomDistillerProtos.DomDistillerOptions.create());
+        assertEquals("Iframe title", result.getTitle());
+        String html = result.getDistilledContent().getHtml();
+        assertTrue(html.contains(CONTENT_TEXT));
+        assertFalse(html.contains("Outer text"));
+        // The run is over, so the document of the window is the one used again.
+        assertSame(Document.get(), DistillationContext.getDocument());
+    }
+
+    public void testPageNumberPaginationOfDocument() {
+        mBody.setInnerHTML("<a href=\"http://example.com/outer\">Outer</a>");
+        IFrameElement iframe = Document.get().createIFrameElement();
+        mBody.appendChild(iframe);
+        Document iframeDoc = iframe.getContentDocument();
+        iframeDoc.getBody().setInnerHTML("<p>" + CONTENT_TEXT + "</p>" +
+                "<a href=\"http://example.com/page/2\">2</a>" +
+                "<a href=\"http://example.com/page/3\">3</a>");
+
+        // Outside of a run of DomDistiller, as in domdistillerpagenum.js, it has a run of its own.
+        DomDistillerProtos.DomDistillerOptions options =
+                DomDistillerProtos.DomDistillerOptions.create();
+        options.setPaginationAlgo("pagenum");
+        DomDistillerProtos.DomDistillerResult result = PageNumberPagination.paginate(iframeDoc,
+                options, "http://example.com/page/1", DomDistillerProtos.TimingInfo.create());
+        assertTrue(result.hasPaginationInfo());
+        assertEquals(2, result.getStatisticsInfo().getAnchorsScanned());
+        assertFalse(DistillationContext.isActive());
+    }
+}
@@ -13,6 +13,7 @@ import org.chromium.distiller.webdocument.WebEmbed;
 import org.chromium.distiller.webdocument.WebFigure;
 import org.chromium.distiller.webdocument.WebImage;
 import org.chromium.distiller.extractors.embeds.EmbedExtractor;
+import org.chromium.distiller.extractors.embeds.EmbedExtractorRegistry;
 import org.chromium.distiller.extractors.embeds.TwitterExtractor;
 import org.chromium.distiller.extractors.embeds.VimeoExtractor;
 import org.chromium.distiller.extractors.embeds.YouTubeExtractor;
@@ -54,6 +55,23 @@ public class EmbedExtractorTest extends DomDistillerJsTestCase {
         assertNull(result);
     }
 
+    public void testYouTubeExtractorFacadeMetadata() {
+        Element youtube = TestUtil.createIframe();
+        youtube.setAttribute("src", "http://www.youtube.com/embed/M7lc1UVf-VE");
+        youtube.setAttribute("title", "A video");
+        youtube.setAttribute("width", "640");
+        youtube.setAttribute("height", "360");
+
+        EmbedExtractor extractor = new YouTubeExtractor();
+        WebEmbed result = (WebEmbed) extractor.extract(youtube);
+
+        assertNotNull(result);
+        assertEquals("A video", result.getTitle());
+        assertEquals("https://i.ytimg.com/vi/M7lc1UVf-VE/hqdefault.jpg", result.getPosterUrl());
+        assertEquals(640, result.getWidth());
+        assertEquals(360, result.getHeight());
+    }
+
     public void testYouTubeExtractorID() {
         Element youtube = TestUtil.createIframe();
         youtube.setAttribute("src", "http://www.youtube.com/embed/M7lc1UVf-VE///?autoplay=1");
@@ -598,4 +616,73 @@ public class EmbedExtractorTest extends DomDistillerJsTestCase {
         assertEquals(expected, TestUtil.removeAllDirAttributes(
                 result.generateOutput(false)));
     }
+
+    public void testRegistryDispatchesOnHost() {
+        EmbedExtractorRegistry registry = new EmbedExtractorRegistry();
+        assertTrue(registry.isRelevantTagName("IFRAME"));
+        assertTrue(registry.isRelevantTagName("OBJECT"));
+        assertTrue(registry.isRelevantTagName("BLOCKQUOTE"));
+        assertFalse(registry.isRelevantTagName("DIV"));
+
+        Element youtube = TestUtil.createIframe();
+        youtube.setAttribute("src", "http://www.youtube.com/embed/M7lc1UVf-VE?autoplay=1");
+        WebEmbed result = (WebEmbed) registry.extract(youtube);
+        assertNotNull(result);
+        assertEquals("youtube", result.getType());
+        assertEquals("M7lc1UVf-VE", result.getId());
+        assertEquals("1", result.getParams().get("autoplay"));
+
+        Element vimeo = TestUtil.createIframe();
+        vimeo.setAttribute("src", "http://player.vimeo.com/video/12345?portrait=0");
+        result = (WebEmbed) registry.extract(vimeo);
+        assertNotNull(result);
+        assertEquals("vimeo", result.getType());
+        assertEquals("12345", result.getId());
+        assertEquals("0", result.getParams().get("portrait"));
+
+        // Neither the host nor a parent domain is registered.
+        Element ad = TestUtil.createIframe();
+        ad.setAttribute("src", "http://ads.example.com/embed/12345");
+        assertNull(registry.extract(ad));
+        Element notVimeo = TestUtil.createIframe();
+        notVimeo.setAttribute("src", "http://vimeo.com/video/12345");
+        assertNull(registry.extract(notVimeo));
+        Element notYoutube = TestUtil.createIframe();
+        notYoutube.setAttribute("src", "http://www.notyoutube.com/embed/M7lc1UVf-VE");
+        assertNull(registry.extract(notYoutube));
+    }
+
+    public void testRegistryObjectSource() {
+        String html =
+            "<object type=\"application/x-shockwave-flash\" " +
+                "data=\"http://www.youtube.com/v/ZuNNhOEzJGA&hl=fr\">" +
+            "</object>";
+        Element container = TestUtil.createDiv(0);
+        container.setInnerHTML(html);
+
+        EmbedExtractorRegistry registry = new EmbedExtractorRegistry();
+        WebEmbed result = (WebEmbed) registry.extract(container.getFirstChildElement());
+        assertNotNull(result);
+        assertEquals("youtube", result.getType());
+        assertEquals("ZuNNhOEzJGA", result.getId());
+        assertEquals("fr", result.getParams().get("hl"));
+    }
+
+    public void testRegistryTagExtractors() {
+        Element tweetBlock = Document.get().createBlockQuoteElement();
+        tweetBlock.setAttribute("class", "twitter-tweet");
+        tweetBlock.appendChild(
+                TestUtil.createAnchor("http://twitter.com/foo/bar/12345", "January 1, 1900"));
+
+        EmbedExtractorRegistry registry = new EmbedExtractorRegistry();
+        WebEmbed result = (WebEmbed) registry.extract(tweetBlock);
+        assertNotNull(result);
+        assertEquals("twitter", result.getType());
+        assertEquals("12345", result.getId());
+
+        // An iframe without a source goes to the tag extractors, but isn't a rendered tweet.
+        Element iframe = TestUtil.createIframe();
+        mBody.appendChild(iframe);
+        assertNull(registry.extract(iframe));
+    }
 }
@@ -0,0 +1,221 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.document.TextBlock;
+import org.chromium.distiller.document.TextDocument;
+import org.chromium.distiller.filters.english.NumWordsRulesClassifier;
+import org.chromium.distiller.filters.english.TerminatingBlocksFinder;
+import org.chromium.distiller.filters.heuristics.BlockProximityFusion;
+import org.chromium.distiller.filters.heuristics.DocumentTitleMatchClassifier;
+import org.chromium.distiller.filters.heuristics.ExpandTitleToContentFilter;
+import org.chromium.distiller.filters.heuristics.HeadingFusion;
+import org.chromium.distiller.filters.heuristics.KeepLargestBlockFilter;
+import org.chromium.distiller.filters.heuristics.LargeBlockSameTagLevelToContentFilter;
+import org.chromium.distiller.filters.heuristics.ListAtEndFilter;
+import org.chromium.distiller.filters.simple.BoilerplateBlockFilter;
+import org.chromium.distiller.filters.simple.LabelToBoilerplateFilter;
+import org.chromium.distiller.filters.simple.MinWordsFilter;
+import org.chromium.distiller.labels.DefaultLabels;
+
+import com.google.gwt.core.client.js.JsExport;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.regexp.shared.RegExp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Microbenchmarks of the BoilerpipeFilters, each on its own, over synthetic TextDocuments of
+ * various sizes, label distributions and content ratios. Unlike the corpus benchmark, no page is
+ * built or walked, so only the classification stage is measured.
+ *
+ * SimilarSiblingContentExpansion and KeepLargestBlockFilter.INSTANCE_EXPAND_TO_SIBLINGS look at
+ * the DOM around the blocks, so they aren't included.
+ */
+public class FilterBenchmark {
+    static final int[] BLOCK_COUNTS = { 10, 100, 1000, 10000, 100000 };
+    static final double[] CONTENT_RATIOS = { 0.1, 0.5, 0.9 };
+
+    // No labels.
+    static final String LABELS_NONE = "none";
+    // Some headings, list items, titles and strictly-not-content blocks.
+    static final String LABELS_MIXED = "mixed";
+    // No labels, but some blocks are anchor text.
+    static final String LABELS_LINKS = "links";
+    static final String[] LABEL_DISTRIBUTIONS = { LABELS_NONE, LABELS_MIXED, LABELS_LINKS };
+
+    // The measured runs of a configuration stop early after this much time.
+    private static final double MAX_MEASURED_MS = 1000;
+
+    private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit " +
+            "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua";
+    private static final int MAX_WORDS_PER_BLOCK = 60;
+
+    /**
+     * A synthetic document. The text and labels of its blocks are chosen once, and each call to
+     * create() returns a new TextDocument of them, in the same initial state.
+     */
+    static class SyntheticDocument {
+        private final String[] mTexts;
+        private final boolean[] mIsAnchor;
+        private final String[] mLabels;
+        private final boolean[] mIsContent;
+
+        SyntheticDocument(int numBlocks, double contentRatio, String labels) {
+            String[] words = WORDS.split(" ");
+            mTexts = new String[numBlocks];
+            mIsAnchor = new boolean[numBlocks];
+            mLabels = new String[numBlocks];
+            mIsContent = new boolean[numBlocks];
+            for (int i = 0; i < numBlocks; i++) {
+                StringBuilder text = new StringBuilder();
+                int numWords = 1 + (i * 31) % MAX_WORDS_PER_BLOCK;
+                for (int w = 0; w < numWords; w++) {
+                    if (w > 0) text.append(' ');
+                    text.append(words[(i + w) % words.length]);
+                }
+                text.append('.');
+                mTexts[i] = text.toString();
+
+                double r = fraction(i, 0);
+                mIsAnchor[i] = labels.equals(LABELS_LINKS) && r < 0.3;
+                if (labels.equals(LABELS_MIXED)) {
+                    if (r < 0.10) {
+                        mLabels[i] = DefaultLabels.HEADING;
+                    } else if (r < 0.20) {
+                        mLabels[i] = DefaultLabels.LI;
+                    } else if (r < 0.22) {
+                        mLabels[i] = DefaultLabels.TITLE;
+                    } else if (r < 0.27) {
+                        mLabels[i] = DefaultLabels.STRICTLY_NOT_CONTENT;
+                    }
+                }
+                mIsContent[i] = fraction(i, 1) < contentRatio;
+            }
+        }
+
+        /**
+         * @return A new TextDocument of the blocks, built like the TextDocuments of the filter
+         * tests, with TestTextBlockBuilder.
+         */
+        TextDocument create() {
+            TestTextBlockBuilder builder = new TestTextBlockBuilder();
+            List<TextBlock> textBlocks = new ArrayList<TextBlock>(mTexts.length);
+            for (int i = 0; i < mTexts.length; i++) {
+                TextBlock block = mIsAnchor[i] ? builder.createForAnchorText(mTexts[i])
+                                               : builder.createForText(mTexts[i]);
+                if (mLabels[i] != null) block.addLabel(mLabels[i]);
+                block.setIsContent(mIsContent[i]);
+                textBlocks.add(block);
+            }
+            return new TextDocument(textBlocks);
+        }
+
+        /**
+         * @return A number in [0, 1) spread evenly over the blocks, different for each |salt|.
+         */
+        private static double fraction(int index, int salt) {
+            return ((index * 7919 + salt * 104729) % 1000) / 1000.0;
+        }
+    }
+
+    /**
+     * @return The filters to benchmark, by name, in the order ArticleExtractor runs them.
+     */
+    static Map<String, BoilerpipeFilter> getFilters() {
+        Map<String, BoilerpipeFilter> filters = new LinkedHashMap<String, BoilerpipeFilter>();
+        filters.put("TerminatingBlocksFinder", TerminatingBlocksFinder.INSTANCE);
+        filters.put("DocumentTitleMatchClassifier", new DocumentTitleMatchClassifier(
+                Arrays.asList("lorem ipsum dolor sit amet.")));
+        filters.put("NumWordsRulesClassifier", NumWordsRulesClassifier.INSTANCE);
+        filters.put("LabelToBoilerplateFilter",
+                LabelToBoilerplateFilter.INSTANCE_STRICTLY_NOT_CONTENT);
+        filters.put("HeadingFusion", new HeadingFusion());
+        filters.put("BlockProximityFusion.PRE_FILTERING", BlockProximityFusion.PRE_FILTERING);
+        filters.put("BoilerplateBlockFilter", BoilerplateBlockFilter.INSTANCE_KEEP_TITLE);
+        filters.put("BlockProximityFusion.POST_FILTERING", BlockProximityFusion.POST_FILTERING);
+        filters.put("KeepLargestBlockFilter", KeepLargestBlockFilter.INSTANCE);
+        filters.put("ExpandTitleToContentFilter", ExpandTitleToContentFilter.INSTANCE);
+        filters.put("LargeBlockSameTagLevelToContentFilter",
+                LargeBlockSameTagLevelToContentFilter.INSTANCE);
+        filters.put("ListAtEndFilter", ListAtEndFilter.INSTANCE);
+        filters.put("MinWordsFilter", new MinWordsFilter(10));
+        return filters;
+    }
+
+    /**
+     * The entry point of run_benchmark.py --filters.
+     *
+     * @param filterPattern A regex of the names of the filters to run.
+     * @param maxBlocks The largest block count to run.
+     * @return The JSON report, e.g. {"HeadingFusion": {"1000/0.5/mixed": {"p50": 0.1, "p90": 0.2,
+     * "p99": 0.3, "runs": 50, "opsPerSec": 10000}}}, where the configuration is the number of
+     * blocks, the content ratio and the label distribution, and the times are in ms.
+     */
+    @JsExport
+    public static String run(String filterPattern, int maxBlocks, int warmups, int iterations) {
+        RegExp regexp = RegExp.compile(filterPattern);
+        Map<String, BoilerpipeFilter> filters = new LinkedHashMap<String, BoilerpipeFilter>();
+        for (Map.Entry<String, BoilerpipeFilter> e : getFilters().entrySet()) {
+            if (regexp.test(e.getKey())) filters.put(e.getKey(), e.getValue());
+        }
+
+        Map<String, BenchmarkTimings> timings = new LinkedHashMap<String, BenchmarkTimings>();
+        for (String name : filters.keySet()) {
+            timings.put(name, new BenchmarkTimings());
+        }
+        for (int numBlocks : BLOCK_COUNTS) {
+            if (numBlocks > maxBlocks) break;
+            for (double contentRatio : CONTENT_RATIOS) {
+                for (String labels : LABEL_DISTRIBUTIONS) {
+                    SyntheticDocument document =
+                            new SyntheticDocument(numBlocks, contentRatio, labels);
+                    String config = numBlocks + "/" + contentRatio + "/" + labels;
+                    for (Map.Entry<String, BoilerpipeFilter> e : filters.entrySet()) {
+                        measure(e.getValue(), document, warmups, iterations,
+                                timings.get(e.getKey()), config);
+                    }
+                }
+            }
+        }
+
+        JSONObject report = new JSONObject();
+        for (Map.Entry<String, BenchmarkTimings> e : timings.entrySet()) {
+            JSONObject filterReport = e.getValue().toJson();
+            for (String config : filterReport.keySet()) {
+                double p50 = e.getValue().getPercentile(config, 50);
+                filterReport.get(config).isObject().put("opsPerSec",
+                        new JSONNumber(p50 > 0 ? 1000 / p50 : 0));
+            }
+            report.put(e.getKey(), filterReport);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Runs |filter| on new TextDocuments from |document|, |warmups| times and then |iterations|
+     * times or until MAX_MEASURED_MS, and adds the times of the latter to |timings| as |name|.
+     */
+    static void measure(BoilerpipeFilter filter, SyntheticDocument document, int warmups,
+            int iterations, BenchmarkTimings timings, String name) {
+        for (int i = 0; i < warmups; i++) {
+            filter.process(document.create());
+        }
+        double total = 0;
+        for (int i = 0; i < iterations && total < MAX_MEASURED_MS; i++) {
+            TextDocument doc = document.create();
+            double start = DomUtil.getTime();
+            filter.process(doc);
+            double time = DomUtil.getTime() - start;
+            timings.add(name, time);
+            total += time;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.document.TextBlock;
+import org.chromium.distiller.document.TextDocument;
+import org.chromium.distiller.filters.heuristics.BlockProximityFusion;
+import org.chromium.distiller.labels.DefaultLabels;
+
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONParser;
+
+public class FilterBenchmarkTest extends JsTestCase {
+    public void testSyntheticDocument() {
+        FilterBenchmark.SyntheticDocument document = new FilterBenchmark.SyntheticDocument(
+                1000, 0.5, FilterBenchmark.LABELS_MIXED);
+        TextDocument doc = document.create();
+        assertEquals(1000, doc.getTextBlocks().size());
+        int numContent = 0, numHeadings = 0;
+        for (TextBlock block : doc.getTextBlocks()) {
+            if (block.isContent()) numContent++;
+            if (block.hasLabel(DefaultLabels.HEADING)) numHeadings++;
+        }
+        assertEquals(500, numContent);
+        assertEquals(100, numHeadings);
+
+        // A filter changes the document, but not the next one created.
+        BlockProximityFusion.PRE_FILTERING.process(doc);
+        assertTrue(doc.getTextBlocks().size() < 1000);
+        assertEquals(1000, document.create().getTextBlocks().size());
+
+        TextDocument links = new FilterBenchmark.SyntheticDocument(
+                100, 0.1, FilterBenchmark.LABELS_LINKS).create();
+        int numLinks = 0;
+        for (TextBlock block : links.getTextBlocks()) {
+            if (block.getLinkDensity() > 0) numLinks++;
+        }
+        // About 30% of the blocks.
+        assertEquals(31, numLinks);
+    }
+
+    public void testRun() {
+        JSONObject report = JSONParser.parseStrict(
+                FilterBenchmark.run("^BlockProximityFusion", 100, 1, 2)).isObject();
+        assertEquals(2, report.size());
+        JSONObject filterReport = report.get("BlockProximityFusion.PRE_FILTERING").isObject();
+        // 2 block counts, 3 content ratios and 3 label distributions.
+        assertEquals(2 * 3 * 3, filterReport.size());
+        JSONObject config = filterReport.get("100/0.5/mixed").isObject();
+        assertEquals(2, config.get("runs").isNumber().doubleValue(), 1e-6);
+        assertNotNull(config.get("opsPerSec"));
+    }
+}
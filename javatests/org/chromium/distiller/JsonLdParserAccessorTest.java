@@ -0,0 +1,115 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+
+public class JsonLdParserAccessorTest extends DomDistillerJsTestCase {
+    public void testNewsArticle() {
+        createJsonLd("{" +
+                "\"@context\": \"http://schema.org\"," +
+                "\"@type\": \"NewsArticle\"," +
+                "\"headline\": \"Testing JSON-LD\"," +
+                "\"url\": \"http://test/article.html\"," +
+                "\"description\": \"A test article.\"," +
+                "\"image\": {\"@type\": \"ImageObject\", \"url\": \"http://test/image.jpeg\"," +
+                        "\"width\": 600, \"height\": 400, \"caption\": \"An image\"}," +
+                "\"author\": [{\"@type\": \"Person\", \"name\": \"Jane Doe\"}," +
+                        "{\"@type\": \"Person\", \"givenName\": \"John\"," +
+                        "\"familyName\": \"Smith\"}]," +
+                "\"publisher\": {\"@type\": \"Organization\", \"name\": \"Chromium\"}," +
+                "\"copyrightYear\": 2015," +
+                "\"copyrightHolder\": \"Chromium\"," +
+                "\"datePublished\": \"2015-03-03T10:00:00Z\"," +
+                "\"dateModified\": \"2015-03-04T10:00:00Z\"," +
+                "\"articleSection\": \"Tests\"," +
+                "\"articleBody\": \"The body of the article.\"" +
+                "}");
+
+        JsonLdParserAccessor parser = new JsonLdParserAccessor(mRoot);
+        assertEquals("Testing JSON-LD", parser.getTitle());
+        assertEquals(MarkupParser.ARTICLE_TYPE, parser.getType());
+        assertEquals("http://test/article.html", parser.getUrl());
+        assertEquals("A test article.", parser.getDescription());
+        assertEquals("Chromium", parser.getPublisher());
+        assertEquals("Copyright 2015 Chromium", parser.getCopyright());
+        assertEquals("Jane Doe, John Smith", parser.getAuthor());
+        assertEquals("The body of the article.", parser.getArticleBody());
+        assertFalse(parser.optOut());
+
+        MarkupParser.Image[] images = parser.getImages();
+        assertEquals(1, images.length);
+        assertEquals("http://test/image.jpeg", images[0].url);
+        assertEquals("An image", images[0].caption);
+        assertEquals(600, images[0].width);
+        assertEquals(400, images[0].height);
+
+        MarkupParser.Article article = parser.getArticle();
+        assertNotNull(article);
+        assertEquals("2015-03-03T10:00:00Z", article.publishedTime);
+        assertEquals("2015-03-04T10:00:00Z", article.modifiedTime);
+        assertEquals("", article.expirationTime);
+        assertEquals("Tests", article.section);
+        assertEquals(2, article.authors.length);
+        assertEquals("Jane Doe", article.authors[0]);
+        assertEquals("John Smith", article.authors[1]);
+    }
+
+    public void testArticleInGraph() {
+        createJsonLd("{\"@type\": \"WebSite\", \"name\": \"Not an article\"}");
+        createJsonLd("{" +
+                "\"@context\": \"https://schema.org\"," +
+                "\"@graph\": [" +
+                "{\"@type\": \"Organization\", \"name\": \"Chromium\"}," +
+                "{\"@type\": [\"Article\", \"CreativeWork\"], \"name\": \"In a graph\"," +
+                        "\"mainEntityOfPage\": {\"@id\": \"http://test/graph.html\"}," +
+                        "\"image\": [\"http://test/1.jpeg\", \"http://test/2.jpeg\"]," +
+                        "\"author\": \"Jane Doe\"}" +
+                "]}");
+
+        JsonLdParserAccessor parser = new JsonLdParserAccessor(mRoot);
+        assertEquals("In a graph", parser.getTitle());
+        assertEquals("http://test/graph.html", parser.getUrl());
+        assertEquals("Jane Doe", parser.getAuthor());
+        MarkupParser.Image[] images = parser.getImages();
+        assertEquals(2, images.length);
+        assertEquals("http://test/1.jpeg", images[0].url);
+        assertEquals("http://test/2.jpeg", images[1].url);
+        assertEquals(0, images[1].width);
+    }
+
+    public void testNoArticle() {
+        createJsonLd("{\"@type\": \"Recipe\", \"name\": \"Not an article\"}");
+        createJsonLd("{ this is not JSON");
+
+        JsonLdParserAccessor parser = new JsonLdParserAccessor(mRoot);
+        assertEquals("", parser.getTitle());
+        assertEquals("", parser.getType());
+        assertEquals("", parser.getAuthor());
+        assertEquals(0, parser.getImages().length);
+        assertNull(parser.getArticle());
+    }
+
+    public void testMarkupParserPrefersJsonLd() {
+        createJsonLd("{\"@type\": \"Article\", \"headline\": \"JSON-LD title\"}");
+        mHead.appendChild(TestUtil.createMetaProperty("og:title", "OpenGraph title"));
+        mHead.appendChild(TestUtil.createMetaProperty("og:type", "article"));
+        mHead.appendChild(TestUtil.createMetaProperty("og:image", "http://test/image.jpeg"));
+        mHead.appendChild(TestUtil.createMetaProperty("og:url", "http://test/test.html"));
+
+        MarkupParser parser = new MarkupParser(mRoot);
+        assertEquals("JSON-LD title", parser.getTitle());
+        // The JSON-LD article has no url, so OpenGraph's is used.
+        assertEquals("http://test/test.html", parser.getUrl());
+    }
+
+    private void createJsonLd(String json) {
+        Element script = Document.get().createElement("script");
+        script.setAttribute("type", "application/ld+json");
+        script.setInnerText(json);
+        mHead.appendChild(script);
+    }
+}
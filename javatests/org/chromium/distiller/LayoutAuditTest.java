@@ -0,0 +1,101 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.IFrameElement;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONParser;
+
+public class LayoutAuditTest extends DomDistillerJsTestCase {
+    public void testNotStarted() {
+        TraceRecorder.begin("LayoutAuditTest");
+        DomUtil.getOffsetWidth(mBody);
+        TraceRecorder.end("LayoutAuditTest");
+        assertFalse(LayoutAudit.isEnabled());
+        assertEquals("", LayoutAudit.stop());
+    }
+
+    public void testReads() {
+        Element div = Document.get().createDivElement();
+        mBody.appendChild(div);
+
+        LayoutAudit.start(Document.get());
+        assertTrue(LayoutAudit.isEnabled());
+        TraceRecorder.begin("LayoutAuditTest.stage");
+        DomUtil.getOffsetWidth(div);
+        DomUtil.getOffsetWidth(div);
+        // A write before a read forces a reflow.
+        div.setAttribute("style", "width: 100px");
+        assertEquals(100, DomUtil.getOffsetWidth(div));
+        TraceRecorder.begin("LayoutAuditTest.inner");
+        DomUtil.getComputedStyle(div);
+        TraceRecorder.end("LayoutAuditTest.inner");
+        TraceRecorder.end("LayoutAuditTest.stage");
+        DomUtil.getOffsetHeight(div);
+        JSONArray entries = JSONParser.parseStrict(LayoutAudit.stop()).isArray();
+        assertFalse(LayoutAudit.isEnabled());
+
+        assertEquals(3, entries.size());
+        JSONObject width = getEntry(entries, "LayoutAuditTest.stage", "offsetWidth");
+        assertEquals(3, width.get("count").isNumber().doubleValue(), 1e-6);
+        assertEquals(1, width.get("forced").isNumber().doubleValue(), 1e-6);
+        JSONObject style = getEntry(entries, "LayoutAuditTest.inner", "computedStyle");
+        assertEquals(1, style.get("count").isNumber().doubleValue(), 1e-6);
+        assertEquals(0, style.get("forced").isNumber().doubleValue(), 1e-6);
+        assertNotNull(getEntry(entries, "(none)", "offsetHeight"));
+    }
+
+    public void testOtherDocumentWrites() {
+        IFrameElement iframe = Document.get().createIFrameElement();
+        mBody.appendChild(iframe);
+        Document doc = iframe.getContentDocument();
+        Element div = doc.createDivElement();
+        doc.getBody().appendChild(div);
+
+        // Only the writes to the audited document make a read forced.
+        LayoutAudit.start(doc);
+        DomUtil.getOffsetWidth(div);
+        mBody.appendChild(Document.get().createDivElement());
+        DomUtil.getOffsetWidth(div);
+        JSONArray entries = JSONParser.parseStrict(LayoutAudit.stop()).isArray();
+
+        JSONObject width = getEntry(entries, "(none)", "offsetWidth");
+        assertEquals(2, width.get("count").isNumber().doubleValue(), 1e-6);
+        assertEquals(0, width.get("forced").isNumber().doubleValue(), 1e-6);
+    }
+
+    public void testRanking() {
+        mBody.setInnerHTML("<p>" + "Lorem Ipsum Lorem Ipsum Lorem Ipsum. " +
+                "Lorem Ipsum Lorem Ipsum Lorem Ipsum. Lorem Ipsum Lorem Ipsum.</p>" +
+                "<table><tr><td>1</td><td>2</td></tr><tr><td>3</td><td>4</td></tr></table>");
+        LayoutAudit.start(Document.get());
+        new ContentExtractor(mRoot).extractContent();
+        JSONArray entries = JSONParser.parseStrict(LayoutAudit.stop()).isArray();
+
+        assertNotNull(getEntry(entries, "DomWalker", "computedStyle"));
+        assertNotNull(getEntry(entries, "TableClassifier", "offsetWidth"));
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(getTotalMs(entries, i - 1) >= getTotalMs(entries, i));
+        }
+    }
+
+    private static JSONObject getEntry(JSONArray entries, String stage, String property) {
+        for (int i = 0; i < entries.size(); i++) {
+            JSONObject entry = entries.get(i).isObject();
+            if (entry.get("stage").isString().stringValue().equals(stage) &&
+                    entry.get("property").isString().stringValue().equals(property)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static double getTotalMs(JSONArray entries, int index) {
+        return entries.get(index).isObject().get("totalMs").isNumber().doubleValue();
+    }
+}
@@ -0,0 +1,57 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+public class LruPaginationPatternStoreTest extends JsTestCase {
+    public void testEvictsLeastRecentlyUsed() {
+        LruPaginationPatternStore store = new LruPaginationPatternStore(2);
+        store.put("a.com", new PaginationPatternStore.Entry("page=[*!]", ""));
+        store.put("b.com", new PaginationPatternStore.Entry("p=[*!]", ""));
+        // Using a.com makes b.com the least recently used.
+        assertEquals("page=[*!]", store.get("a.com").getPagePatternSignature());
+        store.put("c.com", new PaginationPatternStore.Entry("", "Next\n\n"));
+
+        assertEquals(2, store.size());
+        assertNotNull(store.get("a.com"));
+        assertNull(store.get("b.com"));
+        assertEquals("Next\n\n", store.get("c.com").getNextLinkSignature());
+    }
+
+    public void testWithSignature() {
+        PaginationPatternStore.Entry entry =
+                PaginationPatternStore.Entry.withNextLinkSignature(null, "Next\n\n");
+        assertEquals("", entry.getPagePatternSignature());
+        entry = PaginationPatternStore.Entry.withPagePatternSignature(entry, "/page/[*!]");
+        assertEquals("/page/[*!]", entry.getPagePatternSignature());
+        assertEquals("Next\n\n", entry.getNextLinkSignature());
+    }
+
+    public void testSnapshot() {
+        LruPaginationPatternStore store = new LruPaginationPatternStore();
+        store.put("a.com", new PaginationPatternStore.Entry("page=[*!]", ""));
+        store.put("b.com", new PaginationPatternStore.Entry("/page/[*!]", "Next »\nnav\\next\n"));
+        store.put("c.com", new PaginationPatternStore.Entry("", "a\tb\n\nid"));
+        store.get("a.com");
+
+        String snapshot = store.saveSnapshot();
+        assertEquals(
+                "b.com\t/page/[*!]\tNext »\\nnav\\\\next\\n\n" +
+                "c.com\t\ta\\tb\\n\\nid\n" +
+                "a.com\tpage=[*!]\t\n",
+                snapshot);
+
+        LruPaginationPatternStore loaded = new LruPaginationPatternStore(2);
+        loaded.loadSnapshot(snapshot + "malformed\n");
+        // The least recently used host doesn't fit.
+        assertEquals(2, loaded.size());
+        assertNull(loaded.get("b.com"));
+        assertEquals("a\tb\n\nid", loaded.get("c.com").getNextLinkSignature());
+        assertEquals("page=[*!]", loaded.get("a.com").getPagePatternSignature());
+        assertEquals("", loaded.get("a.com").getNextLinkSignature());
+
+        loaded.loadSnapshot("");
+        assertEquals(2, loaded.size());
+    }
+}
@@ -4,6 +4,10 @@
 
 package org.chromium.distiller;
 
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class MarkupParserTest extends DomDistillerJsTestCase {
 
@@ -20,6 +24,43 @@ public class MarkupParserTest extends DomDistillerJsTestCase {
         assertEquals(expectedTitle, parser.getTitle());
     }
 
+    public void testParsersLoadedOnDemand() {
+        String expectedTitle = "Testing parsers loaded on demand.";
+        createMeta("og:title", expectedTitle);
+        createMeta("og:type", "article");
+        createMeta("og:image", "http://test/image.jpeg");
+        createMeta("og:url", "http://test/test.html");
+
+        TimingInfo timingInfo = TimingInfo.create();
+        MarkupParser parser = new MarkupParser(mRoot, timingInfo);
+        assertFalse(parser.isAccessorLoaded(0));
+        assertEquals(0, timingInfo.getOtherTimesCount());
+
+        // JSON-LD has no article, and OpenGraph has the title, so the other parsers aren't
+        // needed.
+        assertEquals(expectedTitle, parser.getTitle());
+        assertTrue(parser.isAccessorLoaded(0));
+        assertTrue(parser.isAccessorLoaded(1));
+        assertFalse(parser.isAccessorLoaded(2));
+        assertFalse(parser.isAccessorLoaded(3));
+
+        // OpenGraph doesn't support copyright, so the other parsers are loaded in order.
+        assertEquals("", parser.getCopyright());
+        assertTrue(parser.isAccessorLoaded(2));
+        assertTrue(parser.isAccessorLoaded(3));
+
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < timingInfo.getOtherTimesCount(); i++) {
+            names.add(timingInfo.getOtherTimes(i).getName());
+        }
+        assertTrue(names.indexOf("JsonLdParserAccessor") <
+                names.indexOf("OpenGraphProtocolParser"));
+        assertTrue(names.indexOf("OpenGraphProtocolParser") <
+                names.indexOf("SchemaOrgParserAccessor"));
+        assertTrue(names.indexOf("SchemaOrgParserAccessor") <
+                names.indexOf("IEReadingViewParser"));
+    }
+
     // TODO(kuan): write more tests if or when we determine:
     // - which parser takes precedence
     // - how we merge the different values retrieved from the different parsers.
@@ -4,9 +4,13 @@
 
 package org.chromium.distiller;
 
+import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Node;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class NodeDirectionalityTest extends DomDistillerJsTestCase {
 
     private static final String CONTENT_TEXT = "Lorem Ipsum Lorem Ipsum Lorem Ipsum.";
@@ -22,11 +26,13 @@ public class NodeDirectionalityTest extends DomDistillerJsTestCase {
         tree.addChild(div.getChild(0));
         tree.addChild(div.getChild(1));
 
-        Node cloned = tree.cloneSubtreeRetainDirection();
+        Node cloned = tree.cloneSubtreeRetainDirection(new NodeDirections());
 
+        assertEquals("ltr", Element.as(cloned).getAttribute("dir"));
+        // Children with the same direction inherit it.
         for (int i = 0; i < cloned.getChildCount(); i++) {
             Node n = cloned.getChild(i);
-            assertEquals("ltr",Element.as(n).getAttribute("dir"));
+            assertFalse(Element.as(n).hasAttribute("dir"));
         }
     }
 
@@ -41,11 +47,12 @@ public class NodeDirectionalityTest extends DomDistillerJsTestCase {
         tree.addChild(div.getChild(0));
         tree.addChild(div.getChild(1));
 
-        Node cloned = tree.cloneSubtreeRetainDirection();
+        Node cloned = tree.cloneSubtreeRetainDirection(new NodeDirections());
 
+        assertEquals("rtl", Element.as(cloned).getAttribute("dir"));
         for (int i = 0; i < cloned.getChildCount(); i++) {
             Node n = cloned.getChild(i);
-            assertEquals("rtl",Element.as(n).getAttribute("dir"));
+            assertFalse(Element.as(n).hasAttribute("dir"));
         }
     }
 
@@ -67,9 +74,92 @@ public class NodeDirectionalityTest extends DomDistillerJsTestCase {
         tree.addChild(child1);
         tree.getChildren().get(0).addChild(child1.getChild(0));
 
-        Node cloned = tree.cloneSubtreeRetainDirection();
+        Node cloned = tree.cloneSubtreeRetainDirection(new NodeDirections());
+
+        assertEquals("ltr", Element.as(cloned).getDir());
+        assertEquals("rtl", Element.as(cloned.getChild(0)).getDir());
+        // The span inherits "rtl" from its parent.
+        assertFalse(Element.as(cloned.getChild(0).getChild(0)).hasAttribute("dir"));
+    }
+
+    public void testMixedDirAttributeAddedToTreeClone() {
+        Element div = TestUtil.createDiv(0);
+        div.getStyle().setProperty("direction", "rtl");
+        Element child1 = TestUtil.createDiv(1);
+        child1.appendChild(TestUtil.createText(CONTENT_TEXT));
+        div.appendChild(child1);
+        Element child2 = TestUtil.createDiv(2);
+        child2.getStyle().setProperty("direction", "ltr");
+        child2.appendChild(TestUtil.createText(CONTENT_TEXT));
+        div.appendChild(child2);
+        mBody.appendChild(div);
+
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(child1.getFirstChild());
+        nodes.add(child2.getFirstChild());
+        Node cloned = TreeCloneBuilder.buildTreeClone(nodes, new NodeDirections());
+
+        assertEquals("rtl", Element.as(cloned).getDir());
+        assertFalse(Element.as(cloned.getChild(0)).hasAttribute("dir"));
+        assertEquals("ltr", Element.as(cloned.getChild(1)).getDir());
+    }
+
+    public void testRecordedDirections() {
+        Element div = TestUtil.createDiv(0);
+        Element child = TestUtil.createDiv(1);
+        child.appendChild(TestUtil.createSpan(CONTENT_TEXT));
+        div.appendChild(child);
+        mBody.appendChild(div);
+
+        // The recorded directions are used instead of the computed style.
+        NodeDirections directions = new NodeDirections();
+        directions.record(div, null, "rtl");
+        directions.record(child, "rtl", "ltr");
+        directions.record(Element.as(child.getChild(0)), "ltr", "ltr");
+        assertEquals("rtl", directions.getRecordedDirection(div));
+        assertEquals("ltr", directions.getRecordedDirection(child.getChild(0)));
+        assertNull(directions.getRecordedDirection(mBody));
+
+        NodeTree tree = new NodeTree(div);
+        tree.addChild(child);
+        tree.getChildren().get(0).addChild(child.getChild(0));
+
+        Node cloned = tree.cloneSubtreeRetainDirection(directions);
+
+        assertEquals("rtl", Element.as(cloned).getDir());
+        assertEquals("ltr", Element.as(cloned.getChild(0)).getDir());
+        assertFalse(Element.as(cloned.getChild(0).getChild(0)).hasAttribute("dir"));
+    }
+
+    public void testUnwalkedDirections() {
+        Element table = Document.get().createTableElement();
+        table.setInnerHTML("<tbody><tr><td>" + CONTENT_TEXT + "</td>" +
+                "<td style=\"direction: rtl\">" + CONTENT_TEXT + "</td></tr></tbody>");
+        mBody.appendChild(table);
+        Element ltrCell = DomUtil.querySelectorAll(table, "td").getItem(0);
+        Element rtlCell = DomUtil.querySelectorAll(table, "td").getItem(1);
+
+        // The walk stopped at the table, so its descendants use the computed style.
+        NodeDirections directions = new NodeDirections();
+        directions.record(table, null, "ltr");
+        directions.recordUnwalked(table);
+        assertEquals("ltr", directions.getRecordedDirection(table));
+        assertNull(directions.getRecordedDirection(rtlCell));
+
+        assertEquals("rtl", directions.getDirection(rtlCell));
+        assertTrue(directions.isDirectionChange(rtlCell));
+        assertFalse(directions.isDirectionChange(ltrCell));
+        assertTrue(directions.isDirectionChange(table));
+    }
+
+    public void testTextDirectionFromWalk() {
+        mRoot.setAttribute("dir", "rtl");
+        Element div = TestUtil.createDiv(0);
+        div.appendChild(TestUtil.createText(CONTENT_TEXT));
+        mBody.appendChild(div);
 
-        // make sure span element got the "dir" attribute correctly - based on parent
-        assertEquals("rtl",Element.as(cloned.getChild(0).getChild(0)).getDir());
+        ContentExtractor extractor = new ContentExtractor(mRoot);
+        extractor.extractContent();
+        assertEquals("rtl", extractor.getTextDirection());
     }
 }
@@ -475,6 +475,74 @@ public class PageParameterDetectorTest extends DomDistillerJsTestCase {
         expectEmptyPageParamInfo(info);
     }
 
+    public void testManyLinksSharingPattern() {
+        final String docUrl = "http://www.google.com/forum/12/thread-1";
+        final int numPages = 60;
+
+        MonotonicPageInfosGroups pages = new MonotonicPageInfosGroups();
+        pages.addGroup();
+        pages.addNumber(1, "");
+        // Every link also has "12" in its path, which forms a different pattern for each link.
+        for (int i = 2; i <= numPages; i++) {
+            pages.addNumber(i, "http://www.google.com/forum/12/thread-" + i);
+        }
+
+        PageParamInfo info = PageParameterDetector.detect(pages, docUrl);
+        assertEquals(PageParamInfo.Type.PAGE_NUMBER, info.mType);
+        assertEquals("http://www.google.com/forum/12/thread-[*!]", info.mPagePattern);
+        assertEquals(numPages - 1, info.mAllPageInfo.size());
+        for (int i = 0; i < info.mAllPageInfo.size(); i++) {
+            PageParamInfo.PageInfo page = info.mAllPageInfo.get(i);
+            assertEquals(i + 2, page.mPageNum);
+            assertEquals("http://www.google.com/forum/12/thread-" + (i + 2), page.mUrl);
+        }
+        assertTrue(info.mFormula != null);
+        assertEquals(1, info.mFormula.mCoefficient);
+        assertEquals(0, info.mFormula.mDelta);
+        assertEquals("http://www.google.com/forum/12/thread-2", info.mNextPagingUrl);
+    }
+
+    public void testPatternSignature() {
+        assertEquals("page=[*!]",
+                PageParameterDetector.getPatternSignature("http://foo.com/a/b?page=[*!]&c=d"));
+        assertEquals("p=[*!]",
+                PageParameterDetector.getPatternSignature("http://foo.com/a/b?c=d&p=[*!]"));
+        assertEquals("/page/[*!]",
+                PageParameterDetector.getPatternSignature("http://foo.com/a/page/[*!]/"));
+        assertEquals("-[*!].html",
+                PageParameterDetector.getPatternSignature("http://foo.com/a/b-123-[*!].html"));
+        assertEquals("thread-[*!]",
+                PageParameterDetector.getPatternSignature("http://foo.com/a/thread-[*!]?c=d"));
+    }
+
+    public void testRememberedPattern() {
+        final String testUrl = "http://www.google.com/test/list.php";
+        final PageParamContentInfo[] allContentInfo = {
+            NumericOutlink("http://www.google.com/test/list.php?start=10", 2),
+            NumericOutlink("http://www.google.com/test/list.php?start=20", 3),
+            NumericOutlink("http://www.google.com/test/list.php?start=30", 4),
+            UnrelatedTerms(),
+            NumericOutlink("http://www.google.com/test/list.php?offset=20", 2),
+            NumericOutlink("http://www.google.com/test/list.php?offset=30", 3),
+            NumericOutlink("http://www.google.com/test/list.php?offset=40", 4),
+        };
+
+        // Without a remembered pattern, the first of the equally good patterns is taken.
+        PageParamInfo info = detectPageParameter(testUrl, allContentInfo, allContentInfo.length);
+        assertEquals("http://www.google.com/test/list.php?start=[*!]", info.mPagePattern);
+
+        // The remembered pattern is verified first.
+        info = detectPageParameter(testUrl, allContentInfo, allContentInfo.length,
+                "offset=[*!]");
+        assertEquals("http://www.google.com/test/list.php?offset=[*!]", info.mPagePattern);
+        assertEquals(4, info.mAllPageInfo.size());
+        assertEquals("http://www.google.com/test/list.php?offset=20", info.mNextPagingUrl);
+
+        // A remembered pattern that isn't found falls back to full detection.
+        info = detectPageParameter(testUrl, allContentInfo, allContentInfo.length, "page=[*!]");
+        assertEquals("http://www.google.com/test/list.php?start=[*!]", info.mPagePattern);
+    }
+
     public void testInsertFirstPage() {
         {
             final String testUrl = "http://www.google.com/article/bar";
@@ -867,6 +935,12 @@ public class PageParameterDetectorTest extends DomDistillerJsTestCase {
 
     private static PageParamInfo detectPageParameter(String docUrl,
             PageParamContentInfo[] allContentInfo, int contentInfoSize) {
+        return detectPageParameter(docUrl, allContentInfo, contentInfoSize, "");
+    }
+
+    private static PageParamInfo detectPageParameter(String docUrl,
+            PageParamContentInfo[] allContentInfo, int contentInfoSize,
+            String rememberedSignature) {
         MonotonicPageInfosGroups adjacentNumbersGroups = new MonotonicPageInfosGroups();
         adjacentNumbersGroups.addGroup();
 
@@ -885,7 +959,7 @@ public class PageParameterDetectorTest extends DomDistillerJsTestCase {
             }
         }
 
-        return PageParameterDetector.detect(adjacentNumbersGroups, docUrl);
+        return PageParameterDetector.detect(adjacentNumbersGroups, docUrl, rememberedSignature);
     }
 
     static void expectEmptyPageParamInfo(PageParamInfo info) {
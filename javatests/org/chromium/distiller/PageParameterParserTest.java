@@ -24,6 +24,26 @@ public class PageParameterParserTest extends DomDistillerJsTestCase {
         assertEquals(3, info.mAllPageInfo.size());
     }
 
+    public void testPrevAndNextPagingUrl() {
+        PageParamInfo info = processDocumentWithoutBase(
+            "<a href=\"http://www.test.com/foo/bar/1\">1</a>" +
+            "<a href=\"http://www.test.com/foo/bar/2\">2</a>" +
+            "3" +
+            "<a href=\"http://www.test.com/foo/bar/4\">4</a>" +
+            "<a href=\"http://www.test.com/foo/bar/5\">5</a>",
+            BASE_URL + "foo/bar/3");
+        assertEquals(PageParamInfo.Type.PAGE_NUMBER, info.mType);
+        assertEquals(BASE_URL + "foo/bar/4", info.mNextPagingUrl);
+        assertEquals(BASE_URL + "foo/bar/2", info.mPrevPagingUrl);
+
+        // The first page has no previous page.
+        info = processDocument(
+            "1<br>" +
+            "<a href=\"/foo/bar/2\">2</a>" +
+            "<a href=\"/foo/bar/3\">3</a>");
+        assertEquals("", info.mPrevPagingUrl);
+    }
+
     public void testRejectOnlyPage2LinkWithoutCurrentPageText() {
         // Although there is a digital outlink to 2nd page, there is no plain text "1"
         // before it, so there is no pagination.
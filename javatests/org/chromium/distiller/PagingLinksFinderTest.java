@@ -4,6 +4,8 @@
 
 package org.chromium.distiller;
 
+import org.chromium.distiller.proto.DomDistillerProtos;
+
 import com.google.gwt.dom.client.AnchorElement;
 import com.google.gwt.dom.client.BaseElement;
 import com.google.gwt.dom.client.Document;
@@ -385,4 +387,66 @@ public class PagingLinksFinderTest extends DomDistillerJsTestCase {
         assertEquals((Integer) (-7), PagingLinksFinder.pageDiff("common11", "common4", null, 0));
         assertNull(PagingLinksFinder.pageDiff("%40%44", "%41%44", null, 0));
     }
+
+    public void testCombinedPaginationInfo() {
+        String url = "http://www.test.com/foo/bar/3";
+        Element canonical = Document.get().createLinkElement();
+        canonical.setAttribute("rel", "canonical");
+        canonical.setAttribute("href", "/foo/bar/3?canonical");
+        mHead.appendChild(canonical);
+        mBody.setInnerHTML(
+                "<a href=\"http://www.test.com/foo/bar/1\">1</a>" +
+                "<a href=\"http://www.test.com/foo/bar/2\">2</a>" +
+                "3" +
+                "<a href=\"http://www.test.com/foo/bar/4\">4</a>" +
+                "<a href=\"http://www.test.com/foo/bar/5\">5</a>");
+
+        Element root = mRoot;
+        DomDistillerProtos.PaginationInfo info = PageNumberPagination.getCombinedPaginationInfo(
+                root, AnchorSnapshot.create(root, url), url, null, null);
+        assertEquals("http://www.test.com/foo/bar/4", info.getNextPage());
+        assertEquals("http://www.test.com/foo/bar/2", info.getPrevPage());
+        assertEquals("http://www.test.com/foo/bar/3?canonical", info.getCanonicalPage());
+
+        // Without a rel="canonical" link, the original url is canonical. Text heuristics are
+        // used when there is no page number pattern.
+        mHead.removeChild(canonical);
+        mBody.setInnerHTML("<a href=\"http://www.test.com/foo/bar/4\">next page</a>");
+        info = PageNumberPagination.getCombinedPaginationInfo(
+                root, AnchorSnapshot.create(root, url), url, null, null);
+        assertEquals("http://www.test.com/foo/bar/4", info.getNextPage());
+        assertFalse(info.hasPrevPage());
+        assertEquals(url, info.getCanonicalPage());
+    }
+
+    public void testRememberedNextLink() {
+        LruPaginationPatternStore store = new LruPaginationPatternStore();
+        String url = "http://www.test.com/story-1/page/1";
+        mBody.setInnerHTML("<a class=\"nxt\" href=\"/story-1/page/2\">More</a>");
+        Element root = mRoot;
+        DomDistillerProtos.PaginationInfo info = PagingLinksFinder.getPaginationInfo(
+                AnchorSnapshot.create(root, url), url, store);
+        assertEquals("http://www.test.com/story-1/page/2", info.getNextPage());
+        assertEquals("More\nnxt\n", store.get("www.test.com").getNextLinkSignature());
+
+        // The link of another story doesn't score high enough on its own, but it has the
+        // signature of the link found in the first story.
+        url = "http://www.test.com/story-2";
+        mBody.setInnerHTML("<a class=\"nxt\" href=\"/story-2/b2\">More</a>");
+        assertNull(PagingLinksFinder.findNext(root, url));
+        info = PagingLinksFinder.getPaginationInfo(AnchorSnapshot.create(root, url), url, store);
+        assertEquals("http://www.test.com/story-2/b2", info.getNextPage());
+
+        // Links with the signature that point to different pages are ambiguous.
+        mBody.setInnerHTML("<a class=\"nxt\" href=\"/story-2/b2\">More</a>" +
+                "<a class=\"nxt\" href=\"/story-2/b3\">More</a>");
+        info = PagingLinksFinder.getPaginationInfo(AnchorSnapshot.create(root, url), url, store);
+        assertFalse(info.hasNextPage());
+
+        // Other hosts don't use the signature.
+        url = "http://www.other.com/story-2";
+        mBody.setInnerHTML("<a class=\"nxt\" href=\"/story-2/b2\">More</a>");
+        info = PagingLinksFinder.getPaginationInfo(AnchorSnapshot.create(root, url), url, store);
+        assertFalse(info.hasNextPage());
+    }
 }
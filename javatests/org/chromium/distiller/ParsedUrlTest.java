@@ -76,4 +76,28 @@ public class ParsedUrlTest extends JsTestCase {
         assertEquals("?qA=B&qC=D", url.getQuery());
     }
 
+    public void testNormalization() {
+        ParsedUrl url = ParsedUrl.create("HTTP://WWW.Foo.com:80/a/./b/../c d?e f#g h");
+        assertTrue(url != null);
+        assertEquals("www.foo.com", url.getHost());
+        assertEquals("/a/c%20d", url.getPath());
+        assertEquals("?e%20f", url.getQuery());
+        assertEquals("#g%20h", url.getHash());
+        assertEquals("http://www.foo.com/a/c%20d?e%20f#g%20h", url.toString());
+
+        assertEquals("https://www.foo.com:8080/",
+                ParsedUrl.create("https://www.foo.com:8080").toString());
+        assertEquals("http://www.foo.com/", ParsedUrl.create("http:\\\\www.foo.com").toString());
+        assertEquals("javascript:void(0)", ParsedUrl.create("javascript:void(0)").toString());
+        assertEquals("", ParsedUrl.create("javascript:void(0)").getHost());
+    }
+
+    public void testInvalidHostOrPort() {
+        assertEquals(null, ParsedUrl.create("http://"));
+        assertEquals(null, ParsedUrl.create("http://www.foo.com:port/"));
+        assertEquals(null, ParsedUrl.create("http://www.foo.com:99999/"));
+        assertEquals(null, ParsedUrl.create("http://[bad/"));
+        assertEquals(null, ParsedUrl.create("http://www foo.com/"));
+    }
+
 }
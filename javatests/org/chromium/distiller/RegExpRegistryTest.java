@@ -0,0 +1,29 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.regexp.shared.RegExp;
+
+public class RegExpRegistryTest extends JsTestCase {
+    public void testSharedInstances() {
+        int numCompiled = RegExpRegistry.getNumCompiled();
+        RegExp regExp = RegExpRegistry.get("RegExpRegistryTest\\d+", "i");
+        assertEquals(numCompiled + 1, RegExpRegistry.getNumCompiled());
+        assertTrue(regExp.test("regexpregistrytest42"));
+
+        assertSame(regExp, RegExpRegistry.get("RegExpRegistryTest\\d+", "i"));
+        assertEquals(numCompiled + 1, RegExpRegistry.getNumCompiled());
+    }
+
+    public void testFlags() {
+        RegExp noFlags = RegExpRegistry.get("RegExpRegistryTestFlags");
+        RegExp insensitive = RegExpRegistry.get("RegExpRegistryTestFlags", "i");
+        assertNotSame(noFlags, insensitive);
+        assertSame(noFlags, RegExpRegistry.get("RegExpRegistryTestFlags", ""));
+        assertFalse(noFlags.test("regexpregistrytestflags"));
+        assertTrue(insensitive.test("regexpregistrytestflags"));
+        assertFalse(RegExpRegistry.get("RegExpRegistryTestFlags", "g").getIgnoreCase());
+    }
+}
@@ -0,0 +1,250 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import org.chromium.distiller.document.TextBlock;
+import org.chromium.distiller.document.TextDocument;
+import org.chromium.distiller.filters.heuristics.BlockProximityFusion;
+import org.chromium.distiller.filters.heuristics.SimilarSiblingContentExpansion;
+import org.chromium.distiller.proto.DomDistillerProtos.TimingInfo;
+
+import com.google.gwt.core.client.js.JsExport;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.json.client.JSONNumber;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.regexp.shared.RegExp;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs pipeline stages on synthetic pages (see SyntheticPageBuilder) of size n and 4n, and reports
+ * the exponent of the growth of their time, i.e. log4(time at 4n / time at n). A linear stage
+ * grows by ~4, i.e. an exponent of ~1, and a quadratic one by ~16, i.e. ~2.
+ *
+ * The times depend on the machine and its load, so run_benchmark.py --scaling checks the exponents
+ * rather than the jstests.
+ */
+public class ScalingBenchmark {
+    // Each size is run until the runs take at least MIN_TOTAL_MS, and the fastest average of
+    // TRIALS such sets of runs is kept.
+    private static final double MIN_TOTAL_MS = 50;
+    private static final int MAX_RUNS = 100;
+    private static final int TRIALS = 3;
+
+    // Times below this are rounded up to it, so that timer resolution doesn't matter.
+    private static final double MIN_TIME_MS = 0.5;
+
+    private static final String PAGE_URL = SyntheticPageBuilder.PAGE_URL_PREFIX + "1";
+
+    /**
+     * A pipeline stage on a page of a given size. Only run() is timed.
+     */
+    interface Stage {
+        void prepare(int size);
+        void run();
+    }
+
+    /**
+     * @return The stages to run by name, and the base size n of each, in |sizes|.
+     */
+    static Map<String, Stage> getStages(final Element root, final Element body,
+            Map<String, Integer> sizes) {
+        Map<String, Stage> stages = new LinkedHashMap<String, Stage>();
+
+        sizes.put("TextDocument", 500);
+        stages.put("TextDocument", new Stage() {
+            @Override
+            public void prepare(int size) {
+                new SyntheticPageBuilder()
+                        .paragraphs(size)
+                        .fragments(2)
+                        .nestingDepth(3)
+                        .tables(size / 10)
+                        .comments(size / 2)
+                        .build(body);
+            }
+
+            @Override
+            public void run() {
+                TestTextDocumentBuilder.fromPage(root);
+            }
+        });
+
+        sizes.put("BlockProximityFusion.PRE_FILTERING", 2000);
+        stages.put("BlockProximityFusion.PRE_FILTERING",
+                createBlockProximityFusionStage(BlockProximityFusion.PRE_FILTERING));
+        sizes.put("BlockProximityFusion.POST_FILTERING", 2000);
+        stages.put("BlockProximityFusion.POST_FILTERING",
+                createBlockProximityFusionStage(BlockProximityFusion.POST_FILTERING));
+
+        final SimilarSiblingContentExpansion expansion =
+                new SimilarSiblingContentExpansion.Builder()
+                        .allowCrossHeadings()
+                        .maxLinkDensity(0.5)
+                        .maxBlockDistance(10)
+                        .build();
+        sizes.put("SimilarSiblingContentExpansion", 500);
+        stages.put("SimilarSiblingContentExpansion", new Stage() {
+            private TextDocument mDocument;
+
+            @Override
+            public void prepare(int size) {
+                new SyntheticPageBuilder()
+                        .paragraphs(size)
+                        .fragments(2)
+                        .nestingDepth(3)
+                        .comments(size / 2)
+                        .build(body);
+                mDocument = TestTextDocumentBuilder.fromPage(root);
+                List<TextBlock> textBlocks = mDocument.getTextBlocks();
+                for (int i = 0; i < textBlocks.size(); i += 4) {
+                    textBlocks.get(i).setIsContent(true);
+                }
+            }
+
+            @Override
+            public void run() {
+                expansion.process(mDocument);
+            }
+        });
+
+        // Both the number of matched nodes and their depth grow with the size.
+        sizes.put("NodeListExpander", 500);
+        stages.put("NodeListExpander", new Stage() {
+            private List<Node> mContentNodes;
+
+            @Override
+            public void prepare(int size) {
+                mContentNodes = new SyntheticPageBuilder()
+                        .paragraphs(size)
+                        .nestingDepth(size)
+                        .build(body);
+            }
+
+            @Override
+            public void run() {
+                NodeListExpander.expand(mContentNodes);
+            }
+        });
+
+        sizes.put("PagingLinksFinder", 200);
+        stages.put("PagingLinksFinder", new Stage() {
+            @Override
+            public void prepare(int size) {
+                buildAnchorPage(body, size);
+            }
+
+            @Override
+            public void run() {
+                PagingLinksFinder.getPaginationInfo(PAGE_URL);
+            }
+        });
+
+        sizes.put("PageParameterParser", 200);
+        stages.put("PageParameterParser", new Stage() {
+            @Override
+            public void prepare(int size) {
+                buildAnchorPage(body, size);
+            }
+
+            @Override
+            public void run() {
+                PageParameterParser.parse(PAGE_URL, TimingInfo.create());
+            }
+        });
+        return stages;
+    }
+
+    /**
+     * The entry point of run_benchmark.py --scaling.
+     *
+     * @param stagePattern A regex of the names of the stages to run.
+     * @param scale The factor of the base sizes of the stages, e.g. to run them on smaller pages.
+     * @return The JSON report, e.g. {"NodeListExpander": {"size": 500, "ms": 2.1, "size4x": 2000,
+     * "ms4x": 8.6, "exponent": 1.02}}, where the times are in ms.
+     */
+    @JsExport
+    public static String run(String stagePattern, double scale) {
+        RegExp regexp = RegExp.compile(stagePattern);
+        Document document = Document.get();
+        Map<String, Integer> sizes = new LinkedHashMap<String, Integer>();
+        Map<String, Stage> stages =
+                getStages(document.getDocumentElement(), document.getBody(), sizes);
+
+        JSONObject report = new JSONObject();
+        for (Map.Entry<String, Stage> e : stages.entrySet()) {
+            if (!regexp.test(e.getKey())) continue;
+            Stage stage = e.getValue();
+            int size = Math.max(1, (int) (sizes.get(e.getKey()) * scale));
+            // Warm up.
+            measure(stage, size);
+
+            double time = Math.max(MIN_TIME_MS, measure(stage, size));
+            double time4x = Math.max(MIN_TIME_MS, measure(stage, 4 * size));
+            JSONObject stageReport = new JSONObject();
+            stageReport.put("size", new JSONNumber(size));
+            stageReport.put("ms", new JSONNumber(time));
+            stageReport.put("size4x", new JSONNumber(4 * size));
+            stageReport.put("ms4x", new JSONNumber(time4x));
+            stageReport.put("exponent", new JSONNumber(Math.log(time4x / time) / Math.log(4)));
+            report.put(e.getKey(), stageReport);
+        }
+        document.getBody().setInnerHTML("");
+        return report.toString();
+    }
+
+    /**
+     * @return The time in ms of a run of |stage| at |size|.
+     */
+    static double measure(Stage stage, int size) {
+        double best = Double.MAX_VALUE;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            double total = 0;
+            int runs = 0;
+            while (total < MIN_TOTAL_MS && runs < MAX_RUNS) {
+                stage.prepare(size);
+                double start = DomUtil.getTime();
+                stage.run();
+                total += DomUtil.getTime() - start;
+                runs++;
+            }
+            best = Math.min(best, total / runs);
+        }
+        return best;
+    }
+
+    private static Stage createBlockProximityFusionStage(final BlockProximityFusion filter) {
+        // All the blocks are content and adjacent, so they are all merged into the first one.
+        return new Stage() {
+            private TextDocument mDocument;
+
+            @Override
+            public void prepare(int size) {
+                TestTextDocumentBuilder builder = new TestTextDocumentBuilder();
+                for (int i = 0; i < size; i++) {
+                    builder.addContentBlock("Lorem ipsum dolor sit amet.");
+                }
+                mDocument = builder.build();
+            }
+
+            @Override
+            public void run() {
+                filter.process(mDocument);
+            }
+        };
+    }
+
+    private static void buildAnchorPage(Element body, int size) {
+        new SyntheticPageBuilder()
+                .paragraphs(10)
+                .anchors(size)
+                .comments(size / 10)
+                .build(body);
+    }
+}
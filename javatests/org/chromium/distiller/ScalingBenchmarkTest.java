@@ -0,0 +1,51 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONParser;
+
+import java.util.List;
+
+public class ScalingBenchmarkTest extends DomDistillerJsTestCase {
+    public void testSyntheticPageBuilder() {
+        List<Node> contentNodes = new SyntheticPageBuilder()
+                .paragraphs(3)
+                .fragments(2)
+                .nestingDepth(4)
+                .anchors(15)
+                .tables(2)
+                .comments(5)
+                .build(mBody);
+        assertEquals(6, contentNodes.size());
+        // The paragraphs and the comments.
+        assertEquals(6 + 5, mBody.getElementsByTagName("P").getLength());
+        assertEquals(15 + 5, mBody.getElementsByTagName("A").getLength());
+        assertEquals(2, DomUtil.querySelectorAll(mBody, ".pagination").getLength());
+        assertEquals(2, mBody.getElementsByTagName("TABLE").getLength());
+        assertEquals(5, DomUtil.querySelectorAll(mBody, ".comment").getLength());
+        // The paragraphs are under the nested divs.
+        Node node = contentNodes.get(0);
+        int depth = 0;
+        for (; !node.equals(mBody); node = node.getParentNode()) depth++;
+        assertEquals(4 + 2, depth);
+    }
+
+    public void testRun() {
+        // Only the shape of the report is checked, as the times depend on the machine.
+        JSONObject report = JSONParser.parseStrict(
+                ScalingBenchmark.run("^BlockProximityFusion|^NodeListExpander$", 0.01)).isObject();
+        assertEquals(3, report.size());
+        JSONObject stageReport = report.get("BlockProximityFusion.PRE_FILTERING").isObject();
+        assertEquals(20, stageReport.get("size").isNumber().doubleValue(), 1e-6);
+        assertEquals(80, stageReport.get("size4x").isNumber().doubleValue(), 1e-6);
+        assertTrue(stageReport.get("ms").isNumber().doubleValue() > 0);
+        assertNotNull(stageReport.get("exponent").isNumber());
+        assertEquals(5, report.get("NodeListExpander").isObject().get("size").isNumber()
+                .doubleValue(), 1e-6);
+        assertEquals(0, mBody.getChildCount());
+    }
+}
@@ -601,6 +601,25 @@ public class SchemaOrgParserAccessorTest extends DomDistillerJsTestCase {
         assertEquals(expectedTitle, parser.getTitle());
     }
 
+    public void testItempropAfterNestedItemScope() {
+        String expectedTitle = "Name after the author";
+        String expectedAuthor = "Whoever authored";
+        String elements =
+            "<div itemscope itemtype=\"http://schema.org/Article\">" +
+                "<div itemscope itemtype=\"http://schema.org/Person\" itemprop=\"author\">" +
+                    "<div><div><span itemprop=\"name\">" + expectedAuthor + "</span></div></div>" +
+                "</div>" +
+                // The scope of the Person has ended, so this belongs to the Article again.
+                "<div><div><div>" +
+                    "<span itemprop=\"name\">" + expectedTitle + "</span>" +
+                "</div></div></div>" +
+            "</div>";
+        mBody.setInnerHTML(elements);
+        SchemaOrgParserAccessor parser = new SchemaOrgParserAccessor(mRoot);
+        assertEquals(expectedTitle, parser.getTitle());
+        assertEquals(expectedAuthor, parser.getAuthor());
+    }
+
     private void setItemScopeAndType(Element e, String type) {
         e.setAttribute("ITEMSCOPE", "");
         e.setAttribute("ITEMTYPE", "http://schema.org/" + type);
@@ -0,0 +1,74 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.Element;
+
+public class StructuredContentFinderTest extends DomDistillerJsTestCase {
+    private static final String CONTENT_TEXT = "Lorem Ipsum Lorem Ipsum Lorem Ipsum.";
+
+    public void testMicrodataArticleBody() {
+        mBody.setInnerHTML(
+                "<div>" + CONTENT_TEXT + "</div>" +
+                "<div id=\"body\" itemprop=\"articleBody\"><p>" + CONTENT_TEXT + "</p></div>");
+
+        StructuredContentFinder.Result result = StructuredContentFinder.find(mRoot, "");
+        assertNotNull(result);
+        assertEquals(StructuredContentFinder.PATH_MICRODATA_ARTICLE_BODY, result.path);
+        assertEquals("body", result.container.getId());
+    }
+
+    public void testAmbiguousMicrodataArticleBody() {
+        mBody.setInnerHTML(
+                "<div itemprop=\"articleBody\"><p>" + CONTENT_TEXT + "</p></div>" +
+                "<div itemprop=\"articleBody\"><p>" + CONTENT_TEXT + "</p></div>");
+
+        assertNull(StructuredContentFinder.find(mRoot, ""));
+    }
+
+    public void testJsonLdArticleBody() {
+        String paragraph = "";
+        for (int i = 0; i < 5; i++) {
+            paragraph += CONTENT_TEXT + " " + i + " ";
+        }
+        mBody.setInnerHTML(
+                "<div id=\"page\">" +
+                    "<div>" + CONTENT_TEXT + "</div>" +
+                    "<section id=\"body\">" +
+                        "<p>" + paragraph + "</p>\n" +
+                        "<p>" + paragraph + "</p>" +
+                    "</section>" +
+                "</div>");
+
+        // The articleBody separates paragraphs differently than the DOM.
+        String articleBody = paragraph + "\n\n" + paragraph;
+        StructuredContentFinder.Result result = StructuredContentFinder.find(mRoot, articleBody);
+        assertNotNull(result);
+        assertEquals(StructuredContentFinder.PATH_JSON_LD_ARTICLE_BODY, result.path);
+        assertEquals("body", result.container.getId());
+
+        // A short articleBody, e.g. a summary, isn't trusted.
+        assertNull(StructuredContentFinder.find(mRoot, CONTENT_TEXT));
+        // Neither is one that doesn't match the DOM.
+        assertNull(StructuredContentFinder.find(mRoot, paragraph + paragraph + "Not in the page."));
+    }
+
+    public void testArticleElement() {
+        mBody.setInnerHTML(
+                "<div>" + CONTENT_TEXT + "</div>" +
+                "<article id=\"article\"><p>" + CONTENT_TEXT + CONTENT_TEXT + "</p></article>");
+
+        StructuredContentFinder.Result result = StructuredContentFinder.find(mRoot, "");
+        assertNotNull(result);
+        assertEquals(StructuredContentFinder.PATH_ARTICLE_ELEMENT, result.path);
+        assertEquals("article", result.container.getId());
+
+        // The ARTICLE doesn't hold most of the text of the page anymore.
+        Element div = TestUtil.createDiv(0);
+        div.setInnerHTML(CONTENT_TEXT + CONTENT_TEXT + CONTENT_TEXT);
+        mBody.appendChild(div);
+        assertNull(StructuredContentFinder.find(mRoot, ""));
+    }
+}
@@ -0,0 +1,165 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.AnchorElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds synthetic pages of a given shape, to test how the distiller scales with the size of a
+ * page. The pages are deterministic, and are built with DOM calls rather than innerHTML, so that
+ * the nesting depth isn't limited by the HTML parser.
+ *
+ * The page has, in order:
+ *   - |anchors| numbered page links, in groups of 10 in "pagination" divs.
+ *   - |paragraphs| paragraphs, each split into |fragments| sibling P's, inside |nestingDepth|
+ *     nested divs, followed by |tables| tables of 5 rows of 4 cells.
+ *   - |comments| comments, each with an author, a short paragraph and a reply link.
+ */
+public class SyntheticPageBuilder {
+    public static final String PAGE_URL_PREFIX = "http://example.com/article/page/";
+
+    private static final String[] WORDS = {
+        "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed",
+        "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna",
+        "aliqua",
+    };
+    private static final int WORDS_PER_PARAGRAPH = 40;
+    private static final int LINKS_PER_PAGER = 10;
+
+    private int mParagraphs;
+    private int mNestingDepth;
+    private int mAnchors;
+    private int mTables;
+    private int mComments;
+    private int mFragments;
+
+    public SyntheticPageBuilder() {
+        mParagraphs = 10;
+        mNestingDepth = 1;
+        mAnchors = 0;
+        mTables = 0;
+        mComments = 0;
+        mFragments = 1;
+    }
+
+    public SyntheticPageBuilder paragraphs(int paragraphs) {
+        mParagraphs = paragraphs;
+        return this;
+    }
+
+    public SyntheticPageBuilder nestingDepth(int depth) {
+        mNestingDepth = depth;
+        return this;
+    }
+
+    public SyntheticPageBuilder anchors(int anchors) {
+        mAnchors = anchors;
+        return this;
+    }
+
+    public SyntheticPageBuilder tables(int tables) {
+        mTables = tables;
+        return this;
+    }
+
+    public SyntheticPageBuilder comments(int comments) {
+        mComments = comments;
+        return this;
+    }
+
+    public SyntheticPageBuilder fragments(int fragments) {
+        mFragments = fragments;
+        return this;
+    }
+
+    /**
+     * Replaces the children of |parent| with the page.
+     *
+     * @return The text nodes of the paragraphs, in document order.
+     */
+    public List<Node> build(Element parent) {
+        Document document = Document.get();
+        parent.setInnerHTML("");
+        List<Node> contentNodes = new ArrayList<Node>();
+
+        Element pager = null;
+        for (int i = 0; i < mAnchors; i++) {
+            if (i % LINKS_PER_PAGER == 0) {
+                pager = document.createDivElement();
+                pager.setClassName("pagination");
+                parent.appendChild(pager);
+            }
+            int page = i % LINKS_PER_PAGER + 1;
+            AnchorElement anchor = TestUtil.createAnchor(PAGE_URL_PREFIX + page, "" + page);
+            pager.appendChild(anchor);
+        }
+
+        Element content = parent;
+        for (int i = 0; i < mNestingDepth; i++) {
+            Element div = document.createDivElement();
+            content.appendChild(div);
+            content = div;
+        }
+        for (int i = 0; i < mParagraphs; i++) {
+            int wordsPerFragment = Math.max(1, WORDS_PER_PARAGRAPH / mFragments);
+            for (int j = 0; j < mFragments; j++) {
+                Element p = document.createPElement();
+                Text text = TestUtil.createText(getWords(i * WORDS_PER_PARAGRAPH +
+                        j * wordsPerFragment, wordsPerFragment) + ".");
+                p.appendChild(text);
+                content.appendChild(p);
+                contentNodes.add(text);
+            }
+        }
+        for (int i = 0; i < mTables; i++) {
+            Element table = document.createTableElement();
+            Element tbody = document.createTBodyElement();
+            table.appendChild(tbody);
+            for (int row = 0; row < 5; row++) {
+                Element tr = document.createTRElement();
+                for (int cell = 0; cell < 4; cell++) {
+                    Element td = document.createTDElement();
+                    td.appendChild(TestUtil.createText(getWords(i + row * 4 + cell, 2)));
+                    tr.appendChild(td);
+                }
+                tbody.appendChild(tr);
+            }
+            content.appendChild(table);
+        }
+
+        if (mComments > 0) {
+            Element thread = document.createDivElement();
+            thread.setClassName("comments");
+            for (int i = 0; i < mComments; i++) {
+                Element comment = document.createDivElement();
+                comment.setClassName("comment");
+                Element author = TestUtil.createSpan("user" + i);
+                author.setClassName("author");
+                comment.appendChild(author);
+                comment.appendChild(TestUtil.createParagraph(getWords(i, 12) + "."));
+                comment.appendChild(TestUtil.createAnchor("#comment-" + i, "Reply"));
+                thread.appendChild(comment);
+            }
+            parent.appendChild(thread);
+        }
+        return contentNodes;
+    }
+
+    private static String getWords(int start, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) words.append(' ');
+            words.append(WORDS[(start + i) % WORDS.length]);
+        }
+        return words.toString();
+    }
+}
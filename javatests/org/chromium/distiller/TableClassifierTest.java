@@ -34,6 +34,15 @@ public class TableClassifierTest extends DomDistillerJsTestCase {
         assertEquals(TableClassifier.Reason.INSIDE_EDITABLE_AREA, TableClassifier.sReason);
     }
 
+    public void testEditableAreaFromCaller() {
+        TableElement table = createDefaultTableWithTH();
+        assertEquals(TableClassifier.Type.LAYOUT, TableClassifier.table(table, true));
+        assertEquals(TableClassifier.Reason.INSIDE_EDITABLE_AREA, TableClassifier.sReason);
+        assertEquals(TableClassifier.Type.DATA, TableClassifier.table(table, false));
+        assertEquals(TableClassifier.Reason.CAPTION_THEAD_TFOOT_COLGROUP_COL_TH,
+                     TableClassifier.sReason);
+    }
+
     public void testRolePresentation() {
         TableElement table = createDefaultTableWithTH();
         table.setAttribute("role", "presentation");
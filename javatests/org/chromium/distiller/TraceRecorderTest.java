@@ -0,0 +1,87 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TraceRecorderTest extends DomDistillerJsTestCase {
+    public void testNotStarted() {
+        TraceRecorder.begin("Stage");
+        TraceRecorder.end("Stage");
+        assertFalse(TraceRecorder.isEnabled());
+        assertEquals("", TraceRecorder.stop());
+    }
+
+    public void testEvents() {
+        TraceRecorder.start();
+        assertTrue(TraceRecorder.isEnabled());
+        TraceRecorder.begin("Outer");
+        double startTime = DomUtil.getTime();
+        TraceRecorder.begin("Inner");
+        TraceRecorder.end("Inner", "blocks", 3);
+        TraceRecorder.complete("Complete", startTime);
+        TraceRecorder.end("Outer", "nodes", 10, "webElements", 5);
+        JSONArray events = getEvents(TraceRecorder.stop());
+        assertFalse(TraceRecorder.isEnabled());
+
+        // The first event names the thread.
+        assertEquals(6, events.size());
+        assertEquals("M", getString(events, 0, "ph"));
+        assertEquals("Outer", getString(events, 1, "name"));
+        assertEquals("B", getString(events, 1, "ph"));
+        assertEquals("Inner", getString(events, 2, "name"));
+        assertEquals("E", getString(events, 3, "ph"));
+        assertEquals(3, getArg(events, 3, "blocks"), 1e-6);
+        assertEquals("Complete", getString(events, 4, "name"));
+        assertEquals("X", getString(events, 4, "ph"));
+        assertNotNull(events.get(4).isObject().get("dur"));
+        assertEquals("Outer", getString(events, 5, "name"));
+        assertEquals(10, getArg(events, 5, "nodes"), 1e-6);
+        assertEquals(5, getArg(events, 5, "webElements"), 1e-6);
+
+        double begin = events.get(1).isObject().get("ts").isNumber().doubleValue();
+        double end = events.get(5).isObject().get("ts").isNumber().doubleValue();
+        assertTrue(begin <= end);
+    }
+
+    public void testContentExtractor() {
+        mBody.setInnerHTML("<p>" + "Lorem Ipsum Lorem Ipsum Lorem Ipsum. " +
+                "Lorem Ipsum Lorem Ipsum Lorem Ipsum. Lorem Ipsum Lorem Ipsum.</p>");
+        TraceRecorder.start();
+        new ContentExtractor(mRoot).extractContent();
+        JSONArray events = getEvents(TraceRecorder.stop());
+
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < events.size(); i++) {
+            names.add(getString(events, i, "name"));
+        }
+        assertTrue(names.contains("MarkupParser"));
+        assertTrue(names.contains("DomWalker"));
+        assertTrue(names.contains("ArticleExtractor"));
+        assertTrue(names.contains("NumWordsRulesClassifier"));
+        assertTrue(names.contains("Formatting"));
+        // The walk is annotated with the number of visited nodes.
+        int walkEnd = names.lastIndexOf("DomWalker");
+        assertTrue(getArg(events, walkEnd, "nodes") > 0);
+    }
+
+    private static JSONArray getEvents(String trace) {
+        return JSONParser.parseStrict(trace).isObject().get("traceEvents").isArray();
+    }
+
+    private static String getString(JSONArray events, int index, String key) {
+        return events.get(index).isObject().get(key).isString().stringValue();
+    }
+
+    private static double getArg(JSONArray events, int index, String key) {
+        JSONObject args = events.get(index).isObject().get("args").isObject();
+        return args.get(key).isNumber().doubleValue();
+    }
+}
@@ -20,7 +20,7 @@ public class TreeCloneBuilderTest extends DomDistillerJsTestCase {
         leafNodes.add(divs.get(4));
         leafNodes.add(divs.get(5));
         leafNodes.add(divs.get(14));
-        Node root = TreeCloneBuilder.buildTreeClone(leafNodes);
+        Node root = TreeCloneBuilder.buildTreeClone(leafNodes, new NodeDirections());
 
         // This is TestUtil.expectedDivTreeHtml with the nodes that should not be included
         // commented out.
@@ -54,7 +54,7 @@ public class TreeCloneBuilderTest extends DomDistillerJsTestCase {
         List<Node> leaf = new ArrayList<Node>();
         leaf.add(Document.get().createTextNode("some content"));
 
-        Node root = TreeCloneBuilder.buildTreeClone(leaf);
+        Node root = TreeCloneBuilder.buildTreeClone(leaf, new NodeDirections());
         
         assertEquals(0, root.getChildCount());
         assertEquals(Text.as(leaf.get(0)).getData(), Text.as(root).getData());
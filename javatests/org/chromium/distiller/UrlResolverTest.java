@@ -0,0 +1,86 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller;
+
+import com.google.gwt.dom.client.AnchorElement;
+
+public class UrlResolverTest extends JsTestCase {
+    private static final String BASE_URL = "http://a.com/b/c/d;p?q#f";
+
+    // The reference resolution examples of RFC 3986 section 5.4, and a few more.
+    private static final String[][] EXAMPLES = {
+        {"g:h", "g:h"},
+        {"g", "http://a.com/b/c/g"},
+        {"./g", "http://a.com/b/c/g"},
+        {"g/", "http://a.com/b/c/g/"},
+        {"/g", "http://a.com/g"},
+        {"//g", "http://g/"},
+        {"?y", "http://a.com/b/c/d;p?y"},
+        {"g?y", "http://a.com/b/c/g?y"},
+        {"#s", "http://a.com/b/c/d;p?q#s"},
+        {"g#s", "http://a.com/b/c/g#s"},
+        {"g?y#s", "http://a.com/b/c/g?y#s"},
+        {";x", "http://a.com/b/c/;x"},
+        {"g;x", "http://a.com/b/c/g;x"},
+        {"", "http://a.com/b/c/d;p?q"},
+        {".", "http://a.com/b/c/"},
+        {"./", "http://a.com/b/c/"},
+        {"..", "http://a.com/b/"},
+        {"../", "http://a.com/b/"},
+        {"../g", "http://a.com/b/g"},
+        {"../..", "http://a.com/"},
+        {"../../g", "http://a.com/g"},
+        {"../../../g", "http://a.com/g"},
+        {"/./g", "http://a.com/g"},
+        {"/../g", "http://a.com/g"},
+        {"g.", "http://a.com/b/c/g."},
+        {"..g", "http://a.com/b/c/..g"},
+        {"./../g", "http://a.com/b/g"},
+        {"g/./h", "http://a.com/b/c/g/h"},
+        {"g/../h", "http://a.com/b/c/h"},
+        {"http:g", "http://a.com/b/c/g"},
+        {"  g\n ", "http://a.com/b/c/g"},
+        {"g h", "http://a.com/b/c/g%20h"},
+        {"g\u00e9", "http://a.com/b/c/g%C3%A9"},
+        {"HTTP://A.COM:80/x", "http://a.com/x"},
+        {"https://a.com:8443", "https://a.com:8443/"},
+        {"\\\\g\\h", "http://g/h"},
+        {"javascript:void(0)", "javascript:void(0)"},
+        {"mailto:user@example.com", "mailto:user@example.com"},
+    };
+
+    public void testResolveExamples() {
+        UrlResolver resolver = new UrlResolver(BASE_URL);
+        for (String[] example : EXAMPLES) {
+            assertEquals(example[0], example[1], resolver.resolve(example[0]));
+        }
+    }
+
+    public void testSameAsAnchor() {
+        UrlResolver resolver = new UrlResolver(BASE_URL);
+        AnchorElement baseAnchor = PagingLinksFinder.createAnchorWithBase(BASE_URL);
+        for (String[] example : EXAMPLES) {
+            assertEquals(example[0], PagingLinksFinder.resolveLinkHref(example[0], baseAnchor),
+                    resolver.resolve(example[0]));
+        }
+    }
+
+    public void testUnresolvable() {
+        assertEquals("http://[bad/", new UrlResolver(BASE_URL).resolve("http://[bad/"));
+        assertEquals("g", new UrlResolver("javascript:void(0)").resolve("g"));
+        assertEquals("g", new UrlResolver("not a url").resolve("g"));
+        assertEquals("http://a.com/g", new UrlResolver("not a url").resolve("http://a.com/g"));
+    }
+
+    public void testSharedResolver() {
+        UrlResolver.clearCache();
+        UrlResolver resolver = UrlResolver.get(BASE_URL);
+        assertSame(resolver, UrlResolver.get(BASE_URL));
+        assertEquals("http://a.com/b/c/g", resolver.resolve("g"));
+        assertNotSame(resolver, UrlResolver.get("http://b.com/"));
+        UrlResolver.clearCache();
+        assertNotSame(resolver, UrlResolver.get(BASE_URL));
+    }
+}
@@ -159,6 +159,22 @@ public class DomConverterTest extends DomDistillerJsTestCase {
         runTest(html, html);
     }
 
+    public void testDataTableInEditableArea() throws Throwable {
+        String table = "<table align=\"left\" role=\"grid\">" +
+                           "<tbody align=\"left\">" +
+                               "<tr>" +
+                                   "<td>row1col1</td>" +
+                                   "<td>row1col2</td>" +
+                               "</tr>" +
+                           "</tbody>" +
+                       "</table>";
+        String html = "<div contenteditable=\"true\"><div>" + table + "</div></div>";
+        runTest(html, html);
+        // The editable area ends with its element.
+        html = "<div contenteditable=\"true\"></div>" + table;
+        runTest(html, "<div contenteditable=\"true\"></div><datatable/>");
+    }
+
     public void testIgnorableElements() throws Throwable {
         runTest("<head></head>", "");
         runTest("<style></style>", "");
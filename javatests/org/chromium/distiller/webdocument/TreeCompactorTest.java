@@ -0,0 +1,63 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.webdocument;
+
+import org.chromium.distiller.DomDistillerJsTestCase;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+
+public class TreeCompactorTest extends DomDistillerJsTestCase {
+    private static String compact(String html) {
+        Element div = Document.get().createDivElement();
+        div.setInnerHTML(html);
+        TreeCompactor.compact(div);
+        return div.getInnerHTML();
+    }
+
+    public void testCollapseWhitespace() {
+        assertEquals("<p>Some text content.</p>",
+                compact("\n  <p>Some   text\n\tcontent.</p>\n  "));
+        assertEquals("<p>Some <b>bold</b> text</p>",
+                compact("<p>Some <b>bold</b>  text</p>"));
+        // Whitespace inside inline wrappers is significant.
+        assertEquals("<p>Some<b> </b>text</p>", compact("<p>Some<b>  </b>text</p>"));
+        assertEquals("<p>Line</p><p>Line</p>", compact("<p>Line</p>\n\n<p>Line</p>"));
+    }
+
+    public void testKeepWhitespaceAroundInlineElements() {
+        assertEquals("<p><img src=\"a.png\"> <a href=\"x\">link</a></p>",
+                compact("<p><img src=\"a.png\">  <a href=\"x\">link</a></p>"));
+        assertEquals("<p>text<br> <b>bold</b></p>", compact("<p>text<br>\n<b>bold</b></p>"));
+        assertEquals("<p>one <input> two</p>", compact("<p>one <input> two</p>"));
+    }
+
+    public void testRemoveEmptyWrappers() {
+        assertEquals("<p>Text</p>", compact("<p><span></span>Text<b><i></i></b></p>"));
+        assertEquals("<p>Text<br></p>", compact("<p>Text<br></p>"));
+        assertEquals("<p><img src=\"a.png\"></p>", compact("<p><img src=\"a.png\"></p>"));
+        assertEquals("<p>Text</p>", compact("<p>Text<!-- comment --></p>"));
+    }
+
+    public void testMergeAdjacentWrappers() {
+        assertEquals("<p><b>onetwo</b></p>", compact("<p><b>one</b><b>two</b></p>"));
+        assertEquals("<p><b>one</b> <b>two</b></p>", compact("<p><b>one</b> <b>two</b></p>"));
+        assertEquals("<p><a href=\"x\">onetwo</a><a href=\"y\">three</a></p>",
+                compact("<p><a href=\"x\">one</a><a href=\"x\">two</a>"
+                        + "<a href=\"y\">three</a></p>"));
+        // Merging again after an empty wrapper is removed.
+        assertEquals("<p><i>onetwo</i></p>", compact("<p><i>one</i><span></span><i>two</i></p>"));
+    }
+
+    public void testKeepPre() {
+        String html = "<pre>  one\n    <b></b>two  </pre>";
+        assertEquals(html, compact(html));
+
+        Element pre = Document.get().createPreElement();
+        pre.setInnerHTML("  one\n  two");
+        TreeCompactor.compact(pre);
+        assertEquals("  one\n  two", pre.getInnerHTML());
+    }
+}
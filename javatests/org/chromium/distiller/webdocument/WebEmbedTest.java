@@ -0,0 +1,62 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.webdocument;
+
+import org.chromium.distiller.DomDistillerJsTestCase;
+import org.chromium.distiller.TestUtil;
+
+import com.google.gwt.dom.client.Element;
+
+public class WebEmbedTest extends DomDistillerJsTestCase {
+    public void testGenerateOutput() {
+        WebEmbed embed = new WebEmbed(TestUtil.createIframe(), "youtube", "abc", null);
+        embed.setTitle("A video");
+        embed.setPosterUrl("http://example.com/poster.jpg");
+        assertEquals("<div class=\"embed-placeholder\" data-type=\"youtube\" data-id=\"abc\">" +
+                     "</div>",
+                embed.generateOutput(false));
+        assertEquals("", embed.generateOutput(true));
+    }
+
+    public void testGenerateFacadeOutput() {
+        WebEmbed embed = new WebEmbed(TestUtil.createIframe(), "youtube", "abc", null);
+        embed.setTitle("A video");
+        embed.setPosterUrl("http://example.com/poster.jpg");
+        embed.setSize(640, 360);
+        embed.setUseFacade(true);
+        assertEquals("<div class=\"embed-placeholder embed-facade\" data-type=\"youtube\" " +
+                     "data-id=\"abc\" data-title=\"A video\" " +
+                     "data-width=\"640\" data-height=\"360\">" +
+                     "<img src=\"http://example.com/poster.jpg\" alt=\"A video\">" +
+                     "</div>",
+                embed.generateOutput(false));
+        assertEquals("", embed.generateOutput(true));
+    }
+
+    public void testGenerateFacadeOutputWithoutMetadata() {
+        WebEmbed embed = new WebEmbed(TestUtil.createIframe(), "vimeo", "123", null);
+        embed.setUseFacade(true);
+        assertEquals("<div class=\"embed-placeholder embed-facade\" data-type=\"vimeo\" " +
+                     "data-id=\"123\"></div>",
+                embed.generateOutput(false));
+    }
+
+    public void testSizeFromAttributes() {
+        Element iframe = TestUtil.createIframe();
+        iframe.setAttribute("width", "640");
+        iframe.setAttribute("height", "360");
+        WebEmbed embed = new WebEmbed(iframe, "youtube", "abc", null);
+        embed.setSizeFromAttributes(iframe);
+        assertEquals(640, embed.getWidth());
+        assertEquals(360, embed.getHeight());
+
+        // Relative sizes don't give an aspect ratio.
+        iframe.setAttribute("width", "100%");
+        embed = new WebEmbed(iframe, "youtube", "abc", null);
+        embed.setSizeFromAttributes(iframe);
+        assertEquals(0, embed.getWidth());
+        assertEquals(0, embed.getHeight());
+    }
+}
@@ -22,6 +22,14 @@ public class WebTagTest extends DomDistillerJsTestCase {
         assertEquals(endResult, "</anytext>");
     }
 
+    public void testDirectionGenerateOutput() {
+        WebTag startWebTag = new WebTag("ul", WebTag.TagType.START, "rtl");
+        WebTag endWebTag = new WebTag("ul", WebTag.TagType.END);
+        assertEquals("<ul dir=\"rtl\">", startWebTag.generateOutput(false));
+        assertEquals("</ul>", endWebTag.generateOutput(false));
+        assertEquals("", startWebTag.generateOutput(true));
+    }
+
     public void testCanBeNested() {
         assertTrue(WebTag.canBeNested("LI"));
         assertTrue(WebTag.canBeNested("UL"));
@@ -0,0 +1,68 @@
+// Copyright 2016 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package org.chromium.distiller.webdocument.filters;
+
+import org.chromium.distiller.DomDistillerJsTestCase;
+import org.chromium.distiller.webdocument.TestWebDocumentBuilder;
+import org.chromium.distiller.webdocument.WebDocument;
+import org.chromium.distiller.webdocument.WebTag;
+import org.chromium.distiller.webdocument.WebText;
+
+public class OutputCompactorTest extends DomDistillerJsTestCase {
+    public void testProcessDocument() {
+        TestWebDocumentBuilder builder = new TestWebDocumentBuilder();
+        WebTag emptyStart = builder.addTagStart();
+        WebTag emptyEnd = builder.addTagEnd();
+        WebTag start = builder.addTagStart();
+        WebText text = builder.addText("text 1");
+        WebTag end = builder.addTagEnd();
+        WebDocument document = builder.build();
+        for (int i = 0; i < document.getElements().size(); i++) {
+            document.getElements().get(i).setIsContent(true);
+        }
+
+        OutputCompactor.process(document);
+        assertFalse(emptyStart.getIsContent());
+        assertFalse(emptyEnd.getIsContent());
+        assertTrue(start.getIsContent());
+        assertTrue(end.getIsContent());
+        assertTrue(text.isCompact());
+    }
+
+    public void testProcessDocumentNestedEmptyTags() {
+        TestWebDocumentBuilder builder = new TestWebDocumentBuilder();
+        WebTag outerStart = builder.addTagStart();
+        WebTag innerStart = builder.addTagStart();
+        WebTag innerEnd = builder.addTagEnd();
+        WebTag outerEnd = builder.addTagEnd();
+        WebDocument document = builder.build();
+        for (int i = 0; i < document.getElements().size(); i++) {
+            document.getElements().get(i).setIsContent(true);
+        }
+
+        OutputCompactor.process(document);
+        assertFalse(outerStart.getIsContent());
+        assertFalse(innerStart.getIsContent());
+        assertFalse(innerEnd.getIsContent());
+        assertFalse(outerEnd.getIsContent());
+    }
+
+    public void testProcessDocumentKeepsPre() {
+        WebDocument document = new WebDocument();
+        WebTag preStart = new WebTag("PRE", WebTag.TagType.START);
+        WebText text = new TestWebDocumentBuilder().addText("text 1");
+        WebTag preEnd = new WebTag("PRE", WebTag.TagType.END);
+        document.addTag(preStart);
+        document.addText(text);
+        document.addTag(preEnd);
+        for (int i = 0; i < document.getElements().size(); i++) {
+            document.getElements().get(i).setIsContent(true);
+        }
+
+        OutputCompactor.process(document);
+        assertTrue(preStart.getIsContent());
+        assertFalse(text.isCompact());
+    }
+}
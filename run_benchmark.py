@@ -0,0 +1,271 @@
+#!/usr/bin/env python
+# Copyright 2016 The Chromium Authors. All rights reserved.
+# Use of this source code is governed by a BSD-style license that can be
+# found in the LICENSE file.
+
+"""Runs the DomDistiller benchmark over a corpus of saved pages.
+
+Each page of the corpus is loaded into the jstest page, and distilled a number of times after
+warm-up runs. The report has the p50/p90/p99 of each field of TimingInfo and of each of its
+other_times entries, per page. With --baseline, the report is compared against a stored one, and
+the script fails if any stage got slower than allowed.
+
+With --scaling, the pipeline stages matching the given regex are run instead on synthetic pages of
+a base size n and of 4n (see ScalingBenchmark.java), and the script fails if the time of any of
+them grows faster than n^--max_exponent.
+
+With --filters, the BoilerpipeFilters matching the given regex are benchmarked instead, each on its
+own over synthetic TextDocuments (see FilterBenchmark.java). The report has the percentiles and
+ops/sec of each filter for each number of blocks, content ratio and label distribution, and can be
+compared against a baseline the same way.
+
+With --startup, the cold start of the compiled script (see --script) is benchmarked instead. For
+each iteration, each page of the corpus is loaded fresh, and the script is evaluated into a new
+context like wrapped_domdistiller_template.js does (ModuleInit), then DomDistiller is applied to the
+page (FirstRun) and applied again (WarmRun). The report has the p50/p90/p99 of each of them, per
+page, and can be compared against a baseline the same way. This doesn't need the jstests, but needs
+the script to be built, e.g. with `ant package`.
+
+Like run_jstests.py, this uses ChromeDriver and Selenium WebDriver, and needs the jstests to be
+built, e.g. with `ant extractjs.jstests`.
+"""
+
+import argparse
+import json
+import math
+import os
+import sys
+import time
+
+try:
+  from selenium import webdriver
+except:
+  print('ERROR:')
+  print('Couldn\'t import webdriver. Please run `sudo ./install-build-deps.sh`.')
+  sys.exit(1)
+
+ROOT = os.path.abspath(os.path.dirname(__file__))
+DEFAULT_CORPUS = os.path.join(ROOT, 'test', 'benchmark', 'corpus')
+DEFAULT_SCRIPT = os.path.join(ROOT, 'out', 'domdistiller.js')
+
+# Evaluates the script |arguments[0]| into a new context, and applies DomDistiller to the page
+# twice. Returns the time in ms of each of the three steps.
+STARTUP_SCRIPT = """
+var source = arguments[0];
+var context = Object.create(window);
+context.setTimeout = function() {};
+context.clearTimeout = function() {};
+var start = performance.now();
+new Function('window', source)(context);
+var moduleInit = performance.now();
+var distiller = context.org.chromium.distiller.DomDistiller;
+distiller.applyWithOptions({});
+var firstRun = performance.now();
+distiller.applyWithOptions({});
+var warmRun = performance.now();
+return [moduleInit - start, firstRun - moduleInit, warmRun - firstRun];
+"""
+STARTUP_STAGES = ['ModuleInit', 'FirstRun', 'WarmRun']
+
+def LoadCorpus(corpus_dir):
+  """Returns a list of (name, url, html) of the pages in corpus_dir.
+
+  The URL a page was saved from is in urls.json, keyed by file name.
+  """
+  urls = {}
+  urls_file = os.path.join(corpus_dir, 'urls.json')
+  if os.path.exists(urls_file):
+    with open(urls_file) as f:
+      urls = json.load(f)
+  pages = []
+  for name in sorted(os.listdir(corpus_dir)):
+    if not name.endswith('.html'):
+      continue
+    with open(os.path.join(corpus_dir, name)) as f:
+      html = f.read()
+    if not isinstance(html, type(u'')):
+      html = html.decode('utf-8')
+    pages.append((name, urls.get(name, 'http://example.com/' + name), html))
+  return pages
+
+def RunBenchmark(driver, pages, warmups, iterations):
+  report = {}
+  for name, url, html in pages:
+    start = time.time()
+    result = driver.execute_script(
+        'return org.chromium.distiller.BenchmarkEntry.runPage('
+        'arguments[0], arguments[1], arguments[2], arguments[3])',
+        html, url, warmups, iterations)
+    report[name] = json.loads(result)
+    print('%s: p50 TotalTime %0.2f ms (%0.1f sec)' % (
+        name, report[name]['TotalTime']['p50'], time.time() - start))
+  return report
+
+def RunScalingBenchmark(driver, stages, scale, max_exponent):
+  """Returns the report, and a list of the stages that grow faster than n^max_exponent."""
+  result = driver.execute_script(
+      'return org.chromium.distiller.ScalingBenchmark.run(arguments[0], arguments[1])',
+      stages, scale)
+  report = json.loads(result)
+  failures = []
+  for name in report:
+    stage = report[name]
+    line = '%s: %0.2f ms at size %d, %0.2f ms at size %d, i.e. O(n^%0.2f)' % (
+        name, stage['ms'], stage['size'], stage['ms4x'], stage['size4x'], stage['exponent'])
+    print(line)
+    if stage['exponent'] > max_exponent:
+      failures.append(line)
+  return report, failures
+
+def RunFilterBenchmark(driver, filters, max_blocks, warmups, iterations):
+  result = driver.execute_script(
+      'return org.chromium.distiller.FilterBenchmark.run('
+      'arguments[0], arguments[1], arguments[2], arguments[3])',
+      filters, max_blocks, warmups, iterations)
+  report = json.loads(result)
+  for name in report:
+    print(name)
+    for config in report[name]:
+      print('  %-20s p50 %8.3f ms %12.0f ops/sec' % (
+          config, report[name][config]['p50'], report[name][config]['opsPerSec']))
+  return report
+
+def Percentiles(values):
+  """Returns the nearest-rank p50/p90/p99 of values, like BenchmarkTimings."""
+  values = sorted(values)
+  def Percentile(p):
+    return values[max(0, int(math.ceil(p / 100.0 * len(values))) - 1)]
+  return {'p50': Percentile(50), 'p90': Percentile(90), 'p99': Percentile(99), 'runs': len(values)}
+
+def RunStartupBenchmark(driver, corpus_dir, pages, script, iterations):
+  with open(script) as f:
+    source = f.read()
+  report = {}
+  for name, _, _ in pages:
+    start = time.time()
+    times = [[] for _ in STARTUP_STAGES]
+    for _ in range(iterations):
+      # A fresh page each time, so that nothing is left from the previous evaluation.
+      driver.get('file://' + os.path.join(corpus_dir, name))
+      result = driver.execute_script(STARTUP_SCRIPT, source)
+      for i in range(len(STARTUP_STAGES)):
+        times[i].append(result[i])
+    report[name] = dict((stage, Percentiles(times[i])) for i, stage in enumerate(STARTUP_STAGES))
+    print('%s: p50 ModuleInit %0.2f ms, FirstRun %0.2f ms, WarmRun %0.2f ms (%0.1f sec)' % (
+        name, report[name]['ModuleInit']['p50'], report[name]['FirstRun']['p50'],
+        report[name]['WarmRun']['p50'], time.time() - start))
+  return report
+
+def Compare(report, baseline, threshold, min_delta):
+  """Returns a list of the stages of report that are slower than in baseline.
+
+  A stage regresses if its p50 or p90 is more than threshold (a ratio) and min_delta (in ms)
+  above the baseline. Pages and stages missing from either side are ignored.
+  """
+  regressions = []
+  for page in sorted(report):
+    if page not in baseline:
+      continue
+    for stage in sorted(report[page]):
+      if stage not in baseline[page]:
+        continue
+      for key in ('p50', 'p90'):
+        current = report[page][stage][key]
+        base = baseline[page][stage][key]
+        if current > base * (1 + threshold) and current - base > min_delta:
+          regressions.append('%s %s %s: %0.2f ms -> %0.2f ms (+%0.0f%%)' % (
+              page, stage, key, base, current, 100.0 * (current - base) / max(base, 1e-9)))
+  return regressions
+
+def main(argv):
+  parser = argparse.ArgumentParser()
+  parser.add_argument('--corpus', default=DEFAULT_CORPUS, help='Directory of saved pages.')
+  parser.add_argument('--warmups', type=int, default=5, help='Warm-up runs per page.')
+  parser.add_argument('--iterations', type=int, default=50, help='Measured runs per page.')
+  parser.add_argument('--out', help='File to write the JSON report to.')
+  parser.add_argument('--baseline', help='JSON report to compare against.')
+  parser.add_argument('--threshold', type=float, default=0.1,
+      help='Slowdown ratio of a stage that counts as a regression.')
+  parser.add_argument('--min_delta', type=float, default=0.5,
+      help='Slowdown in ms of a stage below which it is never a regression.')
+  parser.add_argument('--filters',
+      help='Regex of the filters to benchmark on synthetic documents instead of the corpus.')
+  parser.add_argument('--max_blocks', type=int, default=100000,
+      help='Largest number of blocks of the synthetic documents for --filters.')
+  parser.add_argument('--scaling',
+      help='Regex of the stages to check the scaling of on synthetic pages instead of the corpus.')
+  parser.add_argument('--scale', type=float, default=1.0,
+      help='Factor of the base sizes of the synthetic pages for --scaling.')
+  parser.add_argument('--max_exponent', type=float, default=1.5,
+      help='Largest allowed exponent of the growth of a stage\'s time for --scaling.')
+  parser.add_argument('--startup', action='store_true',
+      help='Benchmark the cold start of the compiled script on the corpus instead.')
+  parser.add_argument('--script', default=DEFAULT_SCRIPT,
+      help='Compiled script for --startup.')
+  parser.add_argument('--no_sandbox', type=int, help='Set to 1 to add --no-sandbox option to Chrome.')
+  options = parser.parse_args(argv)
+  if options.scaling and options.baseline:
+    parser.error('--scaling checks the exponents, so --baseline doesn\'t apply to it.')
+  if options.startup and (options.filters or options.scaling):
+    parser.error('--startup runs on the corpus, so it can\'t be combined with --filters or '
+        '--scaling.')
+
+  pages = []
+  if not options.filters and not options.scaling:
+    pages = LoadCorpus(options.corpus)
+    if not pages:
+      print('No pages in %s' % options.corpus)
+      return 1
+
+  image_loaded = "return window.image_loaded"
+  test_html = os.path.join(ROOT, "war", "test.html")
+
+  chrome_options = webdriver.ChromeOptions()
+  if options.no_sandbox:
+    chrome_options.add_argument("--no-sandbox")
+
+  driver = webdriver.Chrome(chrome_options=chrome_options)
+  try:
+    failures = []
+    if options.startup:
+      report = RunStartupBenchmark(driver, options.corpus, pages, options.script,
+          options.iterations)
+    else:
+      driver.get("file://" + test_html)
+      while not driver.execute_script(image_loaded):
+        time.sleep(0.1)
+      if options.filters:
+        report = RunFilterBenchmark(driver, options.filters, options.max_blocks,
+            options.warmups, options.iterations)
+      elif options.scaling:
+        report, failures = RunScalingBenchmark(driver, options.scaling, options.scale,
+            options.max_exponent)
+      else:
+        report = RunBenchmark(driver, pages, options.warmups, options.iterations)
+  finally:
+    driver.quit()
+
+  if options.out:
+    with open(options.out, 'w') as f:
+      json.dump(report, f, indent=2, sort_keys=True)
+
+  if failures:
+    print('Stages that grow faster than O(n^%s):' % options.max_exponent)
+    for failure in failures:
+      print('  ' + failure)
+    return 1
+
+  if options.baseline:
+    with open(options.baseline) as f:
+      baseline = json.load(f)
+    regressions = Compare(report, baseline, options.threshold, options.min_delta)
+    if regressions:
+      print('Regressions against %s:' % options.baseline)
+      for regression in regressions:
+        print('  ' + regression)
+      return 1
+    print('No regressions against %s' % options.baseline)
+  return 0
+
+if __name__ == '__main__':
+  sys.exit(main(sys.argv[1:]))
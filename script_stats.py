@@ -0,0 +1,125 @@
+#!/usr/bin/env python
+# Copyright 2016 The Chromium Authors. All rights reserved.
+# Use of this source code is governed by a BSD-style license that can be
+# found in the LICENSE file.
+
+"""Reports the size and the init time of the compiled DomDistiller scripts.
+
+The core script, domdistiller.js, is injected into every page that is
+distilled, so its size and the time to parse, compile and initialize it are
+paid on each one, which is significant on low-end devices. The page number
+pagination of domdistillerpagenum.js is only evaluated by the runs that ask for
+it.
+
+The size of each script is reported as is and gzipped. The init time is the
+time Chrome takes to evaluate the standalone script into a fresh context, like
+wrapped_domdistiller_template.js does, without distilling anything. It's
+measured with ChromeDriver like run_benchmark.py, and skipped with a warning if
+that isn't available. The first evaluation is reported separately, as the later
+ones can reuse some of the work, e.g. the parsed script.
+"""
+
+import argparse
+import gzip
+import io
+import json
+import os
+import sys
+
+ROOT = os.path.abspath(os.path.dirname(__file__))
+DEFAULT_SCRIPTS = [
+  os.path.join(ROOT, 'out', 'domdistiller.js'),
+  os.path.join(ROOT, 'out', 'domdistillerpagenum.js'),
+  os.path.join(ROOT, 'out', 'domdistiller_wrapped.js'),
+]
+
+# Evaluates the script |arguments[0]| into a new context |arguments[1]| times,
+# and returns the time of each evaluation in ms. A different comment is
+# appended each time so that the compiled function isn't simply looked up in
+# the cache of evaluated sources.
+INIT_TIME_SCRIPT = """
+var source = arguments[0];
+var runs = arguments[1];
+var times = [];
+for (var i = 0; i < runs; i++) {
+  var context = Object.create(window);
+  context.setTimeout = function() {};
+  context.clearTimeout = function() {};
+  var start = performance.now();
+  new Function('window', source + '\\n// ' + i)(context);
+  times.push(performance.now() - start);
+}
+return times;
+"""
+
+def GetSize(path):
+  with open(path, 'rb') as f:
+    content = f.read()
+  compressed = io.BytesIO()
+  with gzip.GzipFile(fileobj=compressed, mode='wb', compresslevel=9) as f:
+    f.write(content)
+  return {'bytes': len(content), 'gzipBytes': len(compressed.getvalue())}
+
+def GetInitTime(path, runs, no_sandbox):
+  try:
+    from selenium import webdriver
+  except ImportError:
+    print('WARNING: Couldn\'t import webdriver, skipping the init time. '
+          'Please run `sudo ./install-build-deps.sh`.')
+    return None
+
+  with open(path) as f:
+    source = f.read()
+  chrome_options = webdriver.ChromeOptions()
+  chrome_options.add_argument('--headless')
+  if no_sandbox:
+    chrome_options.add_argument('--no-sandbox')
+  try:
+    driver = webdriver.Chrome(chrome_options=chrome_options)
+  except Exception as e:
+    print('WARNING: Couldn\'t start Chrome, skipping the init time: %s' % e)
+    return None
+  try:
+    driver.get('data:text/html,<html><body></body></html>')
+    times = driver.execute_script(INIT_TIME_SCRIPT, source, runs)
+  finally:
+    driver.quit()
+
+  rest = sorted(times[1:]) or times
+  return {
+    'first': times[0],
+    'p50': rest[len(rest) // 2],
+    'max': rest[-1],
+    'runs': len(times),
+  }
+
+def main(argv):
+  parser = argparse.ArgumentParser()
+  parser.add_argument('scripts', nargs='*', default=DEFAULT_SCRIPTS,
+      help='The compiled scripts to measure.')
+  parser.add_argument('--init_time', action='store_true',
+      help='Also measure the init time of the first script in Chrome.')
+  parser.add_argument('--runs', type=int, default=10,
+      help='Evaluations of the script for the init time.')
+  parser.add_argument('--out', help='File to write the JSON report to.')
+  parser.add_argument('--no_sandbox', type=int,
+      help='Set to 1 to add --no-sandbox option to Chrome.')
+  options = parser.parse_args(argv)
+
+  report = {}
+  for path in options.scripts:
+    report[os.path.basename(path)] = GetSize(path)
+  if options.init_time:
+    init_time = GetInitTime(options.scripts[0], options.runs, options.no_sandbox)
+    if init_time:
+      report['initMs'] = init_time
+
+  for name in sorted(report):
+    print('%s: %s' % (name, json.dumps(report[name], sort_keys=True)))
+  if options.out:
+    with open(options.out, 'w') as f:
+      json.dump(report, f, indent=2, sort_keys=True)
+  return 0
+
+if __name__ == '__main__':
+  sys.exit(main(sys.argv[1:]))
@@ -0,0 +1,191 @@
+#!/usr/bin/env python3
+# Copyright 2016 The Chromium Authors. All rights reserved.
+# Use of this source code is governed by a BSD-style license that can be
+# found in the LICENSE file.
+
+"""Generates the synthetic pages of the benchmark corpus, and their URLs in corpus/urls.json.
+
+The pages aren't real saved pages: the layout of each one (navigation, article, sidebar, comments,
+tables, ...) is fixed, and the text is filler made of random words from a fixed seed, so that the
+output is the same on every run. This needs Python 3, as the random module of Python 2 gives
+different choices for the same seed.
+"""
+
+import argparse
+import json
+import os
+import random
+import sys
+
+WORDS = ("the distiller extracts main content from pages while removing navigation "
+         "boilerplate comments advertising sidebars and other clutter so that readers can "
+         "focus on the article text images tables and embedded media that matter most to "
+         "them across news sites blogs forums and reference pages of every size").split()
+
+
+def Sentence(n=None):
+  n = n or random.randint(8, 20)
+  s = " ".join(random.choice(WORDS) for _ in range(n))
+  return s[0].upper() + s[1:] + "."
+
+
+def Paragraph(n=None):
+  return " ".join(Sentence() for _ in range(n or random.randint(3, 7)))
+
+
+def Navigation():
+  items = "".join('<li><a href="/section/%d">%s</a></li>' % (i, random.choice(WORDS).title())
+                  for i in range(12))
+  return ('<header class="site-header"><div class="logo"><a href="/">Example News</a></div>'
+          '<nav class="menu"><ul>%s</ul></nav></header>') % items
+
+
+def Sidebar():
+  links = "".join('<li><a href="/story/%d">%s</a></li>' % (random.randint(1000, 9999), Sentence(6))
+                  for _ in range(10))
+  return ('<aside class="sidebar"><h3>Related</h3><ul>%s</ul>'
+          '<div class="ad-break">Advertisement</div></aside>') % links
+
+
+def Footer():
+  links = " | ".join('<a href="/about/%d">%s</a>' % (i, random.choice(WORDS).title())
+                     for i in range(15))
+  return ('<footer class="site-footer"><p>%s</p><p>Copyright 2015 Example News</p></footer>'
+          % links)
+
+
+def Comments(n):
+  out = ['<section class="comments"><h3>%d Comments</h3>' % n]
+  for i in range(n):
+    out.append('<div class="comment" id="c%d"><span class="author">user%d</span><p>%s</p>'
+               '<a href="#reply-%d">Reply</a></div>' % (i, i, Paragraph(random.randint(1, 3)), i))
+  out.append('</section>')
+  return "".join(out)
+
+
+def Page(title, head_extra, body):
+  return ('<!DOCTYPE html>\n<html lang="en">\n<head>\n<meta charset="utf-8">\n'
+          '<meta name="viewport" content="width=device-width, initial-scale=1">\n'
+          '<title>%s</title>\n%s\n</head>\n<body>\n%s\n</body>\n</html>\n') % (
+              title, head_extra, body)
+
+
+def NewsArticle():
+  """An article with OpenGraph and JSON-LD markup, a sidebar and comments."""
+  url = "http://news.example.com/2015/06/01/story.html"
+  title = "Distiller benchmark news article"
+  paragraphs = [Paragraph() for _ in range(14)]
+  article = ['<article class="story"><h1>%s</h1><p class="byline">By '
+             '<a rel="author" href="/staff/jane">Jane Doe</a>, '
+             '<time datetime="2015-06-01">June 1, 2015</time></p>' % title]
+  for i, p in enumerate(paragraphs):
+    article.append('<p>%s</p>' % p)
+    if i == 3:
+      article.append('<figure><img src="/images/lead.jpg" width="800" height="450" alt="Lead">'
+                     '<figcaption>%s</figcaption></figure>' % Sentence(8))
+    if i == 8:
+      article.append('<h2>%s</h2>' % Sentence(5))
+  article.append('</article>')
+  jsonld = {"@context": "http://schema.org", "@type": "NewsArticle", "headline": title,
+            "datePublished": "2015-06-01", "author": {"@type": "Person", "name": "Jane Doe"},
+            "image": "http://news.example.com/images/lead.jpg",
+            "articleBody": "\n\n".join(paragraphs)}
+  head = ('<meta property="og:title" content="%s">\n<meta property="og:type" content="article">\n'
+          '<meta property="og:url" content="%s">\n'
+          '<meta property="og:image" content="http://news.example.com/images/lead.jpg">\n'
+          '<script type="application/ld+json">%s</script>') % (title, url, json.dumps(jsonld))
+  body = (Navigation() + '<div class="main">' + "".join(article) + Sidebar() + '</div>' +
+          Comments(25) + Footer())
+  return url, Page(title, head, body)
+
+
+def BlogPost():
+  """A schema.org microdata post with lists, code and a long comment thread."""
+  title = "Distiller benchmark blog post"
+  body = ['<div itemscope itemtype="http://schema.org/BlogPosting">'
+          '<h1 itemprop="headline">%s</h1>' % title,
+          '<span itemprop="author" itemscope itemtype="http://schema.org/Person">'
+          '<span itemprop="name">John Smith</span></span>',
+          '<div itemprop="articleBody">']
+  for i in range(10):
+    body.append('<p>%s</p>' % Paragraph())
+    if i % 4 == 1:
+      body.append('<ul>%s</ul>' % "".join('<li>%s</li>' % Sentence(7) for _ in range(4)))
+    if i == 6:
+      body.append('<pre><code>for (int i = 0; i &lt; n; i++) {\n  distill(pages[i]);\n}'
+                  '</code></pre>')
+  body.append('</div></div>')
+  return ("http://blog.example.com/posts/distiller-benchmark",
+          Page(title, "", Navigation() + "".join(body) + Comments(120) + Footer()))
+
+
+def PaginatedListing():
+  """A listing page with many links and page numbers."""
+  title = "Distiller benchmark listing page 2"
+  items = "".join('<div class="item"><h3><a href="/item/%d">%s</a></h3><p>%s</p></div>' % (
+      i, Sentence(6), Sentence(15)) for i in range(60))
+  pager = ('<div class="pagination"><a href="/list?page=1">Prev</a>' +
+           "".join('<a href="/list?page=%d">%d</a>' % (i, i) for i in range(1, 21)) +
+           '<a href="/list?page=3">Next</a></div>')
+  body = (Navigation() + '<h1>%s</h1><p>%s</p>' % (title, Paragraph()) + items + pager +
+          Sidebar() + Footer())
+  return "http://shop.example.com/list?page=2", Page(title, "", body)
+
+
+def ReferenceTables():
+  """A reference page with data and layout tables."""
+  title = "Distiller benchmark reference page"
+  body = ['<div id="content"><h1>%s</h1>' % title]
+  for _ in range(6):
+    body.append('<h2>%s</h2><p>%s</p>' % (Sentence(4), Paragraph()))
+    rows = "".join('<tr>%s</tr>' % "".join('<td>%s</td>' % random.choice(WORDS) for _ in range(5))
+                   for _ in range(15))
+    body.append('<table class="data"><caption>%s</caption><thead><tr>%s</tr></thead>'
+                '<tbody>%s</tbody></table>' % (
+                    Sentence(5),
+                    "".join('<th>%s</th>' % random.choice(WORDS).title() for _ in range(5)),
+                    rows))
+  body.append('<table class="layout"><tr><td>%s</td><td>%s</td></tr></table>' % (
+      Sidebar(), Paragraph()))
+  body.append('</div>')
+  return ("http://wiki.example.com/wiki/Distiller_benchmark",
+          Page(title, "", Navigation() + "".join(body) + Footer()))
+
+
+# The order matters, as the pages share the sequence of random choices.
+PAGES = [
+    ("news_article.html", NewsArticle),
+    ("blog_post.html", BlogPost),
+    ("paginated_listing.html", PaginatedListing),
+    ("reference_tables.html", ReferenceTables),
+]
+
+
+def main(argv):
+  parser = argparse.ArgumentParser(description=__doc__)
+  parser.add_argument('--out_dir',
+      default=os.path.join(os.path.dirname(os.path.abspath(__file__)), 'corpus'),
+      help='Directory to write the pages and urls.json to.')
+  parser.add_argument('--seed', type=int, default=7,
+      help='Seed of the filler text. Changing it changes every page.')
+  options = parser.parse_args(argv)
+
+  random.seed(options.seed)
+  # Keep the URLs of pages that aren't generated, e.g. real saved pages.
+  urls_path = os.path.join(options.out_dir, 'urls.json')
+  urls = {}
+  if os.path.exists(urls_path):
+    with open(urls_path) as f:
+      urls = json.load(f)
+  for name, generate in PAGES:
+    url, html = generate()
+    with open(os.path.join(options.out_dir, name), 'w') as f:
+      f.write(html)
+    urls[name] = url
+  with open(urls_path, 'w') as f:
+    f.write(json.dumps(urls, indent=2, sort_keys=True) + '\n')
+  return 0
+
+
+if __name__ == '__main__':
+  sys.exit(main(sys.argv[1:]))
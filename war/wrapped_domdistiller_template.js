@@ -4,23 +4,81 @@
 
 // Creates a DomDistiller, applies to to the content of the page, and returns
 // a DomDistillerResults as a JavaScript object/dictionary.
+//
+// If DomDistillerOptions.reuse_distiller is set, the DomDistiller is created
+// once per document and kept in a handle on the window, so that distilling the
+// same document again, e.g. after a font or theme change, skips evaluating
+// domdistiller.js and running its static initializers.
+// DomDistiller.applyWithOptions() resets the state a previous run left in
+// static fields. Otherwise, a new DomDistiller is created for every run.
+//
+// domdistillerpagenum.js, which has the "pagenum" and "all" pagination
+// algorithms, is only evaluated if a run asks for one of them: the DomDistiller
+// calls __loadDomDistillerPageNumbers() of its context, which evaluates it into
+// that context.
 (function(options) {
-  try {
-    // The generated domdistiller.js accesses the window object only explicitly
-    // via the window name. This creates a new object with the normal window
-    // object as its prototype and initialize the domdistiller.js with that new
-    // context so that it does not change the real window object.
+  // The property of the window that holds the handle, which is
+  // {document, distiller}, where distiller is the exported DomDistiller.
+  var HANDLE_NAME = '__domDistiller';
+  // The field number of DomDistillerOptions.reuse_distiller, which is the key
+  // of the field in the JavaScript object.
+  var REUSE_DISTILLER_FIELD = 11;
+
+  // The generated domdistiller.js accesses the window object only explicitly
+  // via the window name. This creates a new object with the normal window
+  // object as its prototype and initialize the domdistiller.js with that new
+  // context so that it does not change the real window object.
+  function createHandle() {
     function initialize(window) {
       $$DISTILLER_JAVASCRIPT
     }
+    function initializePageNumbers(window) {
+      $$PAGE_NUMBERS_JAVASCRIPT
+    }
     var context = Object.create(window);
     context.setTimeout = function() {};
     context.clearTimeout = function() {};
+    context.__loadDomDistillerPageNumbers = function() {
+      initializePageNumbers(context);
+    };
     initialize(context);
+    return Object.freeze({
+      document: window.document,
+      distiller: context.org.chromium.distiller.DomDistiller
+    });
+  }
 
-    var distiller = context.org.chromium.distiller.DomDistiller;
-    var res = distiller.applyWithOptions(options);
-    return res;
+  function getHandle() {
+    var descriptor = Object.getOwnPropertyDescriptor(window, HANDLE_NAME);
+    if (descriptor) {
+      // The handle is defined below so that it can't be replaced or removed,
+      // so a property that can be isn't one to trust. Neither can a handle of
+      // another document be replaced, e.g. if the initial empty document of
+      // the frame has been replaced; then a new DomDistiller is used without
+      // keeping it.
+      var handle = descriptor.value;
+      if (!descriptor.writable && !descriptor.configurable &&
+          Object.isFrozen(handle) && handle.document === window.document) {
+        return handle;
+      }
+      return createHandle();
+    }
+    var handle = createHandle();
+    // Not enumerable, so that it doesn't show up in the page's view of the
+    // window, e.g. in for-in loops.
+    Object.defineProperty(window, HANDLE_NAME, {
+      value: handle,
+      enumerable: false,
+      configurable: false,
+      writable: false
+    });
+    return handle;
+  }
+
+  try {
+    var handle = options && options[REUSE_DISTILLER_FIELD] ?
+        getHandle() : createHandle();
+    return handle.distiller.applyWithOptions(options);
   } catch (e) {
     window.console.error("Error during distillation: " + e);
     if (e.stack != undefined) window.console.error(e.stack);